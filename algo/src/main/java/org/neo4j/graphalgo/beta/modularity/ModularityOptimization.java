@@ -30,6 +30,7 @@ import org.neo4j.graphalgo.beta.k1coloring.K1Coloring;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
 import org.neo4j.graphalgo.core.utils.paged.HugeAtomicDoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
@@ -48,6 +49,15 @@ import java.util.stream.LongStream;
  * "Parallel heuristics for scalable community detection."
  * Parallel Computing 47 (2015): 19-37.
  * https://arxiv.org/pdf/1410.1237.pdf
+ *
+ * If active nodes are tracked, only the first iteration visits every node.
+ * Later iterations only revisit nodes that have a neighbour which changed its community
+ * in the previous iteration, similar to the fast local moving of:
+ *
+ * Traag, V.A., Waltman, L. &amp; van Eck, N.J.
+ * "From Louvain to Leiden: guaranteeing well-connected communities."
+ * Sci Rep 9, 5233 (2019).
+ * https://arxiv.org/pdf/1810.08473.pdf
  */
 public final class ModularityOptimization extends Algorithm<ModularityOptimization, ModularityOptimization> {
 
@@ -55,9 +65,11 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
     private final int maxIterations;
     private final long nodeCount;
     private final long batchSize;
+    private final int minBatchSize;
     private final double tolerance;
     private final Graph graph;
     private final NodeProperties seedProperty;
+    private final boolean trackActiveNodes;
     private final ExecutorService executor;
     private final AllocationTracker tracker;
     private final Log log;
@@ -68,19 +80,37 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
     private double modularity = -1.0;
     private BitSet colorsUsed;
     private HugeLongArray colors;
+    private HugeLongArray nodesByColor;
+    private HugeLongArray colorOffsets;
     private HugeLongArray currentCommunities;
     private HugeLongArray nextCommunities;
     private HugeLongArray reverseSeedCommunityMapping;
     private HugeDoubleArray cumulativeNodeWeights;
     private HugeDoubleArray nodeCommunityInfluences;
     private HugeAtomicDoubleArray communityWeights;
-    private HugeAtomicDoubleArray communityWeightUpdates;
+    private HugeAtomicBitSet activeNodes;
+    private HugeAtomicBitSet nextActiveNodes;
+
+    public ModularityOptimization(
+        final Graph graph,
+        int maxIterations,
+        double tolerance,
+        NodeProperties seedProperty,
+        final int concurrency,
+        final int minBatchSize,
+        final ExecutorService executor,
+        final AllocationTracker tracker,
+        final Log log
+    ) {
+        this(graph, maxIterations, tolerance, seedProperty, false, concurrency, minBatchSize, executor, tracker, log);
+    }
 
     public ModularityOptimization(
         final Graph graph,
         int maxIterations,
         double tolerance,
         NodeProperties seedProperty,
+        boolean trackActiveNodes,
         final int concurrency,
         final int minBatchSize,
         final ExecutorService executor,
@@ -92,10 +122,13 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
         this.maxIterations = maxIterations;
         this.tolerance = tolerance;
         this.seedProperty = seedProperty;
+        // marking the neighbours of a moved node only reaches all affected nodes if relationships are symmetric
+        this.trackActiveNodes = trackActiveNodes && graph.isUndirected();
         this.executor = executor;
         this.concurrency = concurrency;
         this.tracker = tracker;
         this.log = log;
+        this.minBatchSize = minBatchSize;
         this.batchSize = ParallelUtil.adjustedBatchSize(
             nodeCount,
             concurrency,
@@ -118,6 +151,7 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
             millis
         ))) {
             computeColoring();
+            groupNodesByColor();
             initSeeding();
             init();
         }
@@ -129,7 +163,13 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
                 iterationCounter + 1,
                 millis
             ))) {
-                nodeCommunityInfluences.fill(0.0);
+                // influences of nodes that are not revisited are still valid
+                if (activeNodes == null) {
+                    nodeCommunityInfluences.fill(0.0);
+                }
+                if (trackActiveNodes) {
+                    nextActiveNodes = HugeAtomicBitSet.create(nodeCount, tracker);
+                }
 
                 long currentColor = colorsUsed.nextSetBit(0);
                 while (currentColor != -1) {
@@ -139,6 +179,12 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
                 }
 
                 hasConverged = !updateModularity();
+
+                if (trackActiveNodes) {
+                    hasConverged |= nextActiveNodes.isEmpty();
+                    activeNodes = nextActiveNodes;
+                    nextActiveNodes = null;
+                }
             }
 
             if (hasConverged) {
@@ -168,6 +214,35 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
         this.colorsUsed = coloring.usedColors();
     }
 
+    /**
+     * Counting sort of the nodes by their color, so that every color class
+     * is the contiguous range {@code [colorOffsets[color], colorOffsets[color + 1])} of {@code nodesByColor}.
+     */
+    private void groupNodesByColor() {
+        long colorCount = colorsUsed.length();
+        this.nodesByColor = HugeLongArray.newArray(nodeCount, tracker);
+        this.colorOffsets = HugeLongArray.newArray(colorCount + 1, tracker);
+
+        for (long nodeId = 0; nodeId < nodeCount; nodeId++) {
+            long color = colors.get(nodeId);
+            colorOffsets.set(color + 1, colorOffsets.get(color + 1) + 1);
+        }
+        for (long color = 1; color <= colorCount; color++) {
+            colorOffsets.set(color, colorOffsets.get(color) + colorOffsets.get(color - 1));
+        }
+        // afterwards, every offset points to the start of the next color class
+        for (long nodeId = 0; nodeId < nodeCount; nodeId++) {
+            long color = colors.get(nodeId);
+            long index = colorOffsets.get(color);
+            nodesByColor.set(index, nodeId);
+            colorOffsets.set(color, index + 1);
+        }
+        for (long color = colorCount; color > 0; color--) {
+            colorOffsets.set(color, colorOffsets.get(color - 1));
+        }
+        colorOffsets.set(0, 0L);
+    }
+
     private void initSeeding() {
         this.currentCommunities = HugeLongArray.newArray(nodeCount, tracker);
 
@@ -181,7 +256,7 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
         long nextAvailableInternalCommunityId = -1;
 
         for (long nodeId = 0; nodeId < nodeCount; nodeId++) {
-            long seedCommunity = (long) seedProperty.nodeProperty(nodeId, -1);
+            long seedCommunity = seedProperty.nodeLongProperty(nodeId, -1L);
             seedCommunity = seedCommunity >= 0 ? seedCommunity : graph.toOriginalNodeId(nodeId) + maxSeedCommunity;
             if (communityMapping.getOrDefault(seedCommunity, -1) < 0) {
                 communityMapping.addTo(seedCommunity, ++nextAvailableInternalCommunityId);
@@ -202,7 +277,6 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
         this.cumulativeNodeWeights = HugeDoubleArray.newArray(nodeCount, tracker);
         this.nodeCommunityInfluences = HugeDoubleArray.newArray(nodeCount, tracker);
         this.communityWeights = HugeAtomicDoubleArray.newArray(nodeCount, tracker);
-        this.communityWeightUpdates = HugeAtomicDoubleArray.newArray(nodeCount, tracker);
 
         final ThreadLocal<RelationshipIterator> graphCopy = ThreadLocal.withInitial(graph::concurrentCopy);
         double doubleTotalNodeWeight = ParallelUtil.parallelStream(
@@ -238,52 +312,85 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
     }
 
     private void optimizeForColor(long currentColor) {
-        // run optimization tasks for every node
+        long colorStart = colorOffsets.get(currentColor);
+        long colorEnd = colorOffsets.get(currentColor + 1);
+        long colorBatchSize = ParallelUtil.adjustedBatchSize(
+            colorEnd - colorStart,
+            concurrency,
+            minBatchSize,
+            Integer.MAX_VALUE
+        );
+
+        // run optimization tasks for every node of this color
         ParallelUtil.runWithConcurrency(
             concurrency,
-            createModularityOptimizationTasks(currentColor),
+            createModularityOptimizationTasks(colorStart, colorEnd, colorBatchSize),
             executor
         );
 
-        // swap old and new communities
-        nextCommunities.copyTo(currentCommunities, nodeCount);
-
-        // apply communityWeight updates to communityWeights
-        ParallelUtil.parallelStreamConsume(
-            LongStream.range(0, nodeCount),
-            stream -> stream.forEach(nodeId -> {
-                final double update = communityWeightUpdates.get(nodeId);
-                communityWeights.update(nodeId, w -> w + update);
-            })
+        // only nodes of this color may have changed their community
+        ParallelUtil.runWithConcurrency(
+            concurrency,
+            createMoveTasks(colorStart, colorEnd, colorBatchSize),
+            executor
         );
-
-        // reset communityWeightUpdates
-        communityWeightUpdates = HugeAtomicDoubleArray.newArray(nodeCount, i -> 0.0, tracker);
     }
 
-    private Collection<ModularityOptimizationTask> createModularityOptimizationTasks(long currentColor) {
+    private Collection<ModularityOptimizationTask> createModularityOptimizationTasks(
+        long colorStart,
+        long colorEnd,
+        long colorBatchSize
+    ) {
         final Collection<ModularityOptimizationTask> tasks = new ArrayList<>(concurrency);
-        for (long i = 0L; i < this.nodeCount; i += batchSize) {
+        for (long i = colorStart; i < colorEnd; i += colorBatchSize) {
             tasks.add(
                 new ModularityOptimizationTask(
                     graph,
                     i,
-                    Math.min(i + batchSize, nodeCount),
-                    currentColor,
+                    Math.min(i + colorBatchSize, colorEnd),
                     totalNodeWeight,
-                    colors,
+                    nodesByColor,
+                    activeNodes,
+                    nextActiveNodes,
                     currentCommunities,
                     nextCommunities,
                     cumulativeNodeWeights,
                     nodeCommunityInfluences,
-                    communityWeights,
-                    communityWeightUpdates
+                    communityWeights
                 )
             );
         }
         return tasks;
     }
 
+    private Collection<Runnable> createMoveTasks(long colorStart, long colorEnd, long colorBatchSize) {
+        final Collection<Runnable> tasks = new ArrayList<>(concurrency);
+        for (long i = colorStart; i < colorEnd; i += colorBatchSize) {
+            long batchStart = i;
+            long batchEnd = Math.min(i + colorBatchSize, colorEnd);
+            tasks.add(() -> moveNodes(batchStart, batchEnd));
+        }
+        return tasks;
+    }
+
+    /**
+     * Applies the community changes of the nodes in the given range of {@code nodesByColor}
+     * to {@code currentCommunities} and {@code communityWeights}.
+     */
+    private void moveNodes(long batchStart, long batchEnd) {
+        for (long i = batchStart; i < batchEnd; i++) {
+            long nodeId = nodesByColor.get(i);
+            long currentCommunity = currentCommunities.get(nodeId);
+            long nextCommunity = nextCommunities.get(nodeId);
+            if (currentCommunity != nextCommunity) {
+                double cumulativeNodeWeight = cumulativeNodeWeights.get(nodeId);
+                communityWeights.update(currentCommunity, w -> w - cumulativeNodeWeight);
+                communityWeights.update(nextCommunity, w -> w + cumulativeNodeWeight);
+                currentCommunities.set(nodeId, nextCommunity);
+            }
+        }
+    }
+
     private boolean updateModularity() {
         double oldModularity = this.modularity;
         this.modularity = calculateModularity();
@@ -322,11 +429,16 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
     public void release() {
         this.nextCommunities.release();
         this.communityWeights.release();
-        this.communityWeightUpdates.release();
         this.cumulativeNodeWeights.release();
         this.nodeCommunityInfluences.release();
         this.colors.release();
+        this.nodesByColor.release();
+        this.colorOffsets.release();
         this.colorsUsed = null;
+        if (this.activeNodes != null) {
+            this.activeNodes.release();
+            this.activeNodes = null;
+        }
     }
 
     public long getCommunityId(long nodeId) {
@@ -340,6 +452,13 @@ public final class ModularityOptimization extends Algorithm<ModularityOptimizati
         return this.iterationCounter;
     }
 
+    /**
+     * Returns the sum of the relationship weights, i.e. half the total node weight.
+     */
+    public double getTotalNodeWeight() {
+        return this.totalNodeWeight;
+    }
+
     public double getModularity() {
         return this.modularity;
     }
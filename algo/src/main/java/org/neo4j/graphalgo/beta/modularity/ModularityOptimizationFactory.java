@@ -43,11 +43,15 @@ public class ModularityOptimizationFactory<T extends ModularityOptimizationConfi
             .perNode("communityWeights", HugeAtomicDoubleArray::memoryEstimation)
             .perNode("colorsUsed", MemoryUsage::sizeOfBitset)
             .perNode("colors", HugeLongArray::memoryEstimation)
+            .perNode("nodesByColor", HugeLongArray::memoryEstimation)
+            .rangePerNode(
+                "colorOffsets", (nodeCount) ->
+                    MemoryRange.of(HugeLongArray.memoryEstimation(2), HugeLongArray.memoryEstimation(nodeCount + 1))
+            )
             .rangePerNode(
                 "reversedSeedCommunityMapping", (nodeCount) ->
                     MemoryRange.of(0, HugeLongArray.memoryEstimation(nodeCount))
             )
-            .perNode("communityWeightUpdates", HugeAtomicDoubleArray::memoryEstimation)
             .perThread("ModularityOptimizationTask", MemoryEstimations.builder()
                 .rangePerNode(
                     "communityInfluences",
@@ -23,8 +23,10 @@ import com.carrotsearch.hppc.LongDoubleHashMap;
 import com.carrotsearch.hppc.LongDoubleMap;
 import com.carrotsearch.hppc.cursors.LongDoubleCursor;
 import org.apache.commons.lang3.mutable.MutableDouble;
+import org.jetbrains.annotations.Nullable;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.RelationshipIterator;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
 import org.neo4j.graphalgo.core.utils.paged.HugeAtomicDoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
@@ -35,51 +37,52 @@ final class ModularityOptimizationTask implements Runnable {
     private final RelationshipIterator localGraph;
     private final long batchStart;
     private final long batchEnd;
-    private final long color;
     private final double totalNodeWeight;
-    private final HugeLongArray colors;
+    private final HugeLongArray nodesByColor;
+    private final HugeAtomicBitSet activeNodes;
+    private final HugeAtomicBitSet nextActiveNodes;
     private final HugeLongArray currentCommunities;
     private final HugeLongArray nextCommunities;
     private final HugeDoubleArray cumulativeNodeWeights;
     private final HugeDoubleArray nodeCommunityInfluences;
     private final HugeAtomicDoubleArray communityWeights;
-    private final HugeAtomicDoubleArray communityWeightUpdates;
 
     ModularityOptimizationTask(
         Graph graph,
         long batchStart,
         long batchEnd,
-        long color,
         double totalNodeWeight,
-        HugeLongArray colors,
+        HugeLongArray nodesByColor,
+        @Nullable HugeAtomicBitSet activeNodes,
+        @Nullable HugeAtomicBitSet nextActiveNodes,
         HugeLongArray currentCommunities,
         HugeLongArray nextCommunities,
         HugeDoubleArray cumulativeNodeWeights,
         HugeDoubleArray nodeCommunityInfluences,
-        HugeAtomicDoubleArray communityWeights,
-        HugeAtomicDoubleArray communityWeightUpdates
+        HugeAtomicDoubleArray communityWeights
     ) {
         this.graph = graph;
         this.batchStart = batchStart;
         this.batchEnd = batchEnd;
-        this.color = color;
         this.localGraph = graph.concurrentCopy();
         this.currentCommunities = currentCommunities;
         this.nextCommunities = nextCommunities;
         this.communityWeights = communityWeights;
-        this.communityWeightUpdates = communityWeightUpdates;
         this.totalNodeWeight = totalNodeWeight;
         this.cumulativeNodeWeights = cumulativeNodeWeights;
         this.nodeCommunityInfluences = nodeCommunityInfluences;
-        this.colors = colors;
+        this.nodesByColor = nodesByColor;
+        this.activeNodes = activeNodes;
+        this.nextActiveNodes = nextActiveNodes;
     }
 
     @Override
     public void run() {
         LongDoubleMap reuseCommunityInfluences = new LongDoubleHashMap(50);
-        for (long nodeId = batchStart; nodeId < batchEnd; nodeId++) {
+        for (long i = batchStart; i < batchEnd; i++) {
+            long nodeId = nodesByColor.get(i);
 
-            if (colors.get(nodeId) != color) {
+            if (activeNodes != null && !activeNodes.get(nodeId)) {
                 continue;
             }
 
@@ -138,8 +141,13 @@ final class ModularityOptimizationTask implements Runnable {
             nodeCommunityInfluences.set(nodeId, communityInfluences.get(nextCommunity));
 
             nextCommunities.set(nodeId, nextCommunity);
-            communityWeightUpdates.update(currentCommunity, agg -> agg - cumulativeNodeWeight);
-            communityWeightUpdates.update(nextCommunity, agg -> agg + cumulativeNodeWeight);
+
+            if (nextActiveNodes != null && nextCommunity != currentCommunity) {
+                localGraph.forEachRelationship(nodeId, (s, t) -> {
+                    nextActiveNodes.set(t);
+                    return true;
+                });
+            }
         }
 
     }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Combines all messages sent to a node into a single slot using atomic updates.
+ * <p>
+ * The store requires memory in the order of the node count, independent
+ * from the number of relationships. Messages are stored as longs, double messages
+ * by their raw bit representation. Whether a node has a message is tracked in a
+ * separate bit set, so that every long and double value, including {@code NaN},
+ * can be sent as a message.
+ */
+final class CombiningMessageStore implements MessageStore {
+
+    private final LongBinaryOperator doubleCombiner;
+    private final LongBinaryOperator longCombiner;
+
+    private HugeAtomicLongArray sendMessages;
+    private HugeAtomicLongArray receiveMessages;
+
+    // Set by the sender that stores the first message for a node in the current superstep.
+    private HugeAtomicBitSet sendClaims;
+    private HugeAtomicBitSet receiveClaims;
+
+    // Set once the first message for a node is stored.
+    private HugeAtomicBitSet sendPresence;
+    private HugeAtomicBitSet receivePresence;
+
+    CombiningMessageStore(long nodeCount, MessageCombiner combiner, AllocationTracker tracker) {
+        this.doubleCombiner = (current, message) -> Double.doubleToRawLongBits(combiner.combine(
+                Double.longBitsToDouble(current),
+                Double.longBitsToDouble(message)));
+        this.longCombiner = combiner::combineLong;
+        this.sendMessages = HugeAtomicLongArray.newArray(nodeCount, tracker);
+        this.receiveMessages = HugeAtomicLongArray.newArray(nodeCount, tracker);
+        this.sendClaims = HugeAtomicBitSet.create(nodeCount, tracker);
+        this.receiveClaims = HugeAtomicBitSet.create(nodeCount, tracker);
+        this.sendPresence = HugeAtomicBitSet.create(nodeCount, tracker);
+        this.receivePresence = HugeAtomicBitSet.create(nodeCount, tracker);
+    }
+
+    @Override
+    public void send(long targetNodeId, double message) {
+        send(targetNodeId, Double.doubleToRawLongBits(message), doubleCombiner);
+    }
+
+    @Override
+    public void sendLong(long targetNodeId, long message) {
+        send(targetNodeId, message, longCombiner);
+    }
+
+    private void send(long targetNodeId, long message, LongBinaryOperator combiner) {
+        while (!sendPresence.get(targetNodeId)) {
+            if (!sendClaims.getAndSet(targetNodeId)) {
+                sendMessages.set(targetNodeId, message);
+                sendPresence.set(targetNodeId);
+                return;
+            }
+            // another sender is storing the first message for this node
+        }
+
+        long current, combined;
+        do {
+            current = sendMessages.get(targetNodeId);
+            combined = combiner.applyAsLong(current, message);
+        } while (!sendMessages.compareAndSet(targetNodeId, current, combined));
+    }
+
+    /**
+     * The received message is consumed, so that the arrays can be used
+     * for sending once the buffers are swapped.
+     */
+    @Override
+    public void initMessages(Messages messages, long nodeId) {
+        if (receivePresence.get(nodeId)) {
+            receivePresence.clear(nodeId);
+            receiveClaims.clear(nodeId);
+            messages.init(receiveMessages.get(nodeId));
+        } else {
+            messages.initEmpty();
+        }
+    }
+
+    @Override
+    public void swapBuffers() {
+        HugeAtomicLongArray tmpMessages = sendMessages;
+        sendMessages = receiveMessages;
+        receiveMessages = tmpMessages;
+
+        HugeAtomicBitSet tmpClaims = sendClaims;
+        sendClaims = receiveClaims;
+        receiveClaims = tmpClaims;
+
+        HugeAtomicBitSet tmpPresence = sendPresence;
+        sendPresence = receivePresence;
+        receivePresence = tmpPresence;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Folds the messages sent to a node into a single message.
+ * <p>
+ * If a combiner is configured, messages are combined when they are sent
+ * and a node receives at most one message per superstep. The combine functions
+ * must be commutative and associative, as messages are sent concurrently
+ * and arrive in no particular order.
+ * <p>
+ * Double messages are folded with {@link #combine(double, double)}, messages sent via
+ * {@link PregelContext#sendLongMessages(long, long)} with {@link #combineLong(long, long)}.
+ */
+public interface MessageCombiner {
+
+    MessageCombiner SUM = of(Double::sum, Long::sum);
+
+    MessageCombiner MIN = of(Math::min, Math::min);
+
+    MessageCombiner MAX = of(Math::max, Math::max);
+
+    double combine(double current, double message);
+
+    long combineLong(long current, long message);
+
+    static MessageCombiner of(DoubleBinaryOperator doubleCombiner, LongBinaryOperator longCombiner) {
+        return new MessageCombiner() {
+            @Override
+            public double combine(double current, double message) {
+                return doubleCombiner.applyAsDouble(current, message);
+            }
+
+            @Override
+            public long combineLong(long current, long message) {
+                return longCombiner.applyAsLong(current, message);
+            }
+        };
+    }
+}
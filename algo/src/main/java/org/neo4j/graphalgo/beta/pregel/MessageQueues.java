@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Stores Pregel messages in primitive buffers.
+ * <p>
+ * Messages are stored as longs, double messages are stored by their raw bit representation,
+ * so the receiving computation decides whether to read a message as long or as double.
+ * <p>
+ * Every node owns a slice of the buffer whose length is its in-degree,
+ * i.e. the buffer has the layout of a CSR representation of the reverse graph.
+ * As a node sends at most one message per relationship in a superstep, the slice
+ * is large enough to hold all messages a node can receive within one superstep.
+ * <p>
+ * There are two buffers: messages are written to the send buffer and read from the
+ * receive buffer. Both are swapped at the end of each superstep, which replaces the
+ * termination symbol that was used to separate messages of different supersteps.
+ * Sending and receiving messages does not allocate.
+ * <p>
+ * In asynchronous mode, a node additionally receives the messages that have been written
+ * to its slice of the send buffer so far. The number of those messages is remembered,
+ * so that they are skipped when the remaining messages are received in the next superstep.
+ */
+final class MessageQueues implements MessageStore {
+
+    private final HugeLongArray offsets;
+    private final boolean isAsynchronous;
+
+    private HugeLongArray sendBuffer;
+    private HugeLongArray receiveBuffer;
+
+    private HugeAtomicLongArray sendCounts;
+    private HugeAtomicLongArray receiveCounts;
+
+    // Only used in asynchronous mode: the number of messages that have been written
+    // after their slot has been reserved, and the number of messages already received.
+    private HugeAtomicLongArray sendWrittenCounts;
+    private HugeAtomicLongArray receiveWrittenCounts;
+    private HugeLongArray sendConsumedCounts;
+    private HugeLongArray receiveConsumedCounts;
+
+    static MessageQueues of(
+            Graph graph,
+            boolean isAsynchronous,
+            int batchSize,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        long nodeCount = graph.nodeCount();
+        HugeAtomicLongArray inDegrees = HugeAtomicLongArray.newArray(nodeCount, tracker);
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (PrimitiveLongIterable nodeBatch : graph.batchIterables(batchSize)) {
+            RelationshipIterator relationshipIterator = graph.concurrentCopy();
+            tasks.add(() -> {
+                PrimitiveLongIterator nodes = nodeBatch.iterator();
+                while (nodes.hasNext()) {
+                    relationshipIterator.forEachRelationship(nodes.next(), (sourceNodeId, targetNodeId) -> {
+                        inDegrees.getAndAdd(targetNodeId, 1L);
+                        return true;
+                    });
+                }
+            });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, executor);
+
+        HugeLongArray offsets = HugeLongArray.newArray(nodeCount + 1, tracker);
+        long offset = 0L;
+        for (long nodeId = 0; nodeId < nodeCount; nodeId++) {
+            offsets.set(nodeId, offset);
+            offset += inDegrees.get(nodeId);
+            // the degrees array is reused for counting sent messages
+            inDegrees.set(nodeId, 0L);
+        }
+        offsets.set(nodeCount, offset);
+
+        MessageQueues queues = new MessageQueues(
+                offsets,
+                isAsynchronous,
+                HugeLongArray.newArray(offset, tracker),
+                HugeLongArray.newArray(offset, tracker),
+                inDegrees,
+                HugeAtomicLongArray.newArray(nodeCount, tracker));
+
+        if (isAsynchronous) {
+            queues.sendWrittenCounts = HugeAtomicLongArray.newArray(nodeCount, tracker);
+            queues.receiveWrittenCounts = HugeAtomicLongArray.newArray(nodeCount, tracker);
+            queues.sendConsumedCounts = HugeLongArray.newArray(nodeCount, tracker);
+            queues.receiveConsumedCounts = HugeLongArray.newArray(nodeCount, tracker);
+        }
+        return queues;
+    }
+
+    private MessageQueues(
+            HugeLongArray offsets,
+            boolean isAsynchronous,
+            HugeLongArray sendBuffer,
+            HugeLongArray receiveBuffer,
+            HugeAtomicLongArray sendCounts,
+            HugeAtomicLongArray receiveCounts) {
+        this.offsets = offsets;
+        this.isAsynchronous = isAsynchronous;
+        this.sendBuffer = sendBuffer;
+        this.receiveBuffer = receiveBuffer;
+        this.sendCounts = sendCounts;
+        this.receiveCounts = receiveCounts;
+    }
+
+    @Override
+    public void send(long targetNodeId, double message) {
+        sendLong(targetNodeId, Double.doubleToRawLongBits(message));
+    }
+
+    @Override
+    public void sendLong(long targetNodeId, long message) {
+        long offset = offsets.get(targetNodeId) + sendCounts.getAndAdd(targetNodeId, 1L);
+        if (offset >= offsets.get(targetNodeId + 1)) {
+            // release the slot, so that asynchronous receivers do not wait for it to be written
+            sendCounts.getAndAdd(targetNodeId, -1L);
+            throw new IllegalStateException(String.format(
+                    "Node %d received more messages than it has incoming relationships in a single superstep. " +
+                    "A node must not send messages more than once per superstep.",
+                    targetNodeId));
+        }
+        sendBuffer.set(offset, message);
+        if (isAsynchronous) {
+            sendWrittenCounts.getAndAdd(targetNodeId, 1L);
+        }
+    }
+
+    /**
+     * The messages are consumed, i.e. the receive count of the node is reset, so that the
+     * count array can be used for sending once the buffers are swapped.
+     * In asynchronous mode, the messages sent in the current superstep so far are consumed as well.
+     */
+    @Override
+    public void initMessages(Messages messages, long nodeId) {
+        long start = offsets.get(nodeId);
+        long count = receiveCounts.get(nodeId);
+        if (!isAsynchronous) {
+            if (count > 0) {
+                receiveCounts.set(nodeId, 0L);
+            }
+            messages.init(receiveBuffer, start, start + count);
+            return;
+        }
+
+        long consumed = 0L;
+        if (count > 0) {
+            consumed = receiveConsumedCounts.get(nodeId);
+            receiveCounts.set(nodeId, 0L);
+            receiveWrittenCounts.set(nodeId, 0L);
+            receiveConsumedCounts.set(nodeId, 0L);
+        }
+        // A node is computed at most once per superstep, so none of its sent messages have been consumed yet.
+        long written = writtenMessages(nodeId);
+        sendConsumedCounts.set(nodeId, written);
+        messages.init(receiveBuffer, start + consumed, start + count, sendBuffer, start, start + written);
+    }
+
+    /**
+     * Returns the number of messages at the start of the node's slice that are completely written.
+     * The written count is read before the reserved count. If both are equal, no slot reserved until
+     * then is still being written, as the written count never exceeds the reserved count.
+     */
+    private long writtenMessages(long nodeId) {
+        long written;
+        do {
+            written = sendWrittenCounts.get(nodeId);
+        } while (written != sendCounts.get(nodeId));
+        return written;
+    }
+
+    @Override
+    public void swapBuffers() {
+        HugeLongArray tmpBuffer = sendBuffer;
+        sendBuffer = receiveBuffer;
+        receiveBuffer = tmpBuffer;
+
+        HugeAtomicLongArray tmpCounts = sendCounts;
+        sendCounts = receiveCounts;
+        receiveCounts = tmpCounts;
+
+        if (isAsynchronous) {
+            HugeAtomicLongArray tmpWrittenCounts = sendWrittenCounts;
+            sendWrittenCounts = receiveWrittenCounts;
+            receiveWrittenCounts = tmpWrittenCounts;
+
+            HugeLongArray tmpConsumedCounts = sendConsumedCounts;
+            sendConsumedCounts = receiveConsumedCounts;
+            receiveConsumedCounts = tmpConsumedCounts;
+        }
+    }
+}
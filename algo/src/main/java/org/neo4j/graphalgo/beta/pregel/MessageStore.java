@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+/**
+ * Holds the messages that are exchanged between the nodes of a Pregel computation.
+ * Messages sent in one superstep are received in the next superstep,
+ * or, in asynchronous mode, already in the same superstep if the receiver is computed after they are sent.
+ */
+interface MessageStore {
+
+    /**
+     * Unless the store combines messages, a node must send at most one message to each
+     * of its neighbours per superstep, i.e. {@link PregelContext#sendMessages(long, double)}
+     * and {@link PregelContext#sendLongMessages(long, long)} are called at most once per node and superstep.
+     */
+    void send(long targetNodeId, double message);
+
+    /**
+     * @see #send(long, double)
+     */
+    void sendLong(long targetNodeId, long message);
+
+    /**
+     * Points the given messages to the messages the node received in the previous superstep
+     * and, in asynchronous mode, the messages it received in the current superstep so far.
+     */
+    void initMessages(Messages messages, long nodeId);
+
+    /**
+     * Makes the messages sent in the current superstep available to the next superstep.
+     */
+    void swapBuffers();
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The messages a node received in the previous superstep.
+ * In asynchronous mode, these are followed by the messages the node received in the current superstep so far.
+ * <p>
+ * Instances are reused across nodes of the same compute step and are only
+ * valid during a single call to {@link PregelComputation#compute}.
+ * Use {@link #nextDouble()} or {@link #nextLong()} to read messages without boxing them,
+ * depending on whether they have been sent via {@link PregelContext#sendMessages(long, double)}
+ * or {@link PregelContext#sendLongMessages(long, long)}.
+ */
+public final class Messages implements PrimitiveIterator.OfDouble {
+
+    private HugeLongArray buffer;
+    private long message;
+    private long position;
+    private long end;
+
+    // A second range of messages that is read once the first range is exhausted
+    private HugeLongArray nextBuffer;
+    private long nextStart;
+    private long nextEnd;
+
+    Messages() {
+    }
+
+    void init(HugeLongArray buffer, long start, long end) {
+        this.buffer = buffer;
+        this.position = start;
+        this.end = end;
+        this.nextBuffer = null;
+    }
+
+    void init(HugeLongArray buffer, long start, long end, HugeLongArray nextBuffer, long nextStart, long nextEnd) {
+        init(buffer, start, end);
+        if (nextStart < nextEnd) {
+            this.nextBuffer = nextBuffer;
+            this.nextStart = nextStart;
+            this.nextEnd = nextEnd;
+        }
+    }
+
+    /**
+     * Points to a single message, given as long or as raw bits of a double.
+     */
+    void init(long message) {
+        this.buffer = null;
+        this.message = message;
+        this.position = 0L;
+        this.end = 1L;
+        this.nextBuffer = null;
+    }
+
+    void initEmpty() {
+        this.buffer = null;
+        this.position = 0L;
+        this.end = 0L;
+        this.nextBuffer = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position >= end && nextBuffer != null) {
+            buffer = nextBuffer;
+            position = nextStart;
+            end = nextEnd;
+            nextBuffer = null;
+        }
+        return position < end;
+    }
+
+    @Override
+    public double nextDouble() {
+        return Double.longBitsToDouble(nextLong());
+    }
+
+    /**
+     * Returns the next message that has been sent as a long value.
+     */
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        long index = position++;
+        return buffer != null ? buffer.get(index) : message;
+    }
+
+    /**
+     * @return true, iff there are no remaining messages
+     */
+    public boolean isEmpty() {
+        return !hasNext();
+    }
+}
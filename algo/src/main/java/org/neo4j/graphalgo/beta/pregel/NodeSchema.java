@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes the node state of a Pregel computation as a set of typed columns.
+ * <p>
+ * Every column is stored in its own primitive huge array, see {@link NodeValues}.
+ * Array columns have a fixed width and are stored flat, i.e. the values
+ * of a single node are adjacent in memory.
+ * <p>
+ * Every element is identified by its position in the schema, see {@link #indexOf(String)}.
+ * Computations should resolve their keys once and access node values by index,
+ * which avoids a key lookup per access.
+ */
+public final class NodeSchema {
+
+    public enum ValueType {
+        LONG,
+        DOUBLE,
+        DOUBLE_ARRAY
+    }
+
+    public static final class Element {
+        private final String key;
+        private final ValueType type;
+        private final int width;
+
+        private Element(String key, ValueType type, int width) {
+            this.key = key;
+            this.type = type;
+            this.width = width;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public ValueType type() {
+            return type;
+        }
+
+        /**
+         * @return the number of values per node, which is 1 for scalar types
+         */
+        public int width() {
+            return width;
+        }
+    }
+
+    private final List<Element> elements;
+    private final Map<String, Integer> indices;
+
+    private NodeSchema(List<Element> elements) {
+        this.elements = elements;
+        this.indices = new HashMap<>();
+        for (int i = 0; i < elements.size(); i++) {
+            indices.put(elements.get(i).key(), i);
+        }
+    }
+
+    public List<Element> elements() {
+        return elements;
+    }
+
+    /**
+     * @return the position of the element with the given key, or -1 if the schema does not contain the key
+     */
+    public int indexOf(String key) {
+        return indices.getOrDefault(key, -1);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<Element> elements = new ArrayList<>();
+        private final Set<String> keys = new HashSet<>();
+
+        private Builder() {
+        }
+
+        public Builder putLong(String key) {
+            return put(key, ValueType.LONG, 1);
+        }
+
+        public Builder putDouble(String key) {
+            return put(key, ValueType.DOUBLE, 1);
+        }
+
+        public Builder putDoubleArray(String key, int width) {
+            if (width <= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Width of node value `%s` must be positive, but got %d.",
+                        key,
+                        width));
+            }
+            return put(key, ValueType.DOUBLE_ARRAY, width);
+        }
+
+        private Builder put(String key, ValueType type, int width) {
+            if (!keys.add(key)) {
+                throw new IllegalArgumentException(String.format("Node value `%s` is already defined.", key));
+            }
+            elements.add(new Element(key, type, width));
+            return this;
+        }
+
+        public NodeSchema build() {
+            return new NodeSchema(Collections.unmodifiableList(new ArrayList<>(elements)));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+/**
+ * Columnar storage for the node state described by a {@link NodeSchema}.
+ * <p>
+ * Scalar columns are stored in a {@link HugeLongArray} or {@link HugeDoubleArray}
+ * of size {@code nodeCount}. Array columns of width {@code w} are stored in a single
+ * {@link HugeDoubleArray} of size {@code nodeCount * w}, where the values of node
+ * {@code n} start at index {@code n * w}.
+ * <p>
+ * Columns are addressed by their index in the schema, see {@link NodeSchema#indexOf(String)}.
+ * The key based accessors resolve the key on every call and are meant for reading results,
+ * not for use within a computation.
+ */
+public final class NodeValues {
+
+    private final NodeSchema schema;
+    // indexed by the position of the element in the schema, null for elements of other types
+    private final HugeLongArray[] longColumns;
+    private final HugeDoubleArray[] doubleColumns;
+    private final HugeDoubleArray[] doubleArrayColumns;
+    private final int[] arrayWidths;
+
+    static NodeValues of(NodeSchema schema, long nodeCount, AllocationTracker tracker) {
+        NodeValues nodeValues = new NodeValues(schema);
+        for (int index = 0; index < schema.elements().size(); index++) {
+            NodeSchema.Element element = schema.elements().get(index);
+            switch (element.type()) {
+                case LONG:
+                    nodeValues.longColumns[index] = HugeLongArray.newArray(nodeCount, tracker);
+                    break;
+                case DOUBLE:
+                    nodeValues.doubleColumns[index] = HugeDoubleArray.newArray(nodeCount, tracker);
+                    break;
+                case DOUBLE_ARRAY:
+                    nodeValues.doubleArrayColumns[index] = HugeDoubleArray.newArray(
+                            nodeCount * element.width(),
+                            tracker);
+                    nodeValues.arrayWidths[index] = element.width();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported value type: " + element.type());
+            }
+        }
+        return nodeValues;
+    }
+
+    /**
+     * Wraps an existing array as the single double column with the given key.
+     */
+    static NodeValues ofDoubleColumn(String key, HugeDoubleArray values) {
+        NodeValues nodeValues = new NodeValues(NodeSchema.builder().putDouble(key).build());
+        nodeValues.doubleColumns[0] = values;
+        return nodeValues;
+    }
+
+    private NodeValues(NodeSchema schema) {
+        int size = schema.elements().size();
+        this.schema = schema;
+        this.longColumns = new HugeLongArray[size];
+        this.doubleColumns = new HugeDoubleArray[size];
+        this.doubleArrayColumns = new HugeDoubleArray[size];
+        this.arrayWidths = new int[size];
+    }
+
+    public NodeSchema schema() {
+        return schema;
+    }
+
+    public long longValue(int index, long nodeId) {
+        return longProperties(index).get(nodeId);
+    }
+
+    public void setLongValue(int index, long nodeId, long value) {
+        longProperties(index).set(nodeId, value);
+    }
+
+    public double doubleValue(int index, long nodeId) {
+        return doubleProperties(index).get(nodeId);
+    }
+
+    public void setDoubleValue(int index, long nodeId, double value) {
+        doubleProperties(index).set(nodeId, value);
+    }
+
+    public double doubleArrayValue(int index, long nodeId, int arrayIndex) {
+        HugeDoubleArray column = doubleArrayProperties(index);
+        int width = arrayWidths[index];
+        assert arrayIndex < width;
+        return column.get(nodeId * width + arrayIndex);
+    }
+
+    public void setDoubleArrayValue(int index, long nodeId, int arrayIndex, double value) {
+        HugeDoubleArray column = doubleArrayProperties(index);
+        int width = arrayWidths[index];
+        assert arrayIndex < width;
+        column.set(nodeId * width + arrayIndex, value);
+    }
+
+    public long longValue(String key, long nodeId) {
+        return longProperties(key).get(nodeId);
+    }
+
+    public void setLongValue(String key, long nodeId, long value) {
+        longProperties(key).set(nodeId, value);
+    }
+
+    public double doubleValue(String key, long nodeId) {
+        return doubleProperties(key).get(nodeId);
+    }
+
+    public void setDoubleValue(String key, long nodeId, double value) {
+        doubleProperties(key).set(nodeId, value);
+    }
+
+    public double doubleArrayValue(String key, long nodeId, int arrayIndex) {
+        return doubleArrayValue(
+                checkedIndex(key, doubleArrayColumns, NodeSchema.ValueType.DOUBLE_ARRAY),
+                nodeId,
+                arrayIndex);
+    }
+
+    public void setDoubleArrayValue(String key, long nodeId, int arrayIndex, double value) {
+        setDoubleArrayValue(
+                checkedIndex(key, doubleArrayColumns, NodeSchema.ValueType.DOUBLE_ARRAY),
+                nodeId,
+                arrayIndex,
+                value);
+    }
+
+    /**
+     * @return the number of values per node of the given array column
+     */
+    public int arrayWidth(String key) {
+        return arrayWidths[checkedIndex(key, doubleArrayColumns, NodeSchema.ValueType.DOUBLE_ARRAY)];
+    }
+
+    public HugeLongArray longProperties(int index) {
+        return checkedColumn(index, longColumns, NodeSchema.ValueType.LONG);
+    }
+
+    public HugeDoubleArray doubleProperties(int index) {
+        return checkedColumn(index, doubleColumns, NodeSchema.ValueType.DOUBLE);
+    }
+
+    /**
+     * @return the flat array column, see {@link NodeValues} for its layout
+     */
+    public HugeDoubleArray doubleArrayProperties(int index) {
+        return checkedColumn(index, doubleArrayColumns, NodeSchema.ValueType.DOUBLE_ARRAY);
+    }
+
+    public HugeLongArray longProperties(String key) {
+        return longColumns[checkedIndex(key, longColumns, NodeSchema.ValueType.LONG)];
+    }
+
+    public HugeDoubleArray doubleProperties(String key) {
+        return doubleColumns[checkedIndex(key, doubleColumns, NodeSchema.ValueType.DOUBLE)];
+    }
+
+    /**
+     * @return the flat array column, see {@link NodeValues} for its layout
+     */
+    public HugeDoubleArray doubleArrayProperties(String key) {
+        return doubleArrayColumns[checkedIndex(key, doubleArrayColumns, NodeSchema.ValueType.DOUBLE_ARRAY)];
+    }
+
+    boolean hasDoubleColumn(String key) {
+        int index = schema.indexOf(key);
+        return index >= 0 && doubleColumns[index] != null;
+    }
+
+    private int checkedIndex(String key, Object[] columns, NodeSchema.ValueType type) {
+        int index = schema.indexOf(key);
+        if (index < 0 || columns[index] == null) {
+            throw new IllegalArgumentException(String.format(
+                    "The node schema does not contain a value `%s` of type %s.",
+                    key,
+                    type));
+        }
+        return index;
+    }
+
+    private static <T> T checkedColumn(int index, T[] columns, NodeSchema.ValueType type) {
+        T column = index >= 0 && index < columns.length ? columns[index] : null;
+        if (column == null) {
+            throw new IllegalArgumentException(String.format(
+                    "The node schema does not contain a value at index %d of type %s.",
+                    index,
+                    type));
+        }
+        return column;
+    }
+}
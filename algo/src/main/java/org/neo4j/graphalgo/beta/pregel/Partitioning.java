@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+/**
+ * Defines how the nodes are split into batches that are computed in parallel.
+ * Batches are always contiguous ranges of node ids, which keeps the node values
+ * and the adjacency of a batch close together in memory.
+ */
+public enum Partitioning {
+    /**
+     * Every batch contains the same number of nodes.
+     */
+    RANGE,
+    /**
+     * Every batch contains roughly the same number of relationships.
+     * This avoids a few batches that contain high-degree nodes dominating
+     * the runtime of a superstep on graphs with a skewed degree distribution.
+     */
+    DEGREE
+}
@@ -19,34 +19,30 @@
  */
 package org.neo4j.graphalgo.beta.pregel;
 
-import com.carrotsearch.hppc.BitSet;
-import org.jctools.queues.MpscLinkedQueue;
-import org.neo4j.collection.primitive.PrimitiveLongCollections;
-import org.neo4j.collection.primitive.PrimitiveLongIterable;
-import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.Degrees;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIterator;
-import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
-import org.neo4j.graphalgo.core.utils.LazyMappingCollection;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
 import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
-import org.neo4j.graphalgo.core.utils.paged.HugeObjectArray;
+import org.neo4j.graphalgo.core.utils.partition.Partition;
+import org.neo4j.graphalgo.core.utils.partition.PartitionUtils;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.ExecutorService;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.LongStream;
 
+import static org.neo4j.graphalgo.core.utils.BitUtil.ceilDiv;
+
 public final class Pregel {
 
-    // Marks the end of messages from the previous iteration in synchronous mode.
-    private static final Double TERMINATION_SYMBOL = Double.NaN;
+    // Key of the node value used by computations without a node schema
+    private static final String DEFAULT_NODE_VALUE = "value";
 
     private final PregelConfig config;
 
@@ -54,13 +50,14 @@ public final class Pregel {
 
     private final Graph graph;
 
-    private final HugeDoubleArray nodeValues;
+    private final NodeValues nodeValues;
 
-    private final HugeObjectArray<MpscLinkedQueue<Double>> messageQueues;
+    private final MessageStore messageStore;
 
     private final int batchSize;
     private final int concurrency;
     private final ExecutorService executor;
+    private final AllocationTracker tracker;
 
     private int iterations;
 
@@ -122,6 +119,32 @@ public final class Pregel {
         );
     }
 
+    /**
+     * Creates a Pregel computation whose node state is described by the given schema.
+     * All node values are initialized with zero, the computation is expected to set
+     * initial values in the first superstep.
+     */
+    public static Pregel withNodeSchema(
+            final Graph graph,
+            final PregelConfig config,
+            final PregelComputation computation,
+            final NodeSchema nodeSchema,
+            final int batchSize,
+            final int concurrency,
+            final ExecutorService executor,
+            final AllocationTracker tracker) {
+        return new Pregel(
+                graph,
+                config,
+                computation,
+                NodeValues.of(nodeSchema, graph.nodeCount(), tracker),
+                batchSize,
+                concurrency,
+                executor,
+                tracker
+        );
+    }
+
     private Pregel(
             final Graph graph,
             final PregelConfig config,
@@ -131,6 +154,27 @@ public final class Pregel {
             final int concurrency,
             final ExecutorService executor,
             final AllocationTracker tracker) {
+        this(
+                graph,
+                config,
+                computation,
+                NodeValues.ofDoubleColumn(DEFAULT_NODE_VALUE, initialNodeValues),
+                batchSize,
+                concurrency,
+                executor,
+                tracker
+        );
+    }
+
+    private Pregel(
+            final Graph graph,
+            final PregelConfig config,
+            final PregelComputation computation,
+            final NodeValues initialNodeValues,
+            final int batchSize,
+            final int concurrency,
+            final ExecutorService executor,
+            final AllocationTracker tracker) {
         this.graph = graph;
         this.config = config;
         this.computation = computation;
@@ -138,115 +182,120 @@ public final class Pregel {
         this.batchSize = batchSize;
         this.concurrency = concurrency;
         this.executor = executor;
-
-        this.messageQueues = initLinkedQueues(graph, tracker);
+        this.tracker = tracker;
+
+        this.messageStore = config.getMessageCombiner()
+                .<MessageStore>map(combiner -> new CombiningMessageStore(graph.nodeCount(), combiner, tracker))
+                .orElseGet(() -> MessageQueues.of(
+                        graph,
+                        config.isAsynchronous(),
+                        batchSize,
+                        concurrency,
+                        executor,
+                        tracker));
     }
 
+    /**
+     * @return the node values of computations without a node schema, otherwise {@code null}.
+     *         The values of all computations are available via {@link #nodeValues()}.
+     */
     public HugeDoubleArray run(final int maxIterations) {
         iterations = 0;
         boolean canHalt = false;
-        // Tracks if a node received messages in the previous iteration
-        // TODO: try RoaringBitSet instead
-        BitSet receiverBits = new BitSet(graph.nodeCount());
-        // Tracks if a node voted to halt in the previous iteration
-        BitSet voteBits = new BitSet(graph.nodeCount());
-
-        // TODO: maybe try degree partitioning or clustering (better locality)
-        Collection<PrimitiveLongIterable> nodeBatches = LazyBatchCollection.of(
-                graph.nodeCount(),
-                batchSize,
-                (start, length) -> () -> PrimitiveLongCollections.range(start, start + length - 1L));
+        // Tracks if a node received messages in the previous iteration.
+        // Bits are cleared when the receiving node is computed.
+        HugeAtomicBitSet receiverBits = HugeAtomicBitSet.create(graph.nodeCount(), tracker);
+        // Tracks if a node has been sent messages in the current iteration
+        HugeAtomicBitSet senderBits = HugeAtomicBitSet.create(graph.nodeCount(), tracker);
+        // Tracks if a node voted to halt
+        HugeAtomicBitSet voteBits = HugeAtomicBitSet.create(graph.nodeCount(), tracker);
+
+        List<Partition> partitions = partitionGraph();
 
         while (iterations < maxIterations && !canHalt) {
             int iteration = iterations++;
 
-            final List<ComputeStep> computeSteps = runComputeSteps(nodeBatches, iteration, receiverBits, voteBits);
+            runComputeSteps(partitions, iteration, receiverBits, senderBits, voteBits);
+            // Messages sent in this iteration are received in the next one,
+            // unless they have already been received in asynchronous mode.
+            messageStore.swapBuffers();
 
-            receiverBits = unionBitSets(computeSteps, ComputeStep::getSenders);
-            voteBits = unionBitSets(computeSteps, ComputeStep::getVotes);
+            // All receivers of this iteration have been computed
+            // and their bits are cleared, so we can reuse the set.
+            HugeAtomicBitSet tmp = receiverBits;
+            receiverBits = senderBits;
+            senderBits = tmp;
 
             // No messages have been sent
-            if (receiverBits.nextSetBit(0) == -1) {
+            if (receiverBits.isEmpty()) {
                 canHalt = true;
             }
         }
-        return nodeValues;
+
+        tracker.remove(receiverBits.release());
+        tracker.remove(senderBits.release());
+        tracker.remove(voteBits.release());
+
+        return nodeValues.hasDoubleColumn(DEFAULT_NODE_VALUE)
+                ? nodeValues.doubleProperties(DEFAULT_NODE_VALUE)
+                : null;
     }
 
     public int getIterations() {
         return iterations;
     }
 
-    private BitSet unionBitSets(Collection<ComputeStep> computeSteps, Function<ComputeStep, BitSet> fn) {
-        return ParallelUtil.parallelStream(computeSteps.stream(), stream ->
-                stream.map(fn).reduce((bitSet1, bitSet2) -> {
-                    bitSet1.union(bitSet2);
-                    return bitSet1;
-                }).orElseGet(BitSet::new));
+    public NodeValues nodeValues() {
+        return nodeValues;
     }
 
-    private List<ComputeStep> runComputeSteps(
-            Collection<PrimitiveLongIterable> nodeBatches,
-            final int iteration,
-            BitSet messageBits,
-            BitSet voteToHaltBits) {
-
-        final List<ComputeStep> tasks = new ArrayList<>(nodeBatches.size());
-
-        if (!config.isAsynchronous()) {
-            // Synchronization barrier:
-            // Add termination flag to message queues that
-            // received messages in the previous iteration.
-            if (iteration > 0) {
-                ParallelUtil.parallelStreamConsume(
-                        LongStream.range(0, graph.nodeCount()),
-                        nodeIds -> nodeIds.forEach(nodeId -> {
-                            if (messageBits.get(nodeId)) {
-                                messageQueues.get(nodeId).add(TERMINATION_SYMBOL);
-                            }
-                        }));
-            }
+    private List<Partition> partitionGraph() {
+        long nodeCount = graph.nodeCount();
+        if (config.getPartitioning() == Partitioning.DEGREE) {
+            // multiply batchsize by average degree, so that the resulting
+            // partitions are sized closer to the provided batchSize
+            long averageDegree = Math.max(1, ceilDiv(graph.relationshipCount(), nodeCount));
+            long degreeBatchSize = Math.min(averageDegree * batchSize, Partition.MAX_NODE_COUNT);
+            return PartitionUtils.degreePartition(graph, degreeBatchSize);
         }
 
-        Collection<ComputeStep> computeSteps = LazyMappingCollection.of(
-                nodeBatches,
-                nodeBatch -> {
-                    ComputeStep task = new ComputeStep(
-                            computation,
-                            config,
-                            graph.nodeCount(),
-                            iteration,
-                            nodeBatch,
-                            graph,
-                            nodeValues,
-                            messageBits,
-                            voteToHaltBits,
-                            messageQueues,
-                            graph);
-                    tasks.add(task);
-                    return task;
-                });
-
-        ParallelUtil.runWithConcurrency(concurrency, computeSteps, executor);
-        return tasks;
+        List<Partition> partitions = new ArrayList<>();
+        for (long start = 0; start < nodeCount; start += batchSize) {
+            partitions.add(new Partition(start, Math.min(batchSize, nodeCount - start)));
+        }
+        return partitions;
     }
 
-    @SuppressWarnings({"unchecked"})
-    private HugeObjectArray<MpscLinkedQueue<Double>> initLinkedQueues(Graph graph, AllocationTracker tracker) {
-        Class<MpscLinkedQueue<Double>> queueClass = (Class<MpscLinkedQueue<Double>>) MpscLinkedQueue
-                .newMpscLinkedQueue()
-                .getClass();
-
-        HugeObjectArray<MpscLinkedQueue<Double>> messageQueues = HugeObjectArray.newArray(
-                queueClass,
-                graph.nodeCount(),
-                tracker);
-
-        ParallelUtil.parallelStreamConsume(
-                LongStream.range(0, graph.nodeCount()),
-                nodeIds -> nodeIds.forEach(nodeId -> messageQueues.set(nodeId, MpscLinkedQueue.newMpscLinkedQueue())));
+    private void runComputeSteps(
+            List<Partition> partitions,
+            final int iteration,
+            HugeAtomicBitSet receiverBits,
+            HugeAtomicBitSet senderBits,
+            HugeAtomicBitSet voteBits) {
+
+        // Every compute step takes the next unprocessed batch once it is done with its
+        // current one, so that fast threads take over the batches left by slow threads.
+        AtomicInteger nextPartition = new AtomicInteger(0);
+        int stepCount = Math.min(concurrency, partitions.size());
+
+        final List<ComputeStep> tasks = new ArrayList<>(stepCount);
+        for (int i = 0; i < stepCount; i++) {
+            tasks.add(new ComputeStep(
+                    computation,
+                    config,
+                    iteration,
+                    partitions,
+                    nextPartition,
+                    graph,
+                    nodeValues,
+                    receiverBits,
+                    senderBits,
+                    voteBits,
+                    messageStore,
+                    graph));
+        }
 
-        return messageQueues;
+        ParallelUtil.runWithConcurrency(concurrency, tasks, executor);
     }
 
     public static final class ComputeStep implements Runnable {
@@ -254,60 +303,93 @@ public final class Pregel {
         private final int iteration;
         private final PregelComputation computation;
         private final PregelContext pregelContext;
-        private final BitSet senderBits;
-        private final BitSet receiverBits;
-        private final BitSet voteBits;
-        private final PrimitiveLongIterable nodeBatch;
+        private final HugeAtomicBitSet receiverBits;
+        private final HugeAtomicBitSet senderBits;
+        private final HugeAtomicBitSet voteBits;
+        private final List<Partition> partitions;
+        private final AtomicInteger nextPartition;
         private final Degrees degrees;
-        private final HugeDoubleArray nodeValues;
-        private final HugeObjectArray<? extends Queue<Double>> messageQueues;
+        private final NodeValues nodeValues;
+        private final HugeDoubleArray defaultNodeValues;
+        private final MessageStore messageStore;
+        private final Messages messages;
         private final RelationshipIterator relationshipIterator;
+        private final RelationshipConsumer messageSender;
+        private final RelationshipConsumer longMessageSender;
+        private final boolean allowsMultipleSends;
+
+        private double message;
+        private long longMessage;
+        private long lastSender = -1L;
 
         private ComputeStep(
                 final PregelComputation computation,
                 final PregelConfig config,
-                final long globalNodeCount,
                 final int iteration,
-                final PrimitiveLongIterable nodeBatch,
+                final List<Partition> partitions,
+                final AtomicInteger nextPartition,
                 final Degrees degrees,
-                final HugeDoubleArray nodeValues,
-                final BitSet receiverBits,
-                final BitSet voteBits,
-                final HugeObjectArray<? extends Queue<Double>> messageQueues,
+                final NodeValues nodeValues,
+                final HugeAtomicBitSet receiverBits,
+                final HugeAtomicBitSet senderBits,
+                final HugeAtomicBitSet voteBits,
+                final MessageStore messageStore,
                 final RelationshipIterator relationshipIterator) {
             this.iteration = iteration;
             this.computation = computation;
-            this.senderBits = new BitSet(globalNodeCount);
             this.receiverBits = receiverBits;
+            this.senderBits = senderBits;
             this.voteBits = voteBits;
-            this.nodeBatch = nodeBatch;
+            this.partitions = partitions;
+            this.nextPartition = nextPartition;
             this.degrees = degrees;
             this.nodeValues = nodeValues;
-            this.messageQueues = messageQueues;
+            this.defaultNodeValues = nodeValues.hasDoubleColumn(DEFAULT_NODE_VALUE)
+                    ? nodeValues.doubleProperties(DEFAULT_NODE_VALUE)
+                    : null;
+            this.messageStore = messageStore;
+            this.messages = new Messages();
             this.relationshipIterator = relationshipIterator.concurrentCopy();
+            this.messageSender = (sourceNodeId, targetNodeId) -> {
+                messageStore.send(targetNodeId, message);
+                senderBits.set(targetNodeId);
+                return true;
+            };
+            this.longMessageSender = (sourceNodeId, targetNodeId) -> {
+                messageStore.sendLong(targetNodeId, longMessage);
+                senderBits.set(targetNodeId);
+                return true;
+            };
+            this.allowsMultipleSends = config.getMessageCombiner().isPresent();
             this.pregelContext = new PregelContext(this, config);
         }
 
         @Override
         public void run() {
-            final PrimitiveLongIterator nodesIterator = nodeBatch.iterator();
-
-            while (nodesIterator.hasNext()) {
-                final long nodeId = nodesIterator.next();
-
-                if (receiverBits.get(nodeId) || !voteBits.get(nodeId)) {
-                    voteBits.clear(nodeId);
-                    computation.compute(pregelContext, nodeId, receiveMessages(nodeId));
+            int partitionIndex;
+            while ((partitionIndex = nextPartition.getAndIncrement()) < partitions.size()) {
+                Partition partition = partitions.get(partitionIndex);
+                long start = partition.startNode;
+                long end = start + partition.nodeCount;
+                // Skip batches where every node voted to halt and no node received messages
+                if (receiverBits.anySet(start, end) || !voteBits.allSet(start, end)) {
+                    computeBatch(start, end);
                 }
             }
         }
 
-        BitSet getSenders() {
-            return senderBits;
-        }
-
-        BitSet getVotes() {
-            return voteBits;
+        private void computeBatch(long start, long end) {
+            for (long nodeId = start; nodeId < end; nodeId++) {
+                boolean hasMessages = receiverBits.get(nodeId);
+                if (hasMessages || !voteBits.get(nodeId)) {
+                    if (hasMessages) {
+                        receiverBits.clear(nodeId);
+                    }
+                    voteBits.clear(nodeId);
+                    messageStore.initMessages(messages, nodeId);
+                    computation.compute(pregelContext, nodeId, messages);
+                }
+            }
         }
 
         public int getIteration() {
@@ -318,12 +400,24 @@ public final class Pregel {
             return degrees.degree(nodeId);
         }
 
+        NodeValues nodeValues() {
+            return nodeValues;
+        }
+
         double getNodeValue(final long nodeId) {
-            return nodeValues.get(nodeId);
+            return defaultNodeValues().get(nodeId);
         }
 
         void setNodeValue(final long nodeId, final double value) {
-            nodeValues.set(nodeId, value);
+            defaultNodeValues().set(nodeId, value);
+        }
+
+        private HugeDoubleArray defaultNodeValues() {
+            if (defaultNodeValues == null) {
+                throw new IllegalStateException(
+                        "Computations with a node schema must access node values by their key.");
+            }
+            return defaultNodeValues;
         }
 
         void voteToHalt(long nodeId) {
@@ -331,15 +425,31 @@ public final class Pregel {
         }
 
         void sendMessages(final long nodeId, final double message) {
-            relationshipIterator.forEachRelationship(nodeId, (sourceNodeId, targetNodeId) -> {
-                messageQueues.get(targetNodeId).add(message);
-                senderBits.set(targetNodeId);
-                return true;
-            });
+            checkSingleSend(nodeId);
+            this.message = message;
+            relationshipIterator.forEachRelationship(nodeId, messageSender);
         }
 
-        private Queue<Double> receiveMessages(final long nodeId) {
-            return receiverBits.get(nodeId) ? messageQueues.get(nodeId) : null;
+        void sendLongMessages(final long nodeId, final long message) {
+            checkSingleSend(nodeId);
+            this.longMessage = message;
+            relationshipIterator.forEachRelationship(nodeId, longMessageSender);
+        }
+
+        // A compute step is created per superstep and computes every node at most once,
+        // so a repeated sender within a step sends more than once in this superstep.
+        private void checkSingleSend(final long nodeId) {
+            if (allowsMultipleSends) {
+                return;
+            }
+            if (nodeId == lastSender) {
+                throw new IllegalStateException(String.format(
+                        "Node %d sent messages more than once in superstep %d. " +
+                        "Without a message combiner, a node must send messages at most once per superstep.",
+                        nodeId,
+                        iteration));
+            }
+            lastSender = nodeId;
         }
     }
 }
@@ -19,13 +19,23 @@
  */
 package org.neo4j.graphalgo.beta.pregel;
 
+import java.util.Optional;
+
 public final class PregelConfig {
     private final double initialNodeValue;
     private final boolean isAsynchronous;
+    private final MessageCombiner messageCombiner;
+    private final Partitioning partitioning;
 
-    private PregelConfig(double initialNodeValue, boolean isAsynchronous) {
+    private PregelConfig(
+            double initialNodeValue,
+            boolean isAsynchronous,
+            MessageCombiner messageCombiner,
+            Partitioning partitioning) {
         this.initialNodeValue = initialNodeValue;
         this.isAsynchronous = isAsynchronous;
+        this.messageCombiner = messageCombiner;
+        this.partitioning = partitioning;
     }
 
     double getInitialNodeValue() {
@@ -36,22 +46,53 @@ public final class PregelConfig {
         return isAsynchronous;
     }
 
+    Optional<MessageCombiner> getMessageCombiner() {
+        return Optional.ofNullable(messageCombiner);
+    }
+
+    Partitioning getPartitioning() {
+        return partitioning;
+    }
+
     public static class Builder {
         private double initialNodeValue = -1.0;
         private boolean isAsynchronous = false;
+        private MessageCombiner messageCombiner = null;
+        private Partitioning partitioning = Partitioning.RANGE;
 
         public Builder withInitialNodeValue(double initialNodeValue) {
             this.initialNodeValue = initialNodeValue;
             return this;
         }
 
+        /**
+         * In asynchronous mode, a node also receives the messages that have been sent to it
+         * in the current superstep before it is computed.
+         */
         public Builder isAsynchronous(boolean isAsynchronous) {
             this.isAsynchronous = isAsynchronous;
             return this;
         }
 
+        /**
+         * Combines all messages sent to a node in one superstep into a single message.
+         */
+        public Builder withMessageCombiner(MessageCombiner messageCombiner) {
+            this.messageCombiner = messageCombiner;
+            return this;
+        }
+
+        public Builder withPartitioning(Partitioning partitioning) {
+            this.partitioning = partitioning;
+            return this;
+        }
+
         public PregelConfig build() {
-            return new PregelConfig(initialNodeValue, isAsynchronous);
+            if (isAsynchronous && messageCombiner != null) {
+                throw new IllegalArgumentException(
+                        "Asynchronous message delivery is not supported together with a message combiner.");
+            }
+            return new PregelConfig(initialNodeValue, isAsynchronous, messageCombiner, partitioning);
         }
     }
 }
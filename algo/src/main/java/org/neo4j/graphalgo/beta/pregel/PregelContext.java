@@ -49,10 +49,76 @@ public final class PregelContext {
         computeStep.setNodeValue(nodeId, value);
     }
 
+    /**
+     * Node values of computations with a node schema are addressed by the index of their key
+     * in the schema, see {@link NodeSchema#indexOf(String)}. The key should be resolved once,
+     * e.g. when the computation is created, and not on every access.
+     */
+    public long getLongNodeValue(int index, long nodeId) {
+        return computeStep.nodeValues().longValue(index, nodeId);
+    }
+
+    public void setLongNodeValue(int index, long nodeId, long value) {
+        computeStep.nodeValues().setLongValue(index, nodeId, value);
+    }
+
+    public double getDoubleNodeValue(int index, long nodeId) {
+        return computeStep.nodeValues().doubleValue(index, nodeId);
+    }
+
+    public void setDoubleNodeValue(int index, long nodeId, double value) {
+        computeStep.nodeValues().setDoubleValue(index, nodeId, value);
+    }
+
+    public double getDoubleArrayNodeValue(int index, long nodeId, int arrayIndex) {
+        return computeStep.nodeValues().doubleArrayValue(index, nodeId, arrayIndex);
+    }
+
+    public void setDoubleArrayNodeValue(int index, long nodeId, int arrayIndex, double value) {
+        computeStep.nodeValues().setDoubleArrayValue(index, nodeId, arrayIndex, value);
+    }
+
+    public long getLongNodeValue(String key, long nodeId) {
+        return computeStep.nodeValues().longValue(key, nodeId);
+    }
+
+    public void setLongNodeValue(String key, long nodeId, long value) {
+        computeStep.nodeValues().setLongValue(key, nodeId, value);
+    }
+
+    public double getDoubleNodeValue(String key, long nodeId) {
+        return computeStep.nodeValues().doubleValue(key, nodeId);
+    }
+
+    public void setDoubleNodeValue(String key, long nodeId, double value) {
+        computeStep.nodeValues().setDoubleValue(key, nodeId, value);
+    }
+
+    public double getDoubleArrayNodeValue(String key, long nodeId, int index) {
+        return computeStep.nodeValues().doubleArrayValue(key, nodeId, index);
+    }
+
+    public void setDoubleArrayNodeValue(String key, long nodeId, int index, double value) {
+        computeStep.nodeValues().setDoubleArrayValue(key, nodeId, index, value);
+    }
+
+    /**
+     * Sends a message to all neighbours of the node.
+     * Unless a {@link MessageCombiner} is configured, messages must be sent at most once per node and superstep.
+     */
     public void sendMessages(long nodeId, double message) {
         computeStep.sendMessages(nodeId, message);
     }
 
+    /**
+     * Sends a long message to all neighbours of the node.
+     * Long messages must be read using {@link Messages#nextLong()}.
+     * Unless a {@link MessageCombiner} is configured, messages must be sent at most once per node and superstep.
+     */
+    public void sendLongMessages(long nodeId, long message) {
+        computeStep.sendLongMessages(nodeId, message);
+    }
+
     public int getDegree(long nodeId) {
         return computeStep.getDegree(nodeId);
     }
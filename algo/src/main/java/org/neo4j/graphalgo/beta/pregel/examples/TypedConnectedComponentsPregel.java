@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel.examples;
+
+import org.neo4j.graphalgo.beta.pregel.Messages;
+import org.neo4j.graphalgo.beta.pregel.NodeSchema;
+import org.neo4j.graphalgo.beta.pregel.PregelComputation;
+import org.neo4j.graphalgo.beta.pregel.PregelContext;
+
+/**
+ * Connected components on a typed node state.
+ * Component ids are stored and sent as longs and every node counts
+ * how often its component id changed during the computation.
+ */
+public class TypedConnectedComponentsPregel implements PregelComputation {
+
+    public static final String COMPONENT = "component";
+    public static final String UPDATES = "updates";
+
+    public static final NodeSchema SCHEMA = NodeSchema.builder()
+        .putLong(COMPONENT)
+        .putLong(UPDATES)
+        .build();
+
+    private final int componentIndex = SCHEMA.indexOf(COMPONENT);
+    private final int updatesIndex = SCHEMA.indexOf(UPDATES);
+
+    @Override
+    public void compute(PregelContext pregel, long nodeId, Messages messages) {
+        if (pregel.isInitialSuperStep()) {
+            pregel.setLongNodeValue(componentIndex, nodeId, nodeId);
+            pregel.sendLongMessages(nodeId, nodeId);
+        } else {
+            long oldComponentId = pregel.getLongNodeValue(componentIndex, nodeId);
+            long newComponentId = oldComponentId;
+
+            while (messages.hasNext()) {
+                newComponentId = Math.min(newComponentId, messages.nextLong());
+            }
+
+            if (newComponentId != oldComponentId) {
+                pregel.setLongNodeValue(componentIndex, nodeId, newComponentId);
+                pregel.setLongNodeValue(updatesIndex, nodeId, pregel.getLongNodeValue(updatesIndex, nodeId) + 1);
+                pregel.sendLongMessages(nodeId, newComponentId);
+            }
+
+            pregel.voteToHalt(nodeId);
+        }
+    }
+}
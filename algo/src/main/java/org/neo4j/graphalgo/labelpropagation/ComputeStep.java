@@ -21,6 +21,7 @@ package org.neo4j.graphalgo.labelpropagation;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.AdjacencyBuffer;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.api.RelationshipIterator;
@@ -37,6 +38,7 @@ final class ComputeStep implements Step {
     private final ProgressLogger progressLogger;
     private final double maxNode;
     private final ComputeStepConsumer consumer;
+    private final AdjacencyBuffer adjacency;
 
     ComputeStep(
             Graph graph,
@@ -50,6 +52,7 @@ final class ComputeStep implements Step {
         this.localRelationshipIterator = graph.concurrentCopy();
         this.nodes = nodes;
         this.consumer = new ComputeStepConsumer(nodeWeights, existingLabels);
+        this.adjacency = new AdjacencyBuffer();
     }
 
     @Override
@@ -84,7 +87,8 @@ final class ComputeStep implements Step {
     private boolean compute(long nodeId, boolean didChange) {
         consumer.clearVotes();
         long label = existingLabels.get(nodeId);
-        localRelationshipIterator.forEachRelationship(nodeId, DEFAULT_WEIGHT, consumer);
+        localRelationshipIterator.relationships(nodeId, DEFAULT_WEIGHT, adjacency);
+        consumer.castVotes(adjacency);
         long newLabel = consumer.tallyVotes(label);
         if (newLabel != label) {
             existingLabels.set(nodeId, newLabel);
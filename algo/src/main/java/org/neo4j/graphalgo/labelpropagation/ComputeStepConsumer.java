@@ -21,11 +21,11 @@ package org.neo4j.graphalgo.labelpropagation;
 
 import com.carrotsearch.hppc.LongDoubleScatterMap;
 import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+import org.neo4j.graphalgo.api.AdjacencyBuffer;
 import org.neo4j.graphalgo.api.NodeProperties;
-import org.neo4j.graphalgo.api.RelationshipWithPropertyConsumer;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 
-final class ComputeStepConsumer implements RelationshipWithPropertyConsumer {
+final class ComputeStepConsumer {
 
     private final NodeProperties nodeWeights;
     private final HugeLongArray existingLabels;
@@ -40,10 +40,12 @@ final class ComputeStepConsumer implements RelationshipWithPropertyConsumer {
         this.votes = new LongDoubleScatterMap();
     }
 
-    @Override
-    public boolean accept(final long sourceNodeId, final long targetNodeId, final double property) {
-        castVote(targetNodeId, property);
-        return true;
+    void castVotes(AdjacencyBuffer adjacency) {
+        long[] targets = adjacency.targets();
+        double[] properties = adjacency.properties();
+        for (int i = 0, length = adjacency.length(); i < length; i++) {
+            castVote(targets[i], properties[i]);
+        }
     }
 
     private void castVote(long candidate, double weight) {
@@ -28,6 +28,8 @@ import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 
 final class InitStep implements Step {
 
+    private static final long NO_LABEL = Long.MIN_VALUE;
+
     private final NodeProperties nodeProperties;
     private final HugeLongArray existingLabels;
     private final PrimitiveLongIterable nodes;
@@ -58,7 +60,7 @@ final class InitStep implements Step {
         PrimitiveLongIterator iterator = nodes.iterator();
         while (iterator.hasNext()) {
             long nodeId = iterator.next();
-            double existingLabelValue = nodeProperties.nodeProperty(nodeId, Double.NaN);
+            long existingLabel = nodeProperties.nodeLongProperty(nodeId, NO_LABEL);
             // if there is no provided value for this node, we could start adding
             // to the max provided id and continue from there, but that might
             // clash with node IDs. If we have loaded a graph with a greater node ID
@@ -69,9 +71,9 @@ final class InitStep implements Step {
             // node ID to maintain determinism since our internal node IDs are not
             // guaranteed to always map in the same fashion to the original IDs and those
             // one are as stable as we need them to be for getting deterministic results.
-            long existingLabel = Double.isNaN(existingLabelValue)
-                    ? maxLabelId + graph.toOriginalNodeId(nodeId) + 1L
-                    : (long) existingLabelValue;
+            if (existingLabel == NO_LABEL) {
+                existingLabel = maxLabelId + graph.toOriginalNodeId(nodeId) + 1L;
+            }
             existingLabels.set(nodeId, existingLabel);
         }
     }
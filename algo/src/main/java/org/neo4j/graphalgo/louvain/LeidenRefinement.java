@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.louvain;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.cursors.LongDoubleCursor;
+import org.apache.commons.lang3.mutable.MutableDouble;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipIterator;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongLongMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongUnaryOperator;
+
+import static org.neo4j.graphalgo.core.utils.ParallelUtil.DEFAULT_BATCH_SIZE;
+
+/**
+ * Refinement phase of the Leiden algorithm based on:
+ *
+ * Traag, V.A., Waltman, L. &amp; van Eck, N.J.
+ * "From Louvain to Leiden: guaranteeing well-connected communities."
+ * Sci Rep 9, 5233 (2019).
+ * https://arxiv.org/pdf/1810.08473.pdf
+ *
+ * Every community is split into refined communities, which start as singletons.
+ * A singleton node is merged into the refined community of the same community that
+ * yields the largest modularity gain, if both are well connected to the rest of the community.
+ * Refined communities are therefore always connected.
+ *
+ * Nodes are visited in id order and the largest gain is chosen instead of sampling a community.
+ * Communities are independent of each other and are refined in parallel, each one by a single task.
+ */
+final class LeidenRefinement {
+
+    private final Graph graph;
+    private final LongUnaryOperator communities;
+    private final long nodeCount;
+    private final double doubleTotalNodeWeight;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+
+    static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(LeidenRefinement.class)
+            .add("communityMapping", HugeLongLongMap.memoryEstimation())
+            .perNode("communityIndices", HugeLongArray::memoryEstimation)
+            .perNode("communityOffsets", HugeLongArray::memoryEstimation)
+            .perNode("communityMembers", HugeLongArray::memoryEstimation)
+            .perNode("refinedCommunities", HugeLongArray::memoryEstimation)
+            .perNode("nodeWeights", HugeDoubleArray::memoryEstimation)
+            .perNode("refinedWeights", HugeDoubleArray::memoryEstimation)
+            .perNode("externalWeights", HugeDoubleArray::memoryEstimation)
+            .perNode("merged", HugeAtomicBitSet::memoryEstimation)
+            .build();
+    }
+
+    /**
+     * @param communities     maps every node of the graph to its community
+     * @param totalNodeWeight the sum of all relationship weights, see {@link org.neo4j.graphalgo.beta.modularity.ModularityOptimization#getTotalNodeWeight()}
+     */
+    LeidenRefinement(
+        Graph graph,
+        LongUnaryOperator communities,
+        double totalNodeWeight,
+        int concurrency,
+        ExecutorService executor,
+        AllocationTracker tracker
+    ) {
+        this.graph = graph;
+        this.communities = communities;
+        this.nodeCount = graph.nodeCount();
+        this.doubleTotalNodeWeight = 2.0 * totalNodeWeight;
+        this.concurrency = concurrency;
+        this.executor = executor;
+        this.tracker = tracker;
+    }
+
+    /**
+     * Returns the refined community of every node. Refined communities are identified by one of their nodes.
+     */
+    HugeLongArray compute() {
+        HugeLongArray communityIndices = HugeLongArray.newArray(nodeCount, tracker);
+        HugeLongLongMap communityMapping = new HugeLongLongMap(nodeCount, tracker);
+        long communityCount = 0L;
+
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            long community = communities.applyAsLong(nodeId);
+            long communityIndex = communityMapping.getOrDefault(community, -1L);
+            if (communityIndex < 0) {
+                communityIndex = communityCount++;
+                communityMapping.addTo(community, communityIndex);
+            }
+            communityIndices.set(nodeId, communityIndex);
+        }
+        communityMapping.release();
+
+        // group the nodes by community, offsets[c] is the end of community c after the second pass
+        HugeLongArray offsets = HugeLongArray.newArray(communityCount + 1, tracker);
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            offsets.addTo(communityIndices.get(nodeId) + 1, 1L);
+        }
+        for (long communityIndex = 1L; communityIndex <= communityCount; communityIndex++) {
+            offsets.set(communityIndex, offsets.get(communityIndex) + offsets.get(communityIndex - 1));
+        }
+        HugeLongArray members = HugeLongArray.newArray(nodeCount, tracker);
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            long communityIndex = communityIndices.get(nodeId);
+            long position = offsets.get(communityIndex);
+            members.set(position, nodeId);
+            offsets.set(communityIndex, position + 1);
+        }
+
+        HugeLongArray refinedCommunities = HugeLongArray.newArray(nodeCount, tracker);
+        HugeDoubleArray nodeWeights = HugeDoubleArray.newArray(nodeCount, tracker);
+        HugeDoubleArray refinedWeights = HugeDoubleArray.newArray(nodeCount, tracker);
+        HugeDoubleArray externalWeights = HugeDoubleArray.newArray(nodeCount, tracker);
+        HugeAtomicBitSet merged = HugeAtomicBitSet.create(nodeCount, tracker);
+
+        // split the communities into batches of roughly the same number of nodes
+        long batchSize = ParallelUtil.adjustedBatchSize(nodeCount, concurrency, DEFAULT_BATCH_SIZE, Integer.MAX_VALUE);
+        Collection<RefinementTask> tasks = new ArrayList<>(concurrency);
+        long batchStart = 0L;
+        long batchStartOffset = 0L;
+        for (long communityIndex = 0L; communityIndex < communityCount; communityIndex++) {
+            long endOffset = offsets.get(communityIndex);
+            if (endOffset - batchStartOffset >= batchSize || communityIndex == communityCount - 1) {
+                tasks.add(new RefinementTask(
+                    batchStart,
+                    communityIndex + 1,
+                    offsets,
+                    members,
+                    communityIndices,
+                    refinedCommunities,
+                    nodeWeights,
+                    refinedWeights,
+                    externalWeights,
+                    merged
+                ));
+                batchStart = communityIndex + 1;
+                batchStartOffset = endOffset;
+            }
+        }
+
+        ParallelUtil.runWithConcurrency(concurrency, tasks, executor);
+
+        communityIndices.release();
+        offsets.release();
+        members.release();
+        nodeWeights.release();
+        refinedWeights.release();
+        externalWeights.release();
+        merged.release();
+
+        return refinedCommunities;
+    }
+
+    private final class RefinementTask implements Runnable {
+
+        private final long communityStart;
+        private final long communityEnd;
+        private final HugeLongArray offsets;
+        private final HugeLongArray members;
+        private final HugeLongArray communityIndices;
+        private final HugeLongArray refinedCommunities;
+        private final HugeDoubleArray nodeWeights;
+        private final HugeDoubleArray refinedWeights;
+        private final HugeDoubleArray externalWeights;
+        private final HugeAtomicBitSet merged;
+        private final RelationshipIterator localGraph;
+        private final LongDoubleHashMap neighbourWeights;
+
+        RefinementTask(
+            long communityStart,
+            long communityEnd,
+            HugeLongArray offsets,
+            HugeLongArray members,
+            HugeLongArray communityIndices,
+            HugeLongArray refinedCommunities,
+            HugeDoubleArray nodeWeights,
+            HugeDoubleArray refinedWeights,
+            HugeDoubleArray externalWeights,
+            HugeAtomicBitSet merged
+        ) {
+            this.communityStart = communityStart;
+            this.communityEnd = communityEnd;
+            this.offsets = offsets;
+            this.members = members;
+            this.communityIndices = communityIndices;
+            this.refinedCommunities = refinedCommunities;
+            this.nodeWeights = nodeWeights;
+            this.refinedWeights = refinedWeights;
+            this.externalWeights = externalWeights;
+            this.merged = merged;
+            this.localGraph = graph.concurrentCopy();
+            this.neighbourWeights = new LongDoubleHashMap(50);
+        }
+
+        @Override
+        public void run() {
+            for (long communityIndex = communityStart; communityIndex < communityEnd; communityIndex++) {
+                long start = communityIndex == 0 ? 0L : offsets.get(communityIndex - 1);
+                long end = offsets.get(communityIndex);
+                refineCommunity(communityIndex, start, end);
+            }
+        }
+
+        private void refineCommunity(long communityIndex, long start, long end) {
+            if (end - start == 1) {
+                long nodeId = members.get(start);
+                refinedCommunities.set(nodeId, nodeId);
+                return;
+            }
+
+            double communityWeight = 0.0;
+            for (long position = start; position < end; position++) {
+                long nodeId = members.get(position);
+                MutableDouble nodeWeight = new MutableDouble(0.0);
+                MutableDouble externalWeight = new MutableDouble(0.0);
+                localGraph.forEachRelationship(nodeId, 1.0, (s, t, w) -> {
+                    nodeWeight.add(w);
+                    if (s != t && communityIndices.get(t) == communityIndex) {
+                        externalWeight.add(w);
+                    }
+                    return true;
+                });
+                refinedCommunities.set(nodeId, nodeId);
+                nodeWeights.set(nodeId, nodeWeight.doubleValue());
+                refinedWeights.set(nodeId, nodeWeight.doubleValue());
+                externalWeights.set(nodeId, externalWeight.doubleValue());
+                communityWeight += nodeWeight.doubleValue();
+            }
+
+            for (long position = start; position < end; position++) {
+                long nodeId = members.get(position);
+                if (merged.get(nodeId)) {
+                    continue;
+                }
+
+                double nodeWeight = nodeWeights.get(nodeId);
+                if (!isWellConnected(externalWeights.get(nodeId), nodeWeight, communityWeight)) {
+                    continue;
+                }
+
+                neighbourWeights.clear();
+                localGraph.forEachRelationship(nodeId, 1.0, (s, t, w) -> {
+                    if (s != t && communityIndices.get(t) == communityIndex) {
+                        neighbourWeights.addTo(refinedCommunities.get(t), w);
+                    }
+                    return true;
+                });
+
+                long bestCommunity = -1L;
+                double bestGain = 0.0;
+                double bestWeight = 0.0;
+                for (LongDoubleCursor cursor : neighbourWeights) {
+                    long candidate = cursor.key;
+                    double candidateWeight = refinedWeights.get(candidate);
+                    if (!isWellConnected(externalWeights.get(candidate), candidateWeight, communityWeight)) {
+                        continue;
+                    }
+                    double gain = cursor.value - nodeWeight * candidateWeight / doubleTotalNodeWeight;
+                    if (gain > bestGain || (gain == bestGain && gain > 0.0 && candidate < bestCommunity)) {
+                        bestCommunity = candidate;
+                        bestGain = gain;
+                        bestWeight = cursor.value;
+                    }
+                }
+
+                if (bestCommunity != -1L) {
+                    refinedCommunities.set(nodeId, bestCommunity);
+                    refinedWeights.addTo(bestCommunity, nodeWeight);
+                    externalWeights.addTo(
+                        bestCommunity,
+                        externalWeights.get(nodeId) - 2.0 * bestWeight
+                    );
+                    merged.set(nodeId);
+                    merged.set(bestCommunity);
+                }
+            }
+        }
+
+        // a set is well connected, if the weight of its relationships to the rest of the community
+        // is at least the weight expected in a random graph
+        private boolean isWellConnected(double externalWeight, double weight, double communityWeight) {
+            return externalWeight >= weight * (communityWeight - weight) / doubleTotalNodeWeight;
+        }
+    }
+}
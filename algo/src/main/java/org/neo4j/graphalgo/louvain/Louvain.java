@@ -20,12 +20,10 @@
 package org.neo4j.graphalgo.louvain;
 
 import org.neo4j.graphalgo.Algorithm;
-import org.neo4j.graphalgo.Projection;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.beta.modularity.ModularityOptimization;
-import org.neo4j.graphalgo.core.Aggregation;
-import org.neo4j.graphalgo.core.loading.GraphGenerator;
+import org.neo4j.graphalgo.core.loading.CommunityGraphBuilder;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
@@ -35,6 +33,7 @@ import org.neo4j.logging.Log;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
 
 import static org.neo4j.graphalgo.core.utils.ParallelUtil.DEFAULT_BATCH_SIZE;
 
@@ -74,6 +73,10 @@ public final class Louvain extends Algorithm<Louvain, Louvain> {
 
         Graph workingGraph = rootGraph;
         NodeProperties nextSeedingValues = seedingValues;
+        // maps every root node to the original id of its node in the working graph
+        HugeLongArray workingNodes = config.refinement()
+            ? HugeLongArray.newArray(rootGraph.nodeCount(), tracker)
+            : null;
 
         long oldNodeCount = rootGraph.nodeCount();
         for (ranLevels = 0; ranLevels < config.maxLevels(); ranLevels++) {
@@ -89,10 +92,35 @@ public final class Louvain extends Algorithm<Louvain, Louvain> {
 
                 modularities[ranLevels] = modularityOptimization.getModularity();
                 dendrograms[ranLevels] = HugeLongArray.newArray(rootGraph.nodeCount(), tracker);
-                long maxCommunityId = buildDendrogram(workingGraph, ranLevels, modularityOptimization);
 
-                workingGraph = summarizeGraph(workingGraph, modularityOptimization, maxCommunityId);
-                nextSeedingValues = new OriginalIdNodeProperties(workingGraph);
+                if (config.refinement()) {
+                    HugeLongArray refinedCommunities = new LeidenRefinement(
+                        workingGraph,
+                        modularityOptimization::getCommunityId,
+                        modularityOptimization.getTotalNodeWeight(),
+                        config.concurrency(),
+                        executorService,
+                        tracker
+                    ).compute();
+
+                    buildDendrogram(workingGraph, ranLevels, modularityOptimization, workingNodes, refinedCommunities);
+
+                    // aggregate the refined communities, but start the next level from the unrefined ones
+                    workingGraph = summarizeGraph(workingGraph, refinedCommunities::get, workingGraph.nodeCount());
+                    nextSeedingValues = new CommunityNodeProperties(workingGraph, modularityOptimization::getCommunityId);
+                    refinedCommunities.release();
+                } else {
+                    long maxCommunityId = buildDendrogram(
+                        workingGraph,
+                        ranLevels,
+                        modularityOptimization,
+                        ranLevels == 0 ? null : dendrograms[ranLevels - 1],
+                        null
+                    );
+
+                    workingGraph = summarizeGraph(workingGraph, modularityOptimization::getCommunityId, maxCommunityId);
+                    nextSeedingValues = new OriginalIdNodeProperties(workingGraph);
+                }
             }
 
             if (workingGraph.nodeCount() == oldNodeCount
@@ -121,20 +149,30 @@ public final class Louvain extends Algorithm<Louvain, Louvain> {
         this.modularities = resizedModularities;
     }
 
+    /**
+     * @param workingNodes       the original ids of the working graph nodes of the previous level, ignored for the first level
+     * @param refinedCommunities if present, {@code workingNodes} is updated to the refined communities of this level
+     */
     private long buildDendrogram(
         Graph workingGraph,
         int level,
-        ModularityOptimization modularityOptimization
+        ModularityOptimization modularityOptimization,
+        HugeLongArray workingNodes,
+        HugeLongArray refinedCommunities
     ) {
         AtomicLong maxCommunityId = new AtomicLong(0L);
         ParallelUtil.parallelForEachNode(rootGraph, (nodeId) -> {
             long prevId = level == 0
                 ? nodeId
-                : workingGraph.toMappedNodeId(dendrograms[level - 1].get(nodeId));
+                : workingGraph.toMappedNodeId(workingNodes.get(nodeId));
 
             final long communityId = modularityOptimization.getCommunityId(prevId);
             maxCommunityId.updateAndGet(currentMaxId -> Math.max(communityId, currentMaxId));
             dendrograms[level].set(nodeId, communityId);
+
+            if (refinedCommunities != null) {
+                workingNodes.set(nodeId, refinedCommunities.get(prevId));
+            }
         });
 
         return maxCommunityId.get();
@@ -146,6 +184,7 @@ public final class Louvain extends Algorithm<Louvain, Louvain> {
             10,
             config.tolerance(),
             seed,
+            config.refinement(),
             config.concurrency(),
             DEFAULT_BATCH_SIZE,
             executorService,
@@ -160,39 +199,17 @@ public final class Louvain extends Algorithm<Louvain, Louvain> {
         return modularityOptimization;
     }
 
-    private Graph summarizeGraph(Graph workingGraph, ModularityOptimization modularityOptimization, long maxCommunityId) {
-        GraphGenerator.NodeImporter nodeImporter = GraphGenerator.createNodeImporter(
+    private Graph summarizeGraph(Graph workingGraph, LongUnaryOperator communities, long maxCommunityId) {
+        assertRunning();
+
+        return new CommunityGraphBuilder(
+            workingGraph,
+            communities,
             maxCommunityId,
+            config.concurrency(),
             executorService,
             tracker
-        );
-
-        assertRunning();
-
-        workingGraph.forEachNode((nodeId) -> {
-            nodeImporter.addNode(modularityOptimization.getCommunityId(nodeId));
-            return true;
-        });
-
-        assertRunning();
-
-        GraphGenerator.RelImporter relImporter = GraphGenerator.createRelImporter(
-            nodeImporter,
-            rootGraph.isUndirected() ? Projection.UNDIRECTED : Projection.NATURAL,
-            true,
-            Aggregation.SUM
-        );
-
-        workingGraph.forEachNode((nodeId) -> {
-            long communityId = modularityOptimization.getCommunityId(nodeId);
-            workingGraph.forEachRelationship(nodeId, 1.0, (source, target, property) -> {
-                relImporter.add(communityId, modularityOptimization.getCommunityId(target), property);
-                return true;
-            });
-            return true;
-        });
-
-        return relImporter.buildGraph();
+        ).build();
     }
 
     private boolean hasConverged() {
@@ -260,5 +277,34 @@ public final class Louvain extends Algorithm<Louvain, Louvain> {
         public double nodeProperty(long nodeId) {
             return graph.toOriginalNodeId(nodeId);
         }
+
+        @Override
+        public long nodeLongProperty(long nodeId, long defaultValue) {
+            return graph.toOriginalNodeId(nodeId);
+        }
+    }
+
+    /**
+     * Seeds the nodes of a graph that has been summarized from refined communities
+     * with the community of the refined community in the previous level.
+     */
+    static class CommunityNodeProperties implements NodeProperties {
+        private final Graph graph;
+        private final LongUnaryOperator communities;
+
+        CommunityNodeProperties(Graph graph, LongUnaryOperator communities) {
+            this.graph = graph;
+            this.communities = communities;
+        }
+
+        @Override
+        public double nodeProperty(long nodeId) {
+            return communities.applyAsLong(graph.toOriginalNodeId(nodeId));
+        }
+
+        @Override
+        public long nodeLongProperty(long nodeId, long defaultValue) {
+            return communities.applyAsLong(graph.toOriginalNodeId(nodeId));
+        }
     }
 }
@@ -54,4 +54,9 @@ public interface LouvainBaseConfig extends
     default boolean includeIntermediateCommunities() {
         return false;
     }
+
+    @Value.Default
+    default boolean refinement() {
+        return false;
+    }
 }
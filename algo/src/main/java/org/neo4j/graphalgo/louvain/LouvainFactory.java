@@ -28,6 +28,7 @@ import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.logging.Log;
 
@@ -51,7 +52,7 @@ public class LouvainFactory<CONFIG extends LouvainBaseConfig> extends AlgorithmF
 
     @Override
     public MemoryEstimation memoryEstimation(CONFIG config) {
-        return MemoryEstimations.builder(Louvain.class)
+        MemoryEstimations.Builder builder = MemoryEstimations.builder(Louvain.class)
             .add("modularityOptimization()", ModularityOptimizationFactory.MEMORY_ESTIMATION)
             .rangePerGraphDimension("subGraph", (graphDimensions, concurrency) -> {
                 // TODO: copy graphDimensions but keep only one node and rel property
@@ -65,7 +66,15 @@ public class LouvainFactory<CONFIG extends LouvainBaseConfig> extends AlgorithmF
             .rangePerNode("dendrograms", (nodeCount) -> MemoryRange.of(
                 HugeLongArray.memoryEstimation(nodeCount),
                 HugeLongArray.memoryEstimation(nodeCount) * config.maxLevels()
-            ))
-            .build();
+            ));
+
+        if (config.refinement()) {
+            builder
+                .add("refinement", LeidenRefinement.memoryEstimation())
+                .perNode("activeNodes", nodeCount -> 2 * HugeAtomicBitSet.memoryEstimation(nodeCount))
+                .perNode("workingNodes", HugeLongArray::memoryEstimation);
+        }
+
+        return builder.build();
     }
 }
@@ -19,16 +19,16 @@
  */
 package org.neo4j.graphalgo.pagerank;
 
+import org.neo4j.graphalgo.api.AdjacencyBuffer;
 import org.neo4j.graphalgo.api.Graph;
-import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 
 import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
 
-public class NonWeightedComputeStep extends BaseComputeStep implements RelationshipConsumer {
+public class NonWeightedComputeStep extends BaseComputeStep {
 
-    private float srcRankDelta;
+    private final AdjacencyBuffer adjacency;
 
     NonWeightedComputeStep(
             double dampingFactor,
@@ -47,30 +47,31 @@ public class NonWeightedComputeStep extends BaseComputeStep implements Relations
                 partitionSize,
                 startNode
         );
+        this.adjacency = new AdjacencyBuffer();
     }
 
     void singleIteration() {
         long startNode = this.startNode;
         long endNode = this.endNode;
         RelationshipIterator rels = this.relationshipIterator;
+        AdjacencyBuffer adjacency = this.adjacency;
         for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
             double delta = deltas[(int) (nodeId - startNode)];
             if (delta > 0.0) {
                 int degree = degrees.degree(nodeId);
                 if (degree > 0) {
-                    srcRankDelta = (float) (delta / degree);
-                    rels.forEachRelationship(nodeId, this);
+                    float srcRankDelta = (float) (delta / degree);
+                    if (srcRankDelta != 0F) {
+                        rels.relationships(nodeId, adjacency);
+                        long[] targets = adjacency.targets();
+                        for (int i = 0, length = adjacency.length(); i < length; i++) {
+                            long targetNodeId = targets[i];
+                            int idx = binaryLookup(targetNodeId, starts);
+                            nextScores[idx][(int) (targetNodeId - starts[idx])] += srcRankDelta;
+                        }
+                    }
                 }
             }
         }
     }
-
-    @Override
-    public boolean accept(long sourceNodeId, long targetNodeId) {
-        if (srcRankDelta != 0F) {
-            int idx = binaryLookup(targetNodeId, starts);
-            nextScores[idx][(int) (targetNodeId - starts[idx])] += srcRankDelta;
-        }
-        return true;
-    }
 }
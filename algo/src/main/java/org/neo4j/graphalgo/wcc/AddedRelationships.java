@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.wcc;
+
+import com.carrotsearch.hppc.LongArrayList;
+
+/**
+ * Relationships that have been added to a graph since its components have last been computed,
+ * in the node id space of that graph.
+ */
+public final class AddedRelationships {
+
+    private final LongArrayList sourceNodeIds;
+    private final LongArrayList targetNodeIds;
+
+    public AddedRelationships() {
+        this.sourceNodeIds = new LongArrayList();
+        this.targetNodeIds = new LongArrayList();
+    }
+
+    public void add(long sourceNodeId, long targetNodeId) {
+        sourceNodeIds.add(sourceNodeId);
+        targetNodeIds.add(targetNodeId);
+    }
+
+    public int relationshipCount() {
+        return sourceNodeIds.size();
+    }
+
+    long sourceNodeId(int index) {
+        return sourceNodeIds.get(index);
+    }
+
+    long targetNodeId(int index) {
+        return targetNodeIds.get(index);
+    }
+}
@@ -19,34 +19,61 @@
  */
 package org.neo4j.graphalgo.wcc;
 
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.cursors.LongIntCursor;
+import org.jetbrains.annotations.Nullable;
 import org.neo4j.graphalgo.Algorithm;
+import org.neo4j.graphalgo.api.AdjacencyBuffer;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.NodeProperties;
-import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIterator;
 import org.neo4j.graphalgo.api.RelationshipWithPropertyConsumer;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.dss.DeltaDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.dss.HugeAtomicDisjointSetStruct;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.SplittableRandom;
 import java.util.concurrent.ExecutorService;
+import java.util.function.LongFunction;
 
 /**
  * Parallel Union-Find Algorithm based on the
  * "Wait-free Parallel Algorithms for the Union-Find Problem" paper.
  *
+ * <p>
+ * With {@link WccBaseConfig#sampling()}, the components are computed as described in the
+ * "Afforest: A Fast Concurrent Algorithm for Connected Components" paper: only the first few relationships of every
+ * node are linked at first, which is usually enough to form the largest component.
+ * The remaining relationships are linked afterwards, but on undirected graphs the nodes that are already
+ * part of the largest component are skipped entirely.
+ *
+ * <p>
+ * If the components of a previous computation are given as seeds together with the relationships that have been
+ * added since, only the added relationships are linked and the graph itself is not traversed.
+ *
  * @see HugeAtomicDisjointSetStruct
+ * @see DeltaDisjointSetStruct
  * @see <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.56.8354&rep=rep1&type=pdf">the paper</a>
+ * @see <a href="https://arxiv.org/abs/1811.07926">Afforest</a>
  */
 public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
 
+    // number of relationships per node that are linked before the largest component is identified
+    static final int NEIGHBOR_ROUNDS = 2;
+    // number of nodes that are sampled to identify the largest component
+    static final int SAMPLING_SIZE = 1024;
+
+    private static final long NO_COMPONENT = -1L;
+
     private final WccBaseConfig config;
     private final NodeProperties initialComponents;
+    private final @Nullable AddedRelationships addedRelationships;
     private final ExecutorService executor;
     private final AllocationTracker tracker;
     private final long nodeCount;
@@ -62,11 +89,33 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
             .build();
     }
 
+    public static MemoryEstimation deltaMemoryEstimation() {
+        return MemoryEstimations
+            .builder(Wcc.class)
+            .add("dss", DeltaDisjointSetStruct.memoryEstimation())
+            .build();
+    }
+
+    public Wcc(
+        Graph graph,
+        ExecutorService executor,
+        int minBatchSize,
+        WccBaseConfig config,
+        AllocationTracker tracker
+    ) {
+        this(graph, executor, minBatchSize, config, null, tracker);
+    }
+
+    /**
+     * @param addedRelationships relationships to link into the seeded components instead of the relationships
+     *                           of the graph, requires {@link WccBaseConfig#seedProperty()}
+     */
     public Wcc(
         Graph graph,
         ExecutorService executor,
         int minBatchSize,
         WccBaseConfig config,
+        @Nullable AddedRelationships addedRelationships,
         AllocationTracker tracker
     ) {
         this.graph = graph;
@@ -74,6 +123,10 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
         this.initialComponents = config.isIncremental()
             ? graph.nodeProperties(config.seedProperty())
             : null;
+        if (addedRelationships != null && initialComponents == null) {
+            throw new IllegalArgumentException("Linking added relationships requires `seedProperty` to be set.");
+        }
+        this.addedRelationships = addedRelationships;
         this.executor = executor;
         this.tracker = tracker;
         this.nodeCount = graph.nodeCount();
@@ -111,15 +164,62 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
             ? new HugeAtomicDisjointSetStruct(nodeCount, initialComponents, tracker)
             : new HugeAtomicDisjointSetStruct(nodeCount, tracker);
 
+        if (config.sampling()) {
+            computeSampled(dss, threshold);
+        } else {
+            run(offset -> newTask(threshold, dss, offset, 0, NO_COMPONENT));
+        }
+        return dss;
+    }
+
+    private void computeSampled(DisjointSetStruct dss, double threshold) {
+        run(offset -> new SamplingTask(threshold, dss, offset));
+
+        // Relationships of nodes in the largest component can only be skipped if the relationships
+        // are also visited from the other side. With seeding, nodes of the same component are not
+        // necessarily linked, so the component does not tell whether a relationship has been covered.
+        long largestComponent = graph.isUndirected() && !config.isIncremental() && nodeCount > 0
+            ? largestComponent(dss)
+            : NO_COMPONENT;
+        run(offset -> newTask(threshold, dss, offset, NEIGHBOR_ROUNDS, largestComponent));
+    }
+
+    private long largestComponent(DisjointSetStruct dss) {
+        SplittableRandom random = new SplittableRandom(nodeCount);
+        LongIntHashMap sampleCounts = new LongIntHashMap();
+        for (int i = 0; i < SAMPLING_SIZE; i++) {
+            sampleCounts.addTo(dss.setIdOf(random.nextLong(nodeCount)), 1);
+        }
+
+        long largestComponent = NO_COMPONENT;
+        int largestCount = 0;
+        for (LongIntCursor sample : sampleCounts) {
+            if (sample.value > largestCount) {
+                largestComponent = sample.key;
+                largestCount = sample.value;
+            }
+        }
+        return largestComponent;
+    }
+
+    private WCCTask newTask(
+        double threshold,
+        DisjointSetStruct dss,
+        long offset,
+        int skipRelationships,
+        long skipComponent
+    ) {
+        return Double.isNaN(threshold)
+            ? new WCCTask(dss, offset, skipRelationships, skipComponent)
+            : new WCCWithThresholdTask(threshold, dss, offset, skipRelationships, skipComponent);
+    }
+
+    private void run(LongFunction<Runnable> taskFactory) {
         final Collection<Runnable> tasks = new ArrayList<>(threadSize);
         for (long i = 0L; i < this.nodeCount; i += batchSize) {
-            WCCTask wccTask = Double.isNaN(threshold)
-                ? new WCCTask(dss, i)
-                : new WCCWithThresholdTask(threshold, dss, i);
-            tasks.add(wccTask);
+            tasks.add(taskFactory.apply(i));
         }
         ParallelUtil.run(tasks, executor);
-        return dss;
     }
 
     public double threshold() {
@@ -128,9 +228,24 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
 
     @Override
     public DisjointSetStruct compute() {
+        if (addedRelationships != null) {
+            return computeDelta(addedRelationships);
+        }
         return Double.isFinite(threshold()) ? compute(threshold()) : computeUnrestricted();
     }
 
+    private DisjointSetStruct computeDelta(AddedRelationships addedRelationships) {
+        DeltaDisjointSetStruct dss = new DeltaDisjointSetStruct(nodeCount, initialComponents);
+        for (int i = 0, count = addedRelationships.relationshipCount(); i < count; i++) {
+            dss.union(addedRelationships.sourceNodeId(i), addedRelationships.targetNodeId(i));
+            if (i % RUN_CHECK_NODE_COUNT == 0) {
+                assertRunning();
+            }
+        }
+        getProgressLogger().logDone();
+        return dss;
+    }
+
     @Override
     public Wcc me() {
         return this;
@@ -141,16 +256,22 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
         graph = null;
     }
 
-    private class WCCTask implements Runnable, RelationshipConsumer {
+    private class WCCTask implements Runnable {
 
         final DisjointSetStruct struct;
         final RelationshipIterator rels;
+        final AdjacencyBuffer adjacency;
+        final int skipRelationships;
+        private final long skipComponent;
         private final long offset;
         private final long end;
 
-        WCCTask(DisjointSetStruct struct, long offset) {
+        WCCTask(DisjointSetStruct struct, long offset, int skipRelationships, long skipComponent) {
             this.struct = struct;
             this.rels = graph.concurrentCopy();
+            this.adjacency = new AdjacencyBuffer();
+            this.skipRelationships = skipRelationships;
+            this.skipComponent = skipComponent;
             this.offset = offset;
             this.end = Math.min(offset + batchSize, nodeCount);
         }
@@ -158,7 +279,9 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
         @Override
         public void run() {
             for (long node = offset; node < end; node++) {
-                compute(node);
+                if (skipComponent == NO_COMPONENT || struct.setIdOf(node) != skipComponent) {
+                    compute(node);
+                }
                 if (node % RUN_CHECK_NODE_COUNT == 0) {
                     assertRunning();
                 }
@@ -167,36 +290,80 @@ public class Wcc extends Algorithm<Wcc, DisjointSetStruct> {
         }
 
         void compute(final long node) {
-            rels.forEachRelationship(node, this);
+            rels.relationships(node, adjacency);
+            long[] targets = adjacency.targets();
+            for (int i = skipRelationships, length = adjacency.length(); i < length; i++) {
+                struct.union(node, targets[i]);
+            }
+        }
+    }
+
+    private class WCCWithThresholdTask extends WCCTask {
+
+        private final double threshold;
+
+        WCCWithThresholdTask(
+            double threshold,
+            DisjointSetStruct struct,
+            long offset,
+            int skipRelationships,
+            long skipComponent
+        ) {
+            super(struct, offset, skipRelationships, skipComponent);
+            this.threshold = threshold;
         }
 
         @Override
-        public boolean accept(final long sourceNodeId, final long targetNodeId) {
-            struct.union(sourceNodeId, targetNodeId);
-            return true;
+        void compute(final long node) {
+            rels.relationships(node, Wcc.defaultWeight(threshold), adjacency);
+            long[] targets = adjacency.targets();
+            double[] properties = adjacency.properties();
+            for (int i = skipRelationships, length = adjacency.length(); i < length; i++) {
+                if (properties[i] > threshold) {
+                    struct.union(node, targets[i]);
+                }
+            }
         }
     }
 
-    private class WCCWithThresholdTask extends WCCTask implements RelationshipWithPropertyConsumer {
+    /**
+     * Links the first {@link #NEIGHBOR_ROUNDS} relationships of every node.
+     */
+    private class SamplingTask implements Runnable, RelationshipWithPropertyConsumer {
 
         private final double threshold;
+        private final DisjointSetStruct struct;
+        private final RelationshipIterator rels;
+        private final long offset;
+        private final long end;
+        private int visited;
 
-        WCCWithThresholdTask(double threshold, DisjointSetStruct struct, long offset) {
-            super(struct, offset);
+        SamplingTask(double threshold, DisjointSetStruct struct, long offset) {
             this.threshold = threshold;
+            this.struct = struct;
+            this.rels = graph.concurrentCopy();
+            this.offset = offset;
+            this.end = Math.min(offset + batchSize, nodeCount);
         }
 
         @Override
-        void compute(final long node) {
-            rels.forEachRelationship(node, Wcc.defaultWeight(threshold), this);
+        public void run() {
+            double fallbackValue = Wcc.defaultWeight(threshold);
+            for (long node = offset; node < end; node++) {
+                visited = 0;
+                rels.forEachRelationship(node, fallbackValue, this);
+                if (node % RUN_CHECK_NODE_COUNT == 0) {
+                    assertRunning();
+                }
+            }
         }
 
         @Override
-        public boolean accept(final long sourceNodeId, final long targetNodeId, final double property) {
-            if (property > threshold) {
+        public boolean accept(long sourceNodeId, long targetNodeId, double property) {
+            if (Double.isNaN(threshold) || property > threshold) {
                 struct.union(sourceNodeId, targetNodeId);
             }
-            return true;
+            return ++visited < NEIGHBOR_ROUNDS;
         }
     }
 }
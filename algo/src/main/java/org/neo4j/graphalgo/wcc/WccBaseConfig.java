@@ -20,6 +20,7 @@
 package org.neo4j.graphalgo.wcc;
 
 import org.immutables.value.Value;
+import org.jetbrains.annotations.Nullable;
 import org.neo4j.graphalgo.annotation.Configuration;
 import org.neo4j.graphalgo.newapi.AlgoBaseConfig;
 import org.neo4j.graphalgo.newapi.SeedConfig;
@@ -37,11 +38,32 @@ public interface WccBaseConfig extends AlgoBaseConfig, SeedConfig, RelationshipW
         return 0D;
     }
 
+    @Value.Default
+    default boolean sampling() {
+        return false;
+    }
+
+    @Value.Default
+    @Configuration.ConvertWith("org.apache.commons.lang3.StringUtils#trimToNull")
+    default @Nullable String deltaQuery() {
+        return null;
+    }
+
+    @Value.Default
+    default boolean deltaFromCatalog() {
+        return false;
+    }
+
     @Configuration.Ignore
     default boolean isIncremental() {
         return seedProperty() != null;
     }
 
+    @Configuration.Ignore
+    default boolean isDelta() {
+        return deltaQuery() != null || deltaFromCatalog();
+    }
+
     @Value.Check
     default void validate() {
         if (threshold() > 0 && relationshipWeightProperty() == null) {
@@ -51,5 +73,21 @@ public interface WccBaseConfig extends AlgoBaseConfig, SeedConfig, RelationshipW
         if (isIncremental() && consecutiveIds()) {
            throw new IllegalArgumentException("Seeding and the `consecutiveIds` option cannot be used at the same time.");
         }
+
+        if (isDelta() && !isIncremental()) {
+            throw new IllegalArgumentException("Linking added relationships requires `seedProperty` to be set.");
+        }
+
+        if (isDelta() && threshold() > 0) {
+            throw new IllegalArgumentException("The `threshold` option cannot be used together with `deltaQuery` or `deltaFromCatalog`, as the weights of added relationships are not loaded.");
+        }
+
+        if (deltaQuery() != null && deltaFromCatalog()) {
+            throw new IllegalArgumentException("The `deltaQuery` and `deltaFromCatalog` options cannot be used at the same time.");
+        }
+
+        if (deltaFromCatalog() && !graphName().isPresent()) {
+            throw new IllegalArgumentException("The `deltaFromCatalog` option requires a named graph.");
+        }
     }
 }
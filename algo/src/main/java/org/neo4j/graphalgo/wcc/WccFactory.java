@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphalgo.wcc;
 
+import org.jetbrains.annotations.Nullable;
 import org.neo4j.graphalgo.AlgorithmFactory;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
@@ -27,21 +28,47 @@ import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.logging.Log;
 
+import java.util.function.Function;
+
 public class WccFactory<CONFIG extends WccBaseConfig> extends AlgorithmFactory<Wcc, CONFIG> {
 
+    private final @Nullable Function<Graph, AddedRelationships> addedRelationshipsLoader;
+
+    public WccFactory() {
+        this(null);
+    }
+
+    /**
+     * @param addedRelationshipsLoader loads the relationships that have been added to the graph,
+     *                                 used if the configuration asks for linking added relationships only
+     */
+    public WccFactory(@Nullable Function<Graph, AddedRelationships> addedRelationshipsLoader) {
+        this.addedRelationshipsLoader = addedRelationshipsLoader;
+    }
+
     @Override
     public Wcc build(Graph graph, CONFIG configuration, AllocationTracker tracker, Log log) {
+        AddedRelationships addedRelationships = null;
+        if (configuration.isDelta()) {
+            if (addedRelationshipsLoader == null) {
+                throw new IllegalArgumentException("Added relationships are not supported in this context.");
+            }
+            addedRelationships = addedRelationshipsLoader.apply(graph);
+        }
         return new Wcc(
             graph,
             Pools.DEFAULT,
             ParallelUtil.DEFAULT_BATCH_SIZE,
             configuration,
+            addedRelationships,
             tracker
         );
     }
 
     @Override
     public MemoryEstimation memoryEstimation(CONFIG config) {
-        return Wcc.memoryEstimation(config.isIncremental());
+        return config.isDelta()
+            ? Wcc.deltaMemoryEstimation()
+            : Wcc.memoryEstimation(config.isIncremental());
     }
 }
@@ -142,6 +142,37 @@ class ModularityOptimizationTest extends AlgoTestBase {
         assertTrue(pmo.getIterations() <= 3);
     }
 
+    @Test
+    void testWeightedWithActiveNodes() {
+        Graph graph = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .loadAnyRelationshipType()
+            .globalProjection(Projection.UNDIRECTED)
+            .addRelationshipProperty(PropertyMapping.of("weight", 1.0))
+            .build()
+            .graph(HugeGraphFactory.class);
+
+        ModularityOptimization pmo = new ModularityOptimization(
+            graph,
+            3,
+            TOLERANCE_DEFAULT,
+            null,
+            true,
+            3,
+            2,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY,
+            NullLog.getInstance()
+        );
+
+        pmo.compute();
+
+        assertEquals(0.4985, pmo.getModularity(), 0.001);
+        assertCommunities(getCommunityIds(graph.nodeCount(), pmo), new long[]{0, 4, 5}, new long[]{1, 2, 3});
+        assertTrue(pmo.getIterations() <= 3);
+    }
+
     @Test
     void testSeedingWithBiggerSeedValues() {
         Graph graph = new StoreLoaderBuilder()
@@ -291,9 +322,9 @@ class ModularityOptimizationTest extends AlgoTestBase {
 
     static Stream<Arguments> memoryEstimationTuples() {
         return Stream.of(
-            arguments(1, 5_614_088, 8_413_120),
-            arguments(4, 5_617_376, 14_413_384),
-            arguments(42, 5_659_024, 90_416_728)
+            arguments(1, 5_614_136, 9_213_160),
+            arguments(4, 5_617_424, 15_213_424),
+            arguments(42, 5_659_072, 91_216_768)
         );
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NodeValuesTest {
+
+    private static final NodeSchema SCHEMA = NodeSchema.builder()
+        .putLong("long")
+        .putDouble("double")
+        .putDoubleArray("array", 3)
+        .build();
+
+    @Test
+    void shouldStoreValuesByColumn() {
+        NodeValues nodeValues = NodeValues.of(SCHEMA, 4, AllocationTracker.EMPTY);
+
+        for (long nodeId = 0; nodeId < 4; nodeId++) {
+            nodeValues.setLongValue("long", nodeId, nodeId * 2);
+            nodeValues.setDoubleValue("double", nodeId, nodeId / 2.0);
+            for (int i = 0; i < 3; i++) {
+                nodeValues.setDoubleArrayValue("array", nodeId, i, nodeId * 10 + i);
+            }
+        }
+
+        for (long nodeId = 0; nodeId < 4; nodeId++) {
+            assertEquals(nodeId * 2, nodeValues.longValue("long", nodeId));
+            assertEquals(nodeId / 2.0, nodeValues.doubleValue("double", nodeId));
+            for (int i = 0; i < 3; i++) {
+                assertEquals(nodeId * 10 + i, nodeValues.doubleArrayValue("array", nodeId, i));
+            }
+        }
+
+        assertEquals(3, nodeValues.arrayWidth("array"));
+        assertEquals(12, nodeValues.doubleArrayProperties("array").size());
+        assertEquals(21.0, nodeValues.doubleArrayProperties("array").get(7));
+    }
+
+    @Test
+    void shouldAccessValuesByIndex() {
+        NodeValues nodeValues = NodeValues.of(SCHEMA, 4, AllocationTracker.EMPTY);
+        int longIndex = SCHEMA.indexOf("long");
+        int doubleIndex = SCHEMA.indexOf("double");
+        int arrayIndex = SCHEMA.indexOf("array");
+
+        assertEquals(0, longIndex);
+        assertEquals(1, doubleIndex);
+        assertEquals(2, arrayIndex);
+        assertEquals(-1, SCHEMA.indexOf("foo"));
+
+        nodeValues.setLongValue(longIndex, 1, 42L);
+        nodeValues.setDoubleValue(doubleIndex, 2, 4.2);
+        nodeValues.setDoubleArrayValue(arrayIndex, 3, 2, 1337.0);
+
+        assertEquals(42L, nodeValues.longValue("long", 1));
+        assertEquals(4.2, nodeValues.doubleValue("double", 2));
+        assertEquals(1337.0, nodeValues.doubleArrayValue("array", 3, 2));
+        assertEquals(1337.0, nodeValues.doubleArrayValue(arrayIndex, 3, 2));
+
+        assertThrows(IllegalArgumentException.class, () -> nodeValues.longValue(doubleIndex, 0));
+        assertThrows(IllegalArgumentException.class, () -> nodeValues.doubleValue(3, 0));
+    }
+
+    @Test
+    void shouldFailOnUnknownOrMistypedKeys() {
+        NodeValues nodeValues = NodeValues.of(SCHEMA, 4, AllocationTracker.EMPTY);
+
+        assertThrows(IllegalArgumentException.class, () -> nodeValues.longValue("foo", 0));
+        assertThrows(IllegalArgumentException.class, () -> nodeValues.longValue("double", 0));
+        assertThrows(IllegalArgumentException.class, () -> nodeValues.doubleArrayValue("long", 0, 0));
+    }
+
+    @Test
+    void shouldFailOnDuplicateKeys() {
+        assertThrows(IllegalArgumentException.class, () -> NodeSchema.builder().putLong("a").putDouble("a"));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.beta.pregel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.AlgoTestBase;
+import org.neo4j.graphalgo.StoreLoaderBuilder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PregelTest extends AlgoTestBase {
+
+    private static final String TEST_GRAPH =
+            "CREATE" +
+            "  (a:Node)" +
+            ", (b:Node)" +
+            ", (a)-[:TYPE]->(b)";
+
+    private static final PregelComputation SEND_TWICE = (pregel, nodeId, messages) -> {
+        if (pregel.isInitialSuperStep()) {
+            pregel.sendMessages(nodeId, 1.0);
+            pregel.sendMessages(nodeId, 2.0);
+        }
+    };
+
+    private Graph graph;
+
+    @BeforeEach
+    void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        runQuery(TEST_GRAPH);
+        graph = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .loadAnyRelationshipType()
+            .build()
+            .load(HugeGraphFactory.class);
+    }
+
+    @AfterEach
+    void shutdown() {
+        db.shutdown();
+    }
+
+    @Test
+    void shouldReceiveMessagesInNextSuperstep() {
+        PregelConfig config = new PregelConfig.Builder().build();
+
+        assertEquals(0.0, countMessages(config).run(1).get(1));
+        assertEquals(1.0, countMessages(config).run(3).get(1));
+    }
+
+    @Test
+    void shouldReceiveMessagesInSameSuperstepWhenAsynchronous() {
+        PregelConfig config = new PregelConfig.Builder().isAsynchronous(true).build();
+
+        assertEquals(1.0, countMessages(config).run(1).get(1));
+        // messages received in the same superstep are not received again in the next one
+        assertEquals(1.0, countMessages(config).run(3).get(1));
+    }
+
+    @Test
+    void shouldRejectAsynchronousModeWithCombiner() {
+        IllegalArgumentException ex = assertThrows(
+            IllegalArgumentException.class,
+            () -> new PregelConfig.Builder().isAsynchronous(true).withMessageCombiner(MessageCombiner.SUM).build()
+        );
+        assertTrue(ex.getMessage().contains("not supported together with a message combiner"));
+    }
+
+    @Test
+    void shouldFailWhenSendingMoreThanOncePerSuperstep() {
+        Pregel pregelJob = Pregel.withDefaultNodeValues(
+            graph,
+            new PregelConfig.Builder().build(),
+            SEND_TWICE,
+            10,
+            1,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        );
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> pregelJob.run(1));
+        assertTrue(ex.getMessage().contains("sent messages more than once in superstep 0"));
+    }
+
+    @Test
+    void shouldAllowSendingMoreThanOncePerSuperstepWithCombiner() {
+        Pregel pregelJob = Pregel.withDefaultNodeValues(
+            graph,
+            new PregelConfig.Builder().withMessageCombiner(MessageCombiner.SUM).build(),
+            SEND_TWICE,
+            10,
+            1,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        );
+
+        pregelJob.run(2);
+        assertEquals(2, pregelJob.getIterations());
+    }
+
+    @Test
+    void shouldReceiveNaNMessagesWithCombiner() {
+        PregelComputation sendNaN = (pregel, nodeId, messages) -> {
+            if (pregel.isInitialSuperStep()) {
+                pregel.sendMessages(nodeId, Double.NaN);
+            } else {
+                pregel.setNodeValue(nodeId, messages.hasNext() && Double.isNaN(messages.nextDouble()) ? 1.0 : 0.0);
+            }
+        };
+
+        Pregel pregelJob = Pregel.withDefaultNodeValues(
+            graph,
+            new PregelConfig.Builder().withMessageCombiner(MessageCombiner.MIN).build(),
+            sendNaN,
+            10,
+            1,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        );
+
+        HugeDoubleArray nodeValues = pregelJob.run(2);
+        assertEquals(0.0, nodeValues.get(0));
+        assertEquals(1.0, nodeValues.get(1));
+    }
+
+    // Counts the received messages of every node, node `a` sends a single message to node `b`.
+    // With a single thread, `a` is computed before `b` in each superstep.
+    private Pregel countMessages(PregelConfig config) {
+        PregelComputation computation = (pregel, nodeId, messages) -> {
+            double received = pregel.isInitialSuperStep() ? 0.0 : pregel.getNodeValue(nodeId);
+            while (messages.hasNext()) {
+                messages.nextDouble();
+                received++;
+            }
+            pregel.setNodeValue(nodeId, received);
+            if (pregel.isInitialSuperStep()) {
+                pregel.sendMessages(nodeId, 1.0);
+            }
+        };
+
+        return Pregel.withDefaultNodeValues(
+            graph,
+            config,
+            computation,
+            10,
+            1,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        );
+    }
+}
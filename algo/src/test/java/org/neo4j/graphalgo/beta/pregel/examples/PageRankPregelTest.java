@@ -26,6 +26,8 @@ import org.neo4j.graphalgo.AlgoTestBase;
 import org.neo4j.graphalgo.StoreLoaderBuilder;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.beta.pregel.MessageCombiner;
+import org.neo4j.graphalgo.beta.pregel.Partitioning;
 import org.neo4j.graphalgo.beta.pregel.Pregel;
 import org.neo4j.graphalgo.beta.pregel.PregelConfig;
 import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
@@ -130,4 +132,82 @@ class PageRankPregelTest extends AlgoTestBase {
                 0.0136 // k
         );
     }
+
+    @Test
+    void runPRWithSumCombiner() {
+        int batchSize = 10;
+        int maxIterations = 10;
+        float dampingFactor = 0.85f;
+
+        PregelConfig config = new PregelConfig.Builder()
+            .withInitialNodeValue(1.0 / graph.nodeCount())
+            .isAsynchronous(false)
+            .withMessageCombiner(MessageCombiner.SUM)
+            .build();
+
+        Pregel pregelJob = Pregel.withDefaultNodeValues(
+                graph,
+                config,
+                new PageRankPregel(graph.nodeCount(), dampingFactor),
+                batchSize,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY
+        );
+
+        final HugeDoubleArray nodeValues = pregelJob.run(maxIterations);
+
+        assertDoubleValues(db, NODE_LABEL, ID_PROPERTY, graph, nodeValues, 1e-3,
+                0.0276, // a
+                0.3483, // b
+                0.2650, // c
+                0.0330, // d
+                0.0682, // e
+                0.0330, // f
+                0.0136, // g
+                0.0136, // h
+                0.0136, // i
+                0.0136, // j
+                0.0136 // k
+        );
+    }
+
+    @Test
+    void runPRWithDegreePartitioning() {
+        int batchSize = 2;
+        int maxIterations = 10;
+        float dampingFactor = 0.85f;
+
+        PregelConfig config = new PregelConfig.Builder()
+            .withInitialNodeValue(1.0 / graph.nodeCount())
+            .isAsynchronous(false)
+            .withPartitioning(Partitioning.DEGREE)
+            .build();
+
+        Pregel pregelJob = Pregel.withDefaultNodeValues(
+                graph,
+                config,
+                new PageRankPregel(graph.nodeCount(), dampingFactor),
+                batchSize,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY
+        );
+
+        final HugeDoubleArray nodeValues = pregelJob.run(maxIterations);
+
+        assertDoubleValues(db, NODE_LABEL, ID_PROPERTY, graph, nodeValues, 1e-3,
+                0.0276, // a
+                0.3483, // b
+                0.2650, // c
+                0.0330, // d
+                0.0682, // e
+                0.0330, // f
+                0.0136, // g
+                0.0136, // h
+                0.0136, // i
+                0.0136, // j
+                0.0136 // k
+        );
+    }
 }
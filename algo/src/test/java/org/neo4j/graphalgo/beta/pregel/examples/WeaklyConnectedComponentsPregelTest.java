@@ -27,6 +27,8 @@ import org.neo4j.graphalgo.Projection;
 import org.neo4j.graphalgo.StoreLoaderBuilder;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.beta.pregel.MessageCombiner;
+import org.neo4j.graphalgo.beta.pregel.NodeValues;
 import org.neo4j.graphalgo.beta.pregel.Pregel;
 import org.neo4j.graphalgo.beta.pregel.PregelConfig;
 import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
@@ -35,6 +37,8 @@ import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeDoubleArray;
 import org.neo4j.graphdb.Label;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.neo4j.graphalgo.CommunityHelper.assertCommunities;
 import static org.neo4j.graphalgo.beta.pregel.examples.ComputationTestUtil.assertLongValues;
 
 class WeaklyConnectedComponentsPregelTest extends AlgoTestBase {
@@ -109,4 +113,90 @@ class WeaklyConnectedComponentsPregelTest extends AlgoTestBase {
 
         assertLongValues(db, NODE_LABEL, ID_PROPERTY, graph, nodeValues, 0, 0, 0, 0, 4, 4, 4, 7, 7, 9);
     }
+
+    @Test
+    void runWCCWithNodeSchema() {
+        int batchSize = 10;
+        int maxIterations = 10;
+
+        PregelConfig config = new PregelConfig.Builder().build();
+
+        Pregel pregelJob = Pregel.withNodeSchema(
+                graph,
+                config,
+                new TypedConnectedComponentsPregel(),
+                TypedConnectedComponentsPregel.SCHEMA,
+                batchSize,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY
+        );
+
+        pregelJob.run(maxIterations);
+        NodeValues nodeValues = pregelJob.nodeValues();
+
+        assertCommunities(
+                nodeValues.longProperties(TypedConnectedComponentsPregel.COMPONENT),
+                new long[]{0, 1, 2, 3},
+                new long[]{4, 5, 6},
+                new long[]{7, 8},
+                new long[]{9});
+        assertArrayEquals(
+                new long[]{0, 1, 2, 3, 0, 1, 2, 0, 1, 0},
+                nodeValues.longProperties(TypedConnectedComponentsPregel.UPDATES).toArray());
+    }
+
+    @Test
+    void runWCCWithNodeSchemaAndMinCombiner() {
+        int batchSize = 10;
+        int maxIterations = 10;
+
+        PregelConfig config = new PregelConfig.Builder()
+            .withMessageCombiner(MessageCombiner.MIN)
+            .build();
+
+        Pregel pregelJob = Pregel.withNodeSchema(
+                graph,
+                config,
+                new TypedConnectedComponentsPregel(),
+                TypedConnectedComponentsPregel.SCHEMA,
+                batchSize,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY
+        );
+
+        pregelJob.run(maxIterations);
+
+        assertCommunities(
+                pregelJob.nodeValues().longProperties(TypedConnectedComponentsPregel.COMPONENT),
+                new long[]{0, 1, 2, 3},
+                new long[]{4, 5, 6},
+                new long[]{7, 8},
+                new long[]{9});
+    }
+
+    @Test
+    void runWCCWithMinCombiner() {
+        int batchSize = 10;
+        int maxIterations = 10;
+
+        PregelConfig config = new PregelConfig.Builder()
+            .withMessageCombiner(MessageCombiner.MIN)
+            .build();
+
+        Pregel pregelJob = Pregel.withDefaultNodeValues(
+                graph,
+                config,
+                new ConnectedComponentsPregel(),
+                batchSize,
+                Pools.DEFAULT_CONCURRENCY,
+                Pools.DEFAULT,
+                AllocationTracker.EMPTY
+        );
+
+        HugeDoubleArray nodeValues = pregelJob.run(maxIterations);
+
+        assertLongValues(db, NODE_LABEL, ID_PROPERTY, graph, nodeValues, 0, 0, 0, 0, 4, 4, 4, 7, 7, 9);
+    }
 }
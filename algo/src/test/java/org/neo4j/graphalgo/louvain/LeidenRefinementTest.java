@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.louvain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.neo4j.graphalgo.AlgoTestBase;
+import org.neo4j.graphalgo.Projection;
+import org.neo4j.graphalgo.StoreLoaderBuilder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import static org.neo4j.graphalgo.CommunityHelper.assertCommunities;
+
+class LeidenRefinementTest extends AlgoTestBase {
+
+    private static final String DB_CYPHER =
+        "CREATE" +
+        "  (a:Node)" +  // 0
+        ", (b:Node)" +  // 1
+        ", (c:Node)" +  // 2
+        ", (d:Node)" +  // 3
+        ", (e:Node)" +  // 4
+        ", (f:Node)" +  // 5
+        ", (a)-[:TYPE]->(b)" +
+        ", (b)-[:TYPE]->(c)" +
+        ", (c)-[:TYPE]->(a)" +
+        ", (d)-[:TYPE]->(e)" +
+        ", (e)-[:TYPE]->(f)" +
+        ", (f)-[:TYPE]->(d)";
+
+    // every node has degree 2
+    private static final double TOTAL_NODE_WEIGHT = 6.0;
+
+    private Graph graph;
+
+    @BeforeEach
+    void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        runQuery(DB_CYPHER);
+        graph = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .loadAnyRelationshipType()
+            .globalProjection(Projection.UNDIRECTED)
+            .build()
+            .load(HugeGraphFactory.class);
+    }
+
+    @AfterEach
+    void shutdown() {
+        db.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void shouldKeepConnectedCommunities(int concurrency) {
+        HugeLongArray refinedCommunities = new LeidenRefinement(
+            graph,
+            nodeId -> nodeId < 3 ? 0 : 1,
+            TOTAL_NODE_WEIGHT,
+            concurrency,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        ).compute();
+
+        assertCommunities(
+            refinedCommunities,
+            new long[]{0, 1, 2},
+            new long[]{3, 4, 5}
+        );
+    }
+
+    @Test
+    void shouldSplitDisconnectedCommunity() {
+        HugeLongArray refinedCommunities = new LeidenRefinement(
+            graph,
+            nodeId -> 42,
+            TOTAL_NODE_WEIGHT,
+            1,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        ).compute();
+
+        // {c} and {f} are not merged, since a pair of nodes is not well connected to the rest of the community
+        assertCommunities(
+            refinedCommunities,
+            new long[]{0, 1},
+            new long[]{2},
+            new long[]{3, 4},
+            new long[]{5}
+        );
+    }
+}
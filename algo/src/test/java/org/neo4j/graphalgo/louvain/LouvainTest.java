@@ -19,6 +19,8 @@
  */
 package org.neo4j.graphalgo.louvain;
 
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.LongArrayDeque;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,8 +57,10 @@ import org.neo4j.logging.NullLog;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -209,6 +213,38 @@ class LouvainTest extends AlgoTestBase {
         assertEquals(0.37, modularities[modularities.length - 1], 0.01);
     }
 
+    @AllGraphTypesTest
+    void refinedLouvain(Class<? extends GraphFactory> graphImpl) {
+        Graph graph = loadGraph(graphImpl, DB_CYPHER).withoutRelationshipProperties();
+
+        Louvain algorithm = new Louvain(
+            graph,
+            defaultConfigBuilder().refinement(true).build(),
+            Pools.DEFAULT,
+            NullLog.getInstance(),
+            AllocationTracker.EMPTY
+        ).withProgressLogger(TestProgressLogger.INSTANCE).withTerminationFlag(TerminationFlag.RUNNING_TRUE);
+
+        algorithm.compute();
+
+        final HugeLongArray[] dendrogram = algorithm.dendrograms();
+        final double[] modularities = algorithm.modularities();
+
+        // the first level is not affected by the refinement of its communities
+        assertCommunities(
+            dendrogram[0],
+            new long[]{0, 1, 3},
+            new long[]{2, 4, 5, 14},
+            new long[]{6, 7, 8},
+            new long[]{9, 10, 11, 12, 13}
+        );
+
+        for (HugeLongArray communities : dendrogram) {
+            assertConnectedCommunities(graph, communities);
+        }
+        assertTrue(modularities[modularities.length - 1] >= modularities[0]);
+    }
+
     @AllGraphTypesTest
     void seededLouvain(Class<? extends GraphFactory> graphImpl) {
         assumeFalse(graphImpl == CypherGraphFactory.class);
@@ -356,14 +392,40 @@ class LouvainTest extends AlgoTestBase {
         assertTrue(log.containsMessage(INFO, "Louvain - Finished after"));
     }
 
+    private static void assertConnectedCommunities(Graph graph, HugeLongArray communities) {
+        long nodeCount = graph.nodeCount();
+        BitSet visited = new BitSet(nodeCount);
+        Set<Long> seenCommunities = new HashSet<>();
+        for (long startNode = 0; startNode < nodeCount; startNode++) {
+            if (visited.get(startNode)) {
+                continue;
+            }
+            long community = communities.get(startNode);
+            assertTrue(seenCommunities.add(community), "community " + community + " is not connected");
+
+            LongArrayDeque queue = new LongArrayDeque();
+            queue.addLast(startNode);
+            visited.set(startNode);
+            while (!queue.isEmpty()) {
+                graph.forEachRelationship(queue.removeFirst(), (source, target) -> {
+                    if (!visited.get(target) && communities.get(target) == community) {
+                        visited.set(target);
+                        queue.addLast(target);
+                    }
+                    return true;
+                });
+            }
+        }
+    }
+
     static Stream<Arguments> memoryEstimationTuples() {
         return Stream.of(
-            arguments(1, 1, 6414185, 13585992),
-            arguments(1, 10, 6414185, 20786352),
-            arguments(4, 1, 6417473, 19488312),
-            arguments(4, 10, 6417473, 26688672),
-            arguments(42, 1, 6459121, 95476728),
-            arguments(42, 10, 6459121, 102677088)
+            arguments(1, 1, 6414233, 14386032),
+            arguments(1, 10, 6414233, 21586392),
+            arguments(4, 1, 6417521, 20288352),
+            arguments(4, 10, 6417521, 27488712),
+            arguments(42, 1, 6459169, 96276768),
+            arguments(42, 10, 6459169, 103477128)
         );
     }
 
@@ -113,6 +113,75 @@ class IncrementalWccTest extends AlgoTestBase {
         });
     }
 
+    @Test
+    void shouldLinkAddedRelationshipsOnly() {
+        Graph graph = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .addRelationshipType(RELATIONSHIP_TYPE.name())
+            .addNodeProperty(PropertyMapping.of(SEED_PROPERTY, SEED_PROPERTY, -1L))
+            .build()
+            .graph(HugeGraphFactory.class);
+
+        WccStreamConfig config = ImmutableWccStreamConfig.builder()
+            .seedProperty(SEED_PROPERTY)
+            .build();
+
+        // the relationships between the line graphs are the ones that merge the seeded communities
+        AddedRelationships addedRelationships = new AddedRelationships();
+        for (int i = 0; i < COMMUNITY_COUNT; i = i + 2) {
+            long lastNodeOfFirst = (i + 1) * COMMUNITY_SIZE - 1;
+            long lastNodeOfSecond = (i + 2) * COMMUNITY_SIZE - 1;
+            addedRelationships.add(graph.toMappedNodeId(lastNodeOfFirst), graph.toMappedNodeId(lastNodeOfSecond));
+        }
+
+        DisjointSetStruct expected = run(graph, config);
+        DisjointSetStruct actual = new Wcc(
+            graph,
+            Pools.DEFAULT,
+            COMMUNITY_SIZE / Pools.DEFAULT_CONCURRENCY,
+            config,
+            addedRelationships,
+            AllocationTracker.EMPTY
+        ).compute();
+
+        assertEquals(COMMUNITY_COUNT / 2, getSetCount(actual));
+        graph.forEachNode(nodeId -> {
+            assertEquals(expected.setIdOf(nodeId), actual.setIdOf(nodeId), "Node " + nodeId + " in unexpected set");
+            return true;
+        });
+    }
+
+    @Test
+    void shouldKeepSeedsWithoutAddedRelationships() {
+        Graph graph = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .addRelationshipType(RELATIONSHIP_TYPE.name())
+            .addNodeProperty(PropertyMapping.of(SEED_PROPERTY, SEED_PROPERTY, -1L))
+            .build()
+            .graph(HugeGraphFactory.class);
+
+        WccStreamConfig config = ImmutableWccStreamConfig.builder()
+            .seedProperty(SEED_PROPERTY)
+            .build();
+
+        DisjointSetStruct result = new Wcc(
+            graph,
+            Pools.DEFAULT,
+            COMMUNITY_SIZE / Pools.DEFAULT_CONCURRENCY,
+            config,
+            new AddedRelationships(),
+            AllocationTracker.EMPTY
+        ).compute();
+
+        assertEquals(COMMUNITY_COUNT, getSetCount(result));
+        graph.forEachNode(nodeId -> {
+            assertEquals(nodeId / COMMUNITY_SIZE, result.setIdOf(nodeId));
+            return true;
+        });
+    }
+
     @Test
     void shouldAssignMinimumCommunityIdOnMerge() {
         // Given
@@ -30,6 +30,8 @@ import org.neo4j.graphalgo.Projection;
 import org.neo4j.graphalgo.StoreLoaderBuilder;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.beta.generator.RandomGraphGenerator;
+import org.neo4j.graphalgo.beta.generator.RelationshipDistribution;
 import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.ImmutableGraphDimensions;
 import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
@@ -42,6 +44,7 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
 
 import java.util.Arrays;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.neo4j.graphalgo.QueryRunner.runInTransaction;
@@ -123,6 +126,52 @@ class WccTest extends AlgoTestBase {
         });
     }
 
+    @ParameterizedTest(name = "projection = {0}")
+    @EnumSource(Projection.class)
+    void shouldComputeComponentsWithSampling(Projection projection) {
+        Graph graph = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .addRelationshipType(RELATIONSHIP_TYPE.name())
+            .globalProjection(projection)
+            .build()
+            .graph(HugeGraphFactory.class);
+
+        DisjointSetStruct result = run(graph, ImmutableWccStreamConfig.builder().sampling(true).build());
+
+        assertEquals(SETS_COUNT, getSetCount(result));
+        graph.forEachNode((nodeId) -> {
+            long firstNodeOfSet = nodeId - nodeId % SET_SIZE;
+            assertEquals(result.setIdOf(firstNodeOfSet), result.setIdOf(nodeId), "Node " + nodeId + " in unexpected set");
+            return true;
+        });
+    }
+
+    @ParameterizedTest(name = "projection = {0}")
+    @EnumSource(value = Projection.class, names = {"NATURAL", "UNDIRECTED"})
+    void samplingShouldComputeSameComponentsOnLargeComponent(Projection projection) {
+        Graph graph = new RandomGraphGenerator(
+            10_000,
+            5,
+            RelationshipDistribution.POWER_LAW,
+            42L,
+            Optional.empty(),
+            AllocationTracker.EMPTY
+        ).generate(projection);
+
+        DisjointSetStruct expected = run(graph);
+        DisjointSetStruct actual = run(graph, ImmutableWccStreamConfig.builder().sampling(true).build());
+
+        assertEquals(getSetCount(expected), getSetCount(actual));
+        graph.forEachNode(nodeId -> {
+            graph.forEachRelationship(nodeId, (source, target) -> {
+                assertEquals(actual.setIdOf(source), actual.setIdOf(target));
+                return true;
+            });
+            return true;
+        });
+    }
+
     @Test
     void memRecParallel() {
         GraphDimensions dimensions0 = ImmutableGraphDimensions.builder().nodeCount(0).build();
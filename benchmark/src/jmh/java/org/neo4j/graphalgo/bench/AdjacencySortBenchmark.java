@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import org.neo4j.graphalgo.core.loading.RadixSort;
+import org.neo4j.graphalgo.core.utils.AscendingLongComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts the targets of an adjacency list together with their properties, the way the import does before compressing.
+ * {@code indirectSort} is the previous approach, {@code radixSortPairs} the current one with reused scratch buffers.
+ * Run with {@code -prof gc} to compare the bytes allocated per sorted list.
+ */
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdjacencySortBenchmark {
+
+    @Param({"16", "1000", "100000"})
+    int degree;
+
+    @Param({"1", "2"})
+    int propertyCount;
+
+    long[] targets;
+    long[][] properties;
+
+    long[] workTargets;
+    long[][] workProperties;
+
+    long[] targetsCopy;
+    long[][] propertiesCopies;
+    int[] histogram;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1337L);
+        targets = random.longs(degree, 0L, 100_000_000L).toArray();
+        properties = new long[propertyCount][];
+        for (int i = 0; i < propertyCount; i++) {
+            properties[i] = random.longs(degree).toArray();
+        }
+
+        workTargets = new long[degree];
+        workProperties = new long[propertyCount][degree];
+        targetsCopy = new long[degree];
+        propertiesCopies = new long[propertyCount][degree];
+        histogram = RadixSort.newPairsHistogram();
+    }
+
+    @Benchmark
+    public long[][] indirectSort() {
+        reset();
+        long[] values = workTargets;
+        long[][] weights = workProperties;
+        int length = values.length;
+
+        int[] order = IndirectSort.mergesort(0, length, new AscendingLongComparator(values));
+        long[] sortedValues = new long[length];
+        long[][] sortedWeights = new long[weights.length][length];
+        for (int i = 0; i < length; i++) {
+            int index = order[i];
+            sortedValues[i] = values[index];
+            for (int j = 0; j < weights.length; j++) {
+                sortedWeights[j][i] = weights[j][index];
+            }
+        }
+
+        System.arraycopy(sortedValues, 0, values, 0, length);
+        for (int j = 0; j < weights.length; j++) {
+            System.arraycopy(sortedWeights[j], 0, weights[j], 0, length);
+        }
+        return weights;
+    }
+
+    @Benchmark
+    public long[][] radixSortPairs() {
+        reset();
+        RadixSort.radixSortPairs(
+                workTargets,
+                workProperties,
+                targetsCopy,
+                propertiesCopies,
+                histogram,
+                workTargets.length
+        );
+        return workProperties;
+    }
+
+    private void reset() {
+        System.arraycopy(targets, 0, workTargets, 0, degree);
+        for (int i = 0; i < propertyCount; i++) {
+            System.arraycopy(properties[i], 0, workProperties[i], 0, degree);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.core.loading.SparseNodeMapping;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a {@link SparseNodeMapping.Builder} from many threads at once, the way the id map
+ * is built during node import. Every thread writes batches of consecutive ids, so that
+ * neighbouring batches of different threads race for the allocation of the same page.
+ */
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 10, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SparseNodeMappingBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    int threads;
+
+    @Param({"false", "true"})
+    boolean dense;
+
+    @Param({"10000000"})
+    int nodeCount;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public SparseNodeMapping build() throws ExecutionException, InterruptedException {
+        int nodeCount = this.nodeCount;
+        int threads = this.threads;
+        SparseNodeMapping.Builder builder = dense
+                ? SparseNodeMapping.Builder.createDense(nodeCount, AllocationTracker.EMPTY)
+                : SparseNodeMapping.Builder.create(nodeCount, AllocationTracker.EMPTY);
+
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int firstBatch = t;
+            futures.add(executor.submit(() -> {
+                for (long start = (long) firstBatch * BATCH_SIZE; start < nodeCount; start += (long) threads * BATCH_SIZE) {
+                    long end = Math.min(start + BATCH_SIZE, nodeCount);
+                    for (long nodeId = start; nodeId < end; nodeId++) {
+                        builder.set(nodeId, nodeId);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer holding the targets, and optionally the relationship properties,
+ * of all relationships of a single node.
+ * <p>
+ * Filled by {@link RelationshipIterator#relationships(long, AdjacencyBuffer)} and
+ * {@link RelationshipIterator#relationships(long, double, AdjacencyBuffer)}.
+ * Only the first {@link #length()} entries of {@link #targets()} and {@link #properties()}
+ * are valid, the arrays may be larger and are replaced whenever they need to grow.
+ * <pre>
+ * AdjacencyBuffer buffer = new AdjacencyBuffer();
+ * graph.relationships(nodeId, buffer);
+ * long[] targets = buffer.targets();
+ * for (int i = 0; i &lt; buffer.length(); i++) {
+ *     ... targets[i]
+ * }
+ * </pre>
+ */
+public final class AdjacencyBuffer implements RelationshipConsumer, RelationshipWithPropertyConsumer {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final long[] EMPTY_TARGETS = new long[0];
+    private static final double[] EMPTY_PROPERTIES = new double[0];
+
+    private long sourceNodeId;
+    private long[] targets;
+    private double[] properties;
+    private int length;
+
+    public AdjacencyBuffer() {
+        this.targets = EMPTY_TARGETS;
+        this.properties = EMPTY_PROPERTIES;
+    }
+
+    /**
+     * @return the node whose relationships are currently held by this buffer
+     */
+    public long sourceNodeId() {
+        return sourceNodeId;
+    }
+
+    /**
+     * @return the number of valid entries
+     */
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public long[] targets() {
+        return targets;
+    }
+
+    /**
+     * Only valid if the buffer has been filled by one of the {@code relationships} methods taking a fallback value.
+     */
+    public double[] properties() {
+        return properties;
+    }
+
+    /**
+     * Prepares the buffer to hold {@code capacity} targets of the given node and returns the targets array.
+     */
+    public long[] resetTargets(long sourceNodeId, int capacity) {
+        this.sourceNodeId = sourceNodeId;
+        this.length = 0;
+        if (targets.length < capacity) {
+            targets = new long[grow(capacity)];
+        }
+        return targets;
+    }
+
+    /**
+     * Prepares the buffer to hold {@code capacity} properties and returns the properties array.
+     * Must be called after {@link #resetTargets(long, int)}.
+     */
+    public double[] resetProperties(int capacity) {
+        if (properties.length < capacity) {
+            properties = new double[grow(capacity)];
+        }
+        return properties;
+    }
+
+    /**
+     * Sets the number of valid entries after the arrays returned by the {@code reset} methods have been filled.
+     */
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public boolean accept(long sourceNodeId, long targetNodeId) {
+        if (length == targets.length) {
+            targets = Arrays.copyOf(targets, grow(length + 1));
+        }
+        targets[length++] = targetNodeId;
+        return true;
+    }
+
+    @Override
+    public boolean accept(long sourceNodeId, long targetNodeId, double property) {
+        if (length == targets.length) {
+            targets = Arrays.copyOf(targets, grow(length + 1));
+        }
+        if (length >= properties.length) {
+            properties = Arrays.copyOf(properties, grow(length + 1));
+        }
+        properties[length] = property;
+        targets[length++] = targetNodeId;
+        return true;
+    }
+
+    private static int grow(int minCapacity) {
+        long capacity = minCapacity + ((long) minCapacity >> 1);
+        return (int) Math.max(DEFAULT_CAPACITY, Math.min(capacity, Integer.MAX_VALUE - 8));
+    }
+}
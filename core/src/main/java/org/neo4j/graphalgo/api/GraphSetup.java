@@ -26,6 +26,7 @@ import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.PropertyMappings;
 import org.neo4j.graphalgo.RelationshipProjection;
 import org.neo4j.graphalgo.RelationshipProjections;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.Aggregation;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
@@ -195,6 +196,14 @@ public class GraphSetup {
             .orElse(Aggregation.DEFAULT);
     }
 
+    public AdjacencyEncoding adjacencyEncoding() {
+        return createConfig.adjacencyEncoding();
+    }
+
+    public boolean offHeap() {
+        return createConfig.offHeap();
+    }
+
     public Map<String, Object> params() {
         return params;
     }
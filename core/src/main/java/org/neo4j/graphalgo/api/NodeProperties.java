@@ -37,6 +37,23 @@ public interface NodeProperties {
         return nodeProperty(nodeId);
     }
 
+    /**
+     * Returns the property value for a node as a long or the given default value if no property had been defined.
+     * Properties that have been loaded with integral values are returned without a round trip through double.
+     */
+    default long nodeLongProperty(long nodeId, long defaultValue) {
+        double value = nodeProperty(nodeId, Double.NaN);
+        return Double.isNaN(value) ? defaultValue : (long) value;
+    }
+
+    /**
+     * Returns whether a property value has been defined for the node, as opposed to the node falling back to the default value.
+     * Implementations that do not track this compare the values returned for two different default values.
+     */
+    default boolean hasNodeProperty(long nodeId) {
+        return Double.doubleToRawLongBits(nodeProperty(nodeId, 0.0)) == Double.doubleToRawLongBits(nodeProperty(nodeId, 1.0));
+    }
+
     /**
      * @return the maximum value contained in the mapping or an empty {@link OptionalLong} if the mapping is
      *         empty or the feature is not supported.
@@ -41,6 +41,36 @@ public interface RelationshipIterator extends RelationshipPredicate {
      */
     void forEachRelationship(long nodeId, double fallbackValue, RelationshipWithPropertyConsumer consumer);
 
+    /**
+     * Writes the targets of all relationships of a given node into the given buffer.
+     * Unlike {@link #forEachRelationship(long, RelationshipConsumer)}, this allows
+     * callers to iterate the targets in a plain loop without a consumer call per relationship.
+     *
+     * @param nodeId id of the node for which to load relationships
+     * @param buffer the buffer to fill, previous content is overwritten
+     * @return the given buffer
+     */
+    default AdjacencyBuffer relationships(long nodeId, AdjacencyBuffer buffer) {
+        buffer.resetTargets(nodeId, 0);
+        forEachRelationship(nodeId, (RelationshipConsumer) buffer);
+        return buffer;
+    }
+
+    /**
+     * Writes the targets and property values of all relationships of a given node into the given buffer.
+     * If the graph was loaded without a relationship property, the given fallback value is used for all properties.
+     *
+     * @param nodeId id of the node for which to load relationships
+     * @param fallbackValue value used as relationship property if no properties were loaded
+     * @param buffer the buffer to fill, previous content is overwritten
+     * @return the given buffer
+     */
+    default AdjacencyBuffer relationships(long nodeId, double fallbackValue, AdjacencyBuffer buffer) {
+        buffer.resetTargets(nodeId, 0);
+        forEachRelationship(nodeId, fallbackValue, (RelationshipWithPropertyConsumer) buffer);
+        return buffer;
+    }
+
     /**
      * @return a copy of this iterator that reuses new cursors internally,
      *         so that iterations happen independent from other iterations.
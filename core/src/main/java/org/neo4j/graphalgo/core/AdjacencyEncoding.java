@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The format in which the target ids of an adjacency list are stored.
+ */
+public enum AdjacencyEncoding {
+    /**
+     * Each delta is encoded as a variable length long, 7 bits per byte.
+     */
+    VAR_LONG,
+    /**
+     * Deltas are grouped in blocks of {@link org.neo4j.graphalgo.core.huge.AdjacencyList#BLOCK_SIZE} values
+     * which are bit-packed with the width of the largest delta in the block.
+     * Decoding a block does not depend on the value of each byte and can be done in bulk.
+     */
+    BLOCK_PACKED;
+
+    public static AdjacencyEncoding parse(Object object) {
+        if (object instanceof AdjacencyEncoding) {
+            return (AdjacencyEncoding) object;
+        }
+        if (object instanceof String) {
+            String name = ((String) object).toUpperCase();
+            try {
+                return AdjacencyEncoding.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                // fall through to the error below
+            }
+        }
+        String availableEncodings = Arrays
+            .stream(AdjacencyEncoding.values())
+            .map(AdjacencyEncoding::name)
+            .collect(Collectors.joining(", "));
+        throw new IllegalArgumentException(String.format(
+            "Adjacency encoding `%s` is not supported. Must be one of: %s.",
+            object,
+            availableEncodings));
+    }
+}
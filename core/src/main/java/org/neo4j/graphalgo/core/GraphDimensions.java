@@ -49,6 +49,15 @@ public interface GraphDimensions {
         return Collections.emptyMap();
     }
 
+    /**
+     * Whether the projected relationships are selective enough to be imported by following the
+     * relationship chains of the imported nodes instead of scanning the whole relationship store.
+     */
+    @Value.Default
+    default boolean scanRelationshipChains() {
+        return false;
+    }
+
     @Nullable
     LongSet nodeLabelIds();
 
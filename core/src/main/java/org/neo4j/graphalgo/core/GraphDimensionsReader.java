@@ -44,7 +44,16 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.compat.StatementConstantsProxy.ANY_RELATIONSHIP_TYPE;
+
 public final class GraphDimensionsReader extends StatementFunction<GraphDimensions> {
+
+    /**
+     * Follow relationship chains if the projected relationship types cover at most
+     * this fraction of all relationships in the store.
+     */
+    static final double MAX_RELATIONSHIP_CHAIN_SELECTIVITY = 0.1;
+
     private final GraphSetup setup;
     private final boolean readTokens;
 
@@ -115,12 +124,24 @@ public final class GraphDimensionsReader extends StatementFunction<GraphDimensio
                     )).sum()
             ));
         long maxRelCount = relationshipCounts.values().stream().mapToLong(Long::longValue).sum();
+        long allRelationshipsCount = dataRead.countsForRelationshipWithoutTxState(
+                Read.ANY_LABEL,
+                ANY_RELATIONSHIP_TYPE,
+                Read.ANY_LABEL
+        );
+        boolean scanRelationshipChains = scanRelationshipChains(
+                relationshipProjectionMappings,
+                nodeCount,
+                maxRelCount,
+                allRelationshipsCount
+        );
 
         return ImmutableGraphDimensions.builder()
                 .nodeCount(nodeCount)
                 .highestNeoId(allNodesCount)
                 .maxRelCount(maxRelCount)
                 .relationshipCounts(relationshipCounts)
+                .scanRelationshipChains(scanRelationshipChains)
                 .nodeLabelIds(nodeLabelIds.longSet())
                 .nodeProperties(nodeProperties)
                 .relationshipProjectionMappings(relationshipProjectionMappings)
@@ -138,6 +159,31 @@ public final class GraphDimensionsReader extends StatementFunction<GraphDimensio
         return builder.build();
     }
 
+    /**
+     * Reading relationships from the chains of the imported nodes touches every imported node and,
+     * for sparse nodes, every relationship in their chains. Only dense nodes can skip to the groups
+     * of the projected types. It only pays off if all projections select specific types that are
+     * rare compared to the whole store and if there are fewer nodes to visit than relationship records.
+     */
+    static boolean scanRelationshipChains(
+            RelationshipProjectionMappings mappings,
+            long nodeCount,
+            long selectedRelationshipsCount,
+            long allRelationshipsCount) {
+        boolean hasSpecificType = false;
+        for (RelationshipProjectionMapping mapping : mappings) {
+            if (mapping.exists()) {
+                if (mapping.typeId() == ANY_RELATIONSHIP_TYPE) {
+                    return false;
+                }
+                hasSpecificType = true;
+            }
+        }
+        return hasSpecificType
+               && nodeCount < allRelationshipsCount
+               && selectedRelationshipsCount <= (long) (allRelationshipsCount * MAX_RELATIONSHIP_CHAIN_SELECTIVITY);
+    }
+
     private static long maxRelCountForLabelAndType(Read dataRead, int labelId, int id) {
         return Math.max(
                 dataRead.countsForRelationshipWithoutTxState(labelId, id, Read.ANY_LABEL),
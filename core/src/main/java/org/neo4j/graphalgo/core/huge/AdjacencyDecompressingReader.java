@@ -19,23 +19,27 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.loading.MutableIntValue;
 
 import java.util.Arrays;
 
+import static org.neo4j.graphalgo.core.huge.BlockPackedDecoding.decodeDeltaBlock;
 import static org.neo4j.graphalgo.core.huge.VarLongDecoding.decodeDeltaVLongs;
 
 final class AdjacencyDecompressingReader {
 
-    private static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SIZE = AdjacencyList.BLOCK_SIZE;
 
     private final long[] block;
+    private final boolean blockPacked;
     private int pos;
     private byte[] array;
     private int offset;
 
-    AdjacencyDecompressingReader() {
+    AdjacencyDecompressingReader(AdjacencyEncoding encoding) {
         this.block = new long[CHUNK_SIZE];
+        this.blockPacked = encoding == AdjacencyEncoding.BLOCK_PACKED;
     }
 
     //@formatter:off
@@ -68,11 +72,55 @@ final class AdjacencyDecompressingReader {
     }
 
     int reset(byte[] adjacencyPage, int offset) {
+        resetToBlock(adjacencyPage, offset, 0);
+        return readInt(adjacencyPage, offset); // offset should not be 0
+    }
+
+    /**
+     * Position the reader at the start of the given block, as far as the skip index allows.
+     *
+     * @return the block the reader has been positioned at
+     */
+    int resetToBlock(byte[] adjacencyPage, int offset, int block) {
         this.array = adjacencyPage;
-        int numAdjacencies = readInt(adjacencyPage, offset); // offset should not be 0
-        this.offset = decodeDeltaVLongs(0L, adjacencyPage, Integer.BYTES + offset, Math.min(numAdjacencies, CHUNK_SIZE), block);
+        int numAdjacencies = readInt(adjacencyPage, offset);
+        int indexOffset = Integer.BYTES + offset;
+        int entries = AdjacencyList.skipIndexEntries(numAdjacencies);
+        int blockOffset = indexOffset + entries * AdjacencyList.SKIP_ENTRY_BYTES;
+        long startValue = 0L;
+
+        block = Math.min(block, entries);
+        if (block > 0) {
+            int entryOffset = indexOffset + (block - 1) * AdjacencyList.SKIP_ENTRY_BYTES;
+            startValue = readLong(adjacencyPage, entryOffset);
+            blockOffset += readInt(adjacencyPage, entryOffset + Long.BYTES);
+        }
+
+        int remaining = numAdjacencies - block * CHUNK_SIZE;
+        this.offset = decode(startValue, blockOffset, Math.min(remaining, CHUNK_SIZE));
         pos = 0;
-        return numAdjacencies;
+        return block;
+    }
+
+    /**
+     * Find the block that contains the first target that is larger than or equal to {@code target}
+     * by a binary search over the skip index. Returns 0 if the adjacency list has no skip index.
+     */
+    static int blockOf(byte[] adjacencyPage, int offset, long target) {
+        int entries = AdjacencyList.skipIndexEntries(readInt(adjacencyPage, offset));
+        int indexOffset = Integer.BYTES + offset;
+        // number of blocks that end with a target that is smaller than the requested target
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (readLong(adjacencyPage, indexOffset + mid * AdjacencyList.SKIP_ENTRY_BYTES) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
     }
 
     long next(int remaining) {
@@ -85,10 +133,32 @@ final class AdjacencyDecompressingReader {
 
     private long readNextBlock(int remaining) {
         pos = 1;
-        offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, Math.min(remaining, CHUNK_SIZE), block);
+        offset = decode(block[CHUNK_SIZE - 1], offset, Math.min(remaining, CHUNK_SIZE));
         return block[0];
     }
 
+    /**
+     * Copies the next {@code count} targets into {@code out}, decoding further blocks as needed.
+     *
+     * @param remaining number of targets that are left to be read, including the next one
+     */
+    void nextBatch(int remaining, long[] out, int into, int count) {
+        int pos = this.pos;
+        while (count > 0) {
+            if (pos == CHUNK_SIZE) {
+                offset = decode(block[CHUNK_SIZE - 1], offset, Math.min(remaining, CHUNK_SIZE));
+                pos = 0;
+            }
+            int length = Math.min(count, CHUNK_SIZE - pos);
+            System.arraycopy(block, pos, out, into, length);
+            pos += length;
+            into += length;
+            count -= length;
+            remaining -= length;
+        }
+        this.pos = pos;
+    }
+
     long skipUntil(long target, int remaining, MutableIntValue consumed) {
         int pos = this.pos;
         long[] block = this.block;
@@ -98,7 +168,7 @@ final class AdjacencyDecompressingReader {
         while (available > CHUNK_SIZE - pos && block[CHUNK_SIZE - 1] <= target) {
             int skippedInThisBlock = CHUNK_SIZE - pos;
             int needToDecode = Math.min(CHUNK_SIZE, available - skippedInThisBlock);
-            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, needToDecode, block);
+            offset = decode(block[CHUNK_SIZE - 1], offset, needToDecode);
             available -= skippedInThisBlock;
             pos = 0;
         }
@@ -125,7 +195,7 @@ final class AdjacencyDecompressingReader {
         while (available > CHUNK_SIZE - pos && block[CHUNK_SIZE - 1] < target) {
             int skippedInThisBlock = CHUNK_SIZE - pos;
             int needToDecode = Math.min(CHUNK_SIZE, available - skippedInThisBlock);
-            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, needToDecode, block);
+            offset = decode(block[CHUNK_SIZE - 1], offset, needToDecode);
             available -= skippedInThisBlock;
             pos = 0;
         }
@@ -139,6 +209,12 @@ final class AdjacencyDecompressingReader {
         return block[targetPos];
     }
 
+    private int decode(long startValue, int offset, int limit) {
+        return blockPacked
+            ? decodeDeltaBlock(startValue, array, offset, limit, block)
+            : decodeDeltaVLongs(startValue, array, offset, limit, block);
+    }
+
     private int findPosStrictlyGreaterInBlock(long target, int pos, int limit, long[] block) {
         return findPosInBlock(1L + target, pos, limit, block);
     }
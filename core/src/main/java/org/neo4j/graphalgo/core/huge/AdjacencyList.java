@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.loading.MutableIntValue;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
@@ -39,7 +40,22 @@ public final class AdjacencyList {
     public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
     public static final long PAGE_MASK = PAGE_SIZE - 1;
 
+    /**
+     * Number of targets per block in the {@link AdjacencyEncoding#BLOCK_PACKED} format.
+     * Equal to the number of targets that are decoded at once by a {@link DecompressingCursor}.
+     */
+    public static final int BLOCK_SIZE = 64;
+
+    /**
+     * Adjacency lists with more targets than this store a skip index between the degree and the encoded targets.
+     * The index has one entry per {@link #BLOCK_SIZE} targets, except for the first block, consisting of the last
+     * target before the block and the byte offset of the block relative to the end of the index.
+     */
+    public static final int SKIP_INDEX_MIN_DEGREE = 4 * BLOCK_SIZE;
+    public static final int SKIP_ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
     private final long allocatedMemory;
+    private final AdjacencyEncoding encoding;
     private byte[][] pages;
 
     public static MemoryEstimation compressedMemoryEstimation(long avgDegree, long nodeCount) {
@@ -117,11 +133,21 @@ public final class AdjacencyList {
         int relationshipByteSize = encodedVLongSize(delta);
         int degreeByteSize = Integer.BYTES;
         long compressedAdjacencyByteSize = relationshipByteSize * Math.max(0, (avgDegree - 1));
-        return (degreeByteSize + firstAdjacencyIdAvgByteSize + compressedAdjacencyByteSize) * nodeCount;
+        long skipIndexByteSize = (long) skipIndexEntries((int) Math.min(avgDegree, Integer.MAX_VALUE)) * SKIP_ENTRY_BYTES;
+        return (degreeByteSize + firstAdjacencyIdAvgByteSize + compressedAdjacencyByteSize + skipIndexByteSize) * nodeCount;
+    }
+
+    public static int skipIndexEntries(int degree) {
+        return degree > SKIP_INDEX_MIN_DEGREE ? (degree - 1) / BLOCK_SIZE : 0;
     }
 
     public AdjacencyList(byte[][] pages) {
+        this(pages, AdjacencyEncoding.VAR_LONG);
+    }
+
+    public AdjacencyList(byte[][] pages, AdjacencyEncoding encoding) {
         this.pages = pages;
+        this.encoding = encoding;
         this.allocatedMemory = memoryOfPages(pages);
     }
 
@@ -135,12 +161,29 @@ public final class AdjacencyList {
         return memory;
     }
 
+    public AdjacencyEncoding encoding() {
+        return encoding;
+    }
+
+    public byte[][] pages() {
+        return pages;
+    }
+
     int getDegree(long index) {
         return AdjacencyDecompressingReader.readInt(
                 pages[pageIndex(index, PAGE_SHIFT)],
                 indexInPage(index, PAGE_MASK));
     }
 
+    /**
+     * Read the value at position {@code index} of the uncompressed list at the given offset.
+     */
+    long getLong(long offset, int index) {
+        return AdjacencyDecompressingReader.readLong(
+                pages[pageIndex(offset, PAGE_SHIFT)],
+                indexInPage(offset, PAGE_MASK) + Integer.BYTES + index * Long.BYTES);
+    }
+
     public final long release() {
         if (pages == null) {
             return 0L;
@@ -159,7 +202,7 @@ public final class AdjacencyList {
      * Returns a new, uninitialized delta cursor. Call {@link DecompressingCursor#init(long)}.
      */
     DecompressingCursor rawDecompressingCursor() {
-        return new DecompressingCursor(pages);
+        return new DecompressingCursor(pages, encoding);
     }
 
     /**
@@ -233,9 +276,9 @@ public final class AdjacencyList {
         private int maxTargets;
         private int currentTarget;
 
-        private DecompressingCursor(byte[][] pages) {
+        private DecompressingCursor(byte[][] pages, AdjacencyEncoding encoding) {
             this.pages = pages;
-            this.decompress = new AdjacencyDecompressingReader();
+            this.decompress = new AdjacencyDecompressingReader(encoding);
         }
 
         /**
@@ -278,6 +321,19 @@ public final class AdjacencyList {
             return decompress.next(remaining);
         }
 
+        /**
+         * Read and decode all remaining target ids into {@code out}, which needs to hold at least
+         * {@link #remaining()} values.
+         *
+         * @return the number of target ids written
+         */
+        int nextVLongs(long[] out) {
+            int count = remaining();
+            decompress.nextBatch(count, out, 0, count);
+            currentTarget = maxTargets;
+            return count;
+        }
+
         /**
          * Read and decode target ids until it is strictly larger than (`>`) the provided {@code target}.
          * Might return an id that is less than or equal to {@code target} iff the cursor did exhaust before finding an
@@ -308,6 +364,13 @@ public final class AdjacencyList {
             return value;
         }
 
+        /**
+         * Return the position of the next target to decode.
+         */
+        int position() {
+            return currentTarget;
+        }
+
         DecompressingCursor init(long fromIndex) {
             maxTargets = decompress.reset(
                     pages[pageIndex(fromIndex, PAGE_SHIFT)],
@@ -315,5 +378,34 @@ public final class AdjacencyList {
             currentTarget = 0;
             return this;
         }
+
+        /**
+         * Initialise the cursor and use the skip index, if present, to position it at the block that
+         * contains the first target id that is larger than or equal to {@code target}.
+         * Use {@link #advance(long)} to find the actual target.
+         */
+        DecompressingCursor initForTarget(long fromIndex, long target) {
+            byte[] page = pages[pageIndex(fromIndex, PAGE_SHIFT)];
+            int offset = indexInPage(fromIndex, PAGE_MASK);
+            int block = AdjacencyDecompressingReader.blockOf(page, offset, target);
+            return initAtBlock(page, offset, block);
+        }
+
+        /**
+         * Initialise the cursor and use the skip index, if present, to position it at the block that
+         * contains the target at the given position. Check {@link #position()} for how many targets
+         * still need to be skipped.
+         */
+        DecompressingCursor initForIndex(long fromIndex, int index) {
+            byte[] page = pages[pageIndex(fromIndex, PAGE_SHIFT)];
+            int offset = indexInPage(fromIndex, PAGE_MASK);
+            return initAtBlock(page, offset, index / BLOCK_SIZE);
+        }
+
+        private DecompressingCursor initAtBlock(byte[] page, int offset, int block) {
+            maxTargets = AdjacencyDecompressingReader.readInt(page, offset);
+            currentTarget = decompress.resetToBlock(page, offset, block) * BLOCK_SIZE;
+            return this;
+        }
     }
 }
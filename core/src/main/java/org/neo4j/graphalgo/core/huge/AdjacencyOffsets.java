@@ -19,20 +19,28 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.jetbrains.annotations.Nullable;
 import org.neo4j.graphalgo.core.loading.ImportSizing;
 import org.neo4j.graphalgo.core.utils.BitUtil;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 
 import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfLongArray;
 import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfObjectArray;
 
 public abstract class AdjacencyOffsets {
 
-    abstract long get(long index);
+    public abstract long get(long index);
 
     abstract long release();
 
+    abstract long[][] pages();
+
+    abstract int pageSize();
+
     public static AdjacencyOffsets of(long[][] pages, int pageSize) {
         if (pages.length == 1) {
             return new SinglePageOffsets(pages[0]);
@@ -66,6 +74,30 @@ public abstract class AdjacencyOffsets {
         return new SinglePageOffsets(page);
     }
 
+    /**
+     * Moves the given offsets into memory outside of the Java heap and releases the on-heap pages.
+     */
+    public static @Nullable AdjacencyOffsets offHeap(@Nullable AdjacencyOffsets offsets, AllocationTracker tracker) {
+        if (offsets == null || offsets instanceof OffHeapOffsets) {
+            return offsets;
+        }
+        long[][] pages = offsets.pages();
+        long size = 0L;
+        for (long[] page : pages) {
+            size += page.length;
+        }
+        HugeLongArray values = HugeLongArray.newOffHeapArray(size, tracker);
+        long index = 0L;
+        for (long[] page : pages) {
+            for (long offset : page) {
+                values.set(index++, offset);
+            }
+        }
+        int pageSize = offsets.pageSize();
+        tracker.remove(offsets.release());
+        return new OffHeapOffsets(values, pageSize);
+    }
+
     private static final class PagedOffsets extends AdjacencyOffsets {
 
         private final int pageShift;
@@ -87,12 +119,22 @@ public abstract class AdjacencyOffsets {
         }
 
         @Override
-        long get(long index) {
+        public long get(long index) {
             final int pageIndex = (int) (index >>> pageShift);
             final int indexInPage = (int) (index & pageMask);
             return pages[pageIndex][indexInPage];
         }
 
+        @Override
+        long[][] pages() {
+            return pages;
+        }
+
+        @Override
+        int pageSize() {
+            return 1 << pageShift;
+        }
+
         @Override
         long release() {
             if (pages != null) {
@@ -122,10 +164,20 @@ public abstract class AdjacencyOffsets {
         }
 
         @Override
-        long get(long index) {
+        public long get(long index) {
             return page[(int) index];
         }
 
+        @Override
+        long[][] pages() {
+            return new long[][]{page};
+        }
+
+        @Override
+        int pageSize() {
+            return page.length;
+        }
+
         @Override
         long release() {
             if (page != null) {
@@ -136,4 +188,50 @@ public abstract class AdjacencyOffsets {
             return 0L;
         }
     }
+
+    private static final class OffHeapOffsets extends AdjacencyOffsets {
+
+        private final int pageSize;
+        private final HugeLongArray offsets;
+
+        private OffHeapOffsets(HugeLongArray offsets, int pageSize) {
+            this.offsets = offsets;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public long get(long index) {
+            return offsets.get(index);
+        }
+
+        /**
+         * The offsets stay readable, their memory is freed once they are no longer reachable.
+         */
+        @Override
+        long release() {
+            return offsets.release();
+        }
+
+        /**
+         * Copies the offsets back into on-heap pages.
+         */
+        @Override
+        long[][] pages() {
+            long size = offsets.size();
+            long[][] pages = new long[PageUtil.numPagesFor(size, pageSize)][];
+            long index = 0L;
+            for (int i = 0; i < pages.length; i++) {
+                pages[i] = new long[(int) Math.min(pageSize, size - index)];
+                for (int j = 0; j < pages[i].length; j++) {
+                    pages[i][j] = offsets.get(index++);
+                }
+            }
+            return pages;
+        }
+
+        @Override
+        int pageSize() {
+            return pageSize;
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import static org.neo4j.graphalgo.core.huge.AdjacencyDecompressingReader.readLong;
+
+/**
+ * Decodes blocks written by {@code org.neo4j.graphalgo.core.loading.BlockPackedEncoding}.
+ * A block consists of its first delta as a var-long, one byte for the bit width of
+ * the remaining deltas, followed by those deltas as a little-endian bit stream, padded to full bytes.
+ */
+final class BlockPackedDecoding {
+
+    static int decodeDeltaBlock(
+            long startValue,
+            byte[] adjacencyPage,
+            int offset,
+            int limit,
+            long[] out) {
+        if (limit <= 0) {
+            return offset;
+        }
+        offset = VarLongDecoding.decodeDeltaVLongs(startValue, adjacencyPage, offset, 1, out);
+        startValue = out[0];
+
+        int bits = adjacencyPage[offset++];
+        long mask = (1L << bits) - 1L;
+        int blockBytes = ((limit - 1) * bits + 7) >>> 3;
+
+        if (offset + blockBytes + Long.BYTES <= adjacencyPage.length) {
+            // every value can be read with a single unaligned 8 byte load
+            for (int i = 1, bitOffset = 0; i < limit; ++i, bitOffset += bits) {
+                long word = readLong(adjacencyPage, offset + (bitOffset >>> 3));
+                startValue += (word >>> (bitOffset & 7)) & mask;
+                out[i] = startValue;
+            }
+        } else {
+            // the block ends close to the end of the page, read byte by byte
+            long buffer = 0L;
+            int buffered = 0;
+            int in = offset;
+            for (int i = 1; i < limit; ++i) {
+                while (buffered < bits) {
+                    buffer |= (adjacencyPage[in++] & 255L) << buffered;
+                    buffered += 8;
+                }
+                startValue += buffer & mask;
+                out[i] = startValue;
+                buffer >>>= bits;
+                buffered -= bits;
+            }
+        }
+
+        return offset + blockBytes;
+    }
+
+    private BlockPackedDecoding() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
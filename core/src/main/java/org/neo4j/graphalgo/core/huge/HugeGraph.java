@@ -23,6 +23,7 @@ import org.jetbrains.annotations.Nullable;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.ResolvedPropertyMapping;
+import org.neo4j.graphalgo.api.AdjacencyBuffer;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
@@ -34,6 +35,7 @@ import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.NodeCursor;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
@@ -95,6 +97,8 @@ public class HugeGraph implements Graph {
 
     private AdjacencyList.DecompressingCursor emptyCursor;
     private AdjacencyList.DecompressingCursor cursorCache;
+    // used by point lookups, which may be called while cursorCache is iterating
+    private AdjacencyList.DecompressingCursor lookupCursor;
 
     private boolean canRelease = true;
 
@@ -211,6 +215,7 @@ public class HugeGraph implements Graph {
         this.isUndirected = isUndirected;
         this.hasRelationshipProperty = hasRelationshipProperty;
         this.cursorCache = newAdjacencyCursor(this.adjacencyList);
+        this.lookupCursor = newAdjacencyCursor(this.adjacencyList);
         this.emptyCursor = newAdjacencyCursor(this.adjacencyList);
     }
 
@@ -267,21 +272,23 @@ public class HugeGraph implements Graph {
         if (relOffset == NO_SUCH_NODE) {
             return NO_PROPERTY_VALUE;
         }
-        long propertyOffset = propertyOffsets.get(fromId);
 
-        AdjacencyList.DecompressingCursor relDecompressingCursor = adjacencyList.decompressingCursor(relOffset);
-        AdjacencyList.Cursor propertyCursor = properties.cursor(propertyOffset);
+        AdjacencyList.DecompressingCursor relDecompressingCursor = lookupCursor.initForTarget(relOffset, toId);
 
-        while (relDecompressingCursor.hasNextVLong() && propertyCursor.hasNextLong() && relDecompressingCursor.nextVLong() != toId) {
-            propertyCursor.nextLong();
-        }
-
-        if (!propertyCursor.hasNextLong()) {
-            return NO_PROPERTY_VALUE;
+        // scan linearly to find the first of possibly multiple parallel relationships
+        while (relDecompressingCursor.hasNextVLong()) {
+            long targetId = relDecompressingCursor.nextVLong();
+            if (targetId == toId) {
+                long propertyOffset = propertyOffsets.get(fromId);
+                long doubleBits = properties.getLong(propertyOffset, relDecompressingCursor.position() - 1);
+                return Double.longBitsToDouble(doubleBits);
+            }
+            if (targetId > toId) {
+                break;
+            }
         }
 
-        long doubleBits = propertyCursor.nextLong();
-        return Double.longBitsToDouble(doubleBits);
+        return NO_PROPERTY_VALUE;
     }
 
     @Override
@@ -304,6 +311,30 @@ public class HugeGraph implements Graph {
         runForEach(nodeId, fallbackValue, consumer);
     }
 
+    @Override
+    public AdjacencyBuffer relationships(long nodeId, AdjacencyBuffer buffer) {
+        AdjacencyList.DecompressingCursor adjacencyCursor = adjacencyCursorForIteration(nodeId);
+        long[] targets = buffer.resetTargets(nodeId, adjacencyCursor.remaining());
+        buffer.setLength(adjacencyCursor.nextVLongs(targets));
+        return buffer;
+    }
+
+    @Override
+    public AdjacencyBuffer relationships(long nodeId, double fallbackValue, AdjacencyBuffer buffer) {
+        relationships(nodeId, buffer);
+        int degree = buffer.length();
+        double[] properties = buffer.resetProperties(degree);
+        if (!hasRelationshipProperty()) {
+            Arrays.fill(properties, 0, degree, fallbackValue);
+        } else {
+            AdjacencyList.Cursor propertyCursor = propertyCursorForIteration(nodeId);
+            for (int i = 0; i < degree; i++) {
+                properties[i] = Double.longBitsToDouble(propertyCursor.nextLong());
+            }
+        }
+        return buffer;
+    }
+
     @Override
     public int degree(long node) {
         if (adjacencyOffsets == null) {
@@ -330,6 +361,26 @@ public class HugeGraph implements Graph {
         return idMapping;
     }
 
+    public AdjacencyList adjacencyList() {
+        return adjacencyList;
+    }
+
+    public AdjacencyOffsets adjacencyOffsets() {
+        return adjacencyOffsets;
+    }
+
+    public @Nullable AdjacencyList properties() {
+        return properties;
+    }
+
+    public @Nullable AdjacencyOffsets propertyOffsets() {
+        return propertyOffsets;
+    }
+
+    public double defaultPropertyValue() {
+        return defaultPropertyValue;
+    }
+
     @Override
     public boolean contains(long nodeId) {
         return idMapping.contains(nodeId);
@@ -358,23 +409,32 @@ public class HugeGraph implements Graph {
     }
 
     /**
-     * O(n) !
+     * O(log(degree)) for nodes with a skip index, O(degree) otherwise.
      */
     @Override
     public boolean exists(long sourceNodeId, long targetNodeId) {
-        ExistsConsumer consumer = new ExistsConsumer(targetNodeId);
-        runForEach(sourceNodeId, consumer);
-        return consumer.found;
+        long offset = adjacencyOffsets.get(sourceNodeId);
+        if (offset == 0L) {
+            return false;
+        }
+        AdjacencyList.DecompressingCursor cursor = lookupCursor.initForTarget(offset, targetNodeId);
+        return cursor.advance(targetNodeId) == targetNodeId;
     }
 
     /*
-     * O(n) !
+     * O(1) for nodes with a skip index, O(index) otherwise.
      */
     @Override
     public long getTarget(long sourceNodeId, long index) {
-        GetTargetConsumer consumer = new GetTargetConsumer(index);
-        runForEach(sourceNodeId, consumer);
-        return consumer.target;
+        long offset = adjacencyOffsets.get(sourceNodeId);
+        if (offset == 0L || index < 0 || index >= adjacencyList.getDegree(offset)) {
+            return GetTargetConsumer.TARGET_NOT_FOUND;
+        }
+        AdjacencyList.DecompressingCursor cursor = lookupCursor.initForIndex(offset, (int) index);
+        for (int skip = cursor.position(); skip < index; skip++) {
+            cursor.nextVLong();
+        }
+        return cursor.nextVLong();
     }
 
     private void runForEach(long sourceId, RelationshipConsumer consumer) {
@@ -429,6 +489,10 @@ public class HugeGraph implements Graph {
         if (adjacencyList != null) {
             tracker.remove(adjacencyList.release());
             tracker.remove(adjacencyOffsets.release());
+            if (properties != null) {
+                tracker.remove(properties.release());
+                tracker.remove(propertyOffsets.release());
+            }
             adjacencyList = null;
             properties = null;
             adjacencyOffsets = null;
@@ -436,6 +500,7 @@ public class HugeGraph implements Graph {
         }
         emptyCursor = null;
         cursorCache = null;
+        lookupCursor = null;
     }
 
     @Override
@@ -534,22 +599,4 @@ public class HugeGraph implements Graph {
             return true;
         }
     }
-
-    private static class ExistsConsumer implements RelationshipConsumer {
-        private final long targetNodeId;
-        private boolean found = false;
-
-        ExistsConsumer(long targetNodeId) {
-            this.targetNodeId = targetNodeId;
-        }
-
-        @Override
-        public boolean accept(long s, long t) {
-            if (t == targetNodeId) {
-                found = true;
-                return false;
-            }
-            return true;
-        }
-    }
 }
@@ -0,0 +1,708 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.NodeProjections;
+import org.neo4j.graphalgo.RelationshipProjections;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
+import org.neo4j.graphalgo.core.CypherMapWrapper;
+import org.neo4j.graphalgo.core.loading.GraphWithConfig;
+import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
+import org.neo4j.graphalgo.core.loading.IdMap;
+import org.neo4j.graphalgo.core.loading.IdMapBuilder;
+import org.neo4j.graphalgo.core.loading.ImmutableGraphWithConfig;
+import org.neo4j.graphalgo.core.loading.NodePropertiesBuilder;
+import org.neo4j.graphalgo.core.utils.mem.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeCursor;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.newapi.GraphCreateConfig;
+import org.neo4j.graphalgo.newapi.GraphCreateFromCypherConfig;
+import org.neo4j.graphalgo.newapi.GraphCreateFromStoreConfig;
+import org.neo4j.graphalgo.newapi.ImmutableGraphCreateFromCypherConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the in-memory representation of a catalog graph into a single binary file
+ * and restores it without going through the Neo4j store.
+ * <p>
+ * The file contains the kind, queries and projections of the creating config, the original node ids,
+ * the node properties and, for every relationship type and property, the pages of the
+ * {@link AdjacencyList} and {@link AdjacencyOffsets} as they are held in memory.
+ * Node properties are written with their column type, the raw bits of every long or double value
+ * and a bit per node telling whether it has a value.
+ * Adjacency lists and offsets that are shared between the graphs of the same relationship
+ * type are written only once.
+ * <p>
+ * Reloading maps the file through NIO and bulk-copies the mapped regions into the heap pages
+ * of the graph, as adjacency lists and offsets are backed by on-heap arrays.
+ */
+public final class HugeGraphSnapshot {
+
+    private static final int MAGIC = 0x47445353;
+    private static final int VERSION = 3;
+
+    private static final int NULL_REFERENCE = -1;
+    private static final int NEW_REFERENCE = -2;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_WINDOW_SIZE = 1 << 30;
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte LONG_VALUE = 2;
+    private static final byte DOUBLE_VALUE = 3;
+    private static final byte BOOLEAN_VALUE = 4;
+    private static final byte MAP_VALUE = 5;
+    private static final byte LIST_VALUE = 6;
+
+    private static final byte STORE_CONFIG = 0;
+    private static final byte CYPHER_CONFIG = 1;
+
+    private static final int UNRESOLVED_PROPERTY_KEY = -2;
+
+    private static final String ADJACENCY_ENCODING_KEY = "adjacencyEncoding";
+
+    public static void export(GraphsByRelationshipType graphs, GraphCreateConfig config, Path file) throws IOException {
+        Map<String, Map<String, Graph>> graphsByType = graphs.asMap();
+        HugeGraph anyGraph = graphsByType.values().stream()
+            .flatMap(graphsByProperty -> graphsByProperty.values().stream())
+            .findFirst()
+            .map(HugeGraphSnapshot::hugeGraph)
+            .orElseThrow(() -> new IllegalArgumentException(String.format(
+                "Graph `%s` does not contain any relationship projection to export.",
+                config.graphName()
+            )));
+
+        try (FileChannel channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            Output out = new Output(channel);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            if (config instanceof GraphCreateFromCypherConfig) {
+                GraphCreateFromCypherConfig cypherConfig = (GraphCreateFromCypherConfig) config;
+                out.writeByte(CYPHER_CONFIG);
+                out.writeValue(cypherConfig.nodeQuery());
+                out.writeValue(cypherConfig.relationshipQuery());
+            } else {
+                out.writeByte(STORE_CONFIG);
+            }
+            out.writeValue(config.nodeProjection().toObject());
+            out.writeValue(config.relationshipProjection().toObject());
+            out.writeString(config.adjacencyEncoding().name());
+
+            writeNodes(anyGraph, out);
+
+            Map<Object, Integer> written = new IdentityHashMap<>();
+            out.writeInt(graphsByType.size());
+            for (Map.Entry<String, Map<String, Graph>> byType : graphsByType.entrySet()) {
+                out.writeString(byType.getKey());
+                out.writeInt(byType.getValue().size());
+                for (Map.Entry<String, Graph> byProperty : byType.getValue().entrySet()) {
+                    out.writeString(byProperty.getKey());
+                    writeRelationships(hugeGraph(byProperty.getValue()), written, out);
+                }
+            }
+            out.flush();
+        }
+    }
+
+    public static GraphWithConfig load(
+        Path file,
+        String username,
+        String graphName,
+        int concurrency,
+        AllocationTracker tracker
+    ) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            Input in = new Input(channel);
+            if (channel.size() < 2 * Integer.BYTES || in.readInt() != MAGIC) {
+                throw new IllegalArgumentException(String.format("File `%s` is not a graph snapshot.", file));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format(
+                    "Unsupported graph snapshot version %d, expected %d.",
+                    version,
+                    VERSION
+                ));
+            }
+
+            GraphCreateConfig config = readConfig(in, username, graphName);
+
+            IdMap idMap = readIdMap(in, concurrency, tracker);
+            Map<String, NodeProperties> nodeProperties = readNodeProperties(in, idMap.nodeCount(), tracker);
+
+            List<Object> read = new ArrayList<>();
+            int typeCount = in.readInt();
+            Map<String, Map<String, Graph>> graphs = new HashMap<>(typeCount);
+            for (int i = 0; i < typeCount; i++) {
+                String relationshipType = in.readString();
+                int propertyCount = in.readInt();
+                Map<String, Graph> graphsByProperty = new LinkedHashMap<>(propertyCount);
+                for (int j = 0; j < propertyCount; j++) {
+                    String relationshipProperty = in.readString();
+                    graphsByProperty.put(
+                        relationshipProperty,
+                        readRelationships(in, idMap, nodeProperties, read, tracker)
+                    );
+                }
+                graphs.put(relationshipType, graphsByProperty);
+            }
+
+            return ImmutableGraphWithConfig.of(GraphsByRelationshipType.of(graphs), config);
+        }
+    }
+
+    private static GraphCreateConfig readConfig(Input in, String username, String graphName) throws IOException {
+        byte configKind = in.readByte();
+        String nodeQuery = null;
+        String relationshipQuery = null;
+        if (configKind == CYPHER_CONFIG) {
+            nodeQuery = (String) in.readValue();
+            relationshipQuery = (String) in.readValue();
+        }
+        Object nodeProjection = in.readValue();
+        Object relationshipProjection = in.readValue();
+        CypherMapWrapper config = CypherMapWrapper.empty().withString(ADJACENCY_ENCODING_KEY, in.readString());
+
+        if (configKind == CYPHER_CONFIG) {
+            // the projections of a cypher config are inferred after loading and are not accepted as parameters
+            return ImmutableGraphCreateFromCypherConfig.builder()
+                .from(GraphCreateFromCypherConfig.of(username, graphName, nodeQuery, relationshipQuery, config))
+                .nodeProjection(NodeProjections.fromObject(nodeProjection))
+                .relationshipProjection(RelationshipProjections.fromObject(relationshipProjection))
+                .build();
+        }
+        return GraphCreateFromStoreConfig.of(username, graphName, nodeProjection, relationshipProjection, config);
+    }
+
+    private static HugeGraph hugeGraph(Graph graph) {
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException(String.format(
+                "Only graphs of type `%s` can be exported, got `%s`.",
+                HugeGraph.TYPE,
+                graph.getType()
+            ));
+        }
+        return (HugeGraph) graph;
+    }
+
+    private static void writeNodes(HugeGraph graph, Output out) throws IOException {
+        long nodeCount = graph.nodeCount();
+        out.writeLong(nodeCount);
+
+        long[] ids = new long[CHUNK_SIZE];
+        for (long start = 0; start < nodeCount; start += CHUNK_SIZE) {
+            int length = (int) Math.min(CHUNK_SIZE, nodeCount - start);
+            for (int i = 0; i < length; i++) {
+                ids[i] = graph.toOriginalNodeId(start + i);
+            }
+            out.writeLongs(ids, 0, length);
+        }
+
+        out.writeInt(graph.availableNodeProperties().size());
+        long[] present = new long[presenceWords(CHUNK_SIZE)];
+        long[] values = new long[CHUNK_SIZE];
+        for (String propertyKey : graph.availableNodeProperties()) {
+            NodeProperties properties = graph.nodeProperties(propertyKey);
+            // a column is integral if every value can be read as a long that converts back
+            // to the same double, which keeps values beyond the exact range of a double exact
+            boolean isIntegral = true;
+            // the fallback is only returned for nodes without a value
+            double defaultValue = Double.NaN;
+            boolean defaultValueFound = false;
+            for (long nodeId = 0; nodeId < nodeCount && (isIntegral || !defaultValueFound); nodeId++) {
+                if (properties.hasNodeProperty(nodeId)) {
+                    long longValue = properties.nodeLongProperty(nodeId, 0L);
+                    isIntegral &= Double.doubleToRawLongBits((double) longValue)
+                                  == Double.doubleToRawLongBits(properties.nodeProperty(nodeId));
+                } else if (!defaultValueFound) {
+                    defaultValue = properties.nodeProperty(nodeId);
+                    defaultValueFound = true;
+                }
+            }
+
+            out.writeString(propertyKey);
+            out.writeByte(isIntegral ? LONG_VALUE : DOUBLE_VALUE);
+            out.writeDouble(defaultValue);
+            for (long start = 0; start < nodeCount; start += CHUNK_SIZE) {
+                int length = (int) Math.min(CHUNK_SIZE, nodeCount - start);
+                Arrays.fill(present, 0L);
+                for (int i = 0; i < length; i++) {
+                    long nodeId = start + i;
+                    if (properties.hasNodeProperty(nodeId)) {
+                        present[i >>> 6] |= 1L << i;
+                        values[i] = isIntegral
+                            ? properties.nodeLongProperty(nodeId, 0L)
+                            : Double.doubleToRawLongBits(properties.nodeProperty(nodeId));
+                    } else {
+                        values[i] = 0L;
+                    }
+                }
+                out.writeLongs(present, 0, presenceWords(length));
+                out.writeLongs(values, 0, length);
+            }
+        }
+    }
+
+    private static int presenceWords(int length) {
+        return (length + Long.SIZE - 1) >>> 6;
+    }
+
+    private static IdMap readIdMap(Input in, int concurrency, AllocationTracker tracker) throws IOException {
+        long nodeCount = in.readLong();
+        HugeLongArray graphIds = HugeLongArray.newArray(nodeCount, tracker);
+        long highestNodeId = 0L;
+        try (HugeCursor<long[]> cursor = graphIds.initCursor(graphIds.newCursor())) {
+            while (cursor.next()) {
+                long[] array = cursor.array;
+                in.readLongs(array, cursor.offset, cursor.limit - cursor.offset);
+                for (int i = cursor.offset; i < cursor.limit; i++) {
+                    highestNodeId = Math.max(highestNodeId, array[i]);
+                }
+            }
+        }
+        return IdMapBuilder.build(graphIds, highestNodeId + 1, concurrency, tracker);
+    }
+
+    private static Map<String, NodeProperties> readNodeProperties(
+        Input in,
+        long nodeCount,
+        AllocationTracker tracker
+    ) throws IOException {
+        int propertyCount = in.readInt();
+        Map<String, NodeProperties> nodeProperties = new HashMap<>(propertyCount);
+        long[] present = new long[presenceWords(CHUNK_SIZE)];
+        long[] values = new long[CHUNK_SIZE];
+        for (int i = 0; i < propertyCount; i++) {
+            String propertyKey = in.readString();
+            boolean isIntegral = in.readByte() == LONG_VALUE;
+            NodePropertiesBuilder properties = NodePropertiesBuilder.of(
+                nodeCount,
+                tracker,
+                in.readDouble(),
+                UNRESOLVED_PROPERTY_KEY,
+                propertyKey
+            );
+            for (long start = 0; start < nodeCount; start += CHUNK_SIZE) {
+                int length = (int) Math.min(CHUNK_SIZE, nodeCount - start);
+                in.readLongs(present, 0, presenceWords(length));
+                in.readLongs(values, 0, length);
+                for (int j = 0; j < length; j++) {
+                    if ((present[j >>> 6] & (1L << j)) != 0L) {
+                        if (isIntegral) {
+                            properties.set(start + j, values[j]);
+                        } else {
+                            properties.set(start + j, Double.longBitsToDouble(values[j]));
+                        }
+                    }
+                }
+            }
+            nodeProperties.put(propertyKey, properties.build());
+        }
+        return nodeProperties;
+    }
+
+    private static void writeRelationships(HugeGraph graph, Map<Object, Integer> written, Output out) throws IOException {
+        out.writeLong(graph.relationshipCount());
+        out.writeBoolean(graph.isUndirected());
+        out.writeBoolean(graph.hasRelationshipProperty());
+        out.writeDouble(graph.defaultPropertyValue());
+        writeAdjacencyList(graph.adjacencyList(), written, out);
+        writeAdjacencyOffsets(graph.adjacencyOffsets(), written, out);
+        writeAdjacencyList(graph.properties(), written, out);
+        writeAdjacencyOffsets(graph.propertyOffsets(), written, out);
+    }
+
+    private static HugeGraph readRelationships(
+        Input in,
+        IdMap idMap,
+        Map<String, NodeProperties> nodeProperties,
+        List<Object> read,
+        AllocationTracker tracker
+    ) throws IOException {
+        long relationshipCount = in.readLong();
+        boolean isUndirected = in.readBoolean();
+        boolean hasRelationshipProperty = in.readBoolean();
+        double defaultPropertyValue = in.readDouble();
+        AdjacencyList adjacencyList = readAdjacencyList(in, read, tracker);
+        AdjacencyOffsets adjacencyOffsets = readAdjacencyOffsets(in, read, tracker);
+        AdjacencyList properties = readAdjacencyList(in, read, tracker);
+        AdjacencyOffsets propertyOffsets = readAdjacencyOffsets(in, read, tracker);
+        return new HugeGraph(
+            tracker,
+            idMap,
+            nodeProperties,
+            relationshipCount,
+            adjacencyList,
+            adjacencyOffsets,
+            hasRelationshipProperty,
+            defaultPropertyValue,
+            properties,
+            propertyOffsets,
+            isUndirected
+        );
+    }
+
+    private static boolean writeReference(Object value, Map<Object, Integer> written, Output out) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_REFERENCE);
+            return false;
+        }
+        Integer reference = written.get(value);
+        if (reference != null) {
+            out.writeInt(reference);
+            return false;
+        }
+        written.put(value, written.size());
+        out.writeInt(NEW_REFERENCE);
+        return true;
+    }
+
+    private static void writeAdjacencyList(AdjacencyList adjacencyList, Map<Object, Integer> written, Output out) throws IOException {
+        if (!writeReference(adjacencyList, written, out)) {
+            return;
+        }
+        out.writeByte((byte) adjacencyList.encoding().ordinal());
+        byte[][] pages = adjacencyList.pages();
+        out.writeInt(pages.length);
+        for (byte[] page : pages) {
+            if (page == null) {
+                out.writeInt(NULL_REFERENCE);
+            } else {
+                out.writeInt(page.length);
+                out.writeBytes(page);
+            }
+        }
+    }
+
+    private static AdjacencyList readAdjacencyList(Input in, List<Object> read, AllocationTracker tracker) throws IOException {
+        int reference = in.readInt();
+        if (reference == NULL_REFERENCE) {
+            return null;
+        }
+        if (reference != NEW_REFERENCE) {
+            return (AdjacencyList) read.get(reference);
+        }
+        AdjacencyEncoding encoding = AdjacencyEncoding.values()[in.readByte()];
+        byte[][] pages = new byte[in.readInt()][];
+        tracker.add(MemoryUsage.sizeOfObjectArray(pages.length));
+        for (int i = 0; i < pages.length; i++) {
+            int length = in.readInt();
+            if (length != NULL_REFERENCE) {
+                pages[i] = new byte[length];
+                in.readBytes(pages[i]);
+                tracker.add(MemoryUsage.sizeOfByteArray(length));
+            }
+        }
+        AdjacencyList adjacencyList = new AdjacencyList(pages, encoding);
+        read.add(adjacencyList);
+        return adjacencyList;
+    }
+
+    private static void writeAdjacencyOffsets(AdjacencyOffsets offsets, Map<Object, Integer> written, Output out) throws IOException {
+        if (!writeReference(offsets, written, out)) {
+            return;
+        }
+        long[][] pages = offsets.pages();
+        out.writeInt(offsets.pageSize());
+        out.writeInt(pages.length);
+        for (long[] page : pages) {
+            out.writeInt(page.length);
+            out.writeLongs(page, 0, page.length);
+        }
+    }
+
+    private static AdjacencyOffsets readAdjacencyOffsets(Input in, List<Object> read, AllocationTracker tracker) throws IOException {
+        int reference = in.readInt();
+        if (reference == NULL_REFERENCE) {
+            return null;
+        }
+        if (reference != NEW_REFERENCE) {
+            return (AdjacencyOffsets) read.get(reference);
+        }
+        int pageSize = in.readInt();
+        long[][] pages = new long[in.readInt()][];
+        tracker.add(MemoryUsage.sizeOfObjectArray(pages.length));
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new long[in.readInt()];
+            in.readLongs(pages[i], 0, pages[i].length);
+            tracker.add(MemoryUsage.sizeOfLongArray(pages[i].length));
+        }
+        AdjacencyOffsets offsets = AdjacencyOffsets.of(pages, pageSize);
+        read.add(offsets);
+        return offsets;
+    }
+
+    private HugeGraphSnapshot() {}
+
+    private static final class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        void writeByte(byte value) throws IOException {
+            require(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            writeByte(value ? (byte) 1 : (byte) 0);
+        }
+
+        void writeInt(int value) throws IOException {
+            require(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            require(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void writeDouble(double value) throws IOException {
+            require(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void writeBytes(byte[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                require(Byte.BYTES);
+                int length = Math.min(buffer.remaining(), values.length - offset);
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        }
+
+        void writeLongs(long[] values, int offset, int length) throws IOException {
+            int end = offset + length;
+            while (offset < end) {
+                require(Long.BYTES);
+                int count = Math.min(buffer.remaining() / Long.BYTES, end - offset);
+                buffer.asLongBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes);
+        }
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                writeByte(NULL_VALUE);
+            } else if (value instanceof String) {
+                writeByte(STRING_VALUE);
+                writeString((String) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                writeByte(DOUBLE_VALUE);
+                writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof Number) {
+                writeByte(LONG_VALUE);
+                writeLong(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                writeByte(BOOLEAN_VALUE);
+                writeBoolean((Boolean) value);
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                writeByte(MAP_VALUE);
+                writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeString(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                writeByte(LIST_VALUE);
+                writeInt(list.size());
+                for (Object element : list) {
+                    writeValue(element);
+                }
+            } else {
+                throw new IllegalArgumentException(String.format(
+                    "Cannot write configuration value of type %s",
+                    value.getClass().getName()
+                ));
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowStart = 0L;
+            this.window = map(0L);
+        }
+
+        byte readByte() throws IOException {
+            require(Byte.BYTES);
+            return window.get();
+        }
+
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        int readInt() throws IOException {
+            require(Integer.BYTES);
+            return window.getInt();
+        }
+
+        long readLong() throws IOException {
+            require(Long.BYTES);
+            return window.getLong();
+        }
+
+        double readDouble() throws IOException {
+            require(Double.BYTES);
+            return window.getDouble();
+        }
+
+        void readBytes(byte[] values) throws IOException {
+            int offset = 0;
+            while (offset < values.length) {
+                require(Byte.BYTES);
+                int length = Math.min(window.remaining(), values.length - offset);
+                window.get(values, offset, length);
+                offset += length;
+            }
+        }
+
+        void readLongs(long[] values, int offset, int length) throws IOException {
+            int end = offset + length;
+            while (offset < end) {
+                require(Long.BYTES);
+                int count = Math.min(window.remaining() / Long.BYTES, end - offset);
+                window.asLongBuffer().get(values, offset, count);
+                window.position(window.position() + count * Long.BYTES);
+                offset += count;
+            }
+        }
+
+        String readString() throws IOException {
+            byte[] bytes = new byte[readInt()];
+            readBytes(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Object readValue() throws IOException {
+            byte type = readByte();
+            switch (type) {
+                case NULL_VALUE:
+                    return null;
+                case STRING_VALUE:
+                    return readString();
+                case LONG_VALUE:
+                    return readLong();
+                case DOUBLE_VALUE:
+                    return readDouble();
+                case BOOLEAN_VALUE:
+                    return readBoolean();
+                case MAP_VALUE:
+                    int size = readInt();
+                    Map<String, Object> map = new LinkedHashMap<>(size);
+                    for (int i = 0; i < size; i++) {
+                        String key = readString();
+                        map.put(key, readValue());
+                    }
+                    return map;
+                case LIST_VALUE:
+                    int length = readInt();
+                    List<Object> list = new ArrayList<>(length);
+                    for (int i = 0; i < length; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                default:
+                    throw new IllegalArgumentException(String.format(
+                        "Unknown configuration value type %d",
+                        type
+                    ));
+            }
+        }
+
+        private void require(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                windowStart += window.position();
+                window = map(windowStart);
+                if (window.remaining() < bytes) {
+                    throw new IOException("Unexpected end of graph snapshot");
+                }
+            }
+        }
+
+        private MappedByteBuffer map(long position) throws IOException {
+            long length = Math.min(MAX_WINDOW_SIZE, size - position);
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+/**
+ * A k-way merge over the adjacency lists of a node in multiple {@link HugeGraph}s that share the same id space.
+ * Targets are returned in ascending order and each target is returned only once,
+ * even if it occurs in several of the graphs or as parallel relationships in one graph.
+ * <p>
+ * The number of merged graphs is the number of relationship types in a projection and thus small,
+ * so the smallest head is found by a linear scan instead of maintaining a heap.
+ * <p>
+ * An instance of this is not thread-safe, use one cursor per thread.
+ */
+public final class MergingAdjacencyCursor {
+
+    public static final long NOT_FOUND = AdjacencyList.DecompressingCursor.NOT_FOUND;
+
+    private final AdjacencyList[] adjacencyLists;
+    private final AdjacencyOffsets[] adjacencyOffsets;
+    private final AdjacencyList.DecompressingCursor[] cursors;
+
+    // the graphs that still have targets left, and their smallest not yet returned target
+    private final int[] active;
+    private final long[] heads;
+    private int activeCount;
+
+    MergingAdjacencyCursor(AdjacencyList[] adjacencyLists, AdjacencyOffsets[] adjacencyOffsets) {
+        assert adjacencyLists.length == adjacencyOffsets.length;
+        this.adjacencyLists = adjacencyLists;
+        this.adjacencyOffsets = adjacencyOffsets;
+        this.cursors = new AdjacencyList.DecompressingCursor[adjacencyLists.length];
+        for (int i = 0; i < adjacencyLists.length; i++) {
+            cursors[i] = adjacencyLists[i].rawDecompressingCursor();
+        }
+        this.active = new int[adjacencyLists.length];
+        this.heads = new long[adjacencyLists.length];
+    }
+
+    /**
+     * Position the cursor before the first target of the given node.
+     */
+    public MergingAdjacencyCursor init(long nodeId) {
+        activeCount = 0;
+        for (int i = 0; i < cursors.length; i++) {
+            long offset = adjacencyOffsets[i].get(nodeId);
+            if (offset != 0L) {
+                AdjacencyList.DecompressingCursor cursor = adjacencyLists[i].decompressingCursor(cursors[i], offset);
+                if (cursor.hasNextVLong()) {
+                    active[activeCount] = i;
+                    heads[activeCount] = cursor.nextVLong();
+                    activeCount++;
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Copy iteration state from another cursor over the same graphs without changing {@code other}.
+     */
+    void copyFrom(MergingAdjacencyCursor other) {
+        activeCount = other.activeCount;
+        for (int j = 0; j < activeCount; j++) {
+            int i = other.active[j];
+            active[j] = i;
+            heads[j] = other.heads[j];
+            cursors[i].copyFrom(other.cursors[i]);
+        }
+    }
+
+    /**
+     * Return true iff there is at least one more target.
+     */
+    public boolean hasNext() {
+        return activeCount > 0;
+    }
+
+    /**
+     * Return an upper bound of the number of targets that are left.
+     * Targets that occur in more than one graph are counted multiple times.
+     */
+    public int remaining() {
+        int remaining = activeCount;
+        for (int j = 0; j < activeCount; j++) {
+            remaining += cursors[active[j]].remaining();
+        }
+        return remaining;
+    }
+
+    /**
+     * Return the next target.
+     * It is undefined behavior if this is called after {@link #hasNext()} returns {@code false}.
+     */
+    public long next() {
+        long[] heads = this.heads;
+        long target = heads[0];
+        for (int j = 1; j < activeCount; j++) {
+            if (heads[j] < target) {
+                target = heads[j];
+            }
+        }
+        // move all graphs that are positioned at the target past it
+        for (int j = activeCount - 1; j >= 0; j--) {
+            if (heads[j] == target) {
+                AdjacencyList.DecompressingCursor cursor = cursors[active[j]];
+                long next;
+                if (cursor.hasNextVLong() && (next = cursor.skipUntil(target)) > target) {
+                    heads[j] = next;
+                } else {
+                    remove(j);
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Return the first target that is larger than or equal (`>=`) to the provided {@code target}.
+     * Returns {@link #NOT_FOUND} iff there is no such target, afterwards {@link #hasNext()} will return {@code false}.
+     */
+    public long advance(long target) {
+        for (int j = activeCount - 1; j >= 0; j--) {
+            if (heads[j] < target) {
+                long next = cursors[active[j]].advance(target);
+                if (next >= target) {
+                    heads[j] = next;
+                } else {
+                    remove(j);
+                }
+            }
+        }
+        return activeCount > 0 ? next() : NOT_FOUND;
+    }
+
+    /**
+     * Return the first target that is strictly larger than (`>`) the provided {@code target}.
+     * Returns {@link #NOT_FOUND} iff there is no such target, afterwards {@link #hasNext()} will return {@code false}.
+     */
+    public long skipUntil(long target) {
+        return advance(target + 1);
+    }
+
+    private void remove(int index) {
+        int last = --activeCount;
+        active[index] = active[last];
+        heads[index] = heads[last];
+    }
+}
@@ -26,10 +26,16 @@ import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIntersect;
 import org.neo4j.graphalgo.api.RelationshipWithPropertyConsumer;
+import org.neo4j.graphalgo.core.loading.MergedRelationshipsBuilder;
+import org.neo4j.graphalgo.core.loading.Relationships;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.helpers.collection.Iterables;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
@@ -37,6 +43,8 @@ public final class UnionGraph implements Graph {
 
     private final Graph first;
     private final Collection<? extends Graph> graphs;
+    // the parts as HugeGraphs or null if any part is a different graph implementation
+    private final HugeGraph[] hugeGraphs;
 
     public static Graph of(Collection<? extends Graph> graphs) {
         if (graphs.isEmpty()) {
@@ -51,6 +59,9 @@ public final class UnionGraph implements Graph {
     private UnionGraph(Collection<? extends Graph> graphs) {
         first = Iterables.first(graphs);
         this.graphs = graphs;
+        this.hugeGraphs = graphs.stream().allMatch(graph -> graph instanceof HugeGraph)
+            ? graphs.toArray(new HugeGraph[0])
+            : null;
     }
 
     @Override
@@ -137,9 +148,79 @@ public final class UnionGraph implements Graph {
         return of(graphs.stream().map(graph -> (Graph) graph.concurrentCopy()).collect(Collectors.toList()));
     }
 
+    /**
+     * Intersects the merged adjacency of all relationship types, relationships that exist for multiple types
+     * are considered only once.
+     */
     @Override
     public RelationshipIntersect intersection() {
-        throw new UnsupportedOperationException("#intersection is not supported for multiple relationship types");
+        if (hugeGraphs == null) {
+            throw new UnsupportedOperationException("#intersection is not supported for multiple relationship types");
+        }
+        return new UnionGraphIntersectImpl(adjacencyLists(), adjacencyOffsets());
+    }
+
+    /**
+     * Returns a cursor that traverses the relationships of all types as a single, sorted adjacency list
+     * without duplicate targets, as opposed to {@link #forEachRelationship(long, RelationshipConsumer)},
+     * which visits the relationships of each type in turn.
+     */
+    public MergingAdjacencyCursor mergingCursor() {
+        if (hugeGraphs == null) {
+            throw new UnsupportedOperationException("#mergingCursor is only supported for loaded graphs");
+        }
+        return new MergingAdjacencyCursor(adjacencyLists(), adjacencyOffsets());
+    }
+
+    /**
+     * Copies the merged, deduplicated adjacency of all relationship types into a single {@link HugeGraph}
+     * that shares the id mapping and node properties with this graph.
+     * The result does not have relationship properties. Algorithms that traverse the union many times
+     * save the cursor setup for every relationship type and can use the {@link HugeGraph#intersection()}.
+     */
+    public HugeGraph materialize(int concurrency, AllocationTracker tracker) {
+        if (hugeGraphs == null) {
+            throw new UnsupportedOperationException("#materialize is only supported for loaded graphs");
+        }
+        Relationships merged = MergedRelationshipsBuilder.build(
+            this::mergingCursor,
+            nodeCount(),
+            hugeGraphs[0].adjacencyList().encoding(),
+            concurrency,
+            tracker
+        );
+
+        Map<String, NodeProperties> nodeProperties = availableNodeProperties()
+            .stream()
+            .collect(Collectors.toMap(Function.identity(), this::nodeProperties));
+        return HugeGraph.create(
+            tracker,
+            hugeGraphs[0].idMapping(),
+            nodeProperties,
+            merged.relationshipCount(),
+            merged.outAdjacency(),
+            merged.outOffsets(),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            isUndirected()
+        );
+    }
+
+    private AdjacencyList[] adjacencyLists() {
+        AdjacencyList[] adjacencyLists = new AdjacencyList[hugeGraphs.length];
+        for (int i = 0; i < hugeGraphs.length; i++) {
+            adjacencyLists[i] = hugeGraphs[i].adjacencyList();
+        }
+        return adjacencyLists;
+    }
+
+    private AdjacencyOffsets[] adjacencyOffsets() {
+        AdjacencyOffsets[] adjacencyOffsets = new AdjacencyOffsets[hugeGraphs.length];
+        for (int i = 0; i < hugeGraphs.length; i++) {
+            adjacencyOffsets[i] = hugeGraphs[i].adjacencyOffsets();
+        }
+        return adjacencyOffsets;
     }
 
     /**
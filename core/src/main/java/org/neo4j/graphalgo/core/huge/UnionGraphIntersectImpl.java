@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.IntersectionConsumer;
+import org.neo4j.graphalgo.api.RelationshipIntersect;
+
+import static org.neo4j.graphalgo.core.huge.MergingAdjacencyCursor.NOT_FOUND;
+
+/**
+ * Intersects the merged adjacency of multiple {@link HugeGraph}s, treating the union as a single graph
+ * without parallel relationships.
+ * An instance of this is not thread-safe, see {@link HugeGraphIntersectImpl}.
+ */
+class UnionGraphIntersectImpl implements RelationshipIntersect {
+
+    private final MergingAdjacencyCursor cursor;
+    private final MergingAdjacencyCursor cursorA;
+    private final MergingAdjacencyCursor cursorB;
+
+    UnionGraphIntersectImpl(AdjacencyList[] adjacencyLists, AdjacencyOffsets[] adjacencyOffsets) {
+        cursor = new MergingAdjacencyCursor(adjacencyLists, adjacencyOffsets);
+        cursorA = new MergingAdjacencyCursor(adjacencyLists, adjacencyOffsets);
+        cursorB = new MergingAdjacencyCursor(adjacencyLists, adjacencyOffsets);
+    }
+
+    @Override
+    public void intersectAll(long nodeIdA, IntersectionConsumer consumer) {
+        MergingAdjacencyCursor mainCursor = cursor.init(nodeIdA);
+        long nodeIdB = mainCursor.skipUntil(nodeIdA);
+        if (nodeIdB == NOT_FOUND) {
+            return;
+        }
+
+        long nodeIdC, s, t;
+        boolean hasNext = true;
+
+        while (hasNext) {
+            nodeIdC = cursorB.init(nodeIdB).skipUntil(nodeIdB);
+            if (nodeIdC != NOT_FOUND) {
+                cursorA.copyFrom(mainCursor);
+                s = cursorA.advance(nodeIdC);
+                t = nodeIdC;
+
+                while (s != NOT_FOUND && t != NOT_FOUND) {
+                    if (s == t) {
+                        consumer.accept(nodeIdA, nodeIdB, s);
+                        if (!cursorA.hasNext() || !cursorB.hasNext()) {
+                            break;
+                        }
+                        s = cursorA.next();
+                        t = cursorB.next();
+                    } else if (s < t) {
+                        s = cursorA.advance(t);
+                    } else {
+                        t = cursorB.advance(s);
+                    }
+                }
+            }
+
+            if (hasNext = mainCursor.hasNext()) {
+                nodeIdB = mainCursor.next();
+            }
+        }
+    }
+}
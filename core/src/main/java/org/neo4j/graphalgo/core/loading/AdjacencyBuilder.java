@@ -19,13 +19,14 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
-import org.apache.lucene.util.LongsRef;
 import org.neo4j.graphalgo.core.huge.AdjacencyOffsets;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.LongAdder;
 
 import static org.neo4j.graphalgo.compat.StatementConstantsProxy.NO_SUCH_PROPERTY_KEY;
@@ -58,7 +59,6 @@ public abstract class AdjacencyBuilder {
         tracker.add(sizeOfObjectArray(numPages) << 2);
         ThreadLocalRelationshipsBuilder[] localBuilders = new ThreadLocalRelationshipsBuilder[numPages];
         final CompressedLongArray[][] compressedAdjacencyLists = new CompressedLongArray[numPages][];
-        LongsRef[] buffers = new LongsRef[numPages];
         long[][] globalAdjacencyOffsets = new long[numPages][];
 
         long[][][] globalWeightOffsets = new long[propertyKeyIds.length][][];
@@ -71,7 +71,6 @@ public abstract class AdjacencyBuilder {
                 globalBuilder,
                 localBuilders,
                 compressedAdjacencyLists,
-                buffers,
                 globalAdjacencyOffsets,
                 globalWeightOffsets,
                 pageSize,
@@ -94,7 +93,8 @@ public abstract class AdjacencyBuilder {
         private final RelationshipsBuilder globalBuilder;
         private final ThreadLocalRelationshipsBuilder[] localBuilders;
         private final CompressedLongArray[][] compressedAdjacencyLists;
-        private final LongsRef[] buffers;
+        // scratch space for the flush tasks, there are at most as many buffers as tasks running concurrently
+        private final Queue<CompressionBuffers> compressionBuffers;
         private final long[][] globalAdjacencyOffsets;
         private final long[][][] globalWeightOffsets;
         private final int pageSize;
@@ -110,7 +110,6 @@ public abstract class AdjacencyBuilder {
                 RelationshipsBuilder globalBuilder,
                 ThreadLocalRelationshipsBuilder[] localBuilders,
                 CompressedLongArray[][] compressedAdjacencyLists,
-                LongsRef[] buffers,
                 long[][] globalAdjacencyOffsets,
                 long[][][] globalWeightOffsets,
                 int pageSize,
@@ -120,7 +119,7 @@ public abstract class AdjacencyBuilder {
             this.globalBuilder = globalBuilder;
             this.localBuilders = localBuilders;
             this.compressedAdjacencyLists = compressedAdjacencyLists;
-            this.buffers = buffers;
+            this.compressionBuffers = new ConcurrentLinkedQueue<>();
             this.globalAdjacencyOffsets = globalAdjacencyOffsets;
             this.globalWeightOffsets = globalWeightOffsets;
             this.pageSize = pageSize;
@@ -138,7 +137,6 @@ public abstract class AdjacencyBuilder {
             tracker.add(sizeOfObjectPage);
             tracker.add(sizeOfLongPage);
             compressedAdjacencyLists[pageIndex] = new CompressedLongArray[pageSize];
-            buffers[pageIndex] = new LongsRef();
             long[] localAdjacencyOffsets = globalAdjacencyOffsets[pageIndex] = new long[pageSize];
 
             long[][] localWeightOffsets = new long[propertyKeyIds.length][];
@@ -233,19 +231,25 @@ public abstract class AdjacencyBuilder {
             Arrays.setAll(runnables, index -> () -> {
                 ThreadLocalRelationshipsBuilder builder = localBuilders[index];
                 CompressedLongArray[] allTargets = compressedAdjacencyLists[index];
-                LongsRef buffer = buffers[index];
+                CompressionBuffers buffers = compressionBuffers.poll();
+                if (buffers == null) {
+                    buffers = new CompressionBuffers();
+                }
                 long importedRelationships = 0L;
                 for (int localId = 0; localId < allTargets.length; ++localId) {
                     CompressedLongArray compressedAdjacencyList = allTargets[localId];
                     if (compressedAdjacencyList != null) {
                         importedRelationships += builder.applyVariableDeltaEncoding(
                                 compressedAdjacencyList,
-                                buffer,
+                                buffers,
                                 localId);
 
                         allTargets[localId] = null;
                     }
                 }
+                compressionBuffers.offer(buffers);
+                // the page of emptied arrays is not needed anymore
+                compressedAdjacencyLists[index] = null;
                 relationshipCounter.add(importedRelationships);
             });
             return Arrays.asList(runnables);
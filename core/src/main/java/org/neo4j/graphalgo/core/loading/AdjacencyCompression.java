@@ -19,25 +19,26 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
-import com.carrotsearch.hppc.sorting.IndirectSort;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.LongsRef;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.Aggregation;
-import org.neo4j.graphalgo.core.utils.AscendingLongComparator;
-
-import java.util.Arrays;
+import org.neo4j.graphalgo.core.huge.AdjacencyList;
 
 import static org.neo4j.graphalgo.core.loading.VarLongEncoding.encodeVLongs;
 
 final class AdjacencyCompression {
 
+    private static final long[][] NO_PROPERTIES = new long[0][];
+
     private static long[] growWithDestroy(long[] values, int newLength) {
         if (values.length < newLength) {
             // give leeway in case of nodes with a reference to themselves
             // due to automatic skipping of identical targets, just adding one is enough to cover the
             // self-reference case, as it is handled as two relationships that aren't counted by BOTH
-            // avoid repeated re-allocation for smaller degrees
-            // avoid generous over-allocation for larger degrees
-            int newSize = Math.max(32, 1 + newLength);
+            // over-allocate like the other growing buffers, so that a buffer that is reused
+            // for many lists of slowly increasing degrees is not re-allocated for every list
+            int newSize = Math.max(32, ArrayUtil.oversize(1 + newLength, Long.BYTES));
             return new long[newSize];
         }
         return values;
@@ -48,36 +49,38 @@ final class AdjacencyCompression {
         into.length = array.uncompress(into.longs);
     }
 
-    static int applyDeltaEncoding(LongsRef data, Aggregation aggregation) {
-        Arrays.sort(data.longs, 0, data.length);
+    static int applyDeltaEncoding(LongsRef data, Aggregation aggregation, CompressionBuffers buffers) {
+        RadixSort.radixSortPairs(
+                data.longs,
+                NO_PROPERTIES,
+                buffers.targetsCopy(data.length),
+                NO_PROPERTIES,
+                buffers.histogram(),
+                data.length
+        );
         return data.length = applyDelta(data.longs, data.length, aggregation);
     }
 
-    // TODO: requires lots of additional memory ... inline indirect sort to make reuse of - to be created - buffers
-    static int applyDeltaEncoding(LongsRef data, long[][] weights, Aggregation[] aggregations, boolean noAggregation) {
-        int[] order = IndirectSort.mergesort(0, data.length, new AscendingLongComparator(data.longs));
-
-        long[] sortedValues = new long[data.length];
-        long[][] sortedWeights = new long[weights.length][data.length];
-
-        data.length = applyDelta(
-                order,
+    /**
+     * Sorts the targets together with their properties and delta encodes the targets, all in place.
+     * Properties of parallel relationships are aggregated into the first of them, unless there is no aggregation.
+     */
+    static int applyDeltaEncoding(
+            LongsRef data,
+            long[][] weights,
+            Aggregation[] aggregations,
+            boolean noAggregation,
+            CompressionBuffers buffers) {
+        int length = data.length;
+        RadixSort.radixSortPairs(
                 data.longs,
-                sortedValues,
                 weights,
-                sortedWeights,
-                data.length,
-                aggregations,
-                noAggregation
+                buffers.targetsCopy(length),
+                buffers.propertiesCopies(weights.length, length),
+                buffers.histogram(),
+                length
         );
-
-        System.arraycopy(sortedValues, 0, data.longs, 0, data.length);
-        for (int i = 0; i < sortedWeights.length; i++) {
-            long[] sortedWeight = sortedWeights[i];
-            System.arraycopy(sortedWeight, 0, weights[i], 0, data.length);
-        }
-
-        return data.length;
+        return data.length = applyDelta(data.longs, weights, length, aggregations, noAggregation);
     }
 
     static int compress(LongsRef data, byte[] out) {
@@ -88,6 +91,52 @@ final class AdjacencyCompression {
         return encodeVLongs(data, length, out, 0);
     }
 
+    static int compress(LongsRef data, byte[] out, AdjacencyEncoding encoding) {
+        return encoding == AdjacencyEncoding.BLOCK_PACKED
+            ? BlockPackedEncoding.encodeBlocks(data.longs, data.length, out, 0)
+            : compress(data, out);
+    }
+
+    static int skipIndexSize(int degree) {
+        return AdjacencyList.skipIndexEntries(degree) * AdjacencyList.SKIP_ENTRY_BYTES;
+    }
+
+    /**
+     * Writes the skip index for the given delta encoded targets, see {@link AdjacencyList#SKIP_INDEX_MIN_DEGREE}.
+     */
+    static int writeSkipIndex(long[] deltas, int degree, AdjacencyEncoding encoding, byte[] out, int offset) {
+        int entries = AdjacencyList.skipIndexEntries(degree);
+        long value = 0L;
+        int blockOffset = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            int start = entry * AdjacencyList.BLOCK_SIZE;
+            int end = start + AdjacencyList.BLOCK_SIZE;
+            for (int i = start; i < end; i++) {
+                value += deltas[i];
+            }
+            blockOffset += encoding == AdjacencyEncoding.BLOCK_PACKED
+                ? BlockPackedEncoding.blockSize(deltas, start, end)
+                : VarLongEncoding.encodedVLongsSize(deltas, start, end);
+            offset = writeLong(out, offset, value);
+            offset = writeDegree(out, offset, blockOffset);
+        }
+        return offset;
+    }
+
+    //@formatter:off
+    static int writeLong(byte[] out, int offset, long value) {
+        out[    offset] = (byte) (value);
+        out[1 + offset] = (byte) (value >>> 8);
+        out[2 + offset] = (byte) (value >>> 16);
+        out[3 + offset] = (byte) (value >>> 24);
+        out[4 + offset] = (byte) (value >>> 32);
+        out[5 + offset] = (byte) (value >>> 40);
+        out[6 + offset] = (byte) (value >>> 48);
+        out[7 + offset] = (byte) (value >>> 56);
+        return 8 + offset;
+    }
+    //@formatter:on
+
     //@formatter:off
     static int writeDegree(byte[] out, int offset, int degree) {
         out[    offset] = (byte) (degree);
@@ -112,49 +161,37 @@ final class AdjacencyCompression {
     }
 
     /**
-     * Applies delta encoding to the given {@code values}.
-     * Weights are not encoded, {@code outRelProperties} contains weights according to {@code order}.
+     * Applies delta encoding to the given, sorted {@code values}.
+     * Weights are not encoded, but moved along with their values.
      *
      * @param noAggregation Is true iff all aggregations are none
      */
     private static int applyDelta(
-            int[] order,
             long[] values,
-            long[] outValues,
             long[][] weights,
-            long[][] outWeights,
             int length,
             Aggregation[] aggregations,
             boolean noAggregation) {
-        int firstSortIdx = order[0];
-        long value = values[firstSortIdx];
-        long delta;
-
-        outValues[0] = values[firstSortIdx];
-        for (int i = 0; i < weights.length; i++) {
-            outWeights[i][0] = weights[i][firstSortIdx];
-        }
-
+        long value = values[0], delta;
         int in = 1, out = 1;
         for (; in < length; ++in) {
-            final int sortIdx = order[in];
-            delta = values[sortIdx] - value;
-            value = values[sortIdx];
+            delta = values[in] - value;
+            value = values[in];
 
             if (delta > 0L || noAggregation) {
-                for (int i = 0; i < weights.length; i++) {
-                    outWeights[i][out] = weights[i][sortIdx];
+                for (long[] weight : weights) {
+                    weight[out] = weight[in];
                 }
-                outValues[out++] = delta;
+                values[out++] = delta;
             } else {
                 for (int i = 0; i < weights.length; i++) {
                     Aggregation aggregation = aggregations[i];
                     int existingIdx = out - 1;
-                    long[] outWeight = outWeights[i];
-                    double existingWeight = Double.longBitsToDouble(outWeight[existingIdx]);
-                    double newWeight = Double.longBitsToDouble(weights[i][sortIdx]);
+                    long[] weight = weights[i];
+                    double existingWeight = Double.longBitsToDouble(weight[existingIdx]);
+                    double newWeight = Double.longBitsToDouble(weight[in]);
                     newWeight = aggregation.merge(existingWeight, newWeight);
-                    outWeight[existingIdx] = Double.doubleToLongBits(newWeight);
+                    weight[existingIdx] = Double.doubleToLongBits(newWeight);
                 }
             }
         }
@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.huge.AdjacencyList;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
@@ -53,12 +54,24 @@ final class AdjacencyListBuilder {
         return new AdjacencyListBuilder(tracker);
     }
 
+    /**
+     * Creates a builder that keeps the given pages and allocates new lists only in pages appended after them.
+     * Offsets into the given pages remain valid for the built adjacency list.
+     */
+    static AdjacencyListBuilder newBuilder(byte[][] existingPages, AllocationTracker tracker) {
+        return new AdjacencyListBuilder(existingPages, tracker);
+    }
+
     private AdjacencyListBuilder(AllocationTracker tracker) {
+        this(new byte[0][], tracker);
+    }
+
+    private AdjacencyListBuilder(byte[][] existingPages, AllocationTracker tracker) {
         this.tracker = tracker;
         growLock = new ReentrantLock(true);
-        allocatedPages = new AtomicInteger();
-        pages = new byte[0][];
-        tracker.add(sizeOfObjectArray(0));
+        allocatedPages = new AtomicInteger(existingPages.length);
+        pages = Arrays.copyOf(existingPages, existingPages.length);
+        tracker.add(sizeOfObjectArray(existingPages.length));
     }
 
     Allocator newAllocator() {
@@ -69,6 +82,10 @@ final class AdjacencyListBuilder {
         return new AdjacencyList(pages);
     }
 
+    AdjacencyList build(AdjacencyEncoding encoding) {
+        return new AdjacencyList(pages, encoding);
+    }
+
     private long insertDefaultSizedPage(Allocator into) {
         int pageIndex = allocatedPages.getAndIncrement();
         grow(pageIndex + 1, NO_SKIP);
@@ -153,6 +170,14 @@ final class AdjacencyListBuilder {
         private int toPageIndex;
         private int currentPageIndex;
 
+        // unused tail of a page that was too small for an earlier allocation, smaller lists are put there
+        private byte[] fragmentPage;
+        private int fragmentOffset;
+        private long fragmentAddress;
+        // the current page while the caller writes into the fragment
+        private byte[] mainPage;
+        private int mainOffset;
+
         public byte[] page;
         public int offset;
 
@@ -170,6 +195,9 @@ final class AdjacencyListBuilder {
         }
 
         long allocate(int size) {
+            if (mainPage != null) {
+                leaveFragment();
+            }
             return localAllocate(size, top);
         }
 
@@ -190,17 +218,51 @@ final class AdjacencyListBuilder {
                 top += size;
                 return address;
             }
+            if (PAGE_SIZE - fragmentOffset >= size && fragmentPage != null) {
+                return fragmentAllocate(size);
+            }
             int waste = PAGE_SIZE - offset;
+            keepFragment(waste, address);
             address = top += waste;
             if (next()) {
-                // TODO: store and reuse fragments
-                // branch: huge-alloc-fragmentation-recycle
                 top += size;
                 return address;
             }
             return prefetchAllocate(size);
         }
 
+        /**
+         * Remembers the tail of the current page if it is larger than the current fragment.
+         */
+        private void keepFragment(int size, long address) {
+            if (fragmentPage == null || size > PAGE_SIZE - fragmentOffset) {
+                fragmentPage = page;
+                fragmentOffset = offset;
+                fragmentAddress = address;
+            }
+        }
+
+        /**
+         * Points {@link #page} and {@link #offset} into the fragment until the next allocation
+         * and keeps the current page for the allocations after that.
+         */
+        private long fragmentAllocate(int size) {
+            mainPage = page;
+            mainOffset = offset;
+            page = fragmentPage;
+            offset = fragmentOffset;
+            long address = fragmentAddress;
+            fragmentOffset += size;
+            fragmentAddress += size;
+            return address;
+        }
+
+        private void leaveFragment() {
+            page = mainPage;
+            offset = mainOffset;
+            mainPage = null;
+        }
+
         /**
          * We are faking a valid page by over-allocating a single page to be large enough to hold all data
          * Since we are storing all degrees into a single page and thus never have to switch pages
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import static org.neo4j.graphalgo.core.huge.AdjacencyList.BLOCK_SIZE;
+
+/**
+ * Encodes delta encoded adjacency lists in blocks of {@link org.neo4j.graphalgo.core.huge.AdjacencyList#BLOCK_SIZE}
+ * values. Each block starts with its first value as a var-long, followed by a single byte
+ * holding the number of bits per value and the remaining values of the block as a
+ * little-endian bit stream, padded to full bytes.
+ * The first value of an adjacency list is the absolute target id and would otherwise
+ * drive the bit width of the whole first block.
+ */
+final class BlockPackedEncoding {
+
+    // allows decoding every value with a single 8 byte read at any bit offset
+    static final int MAX_BITS = Long.SIZE - Byte.SIZE;
+
+    static int encodedSize(long[] values, int length) {
+        int size = 0;
+        for (int start = 0; start < length; start += BLOCK_SIZE) {
+            size += blockSize(values, start, Math.min(length, start + BLOCK_SIZE));
+        }
+        return size;
+    }
+
+    static int blockSize(long[] values, int start, int end) {
+        int bits = bitsRequired(values, start + 1, end);
+        return VarLongEncoding.encodedVLongSize(values[start]) + 1 + (((end - start - 1) * bits + 7) >>> 3);
+    }
+
+    static int encodeBlocks(long[] values, int length, byte[] out, int into) {
+        for (int start = 0; start < length; start += BLOCK_SIZE) {
+            int end = Math.min(length, start + BLOCK_SIZE);
+            into = encodeBlock(values, start, end, out, into);
+        }
+        return into;
+    }
+
+    private static int encodeBlock(long[] values, int start, int end, byte[] out, int into) {
+        into = VarLongEncoding.encodeVLongs(values, start, start + 1, out, into);
+        int bits = bitsRequired(values, start + 1, end);
+        out[into++] = (byte) bits;
+
+        long buffer = 0L;
+        int buffered = 0;
+        for (int i = start + 1; i < end; ++i) {
+            buffer |= values[i] << buffered;
+            buffered += bits;
+            while (buffered >= Byte.SIZE) {
+                out[into++] = (byte) buffer;
+                buffer >>>= Byte.SIZE;
+                buffered -= Byte.SIZE;
+            }
+        }
+        if (buffered > 0) {
+            out[into++] = (byte) buffer;
+        }
+        return into;
+    }
+
+    private static int bitsRequired(long[] values, int start, int end) {
+        long union = 0L;
+        for (int i = start; i < end; ++i) {
+            union |= values[i];
+        }
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(union);
+        if (bits > MAX_BITS) {
+            throw new IllegalArgumentException(String.format(
+                "Cannot block pack values with more than %d bits, got a value with %d bits.",
+                MAX_BITS,
+                bits));
+        }
+        return bits;
+    }
+
+    private BlockPackedEncoding() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.LongsRef;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipIterator;
+import org.neo4j.graphalgo.api.RelationshipWithPropertyConsumer;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
+import org.neo4j.graphalgo.core.Aggregation;
+import org.neo4j.graphalgo.core.huge.AdjacencyOffsets;
+import org.neo4j.graphalgo.core.huge.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicLongArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.partition.Partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import static org.neo4j.graphalgo.core.utils.ParallelUtil.DEFAULT_BATCH_SIZE;
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfLongArray;
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfObjectArray;
+
+/**
+ * Builds the graph of the communities of a graph, with a node per community
+ * and a relationship between every pair of connected communities.
+ * The weights of relationships between the same pair of communities are summed up,
+ * relationships within a community become a self-loop of that community.
+ * The original ids of the community graph are the community ids.
+ * <p>
+ * Unlike adding every relationship to a {@link GraphGenerator.RelImporter}, the nodes are grouped by community first.
+ * A single task then collects all relationships of a community into reusable buffers, sorts and sums them up
+ * and writes the aggregated list directly into the adjacency pages.
+ * Communities are processed in parallel, in batches of roughly the same number of relationships.
+ */
+public final class CommunityGraphBuilder {
+
+    private static final Aggregation[] SUM = {Aggregation.SUM};
+
+    private final Graph graph;
+    private final LongUnaryOperator communities;
+    private final long maxCommunityId;
+    private final long nodeCount;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+
+    /**
+     * @param communities    maps every node of the graph to its community, must be thread-safe
+     * @param maxCommunityId the largest community id
+     */
+    public CommunityGraphBuilder(
+        Graph graph,
+        LongUnaryOperator communities,
+        long maxCommunityId,
+        int concurrency,
+        ExecutorService executor,
+        AllocationTracker tracker
+    ) {
+        this.graph = graph;
+        this.communities = communities;
+        this.maxCommunityId = maxCommunityId;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+        this.executor = executor;
+        this.tracker = tracker;
+    }
+
+    public HugeGraph build() {
+        IdMap idMap = buildIdMap();
+        long communityCount = idMap.nodeCount();
+
+        HugeLongArray nodeCommunities = HugeLongArray.newArray(nodeCount, tracker);
+        HugeAtomicLongArray communitySizes = HugeAtomicLongArray.newArray(communityCount, tracker);
+        HugeAtomicLongArray communityDegrees = HugeAtomicLongArray.newArray(communityCount, tracker);
+        ParallelUtil.readParallel(concurrency, nodeCount, executor, (start, end) -> {
+            for (long nodeId = start; nodeId < end; nodeId++) {
+                long community = idMap.toMappedNodeId(communities.applyAsLong(nodeId));
+                nodeCommunities.set(nodeId, community);
+                communitySizes.getAndAdd(community, 1L);
+                communityDegrees.getAndAdd(community, graph.degree(nodeId));
+            }
+        });
+
+        // memberOffsets[c] is the start of community c in members, the community sizes become insert positions
+        HugeLongArray memberOffsets = HugeLongArray.newArray(communityCount + 1, tracker);
+        long totalDegree = 0L;
+        for (long community = 0L; community < communityCount; community++) {
+            long start = memberOffsets.get(community);
+            memberOffsets.set(community + 1, start + communitySizes.get(community));
+            communitySizes.set(community, start);
+            totalDegree += communityDegrees.get(community);
+        }
+
+        HugeLongArray members = HugeLongArray.newArray(nodeCount, tracker);
+        ParallelUtil.readParallel(concurrency, nodeCount, executor, (start, end) -> {
+            for (long nodeId = start; nodeId < end; nodeId++) {
+                members.set(communitySizes.getAndAdd(nodeCommunities.get(nodeId), 1L), nodeId);
+            }
+        });
+        tracker.remove(communitySizes.release());
+
+        ImportSizing sizing = ImportSizing.of(concurrency, communityCount);
+        long[][] adjacencyOffsets = newOffsetPages(sizing);
+        long[][] propertyOffsets = newOffsetPages(sizing);
+        AdjacencyListBuilder adjacencyBuilder = AdjacencyListBuilder.newBuilder(tracker);
+        AdjacencyListBuilder propertiesBuilder = AdjacencyListBuilder.newBuilder(tracker);
+        AtomicLong relationshipCount = new AtomicLong();
+
+        long batchSize = ParallelUtil.adjustedBatchSize(totalDegree, concurrency, DEFAULT_BATCH_SIZE, Integer.MAX_VALUE);
+        Collection<AggregationTask> tasks = new ArrayList<>(concurrency);
+        long batchStart = 0L;
+        long batchDegree = 0L;
+        for (long community = 0L; community < communityCount; community++) {
+            batchDegree += communityDegrees.get(community);
+            long batchEnd = community + 1;
+            if (batchDegree >= batchSize || batchEnd - batchStart >= Partition.MAX_NODE_COUNT || batchEnd == communityCount) {
+                tasks.add(new AggregationTask(
+                    batchStart,
+                    batchEnd,
+                    sizing,
+                    nodeCommunities,
+                    memberOffsets,
+                    members,
+                    adjacencyBuilder,
+                    propertiesBuilder,
+                    adjacencyOffsets,
+                    propertyOffsets,
+                    relationshipCount
+                ));
+                batchStart = batchEnd;
+                batchDegree = 0L;
+            }
+        }
+        tracker.remove(communityDegrees.release());
+
+        ParallelUtil.runWithConcurrency(concurrency, tasks, executor);
+
+        tracker.remove(nodeCommunities.release());
+        tracker.remove(memberOffsets.release());
+        tracker.remove(members.release());
+
+        return HugeGraph.create(
+            tracker,
+            idMap,
+            Collections.emptyMap(),
+            relationshipCount.get(),
+            adjacencyBuilder.build(AdjacencyEncoding.VAR_LONG),
+            AdjacencyOffsets.of(adjacencyOffsets, sizing.pageSize()),
+            Optional.empty(),
+            Optional.of(propertiesBuilder.build()),
+            Optional.of(AdjacencyOffsets.of(propertyOffsets, sizing.pageSize())),
+            graph.isUndirected()
+        );
+    }
+
+    private IdMap buildIdMap() {
+        long size = maxCommunityId + 1;
+        HugeAtomicBitSet seenCommunities = HugeAtomicBitSet.create(size, tracker);
+        ParallelUtil.readParallel(concurrency, nodeCount, executor, (start, end) -> {
+            for (long nodeId = start; nodeId < end; nodeId++) {
+                seenCommunities.set(communities.applyAsLong(nodeId));
+            }
+        });
+
+        SparseNodeMapping.Builder originalToInternalBuilder = SparseNodeMapping.Builder.create(size, tracker);
+        long communityCount = 0L;
+        for (long community = 0L; community < size; community++) {
+            if (seenCommunities.get(community)) {
+                originalToInternalBuilder.set(community, communityCount++);
+            }
+        }
+
+        HugeLongArray internalToOriginal = HugeLongArray.newArray(communityCount, tracker);
+        long internalId = 0L;
+        for (long community = 0L; community < size; community++) {
+            if (seenCommunities.get(community)) {
+                internalToOriginal.set(internalId++, community);
+            }
+        }
+        tracker.remove(seenCommunities.release());
+
+        return new IdMap(internalToOriginal, originalToInternalBuilder.build(), communityCount);
+    }
+
+    private long[][] newOffsetPages(ImportSizing sizing) {
+        long[][] pages = new long[sizing.numberOfPages()][sizing.pageSize()];
+        tracker.add(sizeOfObjectArray(pages.length) + pages.length * sizeOfLongArray(sizing.pageSize()));
+        return pages;
+    }
+
+    private final class AggregationTask implements Runnable, RelationshipWithPropertyConsumer {
+
+        private final long communityStart;
+        private final long communityEnd;
+        private final int pageShift;
+        private final long pageMask;
+        private final HugeLongArray nodeCommunities;
+        private final HugeLongArray memberOffsets;
+        private final HugeLongArray members;
+        private final AdjacencyListBuilder adjacencyBuilder;
+        private final AdjacencyListBuilder propertiesBuilder;
+        private final long[][] adjacencyOffsets;
+        private final long[][] propertyOffsets;
+        private final AtomicLong relationshipCount;
+
+        private LongsRef targets;
+        private long[][] weights;
+
+        AggregationTask(
+            long communityStart,
+            long communityEnd,
+            ImportSizing sizing,
+            HugeLongArray nodeCommunities,
+            HugeLongArray memberOffsets,
+            HugeLongArray members,
+            AdjacencyListBuilder adjacencyBuilder,
+            AdjacencyListBuilder propertiesBuilder,
+            long[][] adjacencyOffsets,
+            long[][] propertyOffsets,
+            AtomicLong relationshipCount
+        ) {
+            this.communityStart = communityStart;
+            this.communityEnd = communityEnd;
+            this.pageShift = Integer.numberOfTrailingZeros(sizing.pageSize());
+            this.pageMask = sizing.pageSize() - 1;
+            this.nodeCommunities = nodeCommunities;
+            this.memberOffsets = memberOffsets;
+            this.members = members;
+            this.adjacencyBuilder = adjacencyBuilder;
+            this.propertiesBuilder = propertiesBuilder;
+            this.adjacencyOffsets = adjacencyOffsets;
+            this.propertyOffsets = propertyOffsets;
+            this.relationshipCount = relationshipCount;
+        }
+
+        @Override
+        public void run() {
+            int batchLength = (int) (communityEnd - communityStart);
+            long[] localAdjacencyOffsets = new long[batchLength];
+            long[][] localPropertyOffsets = new long[1][batchLength];
+            ThreadLocalRelationshipsBuilder builder = new ThreadLocalRelationshipsBuilder(
+                SUM,
+                AdjacencyEncoding.VAR_LONG,
+                adjacencyBuilder.newAllocator(),
+                new AdjacencyListBuilder.Allocator[]{propertiesBuilder.newAllocator()},
+                localAdjacencyOffsets,
+                localPropertyOffsets
+            );
+            builder.prepare();
+
+            CompressionBuffers buffers = new CompressionBuffers();
+            RelationshipIterator localGraph = graph.concurrentCopy();
+            targets = buffers.targets;
+            weights = new long[1][targets.longs.length];
+
+            long relationships = 0L;
+            for (long community = communityStart; community < communityEnd; community++) {
+                targets.length = 0;
+                long end = memberOffsets.get(community + 1);
+                for (long position = memberOffsets.get(community); position < end; position++) {
+                    localGraph.forEachRelationship(members.get(position), 1.0, this);
+                }
+                if (targets.length > 0) {
+                    relationships += builder.applyVariableDeltaEncoding(
+                        targets,
+                        weights,
+                        buffers,
+                        (int) (community - communityStart)
+                    );
+                }
+            }
+
+            for (int localId = 0; localId < batchLength; localId++) {
+                long community = communityStart + localId;
+                int pageIndex = (int) (community >>> pageShift);
+                int indexInPage = (int) (community & pageMask);
+                adjacencyOffsets[pageIndex][indexInPage] = localAdjacencyOffsets[localId];
+                propertyOffsets[pageIndex][indexInPage] = localPropertyOffsets[0][localId];
+            }
+            relationshipCount.addAndGet(relationships);
+        }
+
+        @Override
+        public boolean accept(long sourceNodeId, long targetNodeId, double property) {
+            int length = targets.length;
+            if (length == targets.longs.length) {
+                int newLength = ArrayUtil.oversize(length + 1, Long.BYTES);
+                targets.longs = Arrays.copyOf(targets.longs, newLength);
+                weights[0] = Arrays.copyOf(weights[0], newLength);
+            }
+            targets.longs[length] = nodeCommunities.get(targetNodeId);
+            weights[0][length] = Double.doubleToLongBits(property);
+            targets.length = length + 1;
+            return true;
+        }
+    }
+}
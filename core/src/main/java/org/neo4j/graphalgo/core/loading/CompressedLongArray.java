@@ -144,7 +144,9 @@ final class CompressedLongArray {
     void release() {
         if (storage.length > 0) {
             tracker.remove(sizeOfByteArray(storage.length));
-            tracker.remove(sizeOfDoubleArray(weights.length));
+            for (long[] weight : weights) {
+                tracker.remove(sizeOfDoubleArray(weight.length));
+            }
         }
         storage = null;
         weights = null;
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.LongsRef;
+
+/**
+ * Scratch space to uncompress, sort and encode adjacency lists during the flush phase.
+ * <p>
+ * Instances are not thread-safe. A flush task borrows one for all lists of its page,
+ * so the buffers only grow to the largest degree seen and are not allocated per list.
+ */
+final class CompressionBuffers {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    final LongsRef targets;
+    private final int[] histogram;
+    private long[] targetsCopy;
+    private long[][] propertiesCopies;
+    private byte[] encoded;
+
+    CompressionBuffers() {
+        this.targets = new LongsRef();
+        this.histogram = RadixSort.newPairsHistogram();
+        this.targetsCopy = EMPTY_LONGS;
+        this.propertiesCopies = new long[0][];
+        this.encoded = EMPTY_BYTES;
+    }
+
+    int[] histogram() {
+        return histogram;
+    }
+
+    long[] targetsCopy(int length) {
+        if (targetsCopy.length < length) {
+            targetsCopy = new long[ArrayUtil.oversize(length, Long.BYTES)];
+        }
+        return targetsCopy;
+    }
+
+    long[][] propertiesCopies(int numberOfProperties, int length) {
+        if (propertiesCopies.length != numberOfProperties) {
+            propertiesCopies = new long[numberOfProperties][];
+            for (int i = 0; i < numberOfProperties; i++) {
+                propertiesCopies[i] = EMPTY_LONGS;
+            }
+        }
+        for (int i = 0; i < numberOfProperties; i++) {
+            if (propertiesCopies[i].length < length) {
+                propertiesCopies[i] = new long[ArrayUtil.oversize(length, Long.BYTES)];
+            }
+        }
+        return propertiesCopies;
+    }
+
+    byte[] encoded(int length) {
+        if (encoded.length < length) {
+            encoded = new byte[ArrayUtil.oversize(length, Byte.BYTES)];
+        }
+        return encoded;
+    }
+}
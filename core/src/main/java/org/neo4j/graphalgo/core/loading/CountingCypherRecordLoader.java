@@ -21,6 +21,7 @@ package org.neo4j.graphalgo.core.loading;
 
 import org.apache.commons.compress.utils.Sets;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphdb.Result;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.Set;
@@ -36,10 +37,8 @@ class CountingCypherRecordLoader extends CypherRecordLoader<BatchLoadResult> {
     }
 
     @Override
-    BatchLoadResult loadOneBatch(long offset, int batchSize, int bufferSize) {
-        ResultCountingVisitor visitor = new ResultCountingVisitor();
-        runLoadingQuery(offset, batchSize).accept(visitor);
-        return new BatchLoadResult(offset, visitor.rows(), -1L, -1L);
+    BatchVisitor newBatchVisitor(Result queryResult, int bufferSize) {
+        return new ResultCountingVisitor();
     }
 
     @Override
@@ -43,6 +43,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static org.neo4j.graphalgo.compat.StatementConstantsProxy.NO_SUCH_PROPERTY_KEY;
@@ -98,7 +99,9 @@ public class CypherGraphFactory extends GraphFactory {
 
             ImportResult importResult = loadRelationships(
                 relationshipQuery(),
-                loadResult.idsAndProperties(),
+                setup.offHeap()
+                    ? loadResult.idsAndProperties().withOffHeapIds(setup.tracker())
+                    : loadResult.idsAndProperties(),
                 loadResult.dimensions()
             );
             progressLogger.logDone(setup.tracker());
@@ -129,6 +132,11 @@ public class CypherGraphFactory extends GraphFactory {
         );
 
         CypherRelationshipLoader.LoadResult result = relationshipLoader.load();
+        if (setup.offHeap()) {
+            relationshipLoader.allBuilders().values().stream()
+                .filter(Objects::nonNull)
+                .forEach(builder -> builder.moveOffsetsOffHeap(setup.tracker()));
+        }
 
         GraphDimensions resultDimensions = result.dimensions();
         ObjectLongMap<RelationshipProjectionMapping> relationshipCounts = result.relationshipCounts();
@@ -153,7 +161,7 @@ public class CypherGraphFactory extends GraphFactory {
                         );
                     }
 
-                    AdjacencyList adjacencyList = relationshipsBuilder.adjacencyListBuilder.build();
+                    AdjacencyList adjacencyList = relationshipsBuilder.adjacencyList();
                     AdjacencyOffsets adjacencyOffsets = relationshipsBuilder.globalAdjacencyOffsets;
 
                     long relationshipCount = relationshipCounts.getOrDefault(relationshipProjectionMapping, 0L);
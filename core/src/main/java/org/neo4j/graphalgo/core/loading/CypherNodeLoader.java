@@ -83,9 +83,7 @@ class CypherNodeLoader extends CypherRecordLoader<CypherNodeLoader.LoadResult> {
     }
 
     @Override
-    BatchLoadResult loadOneBatch(long offset, int batchSize, int bufferSize) {
-        Result result = runLoadingQuery(offset, batchSize);
-
+    BatchVisitor newBatchVisitor(Result result, int bufferSize) {
         if (!hasExplicitPropertyMappings && !initializedFromResult) {
             // init from columns
             Collection<String> propertyColumns = getPropertyColumns(result);
@@ -105,10 +103,7 @@ class CypherNodeLoader extends CypherRecordLoader<CypherNodeLoader.LoadResult> {
         }
 
         NodesBatchBuffer buffer = new NodesBatchBuffer(null, new LongHashSet(), bufferSize, true);
-        NodeRowVisitor visitor = new NodeRowVisitor(nodePropertyBuilders, buffer, importer);
-        result.accept(visitor);
-        visitor.flush();
-        return new BatchLoadResult(offset, visitor.rows(), visitor.maxId(), visitor.rows());
+        return new NodeRowVisitor(nodePropertyBuilders, buffer, importer);
     }
 
     @Override
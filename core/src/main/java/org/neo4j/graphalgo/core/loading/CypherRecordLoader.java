@@ -22,13 +22,16 @@ package org.neo4j.graphalgo.core.loading;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.core.utils.ArrayUtil;
 import org.neo4j.graphalgo.core.utils.BitUtil;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.security.AuthorizationViolationException;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -56,6 +59,8 @@ abstract class CypherRecordLoader<R> {
         try {
             if (loadsInParallel()) {
                 parallelLoad();
+            } else if (streamsInParallel()) {
+                streamingLoad();
             } else {
                 nonParallelLoad();
             }
@@ -65,11 +70,18 @@ abstract class CypherRecordLoader<R> {
         }
     }
 
-    abstract BatchLoadResult loadOneBatch(
-            long offset,
-            int batchSize,
-            int bufferSize
-    );
+    BatchLoadResult loadOneBatch(long offset, int batchSize, int bufferSize) {
+        Result queryResult = runLoadingQuery(offset, batchSize);
+        BatchVisitor visitor = newBatchVisitor(queryResult, bufferSize);
+        queryResult.accept(visitor);
+        return visitor.complete(offset);
+    }
+
+    /**
+     * Creates a visitor that imports the rows of the given result.
+     * Can be called multiple times for the same result, each visitor must only be used by a single thread.
+     */
+    abstract BatchVisitor newBatchVisitor(Result queryResult, int bufferSize);
 
     abstract void updateCounts(BatchLoadResult result);
 
@@ -90,6 +102,10 @@ abstract class CypherRecordLoader<R> {
         return CypherLoadingUtils.canBatchLoad(setup.concurrency(), loadQuery);
     }
 
+    private boolean streamsInParallel() {
+        return setup.concurrency() > 1 && ParallelUtil.canRunInParallel(setup.executor());
+    }
+
     private void parallelLoad() {
         ExecutorService pool = setup.executor();
 
@@ -137,6 +153,50 @@ abstract class CypherRecordLoader<R> {
         updateCounts(result);
     }
 
+    /**
+     * Executes the query exactly once and hands its rows in chunks to {@code concurrency} consumers.
+     * The result is consumed on the calling thread, which also imports chunks itself if all consumers are busy.
+     */
+    private void streamingLoad() {
+        ExecutorService pool = setup.executor();
+        int threads = setup.concurrency();
+        int bufferSize = (int) Math.min(recordCount, RecordsBatchBuffer.DEFAULT_BUFFER_SIZE);
+
+        // make sure every consumer gets work, even for results smaller than a full chunk per thread
+        int chunkSize = recordCount == NO_COUNT
+            ? CypherRowStream.MAX_CHUNK_SIZE
+            : (int) Math.max(1L, Math.min(CypherRowStream.MAX_CHUNK_SIZE, BitUtil.ceilDiv(recordCount, threads)));
+
+        Result queryResult = runLoadingQuery(0L, CypherLoadingUtils.NO_BATCHING);
+        CypherRowStream stream = new CypherRowStream(queryResult.columns(), threads * 2, chunkSize);
+        BatchVisitor producerVisitor = newBatchVisitor(queryResult, bufferSize);
+
+        List<CypherRowStream.Consumer> consumers = new ArrayList<>(threads);
+        List<Future<BatchLoadResult>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            CypherRowStream.Consumer consumer = stream.consumer(newBatchVisitor(queryResult, bufferSize));
+            consumers.add(consumer);
+            futures.add(pool.submit(consumer));
+        }
+
+        try {
+            stream.produce(queryResult, producerVisitor);
+        } finally {
+            stream.close();
+        }
+        stream.drainTo(producerVisitor);
+        updateCounts(producerVisitor.complete(0L));
+
+        for (int i = 0; i < threads; i++) {
+            if (consumers.get(i).claim()) {
+                // the consumer never started and has nothing to import
+                futures.get(i).cancel(false);
+            } else {
+                updateCounts(CypherLoadingUtils.get("Error during streaming load", futures.get(i)));
+            }
+        }
+    }
+
     Result runLoadingQuery(long offset, int batchSize) {
         Map<String, Object> parameters =
                 batchSize == CypherLoadingUtils.NO_BATCHING
@@ -144,4 +204,12 @@ abstract class CypherRecordLoader<R> {
                         : CypherLoadingUtils.params(setup.params(), offset, batchSize);
         return api.execute(loadQuery, parameters);
     }
+
+    interface BatchVisitor extends Result.ResultVisitor<RuntimeException> {
+
+        /**
+         * Flushes all buffered records and returns the statistics of the visited rows.
+         */
+        BatchLoadResult complete(long offset);
+    }
 }
@@ -139,9 +139,7 @@ class CypherRelationshipLoader extends CypherRecordLoader<CypherRelationshipLoad
     }
 
     @Override
-    BatchLoadResult loadOneBatch(long offset, int batchSize, int bufferSize) {
-        Result queryResult = runLoadingQuery(offset, batchSize);
-
+    BatchVisitor newBatchVisitor(Result queryResult, int bufferSize) {
         List<String> allColumns = queryResult.columns();
 
         // If the user specifies property mappings, we use those.
@@ -178,7 +176,7 @@ class CypherRelationshipLoader extends CypherRecordLoader<CypherRelationshipLoad
             loaderContext.getOrCreateImporterBuilder(RelationshipProjectionMapping.all());
         }
 
-        RelationshipRowVisitor visitor = new RelationshipRowVisitor(
+        return new RelationshipRowVisitor(
             idMap,
             loaderContext,
             propertyKeyIdsByName,
@@ -186,10 +184,6 @@ class CypherRelationshipLoader extends CypherRecordLoader<CypherRelationshipLoad
             bufferSize,
             isAnyRelTypeQuery
         );
-
-        queryResult.accept(visitor);
-        visitor.flushAll();
-        return new BatchLoadResult(offset, visitor.rows(), -1L, visitor.relationshipCount());
     }
 
     @Override
@@ -271,7 +265,8 @@ class CypherRelationshipLoader extends CypherRecordLoader<CypherRelationshipLoad
             RelationshipsBuilder builder = new RelationshipsBuilder(
                 aggregations,
                 setup.tracker(),
-                propertyKeyIds.length
+                propertyKeyIds.length,
+                setup.adjacencyEncoding()
             );
 
             allBuilders.put(typeMapping, builder);
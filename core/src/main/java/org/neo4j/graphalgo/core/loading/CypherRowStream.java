@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Result;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Distributes the rows of a single Cypher result to multiple consumers.
+ * <p>
+ * Rows are only valid while the result is being visited, so the producer copies
+ * the column values into fixed-size chunks which are published through a bounded queue.
+ * If the queue is full, the producer visits the chunk itself instead of waiting for a consumer.
+ */
+final class CypherRowStream {
+
+    static final int MAX_CHUNK_SIZE = 10_000;
+
+    private static final long POLL_TIMEOUT_MILLIS = 10L;
+
+    private final String[] columns;
+    private final ObjectIntHashMap<String> columnIndices;
+    private final BlockingQueue<Object[]> queue;
+    private final int chunkSize;
+    private volatile boolean done;
+
+    /**
+     * @param capacity  the number of chunks that can be published without being taken by a consumer
+     * @param chunkSize the number of rows per chunk
+     */
+    CypherRowStream(List<String> columns, int capacity, int chunkSize) {
+        this.columns = columns.toArray(new String[0]);
+        this.columnIndices = new ObjectIntHashMap<>(this.columns.length);
+        for (int i = 0; i < this.columns.length; i++) {
+            columnIndices.put(this.columns[i], i);
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Visits all rows of the given result and publishes them to the consumers.
+     * Must be called from the thread that executed the query.
+     */
+    void produce(Result queryResult, Result.ResultVisitor<RuntimeException> fallback) {
+        Producer producer = new Producer(fallback);
+        queryResult.accept(producer);
+        producer.flush();
+    }
+
+    /**
+     * Signals the consumers that no more chunks will be published.
+     */
+    void close() {
+        done = true;
+    }
+
+    /**
+     * Visits all chunks that have not been taken by a consumer.
+     */
+    void drainTo(Result.ResultVisitor<RuntimeException> visitor) {
+        BufferedRow row = new BufferedRow();
+        Object[] chunk;
+        while ((chunk = queue.poll()) != null) {
+            visitChunk(chunk, row, visitor);
+        }
+    }
+
+    Consumer consumer(CypherRecordLoader.BatchVisitor visitor) {
+        return new Consumer(visitor);
+    }
+
+    private void visitChunk(Object[] chunk, BufferedRow row, Result.ResultVisitor<RuntimeException> visitor) {
+        for (int offset = 0; offset < chunk.length; offset += columns.length) {
+            row.reset(chunk, offset);
+            visitor.visit(row);
+        }
+    }
+
+    private final class Producer implements Result.ResultVisitor<RuntimeException> {
+
+        private final Result.ResultVisitor<RuntimeException> fallback;
+        private final BufferedRow fallbackRow;
+        private final int chunkLength;
+        private Object[] chunk;
+        private int position;
+
+        Producer(Result.ResultVisitor<RuntimeException> fallback) {
+            this.fallback = fallback;
+            this.fallbackRow = new BufferedRow();
+            this.chunkLength = chunkSize * columns.length;
+            this.chunk = new Object[chunkLength];
+        }
+
+        @Override
+        public boolean visit(Result.ResultRow row) {
+            if (columns.length == 0) {
+                return fallback.visit(row);
+            }
+            for (String column : columns) {
+                chunk[position++] = row.get(column);
+            }
+            if (position == chunkLength) {
+                publish(chunk);
+                chunk = new Object[chunkLength];
+                position = 0;
+            }
+            return true;
+        }
+
+        void flush() {
+            if (position > 0) {
+                publish(Arrays.copyOf(chunk, position));
+                position = 0;
+            }
+        }
+
+        private void publish(Object[] values) {
+            if (!queue.offer(values)) {
+                visitChunk(values, fallbackRow, fallback);
+            }
+        }
+    }
+
+    final class Consumer implements Callable<BatchLoadResult> {
+
+        private final CypherRecordLoader.BatchVisitor visitor;
+        private final AtomicBoolean claimed;
+
+        private Consumer(CypherRecordLoader.BatchVisitor visitor) {
+            this.visitor = visitor;
+            this.claimed = new AtomicBoolean();
+        }
+
+        /**
+         * Returns true if the caller is the first to claim this consumer.
+         * Used by the producer to skip consumers that never got scheduled.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public BatchLoadResult call() throws InterruptedException {
+            if (!claim()) {
+                return null;
+            }
+            BufferedRow row = new BufferedRow();
+            while (true) {
+                Object[] chunk = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    visitChunk(chunk, row, visitor);
+                } else if (done) {
+                    break;
+                }
+            }
+            return visitor.complete(0L);
+        }
+    }
+
+    private final class BufferedRow implements Result.ResultRow {
+
+        private Object[] values;
+        private int offset;
+
+        void reset(Object[] values, int offset) {
+            this.values = values;
+            this.offset = offset;
+        }
+
+        @Override
+        public Object get(String key) {
+            int index = columnIndices.getIfAbsent(key, -1);
+            if (index == -1) {
+                throw new IllegalArgumentException(String.format("No column \"%s\" exists", key));
+            }
+            return values[offset + index];
+        }
+
+        @Override
+        public Node getNode(String key) {
+            return get(key, Node.class);
+        }
+
+        @Override
+        public Relationship getRelationship(String key) {
+            return get(key, Relationship.class);
+        }
+
+        @Override
+        public String getString(String key) {
+            return get(key, String.class);
+        }
+
+        @Override
+        public Number getNumber(String key) {
+            return get(key, Number.class);
+        }
+
+        @Override
+        public Boolean getBoolean(String key) {
+            return get(key, Boolean.class);
+        }
+
+        @Override
+        public Path getPath(String key) {
+            return get(key, Path.class);
+        }
+
+        private <T> T get(String key, Class<T> type) {
+            Object value = get(key);
+            if (value == null || type.isInstance(value)) {
+                return type.cast(value);
+            }
+            throw new NoSuchElementException(String.format(
+                "The current item in column \"%s\" is not a %s: \"%s\"",
+                key,
+                type.getSimpleName(),
+                value
+            ));
+        }
+    }
+}
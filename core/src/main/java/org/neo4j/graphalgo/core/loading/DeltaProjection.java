@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.NodeProjection;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.RelationshipProjection;
+import org.neo4j.graphalgo.core.Aggregation;
+import org.neo4j.graphalgo.newapi.GraphCreateConfig;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.neo4j.graphalgo.AbstractProjections.PROJECT_ALL;
+
+/**
+ * The parts of a native projection that decide which database changes are relevant for a catalog graph.
+ */
+final class DeltaProjection {
+
+    private final Set<String> labels;
+    private final Set<String> types;
+    private final Map<String, PropertyMapping> nodeProperties;
+    private final Map<String, PropertyMapping> relationshipProperties;
+
+    static DeltaProjection of(GraphCreateConfig config) {
+        Collection<NodeProjection> nodeProjections = config.nodeProjection().allProjections();
+        Collection<RelationshipProjection> relationshipProjections = config.relationshipProjection().allFilters();
+        return new DeltaProjection(
+            names(nodeProjections.stream().map(NodeProjection::label)),
+            names(relationshipProjections.stream().map(RelationshipProjection::type)),
+            propertyMappings(nodeProjections.stream().flatMap(projection -> projection.properties().stream())),
+            propertyMappings(relationshipProjections.stream().flatMap(projection -> projection.properties().stream()))
+        );
+    }
+
+    private DeltaProjection(
+        Set<String> labels,
+        Set<String> types,
+        Map<String, PropertyMapping> nodeProperties,
+        Map<String, PropertyMapping> relationshipProperties
+    ) {
+        this.labels = labels;
+        this.types = types;
+        this.nodeProperties = nodeProperties;
+        this.relationshipProperties = relationshipProperties;
+    }
+
+    boolean containsNode(Iterable<String> nodeLabels) {
+        if (labels == null) {
+            return true;
+        }
+        for (String label : nodeLabels) {
+            if (labels.contains(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether nodes gaining or losing the label can enter or leave the projection.
+     */
+    boolean filtersLabel(String label) {
+        return labels != null && labels.contains(label);
+    }
+
+    boolean containsType(String type) {
+        return types == null || types.contains(type);
+    }
+
+    /**
+     * Node property mappings by their projected property key.
+     */
+    Map<String, PropertyMapping> nodeProperties() {
+        return nodeProperties;
+    }
+
+    /**
+     * Relationship property mappings by their projected property key.
+     */
+    Map<String, PropertyMapping> relationshipProperties() {
+        return relationshipProperties;
+    }
+
+    static boolean matchesType(RelationshipProjection projection, String type) {
+        return isProjectAll(projection.type()) || projection.type().get().equals(type);
+    }
+
+    static Aggregation aggregation(RelationshipProjection projection, PropertyMapping property) {
+        if (property != null && property.aggregation() != Aggregation.DEFAULT) {
+            return property.aggregation();
+        }
+        return projection.aggregation() == Aggregation.DEFAULT ? Aggregation.NONE : projection.aggregation();
+    }
+
+    private static boolean isProjectAll(Optional<String> name) {
+        return !name.isPresent() || name.get().isEmpty() || name.get().equals(PROJECT_ALL.name);
+    }
+
+    /**
+     * Returns {@code null} if any of the names projects all elements.
+     */
+    private static Set<String> names(Stream<Optional<String>> names) {
+        Set<String> result = new HashSet<>();
+        for (Optional<String> name : (Iterable<Optional<String>>) names::iterator) {
+            if (isProjectAll(name)) {
+                return null;
+            }
+            result.add(name.get());
+        }
+        return result;
+    }
+
+    private static Map<String, PropertyMapping> propertyMappings(Stream<PropertyMapping> mappings) {
+        Map<String, PropertyMapping> result = new LinkedHashMap<>();
+        mappings.forEach(mapping -> result.putIfAbsent(mapping.propertyKey(), mapping));
+        return result;
+    }
+}
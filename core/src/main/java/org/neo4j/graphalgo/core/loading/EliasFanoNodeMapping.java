@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.core.utils.BiLongConsumer;
+import org.neo4j.graphalgo.core.utils.BitUtil;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
+import org.neo4j.graphalgo.core.utils.mem.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A {@link NodeMapping} that stores the sorted original node ids Elias-Fano encoded.
+ * <p>
+ * Every original id is split into {@code L = floor(log2(highestId / nodeCount))} lower bits,
+ * which are stored verbatim, and the remaining upper bits, which are stored in unary as gaps
+ * in a bit vector of {@code nodeCount + (highestId >>> L) + 1} bits.
+ * The mapping needs {@code 2 + L} bits per node, independent of how sparse the original id space is.
+ * Additionally, mapped ids are stored in the order of their original ids, unless those are already
+ * ascending, in which case the rank of an original id is its mapped id.
+ * <p>
+ * A lookup finds the bucket of the upper bits with a sampled select on the bit vector and
+ * scans the few ids of that bucket, which is constant time for a uniform id distribution.
+ */
+public final class EliasFanoNodeMapping implements NodeMapping {
+
+    /**
+     * Original id spaces that are at least this many times larger than the number of nodes are
+     * mapped with an {@link EliasFanoNodeMapping}, as a {@link SparseNodeMapping} would
+     * allocate at least that many times the memory of a dense mapping.
+     */
+    static final int MIN_SPARSENESS = 4;
+
+    private static final long NOT_FOUND = -1L;
+
+    // position of every 2^ZERO_SAMPLE_SHIFT-th zero bit in the upper bits
+    private static final int ZERO_SAMPLE_SHIFT = 8;
+    private static final long ZERO_SAMPLE_MASK = (1L << ZERO_SAMPLE_SHIFT) - 1L;
+
+    // parallel batches cover whole words of the lower bits, so that no two batches write the same word
+    private static final int MIN_BATCH_SIZE = 1 << 14;
+
+    private final long nodeCount;
+    private final long highestOriginalId;
+    private final int lowerBits;
+    private final long lowerMask;
+    private final HugeLongArray lower;
+    private final HugeLongArray upper;
+    private final HugeLongArray zeroSamples;
+    private final HugeLongArray rankToMappedId;
+
+    static boolean isPreferable(long maxId, long maxEntries) {
+        return maxId > maxEntries * MIN_SPARSENESS;
+    }
+
+    /**
+     * @param maxId highest id that we need to represent, plus one
+     * @param maxEntries number of identifiers we need to store
+     */
+    public static MemoryRange memoryEstimation(long maxId, long maxEntries) {
+        int lowerBits = lowerBits(maxId, maxEntries);
+        long buckets = bucketCount(maxId, lowerBits);
+        long classSize = MemoryUsage.sizeOfInstance(EliasFanoNodeMapping.class);
+        long lowerSize = HugeLongArray.memoryEstimation(BitUtil.ceilDiv(maxEntries * lowerBits, Long.SIZE));
+        long upperSize = HugeLongArray.memoryEstimation(BitUtil.ceilDiv(maxEntries + buckets, Long.SIZE));
+        long samplesSize = HugeLongArray.memoryEstimation(BitUtil.ceilDiv(buckets, 1L << ZERO_SAMPLE_SHIFT));
+        // the rank to mapped id mapping is only kept if the original ids are not already in ascending order
+        return MemoryRange
+                .of(classSize + lowerSize + upperSize + samplesSize)
+                .add(MemoryRange.of(0L, HugeLongArray.memoryEstimation(maxEntries)));
+    }
+
+    /**
+     * Builds the mapping for the original ids in {@code graphIds}, the index of an original id is its mapped id.
+     * The original ids must be distinct and non-negative.
+     * <p>
+     * Finding the highest id, sorting the buckets and writing the bits run in parallel.
+     * The counting sort of the ids into their buckets is sequential, as parallel counting
+     * would need either atomic bucket counters or one array of bucket counters per thread.
+     */
+    public static EliasFanoNodeMapping build(
+            HugeLongArray graphIds,
+            long nodeCount,
+            int concurrency,
+            AllocationTracker tracker) {
+        LongAccumulator highestId = new LongAccumulator(Math::max, -1L);
+        runInBatches(nodeCount, concurrency, (start, end) -> {
+            long highest = -1L;
+            for (long nodeId = start; nodeId < end; nodeId++) {
+                highest = Math.max(highest, graphIds.get(nodeId));
+            }
+            highestId.accumulate(highest);
+        });
+        long highestOriginalId = highestId.get();
+        int lowerBits = lowerBits(highestOriginalId + 1L, nodeCount);
+        long buckets = bucketCount(highestOriginalId + 1L, lowerBits);
+
+        // counting sort of the mapped ids by the upper bits of their original ids,
+        // afterwards bucketEnds holds the exclusive end rank of every bucket
+        HugeLongArray bucketEnds = HugeLongArray.newArray(buckets, tracker);
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            bucketEnds.addTo(graphIds.get(nodeId) >>> lowerBits, 1L);
+        }
+        long offset = 0L;
+        for (long bucket = 0L; bucket < buckets; bucket++) {
+            long count = bucketEnds.get(bucket);
+            bucketEnds.set(bucket, offset);
+            offset += count;
+        }
+        HugeLongArray rankToMappedId = HugeLongArray.newArray(nodeCount, tracker);
+        for (long nodeId = 0L; nodeId < nodeCount; nodeId++) {
+            long bucket = graphIds.get(nodeId) >>> lowerBits;
+            long rank = bucketEnds.get(bucket);
+            rankToMappedId.set(rank, nodeId);
+            bucketEnds.set(bucket, rank + 1L);
+        }
+
+        // buckets hold one or two ids on average, sort them by their lower bits
+        AtomicBoolean ascending = new AtomicBoolean(true);
+        runInBatches(buckets, concurrency, (startBucket, endBucket) -> {
+            long bucketStart = startBucket == 0L ? 0L : bucketEnds.get(startBucket - 1L);
+            for (long bucket = startBucket; bucket < endBucket; bucket++) {
+                long bucketEnd = bucketEnds.get(bucket);
+                if (bucketEnd - bucketStart > 1L && !insertionSort(graphIds, rankToMappedId, bucketStart, bucketEnd)) {
+                    ascending.set(false);
+                }
+                bucketStart = bucketEnd;
+            }
+        });
+        runInBatches(nodeCount, concurrency, (start, end) -> {
+            for (long rank = start; ascending.get() && rank < end; rank++) {
+                if (rankToMappedId.get(rank) != rank) {
+                    ascending.set(false);
+                }
+            }
+        });
+
+        HugeLongArray lower = lowerBits > 0
+                ? HugeLongArray.newArray(BitUtil.ceilDiv(nodeCount * lowerBits, Long.SIZE), tracker)
+                : null;
+        HugeLongArray upper = HugeLongArray.newArray(BitUtil.ceilDiv(nodeCount + buckets, Long.SIZE), tracker);
+        long lowerMask = (1L << lowerBits) - 1L;
+        runInBatches(nodeCount, concurrency, (start, end) -> {
+            // positions grow with the rank, so only the first and the last word of the upper bits
+            // of this batch can be shared with the neighbouring batches
+            long firstWord = ((graphIds.get(rankToMappedId.get(start)) >>> lowerBits) + start) >>> 6;
+            long lastWord = ((graphIds.get(rankToMappedId.get(end - 1L)) >>> lowerBits) + end - 1L) >>> 6;
+            long firstBits = 0L;
+            long lastBits = 0L;
+            for (long rank = start; rank < end; rank++) {
+                long originalId = graphIds.get(rankToMappedId.get(rank));
+                long position = (originalId >>> lowerBits) + rank;
+                long word = position >>> 6;
+                if (word == firstWord) {
+                    firstBits |= 1L << position;
+                } else if (word == lastWord) {
+                    lastBits |= 1L << position;
+                } else {
+                    upper.or(word, 1L << position);
+                }
+                if (lower != null) {
+                    writeLowerBits(lower, rank * lowerBits, originalId & lowerMask, lowerBits);
+                }
+            }
+            synchronized (upper) {
+                upper.or(firstWord, firstBits);
+                upper.or(lastWord, lastBits);
+            }
+        });
+
+        // the zero that terminates a bucket comes right after the last id of that bucket
+        HugeLongArray zeroSamples = HugeLongArray.newArray(BitUtil.ceilDiv(buckets, 1L << ZERO_SAMPLE_SHIFT), tracker);
+        for (long bucket = 0L; bucket < buckets; bucket += 1L << ZERO_SAMPLE_SHIFT) {
+            zeroSamples.set(bucket >>> ZERO_SAMPLE_SHIFT, bucketEnds.get(bucket) + bucket);
+        }
+
+        tracker.remove(bucketEnds.release());
+        if (ascending.get()) {
+            tracker.remove(rankToMappedId.release());
+        }
+        return new EliasFanoNodeMapping(
+                nodeCount,
+                highestOriginalId,
+                lowerBits,
+                lower,
+                upper,
+                zeroSamples,
+                ascending.get() ? null : rankToMappedId);
+    }
+
+    private EliasFanoNodeMapping(
+            long nodeCount,
+            long highestOriginalId,
+            int lowerBits,
+            HugeLongArray lower,
+            HugeLongArray upper,
+            HugeLongArray zeroSamples,
+            HugeLongArray rankToMappedId) {
+        this.nodeCount = nodeCount;
+        this.highestOriginalId = highestOriginalId;
+        this.lowerBits = lowerBits;
+        this.lowerMask = (1L << lowerBits) - 1L;
+        this.lower = lower;
+        this.upper = upper;
+        this.zeroSamples = zeroSamples;
+        this.rankToMappedId = rankToMappedId;
+    }
+
+    @Override
+    public long get(long originalId) {
+        long rank = rank(originalId);
+        if (rank == NOT_FOUND || rankToMappedId == null) {
+            return rank;
+        }
+        return rankToMappedId.get(rank);
+    }
+
+    @Override
+    public boolean contains(long originalId) {
+        return rank(originalId) != NOT_FOUND;
+    }
+
+    /**
+     * @return the position of the original id in the sorted original ids, or -1 if it is not present
+     */
+    private long rank(long originalId) {
+        if (originalId < 0L || originalId > highestOriginalId) {
+            return NOT_FOUND;
+        }
+        long bucket = originalId >>> lowerBits;
+        long lowerValue = originalId & lowerMask;
+        long position = bucket == 0L ? 0L : selectZero(bucket - 1L) + 1L;
+        long rank = position - bucket;
+        while (rank < nodeCount && (upper.get(position >>> 6) & (1L << position)) != 0L) {
+            long candidate = lower == null ? 0L : readLowerBits(rank);
+            if (candidate == lowerValue) {
+                return rank;
+            }
+            if (candidate > lowerValue) {
+                break;
+            }
+            ++position;
+            ++rank;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return the position of the {@code k}-th (starting at 0) zero bit in the upper bits
+     */
+    private long selectZero(long k) {
+        long sample = zeroSamples.get(k >>> ZERO_SAMPLE_SHIFT);
+        long remaining = k & ZERO_SAMPLE_MASK;
+        if (remaining == 0L) {
+            return sample;
+        }
+        long position = sample + 1L;
+        long wordIndex = position >>> 6;
+        long word = ~upper.get(wordIndex) & (-1L << position);
+        int zeros;
+        while ((zeros = Long.bitCount(word)) < remaining) {
+            remaining -= zeros;
+            word = ~upper.get(++wordIndex);
+        }
+        while (--remaining > 0L) {
+            word &= word - 1L;
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private long readLowerBits(long rank) {
+        long bitPosition = rank * lowerBits;
+        long wordIndex = bitPosition >>> 6;
+        int shift = (int) (bitPosition & 63L);
+        long value = lower.get(wordIndex) >>> shift;
+        if (shift + lowerBits > Long.SIZE) {
+            value |= lower.get(wordIndex + 1L) << (Long.SIZE - shift);
+        }
+        return value & lowerMask;
+    }
+
+    private static void writeLowerBits(HugeLongArray lower, long bitPosition, long value, int lowerBits) {
+        long wordIndex = bitPosition >>> 6;
+        int shift = (int) (bitPosition & 63L);
+        lower.or(wordIndex, value << shift);
+        if (shift + lowerBits > Long.SIZE) {
+            lower.or(wordIndex + 1L, value >>> (Long.SIZE - shift));
+        }
+    }
+
+    /**
+     * Sorts the mapped ids in {@code [start, end)} by their original ids.
+     *
+     * @return true, iff the mapped ids were already in order
+     */
+    private static boolean insertionSort(HugeLongArray graphIds, HugeLongArray rankToMappedId, long start, long end) {
+        boolean sorted = true;
+        for (long i = start + 1L; i < end; i++) {
+            long mappedId = rankToMappedId.get(i);
+            long originalId = graphIds.get(mappedId);
+            long j = i - 1L;
+            while (j >= start && graphIds.get(rankToMappedId.get(j)) > originalId) {
+                rankToMappedId.set(j + 1L, rankToMappedId.get(j));
+                --j;
+                sorted = false;
+            }
+            rankToMappedId.set(j + 1L, mappedId);
+        }
+        return sorted;
+    }
+
+    /**
+     * Splits {@code [0, size)} into at most {@code concurrency} batches that start at multiples of 64.
+     */
+    private static void runInBatches(long size, int concurrency, BiLongConsumer task) {
+        long batchSize = BitUtil.align(Math.max(MIN_BATCH_SIZE, BitUtil.ceilDiv(size, concurrency)), Long.SIZE);
+        Collection<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < size; start += batchSize) {
+            long batchStart = start;
+            long batchEnd = Math.min(size, start + batchSize);
+            tasks.add(() -> task.apply(batchStart, batchEnd));
+        }
+        ParallelUtil.run(tasks, Pools.DEFAULT);
+    }
+
+    private static int lowerBits(long maxId, long maxEntries) {
+        if (maxEntries <= 0L || maxId <= maxEntries) {
+            return 0;
+        }
+        return 63 - Long.numberOfLeadingZeros(maxId / maxEntries);
+    }
+
+    private static long bucketCount(long maxId, int lowerBits) {
+        return maxId <= 0L ? 0L : ((maxId - 1L) >>> lowerBits) + 1L;
+    }
+}
@@ -22,11 +22,13 @@ package org.neo4j.graphalgo.core.loading;
 import org.jetbrains.annotations.Nullable;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.newapi.GraphCreateConfig;
+import org.neo4j.graphalgo.newapi.GraphCreateFromStoreConfig;
 
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -38,16 +40,68 @@ public final class GraphCatalog {
     private GraphCatalog() { }
 
     public static void set(GraphCreateConfig config, GraphsByRelationshipType graph) {
+        set(config, graph, config instanceof GraphCreateFromStoreConfig);
+    }
+
+    /**
+     * Stores the graph under the name of the config, recording changes to the store for it only if requested.
+     */
+    public static void set(GraphCreateConfig config, GraphsByRelationshipType graph, boolean recordChanges) {
         graph.canRelease(false);
         userGraphCatalogs.compute(config.username(), (user, userCatalog) -> {
             if (userCatalog == null) {
                 userCatalog = new UserCatalog();
             }
-            userCatalog.set(config, graph);
+            userCatalog.set(config, graph, recordChanges);
+            return userCatalog;
+        });
+    }
+
+    /**
+     * Starts recording changes to the store for a graph that is about to be loaded, so that changes
+     * committed during the load are not missed. The name is reserved until the graph is stored with
+     * {@link #set(GraphCreateConfig, GraphsByRelationshipType)} or the recording is stopped.
+     */
+    public static void startRecording(GraphCreateConfig config) {
+        userGraphCatalogs.compute(config.username(), (user, userCatalog) -> {
+            if (userCatalog == null) {
+                userCatalog = new UserCatalog();
+            }
+            userCatalog.startRecording(config);
             return userCatalog;
         });
     }
 
+    /**
+     * Stops recording changes for a graph whose load has failed.
+     */
+    public static void stopRecording(String username, String graphName) {
+        getUserCatalog(username).stopRecording(graphName);
+    }
+
+    /**
+     * Replaces the graph stored under the given name, keeping its config and its recorded changes.
+     */
+    public static void replace(String username, String graphName, GraphsByRelationshipType graph) {
+        graph.canRelease(false);
+        getUserCatalog(username).replace(graphName, graph);
+    }
+
+    /**
+     * Returns the changes recorded for the given graph since it has been created or last refreshed.
+     * Only graphs created from a native projection record changes.
+     */
+    public static Optional<GraphDelta> getDelta(String username, String graphName) {
+        return getUserCatalog(username).getDelta(graphName);
+    }
+
+    /**
+     * Calls the consumer for every graph of every user that records changes.
+     */
+    public static void forEachDelta(BiConsumer<GraphCreateConfig, GraphDelta> consumer) {
+        userGraphCatalogs.values().forEach(userCatalog -> userCatalog.forEachDelta(consumer));
+    }
+
     public static Graph get(
         String username,
         String graphName,
@@ -77,9 +131,9 @@ public final class GraphCatalog {
 
         graphRemovedConsumer.accept(graphWithConfig);
 
-        Graph graph = graphWithConfig.getGraph();
-        graph.canRelease(true);
-        graph.release();
+        GraphsByRelationshipType graphs = graphWithConfig.graph();
+        graphs.canRelease(true);
+        graphs.release();
     }
 
     public static @Nullable String getType(String username, String graphName) {
@@ -118,7 +172,32 @@ public final class GraphCatalog {
 
         private final Map<String, GraphWithConfig> graphsByName = new ConcurrentHashMap<>();
 
-        void set(GraphCreateConfig config, GraphsByRelationshipType graph) {
+        private final Map<String, GraphDelta> deltasByName = new ConcurrentHashMap<>();
+
+        // configs of graphs that record changes while they are being loaded
+        private final Map<String, GraphCreateConfig> loadingConfigs = new ConcurrentHashMap<>();
+
+        void startRecording(GraphCreateConfig config) {
+            String graphName = config.graphName();
+            if (graphsByName.containsKey(graphName) || deltasByName.containsKey(graphName)) {
+                throw new IllegalStateException(String.format(
+                    "Graph name %s already loaded",
+                    graphName
+                ));
+            }
+            GraphDelta delta = new GraphDelta();
+            delta.startLoading();
+            loadingConfigs.put(graphName, config);
+            deltasByName.put(graphName, delta);
+        }
+
+        void stopRecording(String graphName) {
+            if (loadingConfigs.remove(graphName) != null) {
+                deltasByName.remove(graphName);
+            }
+        }
+
+        void set(GraphCreateConfig config, GraphsByRelationshipType graph, boolean recordChanges) {
             if (config.graphName() == null || graph == null) {
                 throw new IllegalArgumentException("Both name and graph must be not null");
             }
@@ -129,9 +208,39 @@ public final class GraphCatalog {
                     config.graphName()
                 ));
             }
+            if (loadingConfigs.remove(config.graphName()) != null) {
+                deltasByName.get(config.graphName()).finishLoading();
+            } else if (recordChanges) {
+                deltasByName.put(config.graphName(), new GraphDelta());
+            }
             graph.canRelease(false);
         }
 
+        void replace(String graphName, GraphsByRelationshipType graph) {
+            if (graphsByName.computeIfPresent(
+                graphName,
+                (name, graphWithConfig) -> ImmutableGraphWithConfig.of(graph, graphWithConfig.config())
+            ) == null) {
+                throw new NoSuchElementException(String.format("Cannot find graph with name '%s'.", graphName));
+            }
+        }
+
+        Optional<GraphDelta> getDelta(String graphName) {
+            return Optional.ofNullable(deltasByName.get(graphName));
+        }
+
+        void forEachDelta(BiConsumer<GraphCreateConfig, GraphDelta> consumer) {
+            deltasByName.forEach((graphName, delta) -> {
+                GraphWithConfig graphWithConfig = graphsByName.get(graphName);
+                GraphCreateConfig config = graphWithConfig != null
+                    ? graphWithConfig.config()
+                    : loadingConfigs.get(graphName);
+                if (config != null) {
+                    consumer.accept(config, delta);
+                }
+            });
+        }
+
         GraphWithConfig get(String graphName) {
             if (graphsByName.containsKey(graphName)) {
                 return graphsByName.get(graphName);
@@ -170,9 +279,10 @@ public final class GraphCatalog {
                 return null;
             }
             GraphWithConfig graphWithConfig = graphsByName.remove(graphName);
+            deltasByName.remove(graphName);
             Graph graph = graphWithConfig.getGraph();
-            graph.canRelease(true);
-            graph.release();
+            graphWithConfig.graph().canRelease(true);
+            graphWithConfig.graph().release();
             return graph;
         }
 
@@ -184,6 +294,7 @@ public final class GraphCatalog {
                 // that can deal with missing graphs
                 return null;
             }
+            deltasByName.remove(graphName);
             return graphsByName.remove(graphName);
         }
 
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.RelationshipProjection;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records node and relationship additions and deletions that happened
+ * in the database after a graph has been added to the {@link GraphCatalog},
+ * as well as label changes of existing nodes.
+ * All ids are Neo4j ids, property values are keyed by their projected property key.
+ * <p>
+ * Added nodes and relationship changes are applied to the graph by {@link GraphDeltaMerger},
+ * removed and relabeled nodes require loading the graph again.
+ */
+public final class GraphDelta {
+
+    private static final int LOADING = -1;
+
+    private List<NodeChange> nodeChanges;
+    private List<RelationshipChange> relationshipChanges;
+    // existing nodes that gained or lost a projected label
+    private List<Long> relabeledNodes;
+    private long version;
+    // the number of leading relationship changes that have been recorded while the graph was loaded,
+    // the load may already have seen them; LOADING while the graph is still being loaded
+    private int relationshipChangesDuringLoad;
+    private final Lock refreshLock = new ReentrantLock();
+
+    public GraphDelta() {
+        this.nodeChanges = new ArrayList<>();
+        this.relationshipChanges = new ArrayList<>();
+        this.relabeledNodes = new ArrayList<>();
+    }
+
+    /**
+     * Marks the changes recorded from now on as possibly seen by a load of the graph that is about to start.
+     * The delta must not contain changes from before the load.
+     */
+    public synchronized void startLoading() {
+        relationshipChangesDuringLoad = LOADING;
+    }
+
+    /**
+     * Marks the changes recorded after this call as not seen by the load of the graph.
+     */
+    public synchronized void finishLoading() {
+        relationshipChangesDuringLoad = relationshipChanges.size();
+    }
+
+    /**
+     * The number of leading relationship changes that have been recorded while the graph was loaded.
+     * Additions among them may already be part of the loaded graph.
+     */
+    synchronized int relationshipChangesDuringLoad() {
+        return relationshipChangesDuringLoad == LOADING ? relationshipChanges.size() : relationshipChangesDuringLoad;
+    }
+
+    synchronized void addNode(long nodeId, Map<String, Number> properties) {
+        nodeChanges.add(new NodeChange(nodeId, false, properties));
+    }
+
+    synchronized void removeNode(long nodeId) {
+        nodeChanges.add(new NodeChange(nodeId, true, Collections.emptyMap()));
+    }
+
+    synchronized void relabelNode(long nodeId) {
+        relabeledNodes.add(nodeId);
+    }
+
+    synchronized void addRelationship(String type, long sourceNodeId, long targetNodeId, Map<String, Number> properties) {
+        relationshipChanges.add(new RelationshipChange(type, sourceNodeId, targetNodeId, false, properties));
+    }
+
+    synchronized void removeRelationship(String type, long sourceNodeId, long targetNodeId) {
+        relationshipChanges.add(new RelationshipChange(type, sourceNodeId, targetNodeId, true, Collections.emptyMap()));
+    }
+
+    /**
+     * Appends all changes of the given delta, e.g. the changes of a single committed transaction.
+     */
+    synchronized void addAll(GraphDelta other) {
+        nodeChanges.addAll(other.nodeChanges);
+        relationshipChanges.addAll(other.relationshipChanges);
+        relabeledNodes.addAll(other.relabeledNodes);
+    }
+
+    /**
+     * Moves all recorded changes into a new delta and resets this one.
+     */
+    public synchronized GraphDelta drain() {
+        GraphDelta drained = new GraphDelta();
+        drained.nodeChanges = nodeChanges;
+        drained.relationshipChanges = relationshipChanges;
+        drained.relabeledNodes = relabeledNodes;
+        drained.relationshipChangesDuringLoad = relationshipChangesDuringLoad();
+        nodeChanges = new ArrayList<>();
+        relationshipChanges = new ArrayList<>();
+        relabeledNodes = new ArrayList<>();
+        relationshipChangesDuringLoad = relationshipChangesDuringLoad == LOADING ? LOADING : 0;
+        version++;
+        return drained;
+    }
+
+    /**
+     * Puts previously drained changes back in front of the changes recorded since, e.g. after a failed refresh.
+     */
+    public synchronized void restore(GraphDelta drained) {
+        drained.nodeChanges.addAll(nodeChanges);
+        drained.relationshipChanges.addAll(relationshipChanges);
+        drained.relabeledNodes.addAll(relabeledNodes);
+        nodeChanges = drained.nodeChanges;
+        relationshipChanges = drained.relationshipChanges;
+        relabeledNodes = drained.relabeledNodes;
+        relationshipChangesDuringLoad = relationshipChangesDuringLoad == LOADING ? LOADING : drained.relationshipChangesDuringLoad;
+        version--;
+    }
+
+    /**
+     * The number of times the recorded changes have been drained into the catalog graph.
+     * Node properties loaded with the graph, e.g. seeds, only match the recorded changes as long as this is 0.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Held while the changes are drained and merged into the catalog graph, so that concurrent refreshes
+     * of the same graph apply all changes, one after the other.
+     * Recording changes does not wait for the lock.
+     */
+    public Lock refreshLock() {
+        return refreshLock;
+    }
+
+    public synchronized boolean isEmpty() {
+        return nodeChanges.isEmpty() && relationshipChanges.isEmpty() && relabeledNodes.isEmpty();
+    }
+
+    public synchronized long nodesAdded() {
+        return nodeChanges.stream().filter(change -> !change.removed).count();
+    }
+
+    public synchronized long nodesRemoved() {
+        return nodeChanges.stream().filter(change -> change.removed).count();
+    }
+
+    /**
+     * The number of times an existing node gained or lost a projected label.
+     */
+    public synchronized long nodesRelabeled() {
+        return relabeledNodes.size();
+    }
+
+    public synchronized long relationshipsAdded() {
+        return relationshipChanges.stream().filter(change -> !change.removed).count();
+    }
+
+    public synchronized long relationshipsRemoved() {
+        return relationshipChanges.stream().filter(change -> change.removed).count();
+    }
+
+    /**
+     * Calls the consumer with the Neo4j ids of the source and target node of every added relationship,
+     * in the order they have been recorded.
+     */
+    public synchronized void forEachAddedRelationship(RelationshipConsumer consumer) {
+        for (RelationshipChange change : relationshipChanges) {
+            if (!change.removed && !consumer.accept(change.sourceNodeId, change.targetNodeId)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #forEachAddedRelationship(RelationshipConsumer)}, but skips relationships
+     * whose type is not matched by any of the given projections.
+     */
+    public synchronized void forEachAddedRelationship(
+        Collection<RelationshipProjection> projections,
+        RelationshipConsumer consumer
+    ) {
+        for (RelationshipChange change : relationshipChanges) {
+            if (change.removed || projections.stream().noneMatch(projection -> DeltaProjection.matchesType(projection, change.type))) {
+                continue;
+            }
+            if (!consumer.accept(change.sourceNodeId, change.targetNodeId)) {
+                return;
+            }
+        }
+    }
+
+    synchronized List<NodeChange> nodeChanges() {
+        return new ArrayList<>(nodeChanges);
+    }
+
+    synchronized List<RelationshipChange> relationshipChanges() {
+        return new ArrayList<>(relationshipChanges);
+    }
+
+    static final class NodeChange {
+        final long nodeId;
+        final boolean removed;
+        final Map<String, Number> properties;
+
+        NodeChange(long nodeId, boolean removed, Map<String, Number> properties) {
+            this.nodeId = nodeId;
+            this.removed = removed;
+            this.properties = properties;
+        }
+    }
+
+    static final class RelationshipChange {
+        final String type;
+        final long sourceNodeId;
+        final long targetNodeId;
+        final boolean removed;
+        final Map<String, Number> properties;
+
+        RelationshipChange(
+            String type,
+            long sourceNodeId,
+            long targetNodeId,
+            boolean removed,
+            Map<String, Number> properties
+        ) {
+            this.type = type;
+            this.sourceNodeId = sourceNodeId;
+            this.targetNodeId = targetNodeId;
+            this.removed = removed;
+            this.properties = properties;
+        }
+    }
+}
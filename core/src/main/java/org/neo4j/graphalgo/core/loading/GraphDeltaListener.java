@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Records the changes of committed transactions into the {@link GraphDelta} of every affected catalog graph.
+ * <p>
+ * Changes are collected before the commit, while created and deleted entities can still be read,
+ * and only applied to the deltas once the transaction has been committed successfully.
+ */
+public final class GraphDeltaListener implements TransactionEventHandler<Map<GraphDelta, GraphDelta>> {
+
+    private static final Map<GraphDatabaseService, GraphDeltaListener> LISTENERS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Registers the listener with the given database, unless it has already been registered.
+     */
+    public static void registerWith(GraphDatabaseService db) {
+        LISTENERS.computeIfAbsent(db, key -> {
+            GraphDeltaListener listener = new GraphDeltaListener();
+            key.registerTransactionEventHandler(listener);
+            return listener;
+        });
+    }
+
+    private GraphDeltaListener() {
+    }
+
+    @Override
+    public Map<GraphDelta, GraphDelta> beforeCommit(TransactionData data) {
+        Map<GraphDelta, GraphDelta> changes = new IdentityHashMap<>();
+        Map<Long, List<String>> removedLabels = removedLabels(data);
+        Map<Long, List<String>> changedLabels = changedLabels(data);
+        GraphCatalog.forEachDelta((config, delta) -> {
+            GraphDelta transactionDelta = record(data, removedLabels, changedLabels, DeltaProjection.of(config));
+            if (!transactionDelta.isEmpty()) {
+                changes.put(delta, transactionDelta);
+            }
+        });
+        return changes.isEmpty() ? null : changes;
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Map<GraphDelta, GraphDelta> changes) {
+        if (changes != null) {
+            changes.forEach(GraphDelta::addAll);
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Map<GraphDelta, GraphDelta> changes) {
+    }
+
+    private static GraphDelta record(
+        TransactionData data,
+        Map<Long, List<String>> removedLabels,
+        Map<Long, List<String>> changedLabels,
+        DeltaProjection projection
+    ) {
+        GraphDelta delta = new GraphDelta();
+        for (Node node : data.createdNodes()) {
+            if (projection.containsNode(labels(node))) {
+                delta.addNode(node.getId(), properties(node, projection.nodeProperties()));
+            }
+        }
+        for (Node node : data.deletedNodes()) {
+            if (projection.containsNode(removedLabels.getOrDefault(node.getId(), Collections.emptyList()))) {
+                delta.removeNode(node.getId());
+            }
+        }
+        changedLabels.forEach((nodeId, labels) -> {
+            if (labels.stream().anyMatch(projection::filtersLabel)) {
+                delta.relabelNode(nodeId);
+            }
+        });
+        for (Relationship relationship : data.createdRelationships()) {
+            String type = relationship.getType().name();
+            if (projection.containsType(type)) {
+                delta.addRelationship(
+                    type,
+                    relationship.getStartNodeId(),
+                    relationship.getEndNodeId(),
+                    properties(relationship, projection.relationshipProperties())
+                );
+            }
+        }
+        for (Relationship relationship : data.deletedRelationships()) {
+            String type = relationship.getType().name();
+            if (projection.containsType(type)) {
+                delta.removeRelationship(type, relationship.getStartNodeId(), relationship.getEndNodeId());
+            }
+        }
+        return delta;
+    }
+
+    private static List<String> labels(Node node) {
+        List<String> labels = new ArrayList<>();
+        for (Label label : node.getLabels()) {
+            labels.add(label.name());
+        }
+        return labels;
+    }
+
+    /**
+     * Deleted nodes can no longer be asked for their labels, but the labels are reported as removed.
+     */
+    private static Map<Long, List<String>> removedLabels(TransactionData data) {
+        Map<Long, List<String>> labels = new HashMap<>();
+        for (LabelEntry entry : data.removedLabels()) {
+            labels.computeIfAbsent(entry.node().getId(), id -> new ArrayList<>()).add(entry.label().name());
+        }
+        return labels;
+    }
+
+    /**
+     * The assigned and removed labels of nodes that have neither been created nor deleted.
+     */
+    private static Map<Long, List<String>> changedLabels(TransactionData data) {
+        Set<Long> createdOrDeleted = new HashSet<>();
+        data.createdNodes().forEach(node -> createdOrDeleted.add(node.getId()));
+        data.deletedNodes().forEach(node -> createdOrDeleted.add(node.getId()));
+        Map<Long, List<String>> labels = new HashMap<>();
+        for (Iterable<LabelEntry> entries : Arrays.asList(data.assignedLabels(), data.removedLabels())) {
+            for (LabelEntry entry : entries) {
+                long nodeId = entry.node().getId();
+                if (!createdOrDeleted.contains(nodeId)) {
+                    labels.computeIfAbsent(nodeId, id -> new ArrayList<>()).add(entry.label().name());
+                }
+            }
+        }
+        return labels;
+    }
+
+    private static Map<String, Number> properties(PropertyContainer entity, Map<String, PropertyMapping> mappings) {
+        if (mappings.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Number> properties = new HashMap<>();
+        mappings.forEach((propertyKey, mapping) -> {
+            String neoPropertyKey = mapping.neoPropertyKey();
+            Object value = neoPropertyKey == null ? null : entity.getProperty(neoPropertyKey, null);
+            if (value instanceof Number) {
+                // kept as loaded, integral values above 2^53 would lose precision as double
+                properties.put(propertyKey, (Number) value);
+            }
+        });
+        return properties;
+    }
+}
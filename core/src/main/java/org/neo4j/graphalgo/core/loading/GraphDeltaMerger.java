@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import org.jetbrains.annotations.Nullable;
+import org.neo4j.graphalgo.ElementIdentifier;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.Projection;
+import org.neo4j.graphalgo.RelationshipProjection;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.Aggregation;
+import org.neo4j.graphalgo.core.huge.AdjacencyList;
+import org.neo4j.graphalgo.core.huge.AdjacencyOffsets;
+import org.neo4j.graphalgo.core.huge.HugeGraph;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.newapi.GraphCreateConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.neo4j.graphalgo.api.GraphFactory.ANY_REL_TYPE;
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfLongArray;
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfObjectArray;
+
+/**
+ * Applies a {@link GraphDelta} to a catalog graph.
+ * <p>
+ * Node ids of the existing graph are kept stable, so that the adjacency pages of the existing graph
+ * stay valid and can be shared with the merged graph. Only the adjacency lists of nodes that are
+ * touched by a relationship change are rewritten, into pages appended after the existing ones.
+ * Added nodes are appended to the id mapping. Removed nodes and label changes of existing nodes
+ * would change the ids of the remaining nodes, they are not merged and require loading the graph again.
+ */
+public final class GraphDeltaMerger {
+
+    private static final int UNRESOLVED_PROPERTY_KEY = -2;
+    private static final long NOT_FOUND = -1L;
+
+    private GraphDeltaMerger() {}
+
+    /**
+     * Whether the changes can be merged into the graph, or the graph needs to be loaded again.
+     */
+    public static boolean canMerge(GraphDelta delta) {
+        return delta.nodesRemoved() == 0 && delta.nodesRelabeled() == 0;
+    }
+
+    /**
+     * Returns the merged graphs, or the given graphs if there are no changes to merge.
+     */
+    public static GraphsByRelationshipType merge(
+        GraphsByRelationshipType graphs,
+        GraphCreateConfig config,
+        GraphDelta delta,
+        AllocationTracker tracker
+    ) {
+        if (delta.isEmpty()) {
+            return graphs;
+        }
+        if (!canMerge(delta)) {
+            throw new IllegalArgumentException("Removed or relabeled nodes cannot be merged, the graph needs to be loaded again.");
+        }
+        Map<String, Map<String, Graph>> graphsByType = graphs.asMap();
+        HugeGraph anyGraph = anyGraph(graphs);
+        DeltaProjection projection = DeltaProjection.of(config);
+
+        IdMap oldIdMap = anyGraph.idMapping();
+        IdMap idMap = oldIdMap;
+        Map<String, NodeProperties> nodeProperties = new HashMap<>();
+        for (String propertyKey : anyGraph.availableNodeProperties()) {
+            nodeProperties.put(propertyKey, anyGraph.nodeProperties(propertyKey));
+        }
+
+        NodesToAppend nodesToAppend = new NodesToAppend(oldIdMap, delta.nodeChanges());
+        if (nodesToAppend.size() > 0) {
+            idMap = nodesToAppend.appendTo(oldIdMap, config, tracker);
+            nodeProperties = nodesToAppend.appendTo(nodeProperties, oldIdMap.nodeCount(), projection, tracker);
+        }
+
+        Map<ElementIdentifier, RelationshipProjection> relationshipProjections = config
+            .relationshipProjection()
+            .projections();
+        Map<String, Map<String, Graph>> merged = new HashMap<>();
+        for (Map.Entry<String, Map<String, Graph>> entry : graphsByType.entrySet()) {
+            RelationshipProjection relationshipProjection = relationshipProjections.getOrDefault(
+                ElementIdentifier.of(entry.getKey()),
+                RelationshipProjection.empty()
+            );
+            RelationshipsMerger relationshipsMerger = new RelationshipsMerger(
+                relationshipProjection,
+                projection,
+                entry.getValue(),
+                idMap,
+                nodeProperties,
+                oldIdMap.nodeCount(),
+                tracker
+            );
+            relationshipsMerger.collect(delta.relationshipChanges(), delta.relationshipChangesDuringLoad());
+            merged.put(entry.getKey(), relationshipsMerger.merge(config));
+        }
+        return GraphsByRelationshipType.of(merged);
+    }
+
+    private static HugeGraph anyGraph(GraphsByRelationshipType graphs) {
+        return hugeGraph(graphs.asMap().values().iterator().next().values().iterator().next());
+    }
+
+    private static HugeGraph hugeGraph(Graph graph) {
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException(String.format(
+                "Only graphs of type `%s` can be refreshed, but got `%s`.",
+                HugeGraph.TYPE,
+                graph.getType()
+            ));
+        }
+        return (HugeGraph) graph;
+    }
+
+    private static final class NodesToAppend {
+
+        private final LongArrayList nodeIds;
+        private final List<Map<String, Number>> properties;
+
+        NodesToAppend(IdMap idMap, List<GraphDelta.NodeChange> changes) {
+            this.nodeIds = new LongArrayList();
+            this.properties = new ArrayList<>();
+            LongHashSet seen = new LongHashSet();
+            for (GraphDelta.NodeChange change : changes) {
+                // re-created nodes that reuse the id of a deleted node keep their existing slot
+                if (!change.removed && !idMap.contains(change.nodeId) && seen.add(change.nodeId)) {
+                    nodeIds.add(change.nodeId);
+                    properties.add(change.properties);
+                }
+            }
+        }
+
+        int size() {
+            return nodeIds.size();
+        }
+
+        IdMap appendTo(IdMap idMap, GraphCreateConfig config, AllocationTracker tracker) {
+            long oldNodeCount = idMap.nodeCount();
+            HugeLongArray graphIds = HugeLongArray.newArray(oldNodeCount + nodeIds.size(), tracker);
+            long highestNeoId = 0L;
+            for (long nodeId = 0L; nodeId < oldNodeCount; nodeId++) {
+                long neoId = idMap.toOriginalNodeId(nodeId);
+                graphIds.set(nodeId, neoId);
+                highestNeoId = Math.max(highestNeoId, neoId);
+            }
+            for (int i = 0; i < nodeIds.size(); i++) {
+                long neoId = nodeIds.get(i);
+                graphIds.set(oldNodeCount + i, neoId);
+                highestNeoId = Math.max(highestNeoId, neoId);
+            }
+            IdMap appended = IdMapBuilder.build(graphIds, highestNeoId + 1, config.concurrency(), tracker);
+            return config.offHeap() ? appended.withOffHeapIds(tracker) : appended;
+        }
+
+        Map<String, NodeProperties> appendTo(
+            Map<String, NodeProperties> nodeProperties,
+            long oldNodeCount,
+            DeltaProjection projection,
+            AllocationTracker tracker
+        ) {
+            Map<String, NodeProperties> appended = new HashMap<>();
+            nodeProperties.forEach((propertyKey, oldProperties) -> {
+                PropertyMapping mapping = projection.nodeProperties().get(propertyKey);
+                double defaultValue = mapping != null ? mapping.defaultValue() : PropertyMapping.DEFAULT_FALLBACK_VALUE;
+                NodePropertiesBuilder builder = NodePropertiesBuilder.of(
+                    oldNodeCount + nodeIds.size(),
+                    tracker,
+                    defaultValue,
+                    UNRESOLVED_PROPERTY_KEY,
+                    propertyKey
+                );
+                for (long nodeId = 0L; nodeId < oldNodeCount; nodeId++) {
+                    double value = oldProperties.nodeProperty(nodeId);
+                    if (Double.compare(value, defaultValue) != 0) {
+                        // integral values are copied as longs, so that typed columns and values above 2^53 stay exact
+                        long longValue = oldProperties.nodeLongProperty(nodeId, (long) value);
+                        if ((double) longValue == value) {
+                            builder.set(nodeId, longValue);
+                        } else {
+                            builder.set(nodeId, value);
+                        }
+                    }
+                }
+                for (int i = 0; i < nodeIds.size(); i++) {
+                    Number value = properties.get(i).get(propertyKey);
+                    if (value == null) {
+                        builder.set(oldNodeCount + i, defaultValue);
+                    } else if (isIntegral(value)) {
+                        builder.set(oldNodeCount + i, value.longValue());
+                    } else {
+                        builder.set(oldNodeCount + i, value.doubleValue());
+                    }
+                }
+                appended.put(propertyKey, builder.build());
+            });
+            return appended;
+        }
+    }
+
+    private static boolean isIntegral(Number value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Merges the changes into all graphs of a single relationship projection.
+     * The graphs of a projection share their adjacency list and differ only in their property list.
+     */
+    private static final class RelationshipsMerger {
+
+        private final RelationshipProjection relationshipProjection;
+        private final String[] propertyKeys;
+        private final HugeGraph[] graphs;
+        private final double[] defaultValues;
+        private final Aggregation[] aggregations;
+        private final IdMap idMap;
+        private final Map<String, NodeProperties> nodeProperties;
+        private final long oldNodeCount;
+        private final AllocationTracker tracker;
+        private final LongObjectHashMap<ChangedList> changedLists;
+
+        RelationshipsMerger(
+            RelationshipProjection relationshipProjection,
+            DeltaProjection projection,
+            Map<String, Graph> graphsByProperty,
+            IdMap idMap,
+            Map<String, NodeProperties> nodeProperties,
+            long oldNodeCount,
+            AllocationTracker tracker
+        ) {
+            this.relationshipProjection = relationshipProjection;
+            this.idMap = idMap;
+            this.nodeProperties = nodeProperties;
+            this.oldNodeCount = oldNodeCount;
+            this.tracker = tracker;
+            this.changedLists = new LongObjectHashMap<>();
+
+            String[] keys = graphsByProperty.keySet().toArray(new String[0]);
+            this.graphs = Arrays.stream(keys).map(key -> hugeGraph(graphsByProperty.get(key))).toArray(HugeGraph[]::new);
+            this.propertyKeys = keys.length == 1 && keys[0].equals(ANY_REL_TYPE) ? new String[0] : keys;
+            this.defaultValues = new double[propertyKeys.length];
+            Arrays.setAll(defaultValues, i -> {
+                PropertyMapping mapping = projection.relationshipProperties().get(propertyKeys[i]);
+                return mapping != null ? mapping.defaultValue() : graphs[i].defaultPropertyValue();
+            });
+            if (propertyKeys.length == 0) {
+                this.aggregations = new Aggregation[]{DeltaProjection.aggregation(relationshipProjection, null)};
+            } else {
+                this.aggregations = Arrays.stream(propertyKeys)
+                    .map(key -> DeltaProjection.aggregation(
+                        relationshipProjection,
+                        projection.relationshipProperties().get(key)
+                    ))
+                    .toArray(Aggregation[]::new);
+            }
+        }
+
+        /**
+         * @param changesDuringLoad the number of leading changes that have been recorded while the graph was loaded,
+         *                          added relationships among them are skipped if the graph already contains them
+         */
+        void collect(List<GraphDelta.RelationshipChange> changes, int changesDuringLoad) {
+            for (int i = 0; i < changes.size(); i++) {
+                GraphDelta.RelationshipChange change = changes.get(i);
+                if (!DeltaProjection.matchesType(relationshipProjection, change.type)) {
+                    continue;
+                }
+                long source = idMap.toMappedNodeId(change.sourceNodeId);
+                long target = idMap.toMappedNodeId(change.targetNodeId);
+                if (source == NOT_FOUND || target == NOT_FOUND) {
+                    continue;
+                }
+                if (relationshipProjection.projection() == Projection.REVERSE) {
+                    long tmp = source;
+                    source = target;
+                    target = tmp;
+                }
+                if (i < changesDuringLoad && !change.removed && isLoaded(source, target)) {
+                    continue;
+                }
+                switch (relationshipProjection.projection()) {
+                    case NATURAL:
+                    case REVERSE:
+                        collect(source, target, change);
+                        break;
+                    case UNDIRECTED:
+                        collect(source, target, change);
+                        collect(target, source, change);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected projection: " + relationshipProjection.projection());
+                }
+            }
+        }
+
+        private boolean isLoaded(long source, long target) {
+            return source < oldNodeCount && target < oldNodeCount && graphs[0].exists(source, target);
+        }
+
+        private void collect(long source, long target, GraphDelta.RelationshipChange change) {
+            ChangedList changedList = changedLists.get(source);
+            if (changedList == null) {
+                changedList = new ChangedList(propertyKeys.length);
+                changedLists.put(source, changedList);
+            }
+            if (change.removed) {
+                changedList.remove(target);
+            } else {
+                double[] values = new double[propertyKeys.length];
+                Arrays.setAll(values, i -> {
+                    Number value = change.properties.get(propertyKeys[i]);
+                    return value != null ? value.doubleValue() : defaultValues[i];
+                });
+                changedList.add(target, values);
+            }
+        }
+
+        Map<String, Graph> merge(GraphCreateConfig config) {
+            HugeGraph first = graphs[0];
+            AdjacencyList adjacencyList = first.adjacencyList();
+            AdjacencyListBuilder adjacencyBuilder = AdjacencyListBuilder.newBuilder(adjacencyList.pages(), tracker);
+            AdjacencyListBuilder[] propertyBuilders = new AdjacencyListBuilder[propertyKeys.length];
+            Arrays.setAll(propertyBuilders, i -> {
+                AdjacencyList properties = graphs[i].properties();
+                return AdjacencyListBuilder.newBuilder(properties != null ? properties.pages() : new byte[0][], tracker);
+            });
+
+            long[] touchedNodes = changedLists.keys().toArray();
+            Arrays.sort(touchedNodes);
+            long[] adjacencyOffsets = new long[touchedNodes.length];
+            long[][] propertyOffsets = new long[propertyKeys.length][touchedNodes.length];
+
+            ThreadLocalRelationshipsBuilder builder = new ThreadLocalRelationshipsBuilder(
+                aggregations,
+                adjacencyList.encoding(),
+                adjacencyBuilder.newAllocator(),
+                Arrays.stream(propertyBuilders)
+                    .map(AdjacencyListBuilder::newAllocator)
+                    .toArray(AdjacencyListBuilder.Allocator[]::new),
+                adjacencyOffsets,
+                propertyOffsets
+            );
+            if (touchedNodes.length > 0) {
+                builder.prepare();
+            }
+
+            CompressionBuffers buffers = new CompressionBuffers();
+            long relationshipCount = first.relationshipCount();
+            for (int localId = 0; localId < touchedNodes.length; localId++) {
+                long nodeId = touchedNodes[localId];
+                ChangedList list = readExisting(nodeId);
+                relationshipCount -= list.targets.size();
+                list.apply(changedLists.get(nodeId));
+
+                int degree = list.targets.size();
+                if (degree == 0) {
+                    continue;
+                }
+                long[][] properties = new long[propertyKeys.length][degree];
+                for (int i = 0; i < propertyKeys.length; i++) {
+                    for (int j = 0; j < degree; j++) {
+                        properties[i][j] = Double.doubleToLongBits(list.properties[i].get(j));
+                    }
+                }
+                CompressedLongArray array = new CompressedLongArray(tracker, propertyKeys.length);
+                array.add(list.targets.toArray(), properties, 0, degree);
+                relationshipCount += builder.applyVariableDeltaEncoding(array, buffers, localId);
+            }
+
+            long nodeCount = idMap.nodeCount();
+            ImportSizing sizing = ImportSizing.of(config.concurrency(), nodeCount);
+            AdjacencyOffsets mergedAdjacencyOffsets = mergeOffsets(
+                first.adjacencyOffsets(),
+                touchedNodes,
+                adjacencyOffsets,
+                sizing,
+                config.offHeap()
+            );
+            AdjacencyList mergedAdjacencyList = adjacencyBuilder.build(adjacencyList.encoding());
+
+            Map<String, Graph> merged = new HashMap<>();
+            for (int i = 0; i < graphs.length; i++) {
+                HugeGraph graph = graphs[i];
+                AdjacencyList properties = null;
+                AdjacencyOffsets mergedPropertyOffsets = null;
+                if (i < propertyKeys.length && graph.properties() != null) {
+                    properties = propertyBuilders[i].build();
+                    mergedPropertyOffsets = mergeOffsets(
+                        graph.propertyOffsets(),
+                        touchedNodes,
+                        propertyOffsets[i],
+                        sizing,
+                        config.offHeap()
+                    );
+                }
+                merged.put(
+                    propertyKeys.length == 0 ? ANY_REL_TYPE : propertyKeys[i],
+                    new HugeGraph(
+                        tracker,
+                        idMap,
+                        nodeProperties,
+                        relationshipCount,
+                        mergedAdjacencyList,
+                        mergedAdjacencyOffsets,
+                        graph.hasRelationshipProperty(),
+                        graph.defaultPropertyValue(),
+                        properties,
+                        mergedPropertyOffsets,
+                        graph.isUndirected()
+                    )
+                );
+            }
+            return merged;
+        }
+
+        private ChangedList readExisting(long nodeId) {
+            ChangedList list = new ChangedList(propertyKeys.length);
+            if (nodeId >= oldNodeCount) {
+                return list;
+            }
+            graphs[0].forEachRelationship(nodeId, (source, target) -> {
+                list.targets.add(target);
+                return true;
+            });
+            for (int i = 0; i < propertyKeys.length; i++) {
+                DoubleArrayList values = list.properties[i];
+                graphs[i].forEachRelationship(nodeId, defaultValues[i], (source, target, value) -> {
+                    values.add(value);
+                    return true;
+                });
+            }
+            return list;
+        }
+
+        private AdjacencyOffsets mergeOffsets(
+            @Nullable AdjacencyOffsets offsets,
+            long[] touchedNodes,
+            long[] touchedOffsets,
+            ImportSizing sizing,
+            boolean offHeap
+        ) {
+            int pageSize = sizing.pageSize();
+            int pageShift = Integer.numberOfTrailingZeros(pageSize);
+            long pageMask = pageSize - 1;
+            long[][] pages = new long[sizing.numberOfPages()][pageSize];
+            tracker.add(sizeOfObjectArray(pages.length) + pages.length * sizeOfLongArray(pageSize));
+
+            if (offsets != null) {
+                for (long nodeId = 0L; nodeId < oldNodeCount; nodeId++) {
+                    pages[(int) (nodeId >>> pageShift)][(int) (nodeId & pageMask)] = offsets.get(nodeId);
+                }
+            }
+            for (int i = 0; i < touchedNodes.length; i++) {
+                long nodeId = touchedNodes[i];
+                pages[(int) (nodeId >>> pageShift)][(int) (nodeId & pageMask)] = touchedOffsets[i];
+            }
+            AdjacencyOffsets merged = AdjacencyOffsets.of(pages, pageSize);
+            return offHeap ? AdjacencyOffsets.offHeap(merged, tracker) : merged;
+        }
+    }
+
+    /**
+     * The targets and properties of a single adjacency list, or the changes to apply to it.
+     */
+    private static final class ChangedList {
+
+        final LongArrayList targets;
+        final DoubleArrayList[] properties;
+        // the number of removals per target, both of existing relationships and of pending additions
+        private final LongIntHashMap removedTargets;
+        private final LongIntHashMap cancelledTargets;
+        private final LongIntHashMap pendingTargets;
+
+        ChangedList(int propertyCount) {
+            this.targets = new LongArrayList();
+            this.properties = new DoubleArrayList[propertyCount];
+            Arrays.setAll(properties, i -> new DoubleArrayList());
+            this.removedTargets = new LongIntHashMap();
+            this.cancelledTargets = new LongIntHashMap();
+            this.pendingTargets = new LongIntHashMap();
+        }
+
+        void add(long target, double[] values) {
+            targets.add(target);
+            for (int i = 0; i < values.length; i++) {
+                properties[i].add(values[i]);
+            }
+            pendingTargets.addTo(target, 1);
+        }
+
+        /**
+         * Cancels a pending addition of the same relationship or otherwise marks the relationship for removal.
+         */
+        void remove(long target) {
+            if (pendingTargets.getOrDefault(target, 0) > cancelledTargets.getOrDefault(target, 0)) {
+                cancelledTargets.addTo(target, 1);
+            } else {
+                removedTargets.addTo(target, 1);
+            }
+        }
+
+        void apply(ChangedList changes) {
+            removeFirstOccurrences(changes.removedTargets);
+            changes.removeFirstOccurrences(changes.cancelledTargets);
+            targets.addAll(changes.targets);
+            for (int i = 0; i < properties.length; i++) {
+                properties[i].addAll(changes.properties[i]);
+            }
+        }
+
+        /**
+         * Removes as many of the first occurrences of every target as counted, in a single pass over the list.
+         */
+        private void removeFirstOccurrences(LongIntHashMap counts) {
+            if (counts.isEmpty()) {
+                return;
+            }
+            int size = targets.size();
+            int kept = 0;
+            for (int j = 0; j < size; j++) {
+                long target = targets.get(j);
+                if (counts.getOrDefault(target, 0) > 0) {
+                    counts.addTo(target, -1);
+                    continue;
+                }
+                targets.set(kept, target);
+                for (DoubleArrayList values : properties) {
+                    values.set(kept, values.get(j));
+                }
+                kept++;
+            }
+            targets.removeRange(kept, size);
+            for (DoubleArrayList values : properties) {
+                values.removeRange(kept, size);
+            }
+        }
+    }
+}
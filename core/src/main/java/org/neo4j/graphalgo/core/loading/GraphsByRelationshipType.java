@@ -25,6 +25,7 @@ import org.neo4j.graphalgo.core.ProcedureConstants;
 import org.neo4j.graphalgo.core.huge.HugeGraph;
 import org.neo4j.graphalgo.core.huge.UnionGraph;
 import org.neo4j.graphalgo.core.utils.ProjectionParser;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -34,6 +35,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -58,9 +61,17 @@ public final class GraphsByRelationshipType {
     }
 
     private final Map<String, Map<String, Graph>> graphs;
+    // merged unions of multiple relationship types, by the sorted relationship types
+    private final Map<Set<String>, HugeGraph> mergedGraphs;
+    // tracks the merged graphs, which live as long as this instance
+    private final AllocationTracker mergedGraphsTracker;
+    private volatile boolean canRelease;
 
     private GraphsByRelationshipType(Map<String, Map<String, Graph>> graphs) {
         this.graphs = graphs;
+        this.mergedGraphs = new ConcurrentHashMap<>();
+        this.mergedGraphsTracker = AllocationTracker.create();
+        this.canRelease = true;
     }
 
     @Deprecated
@@ -125,6 +136,34 @@ public final class GraphsByRelationshipType {
         }
     }
 
+    /**
+     * Like {@link #getGraphProjection(List, Optional)} without a relationship property, but the relationships of
+     * multiple types are merged into a single sorted adjacency list without parallel relationships.
+     * The merged graph is created on first access and shared by all subsequent calls for the same types,
+     * it can be released only if the other graphs can be released as well.
+     */
+    public Graph getMergedGraphProjection(List<String> relationshipTypes, int concurrency) {
+        Graph graph = getGraphProjection(relationshipTypes, Optional.empty());
+        if (!(graph instanceof UnionGraph)) {
+            return graph;
+        }
+        Set<String> key = relationshipTypes.contains("*")
+            ? new TreeSet<>(graphs.keySet())
+            : new TreeSet<>(relationshipTypes);
+        return mergedGraphs.computeIfAbsent(key, types -> {
+            HugeGraph merged = ((UnionGraph) graph).materialize(concurrency, mergedGraphsTracker);
+            merged.canRelease(canRelease);
+            return merged;
+        });
+    }
+
+    /**
+     * The memory used by the merged graphs that have been created by {@link #getMergedGraphProjection(List, int)}.
+     */
+    public long mergedGraphsMemoryUsage() {
+        return mergedGraphsTracker.tracked();
+    }
+
     public Graph getUnion() {
         Collection<Graph> graphParts = new ArrayList<>();
         forEach(graphParts::add);
@@ -148,7 +187,15 @@ public final class GraphsByRelationshipType {
     }
 
     public void canRelease(boolean canRelease) {
+        this.canRelease = canRelease;
         forEach(g -> g.canRelease(canRelease));
+        mergedGraphs.values().forEach(g -> g.canRelease(canRelease));
+    }
+
+    public void release() {
+        forEach(Graph::release);
+        mergedGraphs.values().forEach(Graph::release);
+        mergedGraphs.clear();
     }
 
     public String getGraphType() {
@@ -175,6 +222,10 @@ public final class GraphsByRelationshipType {
         return graphs.keySet();
     }
 
+    public Map<String, Map<String, Graph>> asMap() {
+        return Collections.unmodifiableMap(graphs);
+    }
+
     private void forEach(Consumer<? super Graph> action) {
         for (Map<String, ? extends Graph> graphsByProperty : graphs.values()) {
             for (Graph graph : graphsByProperty.values()) {
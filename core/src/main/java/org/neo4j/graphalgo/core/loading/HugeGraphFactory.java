@@ -143,6 +143,9 @@ public final class HugeGraphFactory extends GraphFactory {
         int concurrency = setup.concurrency();
         AllocationTracker tracker = setup.tracker();
         IdsAndProperties mappingAndProperties = loadIdMap(tracker, concurrency);
+        if (setup.offHeap()) {
+            mappingAndProperties = mappingAndProperties.withOffHeapIds(tracker);
+        }
         Map<String, Map<String, Graph>> graphs = loadRelationships(
                 dimensions,
                 tracker,
@@ -191,6 +194,16 @@ public final class HugeGraphFactory extends GraphFactory {
                 concurrency
         );
         ObjectLongMap<RelationshipProjectionMapping> relationshipCounts = scanningImporter.call(setup.log());
+        if (setup.offHeap()) {
+            allBuilders.values().forEach(builders -> {
+                if (builders.getOne() != null) {
+                    builders.getOne().moveOffsetsOffHeap(tracker);
+                }
+                if (builders.getTwo() != null) {
+                    builders.getTwo().moveOffsetsOffHeap(tracker);
+                }
+            });
+        }
 
         return allBuilders.entrySet().stream().collect(Collectors.toMap(
                 entry -> entry.getKey().elementIdentifier(),
@@ -202,12 +215,12 @@ public final class HugeGraphFactory extends GraphFactory {
                     RelationshipsBuilder incomingRelationshipsBuilder = builders.getTwo();
 
                     AdjacencyList outAdjacencyList = outgoingRelationshipsBuilder != null
-                            ? outgoingRelationshipsBuilder.adjacencyListBuilder.build() : null;
+                            ? outgoingRelationshipsBuilder.adjacencyList() : null;
                     AdjacencyOffsets outAdjacencyOffsets = outgoingRelationshipsBuilder != null
                             ? outgoingRelationshipsBuilder.globalAdjacencyOffsets : null;
 
                     AdjacencyList inAdjacencyList = incomingRelationshipsBuilder != null
-                            ? incomingRelationshipsBuilder.adjacencyListBuilder.build() : null;
+                            ? incomingRelationshipsBuilder.adjacencyList() : null;
                     AdjacencyOffsets inAdjacencyOffsets = incomingRelationshipsBuilder != null
                             ? incomingRelationshipsBuilder.globalAdjacencyOffsets : null;
 
@@ -287,14 +300,16 @@ public final class HugeGraphFactory extends GraphFactory {
             outgoingRelationshipsBuilder = new RelationshipsBuilder(
                 aggregations,
                 tracker,
-                setup.relationshipPropertyMappings().numberOfMappings()
+                setup.relationshipPropertyMappings().numberOfMappings(),
+                setup.adjacencyEncoding()
             );
         }
         if (relationshipProjectionMapping.projection() == Projection.REVERSE) {
             incomingRelationshipsBuilder = new RelationshipsBuilder(
                 aggregations,
                 tracker,
-                setup.relationshipPropertyMappings().numberOfMappings()
+                setup.relationshipPropertyMappings().numberOfMappings(),
+                setup.adjacencyEncoding()
             );
         }
 
@@ -27,6 +27,7 @@ import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 
 import java.util.Collection;
@@ -43,12 +44,14 @@ public final class IdMap implements IdMapping, NodeIterator, BatchNodeIterable {
             .perNode("Neo4j identifiers", HugeLongArray::memoryEstimation)
             .rangePerGraphDimension(
                     "Mapping from Neo4j identifiers to internal identifiers",
-                    (dimensions, concurrency) -> SparseNodeMapping.memoryEstimation(dimensions.highestNeoId(), dimensions.nodeCount()))
+                    (dimensions, concurrency) -> EliasFanoNodeMapping.isPreferable(dimensions.highestNeoId(), dimensions.nodeCount())
+                            ? EliasFanoNodeMapping.memoryEstimation(dimensions.highestNeoId(), dimensions.nodeCount())
+                            : SparseNodeMapping.memoryEstimation(dimensions.highestNeoId(), dimensions.nodeCount()))
             .build();
 
     private long nodeCount;
     private HugeLongArray graphIds;
-    private SparseNodeMapping nodeToGraphIds;
+    private NodeMapping nodeToGraphIds;
 
     public static MemoryEstimation memoryEstimation() {
         return ESTIMATION;
@@ -57,7 +60,7 @@ public final class IdMap implements IdMapping, NodeIterator, BatchNodeIterable {
     /**
      * initialize the map with pre-built sub arrays
      */
-    public IdMap(HugeLongArray graphIds, SparseNodeMapping nodeToGraphIds, long nodeCount) {
+    public IdMap(HugeLongArray graphIds, NodeMapping nodeToGraphIds, long nodeCount) {
         this.nodeCount = nodeCount;
         this.graphIds = graphIds;
         this.nodeToGraphIds = nodeToGraphIds;
@@ -83,6 +86,17 @@ public final class IdMap implements IdMapping, NodeIterator, BatchNodeIterable {
         return nodeCount;
     }
 
+    /**
+     * Returns a copy of this mapping that keeps the original node ids outside of the Java heap.
+     * The on-heap ids of this mapping are released.
+     */
+    IdMap withOffHeapIds(AllocationTracker tracker) {
+        HugeLongArray offHeapIds = HugeLongArray.newOffHeapArray(graphIds.size(), tracker);
+        graphIds.copyTo(offHeapIds, graphIds.size());
+        tracker.remove(graphIds.release());
+        return new IdMap(offHeapIds, nodeToGraphIds, nodeCount);
+    }
+
     @Override
     public void forEachNode(LongPredicate consumer) {
         final long count = nodeCount();
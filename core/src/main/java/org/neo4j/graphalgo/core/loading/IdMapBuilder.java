@@ -34,7 +34,16 @@ public final class IdMapBuilder {
             int concurrency,
             AllocationTracker tracker) {
 
-        SparseNodeMapping.Builder nodeMappingBuilder = SparseNodeMapping.Builder.create(highestNodeId == 0 ? 1 : highestNodeId, tracker);
+        if (EliasFanoNodeMapping.isPreferable(highestNodeId, nodeCount)) {
+            // most pages of a sparse mapping would be touched while only holding few ids
+            NodeMapping nodeToGraphIds = EliasFanoNodeMapping.build(graphIds, nodeCount, concurrency, tracker);
+            return new IdMap(graphIds, nodeToGraphIds, nodeCount);
+        }
+
+        SparseNodeMapping.Builder nodeMappingBuilder = SparseNodeMapping.Builder.create(
+                highestNodeId == 0 ? 1 : highestNodeId,
+                nodeCount,
+                tracker);
         ParallelUtil.readParallel(
                 concurrency,
                 graphIds.size(),
@@ -66,6 +75,13 @@ public final class IdMapBuilder {
         return build(idMapBuilder.build(), idMapBuilder.size(), highestNodeId, concurrency, tracker);
     }
 
+    public static IdMap build(
+            HugeLongArray graphIds,
+            long highestNodeId,
+            int concurrency,
+            AllocationTracker tracker) {
+        return build(graphIds, graphIds.size(), highestNodeId, concurrency, tracker);
+    }
 
     private IdMapBuilder() {
     }
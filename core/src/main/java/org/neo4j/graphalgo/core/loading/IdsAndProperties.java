@@ -20,6 +20,7 @@
 package org.neo4j.graphalgo.core.loading;
 
 import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 
 import java.util.Map;
 
@@ -42,4 +43,8 @@ public class IdsAndProperties {
     public Map<String, NodeProperties> properties() {
         return properties;
     }
+
+    IdsAndProperties withOffHeapIds(AllocationTracker tracker) {
+        return new IdsAndProperties(hugeIdMap.withOffHeapIds(tracker), properties);
+    }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.StatementAction;
+import org.neo4j.graphalgo.core.utils.StatementFunction;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports nodes of a label-filtered projection without scanning the whole node store.
+ * <p>
+ * The candidate node ids are read from the label scan store up-front, in ascending order and
+ * without duplicates, so that importer threads can claim consecutive batches of them and load
+ * only the matching records through the page cache.
+ * The cost of the import is proportional to the number of matching nodes,
+ * rather than to the size of the node store.
+ */
+final class LabelScanNodesScanner extends StatementAction implements RecordScanner {
+
+    /**
+     * Use the label scan store if the selected labels match at most this fraction of all nodes.
+     * Above that, almost every page of the node store contains a candidate and
+     * the sequential store scan is faster than looking up records one by one.
+     */
+    static final double MAX_SELECTIVITY = 0.1;
+
+    // candidates are already filtered by the label scan store
+    private static final LongSet NO_LABEL_FILTER = new LongHashSet(0);
+
+    static boolean canBeUsed(LongSet labels, long labeledNodeCount, long highestNeoId) {
+        if (labels.isEmpty() || labels.contains(Read.ANY_LABEL)) {
+            return false;
+        }
+        return labeledNodeCount <= (long) Math.ceil(highestNeoId * MAX_SELECTIVITY);
+    }
+
+    static Candidates readCandidates(
+            GraphDatabaseAPI api,
+            LongSet labels,
+            long maxCandidates,
+            AllocationTracker tracker) {
+        return new CandidatesReader(api, labels, maxCandidates, tracker).call();
+    }
+
+    static InternalImporter.CreateScanner of(
+            GraphDatabaseAPI api,
+            NodeStore nodeStore,
+            Candidates candidates,
+            int batchSize,
+            ImportProgress progress,
+            NodeImporter importer,
+            TerminationFlag terminationFlag) {
+        return new LabelScanNodesScanner.Creator(
+                api,
+                nodeStore,
+                candidates,
+                batchSize,
+                progress,
+                importer,
+                terminationFlag);
+    }
+
+    /**
+     * Sorted and distinct ids of all nodes that have at least one of the selected labels.
+     */
+    static final class Candidates {
+        final HugeLongArray nodeIds;
+        final long size;
+
+        private Candidates(HugeLongArray nodeIds, long size) {
+            this.nodeIds = nodeIds;
+            this.size = size;
+        }
+
+        /**
+         * @return the amount of memory freed, in bytes.
+         */
+        long release() {
+            return nodeIds.release();
+        }
+    }
+
+    static final class Creator implements InternalImporter.CreateScanner {
+        private final GraphDatabaseAPI api;
+        private final NodeStore nodeStore;
+        private final Candidates candidates;
+        private final int batchSize;
+        private final AtomicLong nextBatch;
+        private final ImportProgress progress;
+        private final NodeImporter importer;
+        private final TerminationFlag terminationFlag;
+
+        Creator(
+                GraphDatabaseAPI api,
+                NodeStore nodeStore,
+                Candidates candidates,
+                int batchSize,
+                ImportProgress progress,
+                NodeImporter importer,
+                TerminationFlag terminationFlag) {
+            this.api = api;
+            this.nodeStore = nodeStore;
+            this.candidates = candidates;
+            this.batchSize = batchSize;
+            this.nextBatch = new AtomicLong();
+            this.progress = progress;
+            this.importer = importer;
+            this.terminationFlag = terminationFlag;
+        }
+
+        @Override
+        public RecordScanner create(int index) {
+            return new LabelScanNodesScanner(
+                    api,
+                    terminationFlag,
+                    nodeStore,
+                    candidates,
+                    batchSize,
+                    nextBatch,
+                    index,
+                    progress,
+                    importer
+            );
+        }
+
+        @Override
+        public Collection<Runnable> flushTasks() {
+            return Collections.emptyList();
+        }
+    }
+
+    private final TerminationFlag terminationFlag;
+    private final NodeStore nodeStore;
+    private final Candidates candidates;
+    private final int batchSize;
+    private final AtomicLong nextBatch;
+    private final int scannerIndex;
+    private final ImportProgress progress;
+    private final NodeImporter importer;
+    private long propertiesImported;
+    private long nodesImported;
+
+    private LabelScanNodesScanner(
+            GraphDatabaseAPI api,
+            TerminationFlag terminationFlag,
+            NodeStore nodeStore,
+            Candidates candidates,
+            int batchSize,
+            AtomicLong nextBatch,
+            int threadIndex,
+            ImportProgress progress,
+            NodeImporter importer) {
+        super(api);
+        this.terminationFlag = terminationFlag;
+        this.nodeStore = nodeStore;
+        this.candidates = candidates;
+        this.batchSize = batchSize;
+        this.nextBatch = nextBatch;
+        this.scannerIndex = threadIndex;
+        this.progress = progress;
+        this.importer = importer;
+    }
+
+    @Override
+    public String threadName() {
+        return "node-label-scan-" + scannerIndex;
+    }
+
+    @Override
+    public void accept(KernelTransaction transaction) {
+        Read read = transaction.dataRead();
+        CursorFactory cursors = transaction.cursors();
+        HugeLongArray nodeIds = candidates.nodeIds;
+        long candidateCount = candidates.size;
+        NodeRecord record = nodeStore.newRecord();
+        NodesBatchBuffer batches = new NodesBatchBuffer(
+                nodeStore,
+                NO_LABEL_FILTER,
+                batchSize,
+                importer.readsProperties()
+        );
+        try (PageCursor pageCursor = nodeStore.openPageCursorForReading(0L)) {
+            ImportProgress progress = this.progress;
+            long start;
+            while ((start = nextBatch.getAndAdd(batchSize)) < candidateCount) {
+                terminationFlag.assertRunning();
+                long end = Math.min(start + batchSize, candidateCount);
+                batches.reset();
+                // ids are ascending, so the page cursor only ever moves forward within a batch
+                for (long index = start; index < end; index++) {
+                    long nodeId = nodeIds.get(index);
+                    nodeStore.getRecordByCursor(nodeId, record, RecordLoad.CHECK, pageCursor);
+                    if (record.inUse()) {
+                        batches.add(nodeId, record.getNextProp());
+                    }
+                }
+                long imported = importer.importNodes(batches, read, cursors);
+                int batchImportedNodes = RawValues.getHead(imported);
+                int batchImportedProperties = RawValues.getTail(imported);
+                progress.nodesImported(batchImportedNodes);
+                nodesImported += batchImportedNodes;
+                propertiesImported += batchImportedProperties;
+            }
+        }
+    }
+
+    @Override
+    public long propertiesImported() {
+        return propertiesImported;
+    }
+
+    @Override
+    public long recordsImported() {
+        return nodesImported;
+    }
+
+    private static final class CandidatesReader extends StatementFunction<Candidates> {
+        private final LongSet labels;
+        private final long maxCandidates;
+        private final AllocationTracker tracker;
+
+        CandidatesReader(GraphDatabaseAPI api, LongSet labels, long maxCandidates, AllocationTracker tracker) {
+            super(api);
+            this.labels = labels;
+            this.maxCandidates = maxCandidates;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public String threadName() {
+            return "node-label-index-read";
+        }
+
+        @Override
+        public Candidates apply(KernelTransaction transaction) {
+            Read read = transaction.dataRead();
+            CursorFactory cursorFactory = transaction.cursors();
+
+            int labelCount = labels.size();
+            NodeLabelIndexCursor[] cursors = new NodeLabelIndexCursor[labelCount];
+            long[] heads = new long[labelCount];
+            int index = 0;
+            for (LongCursor label : labels) {
+                NodeLabelIndexCursor cursor = cursorFactory.allocateNodeLabelIndexCursor();
+                read.nodeLabelScan((int) label.value, cursor);
+                cursors[index] = cursor;
+                heads[index] = cursor.next() ? cursor.nodeReference() : -1L;
+                index++;
+            }
+
+            HugeLongArray nodeIds = HugeLongArray.newArray(maxCandidates, tracker);
+            long size = 0L;
+            try {
+                // every label yields ascending ids, merge them into a single ascending run
+                // and drop nodes that carry more than one of the selected labels
+                long lastNodeId = -1L;
+                while (size < maxCandidates) {
+                    int minIndex = -1;
+                    long minNodeId = Long.MAX_VALUE;
+                    for (int i = 0; i < labelCount; i++) {
+                        long head = heads[i];
+                        if (head != -1L && head < minNodeId) {
+                            minNodeId = head;
+                            minIndex = i;
+                        }
+                    }
+                    if (minIndex == -1) {
+                        break;
+                    }
+                    if (minNodeId != lastNodeId) {
+                        nodeIds.set(size++, minNodeId);
+                        lastNodeId = minNodeId;
+                    }
+                    NodeLabelIndexCursor cursor = cursors[minIndex];
+                    heads[minIndex] = cursor.next() ? cursor.nodeReference() : -1L;
+                }
+            } finally {
+                for (NodeLabelIndexCursor cursor : cursors) {
+                    cursor.close();
+                }
+            }
+            return new Candidates(nodeIds, size);
+        }
+    }
+}
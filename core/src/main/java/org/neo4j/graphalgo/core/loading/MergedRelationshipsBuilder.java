@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.LongsRef;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
+import org.neo4j.graphalgo.core.Aggregation;
+import org.neo4j.graphalgo.core.huge.AdjacencyOffsets;
+import org.neo4j.graphalgo.core.huge.MergingAdjacencyCursor;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfLongArray;
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfObjectArray;
+
+/**
+ * Compresses the merged adjacency of multiple relationship types into a single adjacency list.
+ * The nodes are split into pages like during an import, every page is merged and compressed by its own task.
+ */
+public final class MergedRelationshipsBuilder {
+
+    private static final Aggregation[] NO_AGGREGATION = {Aggregation.NONE};
+    private static final long[][] NO_PROPERTIES = new long[0][];
+
+    private MergedRelationshipsBuilder() {}
+
+    /**
+     * @param cursors creates a new cursor over the merged adjacency for every task
+     */
+    public static Relationships build(
+        Supplier<MergingAdjacencyCursor> cursors,
+        long nodeCount,
+        AdjacencyEncoding encoding,
+        int concurrency,
+        AllocationTracker tracker
+    ) {
+        ImportSizing sizing = ImportSizing.of(concurrency, nodeCount);
+        int pageSize = sizing.pageSize();
+        int numberOfPages = sizing.numberOfPages();
+        long[][] offsets = new long[numberOfPages][];
+        tracker.add(sizeOfObjectArray(numberOfPages) + numberOfPages * sizeOfLongArray(pageSize));
+
+        AdjacencyListBuilder adjacencyBuilder = AdjacencyListBuilder.newBuilder(tracker);
+        LongAdder relationshipCount = new LongAdder();
+        Collection<Runnable> tasks = new ArrayList<>(numberOfPages);
+        for (int page = 0; page < numberOfPages; page++) {
+            long startNode = (long) page * pageSize;
+            long endNode = Math.min(nodeCount, startNode + pageSize);
+            long[] pageOffsets = offsets[page] = new long[pageSize];
+            tasks.add(() -> relationshipCount.add(buildPage(
+                cursors.get(),
+                startNode,
+                endNode,
+                encoding,
+                adjacencyBuilder.newAllocator(),
+                pageOffsets
+            )));
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, Pools.DEFAULT);
+
+        long count = relationshipCount.sum();
+        return new Relationships(
+            count,
+            count,
+            null,
+            adjacencyBuilder.build(encoding),
+            null,
+            AdjacencyOffsets.of(offsets, pageSize),
+            Optional.empty(),
+            null,
+            null,
+            null,
+            null
+        );
+    }
+
+    private static long buildPage(
+        MergingAdjacencyCursor cursor,
+        long startNode,
+        long endNode,
+        AdjacencyEncoding encoding,
+        AdjacencyListBuilder.Allocator allocator,
+        long[] offsets
+    ) {
+        ThreadLocalRelationshipsBuilder builder = new ThreadLocalRelationshipsBuilder(
+            NO_AGGREGATION,
+            encoding,
+            allocator,
+            new AdjacencyListBuilder.Allocator[0],
+            offsets,
+            NO_PROPERTIES
+        );
+        builder.prepare();
+
+        CompressionBuffers buffers = new CompressionBuffers();
+        LongsRef targets = new LongsRef();
+        long relationshipCount = 0L;
+        for (long nodeId = startNode; nodeId < endNode; nodeId++) {
+            cursor.init(nodeId);
+            int maxDegree = cursor.remaining();
+            if (maxDegree == 0) {
+                continue;
+            }
+            if (targets.longs.length < maxDegree) {
+                targets.longs = new long[ArrayUtil.oversize(maxDegree, Long.BYTES)];
+            }
+            int degree = 0;
+            while (cursor.hasNext()) {
+                targets.longs[degree++] = cursor.next();
+            }
+            targets.length = degree;
+            relationshipCount += builder.applyVariableDeltaEncoding(
+                targets,
+                NO_PROPERTIES,
+                buffers,
+                (int) (nodeId - startNode)
+            );
+        }
+        return relationshipCount;
+    }
+}
@@ -26,6 +26,7 @@ import org.neo4j.graphalgo.core.utils.paged.HugeLongArrayBuilder;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.values.storable.IntegralValue;
 import org.neo4j.values.storable.Value;
 
 import java.util.Collection;
@@ -113,9 +114,13 @@ public class NodeImporter {
                 NodePropertiesBuilder props = nodeProperties.get(pc.propertyKey());
                 if (props != null) {
                     Value value = pc.propertyValue();
-                    double defaultValue = props.defaultValue();
-                    double propertyValue = ReadHelper.extractValue(value, defaultValue);
-                    props.set(internalId, propertyValue);
+                    if (value instanceof IntegralValue) {
+                        props.set(internalId, ((IntegralValue) value).longValue());
+                    } else {
+                        double defaultValue = props.defaultValue();
+                        double propertyValue = ReadHelper.extractValue(value, defaultValue);
+                        props.set(internalId, propertyValue);
+                    }
                     nodePropertiesRead++;
                 }
             }
@@ -131,7 +136,10 @@ public class NodeImporter {
         int nodePropertiesRead = 0;
         for (NodePropertiesBuilder props : nodePropertyBuilders) {
             Number propertyValue = properties.get(props.propertyKey());
-            if (propertyValue != null) {
+            if (propertyValue instanceof Long || propertyValue instanceof Integer) {
+                props.set(internalId, propertyValue.longValue());
+                nodePropertiesRead++;
+            } else if (propertyValue != null) {
                 props.set(internalId, propertyValue.doubleValue());
                 nodePropertiesRead++;
             }
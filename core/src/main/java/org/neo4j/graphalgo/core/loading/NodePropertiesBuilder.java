@@ -19,18 +19,34 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.LongLongCursor;
+import com.carrotsearch.hppc.procedures.LongDoubleProcedure;
 import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongLongMap;
 import org.neo4j.graphalgo.core.utils.paged.PagedLongDoubleMap;
 
+import java.util.Arrays;
+
 import static org.neo4j.graphalgo.compat.StatementConstantsProxy.NO_SUCH_PROPERTY_KEY;
 
 public final class NodePropertiesBuilder {
 
+    // a page of the hash map needs about this many bytes for every stored value
+    private static final long MAP_BYTES_PER_VALUE = 16L;
+    private static final int MAX_DICTIONARY_SIZE = 255;
+    // integral values of up to this magnitude can be stored in a double without loss
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private final long numberOfNodes;
+    private final AllocationTracker tracker;
     private final double defaultValue;
     private final int propertyId;
     private final PagedLongDoubleMap properties;
     private final String propertyKey;
+    // integral values that would lose precision as double
+    private HugeLongLongMap largeValues;
 
     public static NodePropertiesBuilder of(
             long numberOfNodes,
@@ -40,14 +56,18 @@ public final class NodePropertiesBuilder {
             String propertyKey) {
         assert propertyId != NO_SUCH_PROPERTY_KEY;
         PagedLongDoubleMap properties = PagedLongDoubleMap.of(numberOfNodes, tracker);
-        return new NodePropertiesBuilder(defaultValue, propertyId, properties, propertyKey);
+        return new NodePropertiesBuilder(numberOfNodes, tracker, defaultValue, propertyId, properties, propertyKey);
     }
 
     private NodePropertiesBuilder(
+            final long numberOfNodes,
+            final AllocationTracker tracker,
             final double defaultValue,
             final int propertyId,
             final PagedLongDoubleMap properties,
             final String propertyKey) {
+        this.numberOfNodes = numberOfNodes;
+        this.tracker = tracker;
         this.defaultValue = defaultValue;
         this.propertyId = propertyId;
         this.properties = properties;
@@ -70,7 +90,123 @@ public final class NodePropertiesBuilder {
         properties.put(index, value);
     }
 
+    public void set(long index, long value) {
+        if (value >= -MAX_EXACT_DOUBLE && value <= MAX_EXACT_DOUBLE) {
+            properties.put(index, value);
+        } else {
+            setLargeValue(index, value);
+        }
+    }
+
+    private synchronized void setLargeValue(long index, long value) {
+        if (largeValues == null) {
+            largeValues = new HugeLongLongMap(tracker);
+        }
+        largeValues.put(index, value);
+    }
+
+    /**
+     * Builds the properties with the most compact representation for the values that have been set.
+     * Integral values are packed as dictionary codes, int offsets or longs, floating point values as floats,
+     * as long as a dense column is smaller than the hash map the values have been collected in.
+     * Otherwise, integral values that a double cannot represent exactly stay in a separate map of longs.
+     */
     public NodeProperties build() {
-        return new NodePropertyMap(properties, defaultValue);
+        ValueStatistics statistics = new ValueStatistics();
+        properties.forEach(statistics);
+        if (largeValues != null) {
+            for (LongLongCursor cursor : largeValues) {
+                statistics.apply(cursor.key, cursor.value);
+            }
+        }
+
+        PackedNodeProperties packed = pack(statistics);
+        if (packed == null) {
+            return new NodePropertyMap(properties, largeValues, defaultValue);
+        }
+
+        properties.forEach(packed::set);
+        properties.release();
+        if (largeValues != null) {
+            for (LongLongCursor cursor : largeValues) {
+                packed.set(cursor.key, cursor.value);
+            }
+            largeValues.release();
+            largeValues = null;
+        }
+        return packed;
+    }
+
+    private PackedNodeProperties pack(ValueStatistics statistics) {
+        long count = statistics.count;
+        if (count == 0L) {
+            return null;
+        }
+        long capacity = Math.max(numberOfNodes, statistics.highestIndex + 1L);
+        long mapSize = count * MAP_BYTES_PER_VALUE;
+        if (statistics.integral) {
+            long range = statistics.maxValue - statistics.minValue;
+            if (statistics.distinctValues != null && capacity < mapSize) {
+                long[] dictionary = statistics.distinctValues.toArray();
+                Arrays.sort(dictionary);
+                return PackedNodeProperties.dictionary(capacity, dictionary, defaultValue, count, statistics.maxValue, tracker);
+            }
+            // a negative range overflowed
+            if (range >= 0L && range < 0xFFFF_FFFFL && capacity * Integer.BYTES < mapSize) {
+                return PackedNodeProperties.ints(capacity, statistics.minValue, defaultValue, count, statistics.maxValue, tracker);
+            }
+            if (statistics.minValue != Long.MIN_VALUE && capacity * Long.BYTES < mapSize) {
+                return PackedNodeProperties.longs(capacity, defaultValue, count, statistics.maxValue, tracker);
+            }
+        } else if (statistics.floats && capacity * Float.BYTES < mapSize) {
+            return PackedNodeProperties.floats(capacity, defaultValue, count, statistics.maxValue, tracker);
+        }
+        return null;
+    }
+
+    private static final class ValueStatistics implements LongDoubleProcedure {
+        private long count;
+        private long highestIndex = -1L;
+        private boolean integral = true;
+        private boolean floats = true;
+        private long minValue = Long.MAX_VALUE;
+        private long maxValue = Long.MIN_VALUE;
+        private LongHashSet distinctValues = new LongHashSet();
+
+        @Override
+        public void apply(long index, double value) {
+            count++;
+            highestIndex = Math.max(highestIndex, index);
+            floats &= Double.isNaN(value) || (double) (float) value == value;
+            if (integral && value >= -0x1p63 && value < 0x1p63 && (long) value == value) {
+                acceptIntegral((long) value);
+            } else {
+                integral = false;
+                distinctValues = null;
+                maxValue = Math.max(maxValue, (long) value);
+            }
+        }
+
+        void apply(long index, long value) {
+            count++;
+            highestIndex = Math.max(highestIndex, index);
+            floats = false;
+            if (integral) {
+                acceptIntegral(value);
+            } else {
+                maxValue = Math.max(maxValue, value);
+            }
+        }
+
+        private void acceptIntegral(long value) {
+            minValue = Math.min(minValue, value);
+            maxValue = Math.max(maxValue, value);
+            if (distinctValues != null) {
+                distinctValues.add(value);
+                if (distinctValues.size() > MAX_DICTIONARY_SIZE) {
+                    distinctValues = null;
+                }
+            }
+        }
     }
 }
@@ -19,9 +19,11 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
+import com.carrotsearch.hppc.cursors.LongLongCursor;
 import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongLongMap;
 import org.neo4j.graphalgo.core.utils.paged.PagedLongDoubleMap;
 
 import java.util.OptionalLong;
@@ -33,7 +35,12 @@ public final class NodePropertyMap implements NodeProperties {
             .add("properties", PagedLongDoubleMap.memoryEstimation())
             .build();
 
+    // values of this magnitude are never stored in largeValues
+    private static final long NO_LARGE_VALUE = 0L;
+
     private PagedLongDoubleMap properties;
+    // integral values that would lose precision as double, if there are any
+    private HugeLongLongMap largeValues;
     private final double defaultValue;
 
     static MemoryEstimation memoryEstimation() {
@@ -41,27 +48,75 @@ public final class NodePropertyMap implements NodeProperties {
     }
 
     public NodePropertyMap(PagedLongDoubleMap properties, double defaultValue) {
+        this(properties, null, defaultValue);
+    }
+
+    /**
+     * @param largeValues integral values beyond the exact range of a double, keyed by node id, or {@code null}.
+     *                    Nodes that have a value in here must not have one in {@code properties}.
+     */
+    NodePropertyMap(PagedLongDoubleMap properties, HugeLongLongMap largeValues, double defaultValue) {
         this.properties = properties;
+        this.largeValues = largeValues;
         this.defaultValue = defaultValue;
     }
 
     @Override
     public double nodeProperty(long nodeId) {
-        return properties.getOrDefault(nodeId, defaultValue);
+        return nodeProperty(nodeId, defaultValue);
     }
 
     @Override
     public double nodeProperty(long nodeId, double defaultValue) {
+        if (largeValues != null) {
+            long value = largeValues.getOrDefault(nodeId, NO_LARGE_VALUE);
+            if (value != NO_LARGE_VALUE) {
+                return value;
+            }
+        }
         return properties.getOrDefault(nodeId, defaultValue);
     }
 
+    @Override
+    public long nodeLongProperty(long nodeId, long defaultValue) {
+        if (largeValues != null) {
+            long value = largeValues.getOrDefault(nodeId, NO_LARGE_VALUE);
+            if (value != NO_LARGE_VALUE) {
+                return value;
+            }
+        }
+        double value = properties.getOrDefault(nodeId, Double.NaN);
+        return Double.isNaN(value) ? defaultValue : (long) value;
+    }
+
+    @Override
+    public boolean hasNodeProperty(long nodeId) {
+        if (largeValues != null && largeValues.getOrDefault(nodeId, NO_LARGE_VALUE) != NO_LARGE_VALUE) {
+            return true;
+        }
+        return properties.containsKey(nodeId);
+    }
+
     @Override
     public OptionalLong getMaxPropertyValue() {
-        return properties.getMaxValue();
+        OptionalLong maxValue = properties.getMaxValue();
+        if (largeValues == null) {
+            return maxValue;
+        }
+        long max = maxValue.orElse(Long.MIN_VALUE);
+        for (LongLongCursor cursor : largeValues) {
+            max = Math.max(max, cursor.value);
+        }
+        return OptionalLong.of(max);
     }
 
     @Override
     public long release() {
+        if (largeValues != null) {
+            // removes itself from the allocation tracker
+            largeValues.release();
+            largeValues = null;
+        }
         if (properties != null) {
             long freed = properties.release();
             properties = null;
@@ -72,6 +127,6 @@ public final class NodePropertyMap implements NodeProperties {
 
     @Override
     public long size() {
-        return properties.size();
+        return largeValues == null ? properties.size() : properties.size() + largeValues.size();
     }
 }
@@ -30,7 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-class NodeRowVisitor implements Result.ResultVisitor<RuntimeException> {
+class NodeRowVisitor implements CypherRecordLoader.BatchVisitor {
     private static final String ID_COLUMN = "id";
     static final Set<String> RESERVED_COLUMNS = Sets.newHashSet(ID_COLUMN);
 
@@ -82,6 +82,12 @@ class NodeRowVisitor implements Result.ResultVisitor<RuntimeException> {
         return true;
     }
 
+    @Override
+    public BatchLoadResult complete(long offset) {
+        flush();
+        return new BatchLoadResult(offset, rows, maxNeoId, rows);
+    }
+
     void flush() {
         importer.importCypherNodes(buffer, cypherNodeProperties);
     }
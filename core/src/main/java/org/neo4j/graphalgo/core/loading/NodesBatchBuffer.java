@@ -54,7 +54,7 @@ public final class NodesBatchBuffer extends RecordsBatchBuffer<NodeRecord> {
         }
     }
 
-    // TODO: something label scan store
+    // selective label projections are served from the label scan store, see LabelScanNodesScanner
     private boolean hasCorrectLabel(final NodeRecord record) {
         if (nodeLabelIds.isEmpty()) {
             return true;
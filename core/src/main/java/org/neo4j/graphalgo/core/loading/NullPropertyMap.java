@@ -46,4 +46,9 @@ public class NullPropertyMap implements NodeProperties {
     public double nodeProperty(final long nodeId, final double defaultValue) {
         return defaultValue;
     }
+
+    @Override
+    public boolean hasNodeProperty(final long nodeId) {
+        return false;
+    }
 }
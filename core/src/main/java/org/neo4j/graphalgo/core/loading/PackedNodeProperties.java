@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.utils.BitUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Dense {@link NodeProperties} that store every value with as few bits as the loaded values allow.
+ * The values are packed into the words of a {@link HugeLongArray}, one code per node,
+ * where a reserved code marks nodes without a property.
+ */
+abstract class PackedNodeProperties implements NodeProperties {
+
+    final long capacity;
+    private final double defaultValue;
+    private final long size;
+    private final long maxValue;
+    HugeLongArray words;
+
+    /**
+     * Stores up to 255 distinct integral values as one byte dictionary code per node.
+     */
+    static PackedNodeProperties dictionary(
+            long capacity,
+            long[] dictionary,
+            double defaultValue,
+            long size,
+            long maxValue,
+            AllocationTracker tracker) {
+        return new Dictionary(capacity, dictionary, defaultValue, size, maxValue, tracker);
+    }
+
+    /**
+     * Stores integral values within a range of less than {@code 2^32 - 1} as an offset to the minimum value.
+     */
+    static PackedNodeProperties ints(
+            long capacity,
+            long minValue,
+            double defaultValue,
+            long size,
+            long maxValue,
+            AllocationTracker tracker) {
+        return new Ints(capacity, minValue, defaultValue, size, maxValue, tracker);
+    }
+
+    /**
+     * Stores arbitrary integral values except for {@link Long#MIN_VALUE}.
+     */
+    static PackedNodeProperties longs(
+            long capacity,
+            double defaultValue,
+            long size,
+            long maxValue,
+            AllocationTracker tracker) {
+        return new Longs(capacity, defaultValue, size, maxValue, tracker);
+    }
+
+    /**
+     * Stores floating point values that can be represented as float without loss.
+     */
+    static PackedNodeProperties floats(
+            long capacity,
+            double defaultValue,
+            long size,
+            long maxValue,
+            AllocationTracker tracker) {
+        return new Floats(capacity, defaultValue, size, maxValue, tracker);
+    }
+
+    private PackedNodeProperties(
+            long capacity,
+            long words,
+            double defaultValue,
+            long size,
+            long maxValue,
+            AllocationTracker tracker) {
+        this.capacity = capacity;
+        this.words = HugeLongArray.newArray(words, tracker);
+        this.defaultValue = defaultValue;
+        this.size = size;
+        this.maxValue = maxValue;
+    }
+
+    abstract void set(long nodeId, long value);
+
+    abstract void set(long nodeId, double value);
+
+    @Override
+    public double nodeProperty(long nodeId) {
+        return nodeProperty(nodeId, defaultValue);
+    }
+
+    @Override
+    public OptionalLong getMaxPropertyValue() {
+        return size > 0L ? OptionalLong.of(maxValue) : OptionalLong.empty();
+    }
+
+    @Override
+    public long release() {
+        if (words != null) {
+            long freed = words.release();
+            words = null;
+            return freed;
+        }
+        return 0L;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    private static final class Dictionary extends PackedNodeProperties {
+
+        private static final long CODE_MASK = 0xFFL;
+
+        private final long[] dictionary;
+
+        private Dictionary(
+                long capacity,
+                long[] dictionary,
+                double defaultValue,
+                long size,
+                long maxValue,
+                AllocationTracker tracker) {
+            super(capacity, BitUtil.ceilDiv(capacity, Long.BYTES), defaultValue, size, maxValue, tracker);
+            assert dictionary.length <= CODE_MASK;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        void set(long nodeId, long value) {
+            // code 0 is reserved for missing values
+            long code = Arrays.binarySearch(dictionary, value) + 1L;
+            assert code > 0L;
+            words.or(nodeId >>> 3, code << shift(nodeId));
+        }
+
+        @Override
+        void set(long nodeId, double value) {
+            set(nodeId, (long) value);
+        }
+
+        @Override
+        public double nodeProperty(long nodeId, double defaultValue) {
+            int code = code(nodeId);
+            return code == 0 ? defaultValue : dictionary[code - 1];
+        }
+
+        @Override
+        public long nodeLongProperty(long nodeId, long defaultValue) {
+            int code = code(nodeId);
+            return code == 0 ? defaultValue : dictionary[code - 1];
+        }
+
+        @Override
+        public boolean hasNodeProperty(long nodeId) {
+            return code(nodeId) != 0;
+        }
+
+        private int code(long nodeId) {
+            if (nodeId >= capacity) {
+                return 0;
+            }
+            return (int) ((words.get(nodeId >>> 3) >>> shift(nodeId)) & CODE_MASK);
+        }
+
+        private static int shift(long nodeId) {
+            return (int) (nodeId & 7L) << 3;
+        }
+    }
+
+    private static final class Ints extends PackedNodeProperties {
+
+        private static final long CODE_MASK = 0xFFFF_FFFFL;
+
+        private final long minValue;
+
+        private Ints(
+                long capacity,
+                long minValue,
+                double defaultValue,
+                long size,
+                long maxValue,
+                AllocationTracker tracker) {
+            super(capacity, BitUtil.ceilDiv(capacity, 2L), defaultValue, size, maxValue, tracker);
+            this.minValue = minValue;
+        }
+
+        @Override
+        void set(long nodeId, long value) {
+            // code 0 is reserved for missing values
+            long code = value - minValue + 1L;
+            assert code > 0L && code <= CODE_MASK;
+            words.or(nodeId >>> 1, code << shift(nodeId));
+        }
+
+        @Override
+        void set(long nodeId, double value) {
+            set(nodeId, (long) value);
+        }
+
+        @Override
+        public double nodeProperty(long nodeId, double defaultValue) {
+            long code = code(nodeId);
+            return code == 0L ? defaultValue : minValue + code - 1L;
+        }
+
+        @Override
+        public long nodeLongProperty(long nodeId, long defaultValue) {
+            long code = code(nodeId);
+            return code == 0L ? defaultValue : minValue + code - 1L;
+        }
+
+        @Override
+        public boolean hasNodeProperty(long nodeId) {
+            return code(nodeId) != 0L;
+        }
+
+        private long code(long nodeId) {
+            if (nodeId >= capacity) {
+                return 0L;
+            }
+            return (words.get(nodeId >>> 1) >>> shift(nodeId)) & CODE_MASK;
+        }
+
+        private static int shift(long nodeId) {
+            return (int) (nodeId & 1L) << 5;
+        }
+    }
+
+    private static final class Longs extends PackedNodeProperties {
+
+        private static final long NO_VALUE = Long.MIN_VALUE;
+
+        private Longs(
+                long capacity,
+                double defaultValue,
+                long size,
+                long maxValue,
+                AllocationTracker tracker) {
+            super(capacity, capacity, defaultValue, size, maxValue, tracker);
+            words.fill(NO_VALUE);
+        }
+
+        @Override
+        void set(long nodeId, long value) {
+            assert value != NO_VALUE;
+            words.set(nodeId, value);
+        }
+
+        @Override
+        void set(long nodeId, double value) {
+            set(nodeId, (long) value);
+        }
+
+        @Override
+        public double nodeProperty(long nodeId, double defaultValue) {
+            long value = nodeId < capacity ? words.get(nodeId) : NO_VALUE;
+            return value == NO_VALUE ? defaultValue : value;
+        }
+
+        @Override
+        public long nodeLongProperty(long nodeId, long defaultValue) {
+            long value = nodeId < capacity ? words.get(nodeId) : NO_VALUE;
+            return value == NO_VALUE ? defaultValue : value;
+        }
+
+        @Override
+        public boolean hasNodeProperty(long nodeId) {
+            return nodeId < capacity && words.get(nodeId) != NO_VALUE;
+        }
+    }
+
+    private static final class Floats extends PackedNodeProperties {
+
+        // a NaN that differs from the canonical NaN of Float.floatToIntBits
+        private static final int NO_VALUE = 0x7FC0_0001;
+        private static final long CODE_MASK = 0xFFFF_FFFFL;
+
+        private Floats(
+                long capacity,
+                double defaultValue,
+                long size,
+                long maxValue,
+                AllocationTracker tracker) {
+            super(capacity, BitUtil.ceilDiv(capacity, 2L), defaultValue, size, maxValue, tracker);
+            words.fill((NO_VALUE & CODE_MASK) | ((long) NO_VALUE << 32));
+        }
+
+        @Override
+        void set(long nodeId, long value) {
+            set(nodeId, (double) value);
+        }
+
+        @Override
+        void set(long nodeId, double value) {
+            long bits = Float.floatToIntBits((float) value) & CODE_MASK;
+            long wordIndex = nodeId >>> 1;
+            int shift = shift(nodeId);
+            long word = words.get(wordIndex) & ~(CODE_MASK << shift);
+            words.set(wordIndex, word | (bits << shift));
+        }
+
+        @Override
+        public double nodeProperty(long nodeId, double defaultValue) {
+            int bits = bits(nodeId);
+            return bits == NO_VALUE ? defaultValue : Float.intBitsToFloat(bits);
+        }
+
+        @Override
+        public long nodeLongProperty(long nodeId, long defaultValue) {
+            int bits = bits(nodeId);
+            return bits == NO_VALUE ? defaultValue : (long) Float.intBitsToFloat(bits);
+        }
+
+        @Override
+        public boolean hasNodeProperty(long nodeId) {
+            return bits(nodeId) != NO_VALUE;
+        }
+
+        private int bits(long nodeId) {
+            if (nodeId >= capacity) {
+                return NO_VALUE;
+            }
+            return (int) (words.get(nodeId >>> 1) >>> shift(nodeId));
+        }
+
+        private static int shift(long nodeId) {
+            return (int) (nodeId & 1L) << 5;
+        }
+    }
+}
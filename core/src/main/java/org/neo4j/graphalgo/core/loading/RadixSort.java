@@ -25,11 +25,16 @@ public final class RadixSort {
 
     private static final int RADIX = 8;
     private static final int HIST_SIZE = 1 << RADIX;
+    private static final int INSERTION_SORT_MAX_LENGTH = 32;
 
     public static int[] newHistogram(int length) {
         return new int[Math.max(length, 1 + HIST_SIZE)];
     }
 
+    public static int[] newPairsHistogram() {
+        return new int[2 * (1 + HIST_SIZE)];
+    }
+
     public static long[] newCopy(long[] data) {
         return new long[data.length];
     }
@@ -113,4 +118,92 @@ public final class RadixSort {
         System.arraycopy(copy, 0, data, 0, dlen);
         radixSort(data, copy, histogram, length, shift + RADIX);
     }
+
+    /**
+     * Sorts the first {@code length} {@code keys} ascending, as unsigned values, and moves the entries
+     * of every array in {@code values} along with their key. The sort is stable.
+     * <p>
+     * Short inputs are insertion sorted in place. Longer inputs are radix sorted, skipping all bytes
+     * in which no two keys differ. {@code keyCopy} and the arrays in {@code valueCopies} are scratch space
+     * of at least {@code length} elements, the histogram has to be created by {@link #newPairsHistogram()}.
+     */
+    public static void radixSortPairs(
+            long[] keys,
+            long[][] values,
+            long[] keyCopy,
+            long[][] valueCopies,
+            int[] histogram,
+            int length) {
+        if (length <= INSERTION_SORT_MAX_LENGTH) {
+            insertionSortPairs(keys, values, length);
+            return;
+        }
+
+        long first = keys[0];
+        long differentBits = 0L;
+        for (int i = 1; i < length; i++) {
+            differentBits |= keys[i] ^ first;
+        }
+
+        int starts = 1 + HIST_SIZE;
+        boolean sortedIntoCopy = false;
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX) {
+            if (((differentBits >>> shift) & 0xFFL) == 0L) {
+                continue;
+            }
+            long[] keysIn = sortedIntoCopy ? keyCopy : keys;
+            long[] keysOut = sortedIntoCopy ? keys : keyCopy;
+
+            Arrays.fill(histogram, 0, 1 + HIST_SIZE, 0);
+            for (int i = 0; i < length; i++) {
+                histogram[1 + (int) ((keysIn[i] >>> shift) & 0xFFL)]++;
+            }
+            for (int i = 0; i < HIST_SIZE; i++) {
+                histogram[i + 1] += histogram[i];
+            }
+
+            for (int v = 0; v < values.length; v++) {
+                long[] valuesIn = sortedIntoCopy ? valueCopies[v] : values[v];
+                long[] valuesOut = sortedIntoCopy ? values[v] : valueCopies[v];
+                System.arraycopy(histogram, 0, histogram, starts, HIST_SIZE);
+                for (int i = 0; i < length; i++) {
+                    int out = histogram[starts + (int) ((keysIn[i] >>> shift) & 0xFFL)]++;
+                    valuesOut[out] = valuesIn[i];
+                }
+            }
+            for (int i = 0; i < length; i++) {
+                int out = histogram[(int) ((keysIn[i] >>> shift) & 0xFFL)]++;
+                keysOut[out] = keysIn[i];
+            }
+            sortedIntoCopy = !sortedIntoCopy;
+        }
+
+        if (sortedIntoCopy) {
+            System.arraycopy(keyCopy, 0, keys, 0, length);
+            for (int v = 0; v < values.length; v++) {
+                System.arraycopy(valueCopies[v], 0, values[v], 0, length);
+            }
+        }
+    }
+
+    private static void insertionSortPairs(long[] keys, long[][] values, int length) {
+        for (int i = 1; i < length; i++) {
+            long key = keys[i];
+            int j = i - 1;
+            if (Long.compareUnsigned(keys[j], key) <= 0) {
+                continue;
+            }
+            while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+                j--;
+            }
+            int insertAt = j + 1;
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, i - insertAt);
+            keys[insertAt] = key;
+            for (long[] value : values) {
+                long moved = value[i];
+                System.arraycopy(value, insertAt, value, insertAt + 1, i - insertAt);
+                value[insertAt] = moved;
+            }
+        }
+    }
 }
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.StatementAction;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.RelationshipGroupCursor;
+import org.neo4j.internal.kernel.api.RelationshipTraversalCursor;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Imports relationships of selective projections by following the relationship chains
+ * of the already imported nodes instead of scanning the whole relationship store.
+ * <p>
+ * Every relationship is imported from the chain of its start node.
+ * Dense nodes only visit the relationship groups of the projected types.
+ * Sparse nodes have to walk their full chain, as there are no group records to skip to.
+ * Importer threads claim ranges of mapped node ids that match the pages of the adjacency builders,
+ * so that most pages are only ever written by a single thread.
+ */
+final class RelationshipChainsScanner extends StatementAction implements RecordScanner {
+
+    static InternalImporter.CreateScanner of(
+            GraphDatabaseAPI api,
+            GraphSetup setup,
+            ImportProgress progress,
+            IdMapping idMap,
+            int nodeBatchSize,
+            int bulkSize,
+            boolean loadWeights,
+            Collection<SingleTypeRelationshipImporter.Builder> importerBuilders) {
+        List<SingleTypeRelationshipImporter.Builder.WithImporter> builders =
+                RelationshipsScanner.loadImporters(importerBuilders, loadWeights);
+        if (builders.isEmpty()) {
+            return InternalImporter.createEmptyScanner();
+        }
+        return new RelationshipChainsScanner.Creator(
+                api,
+                progress,
+                idMap,
+                nodeBatchSize,
+                bulkSize,
+                builders,
+                setup.terminationFlag()
+        );
+    }
+
+    static final class Creator implements InternalImporter.CreateScanner {
+        private final GraphDatabaseAPI api;
+        private final ImportProgress progress;
+        private final IdMapping idMap;
+        private final int nodeBatchSize;
+        private final int bulkSize;
+        private final AtomicLong nextNodeBatch;
+        private final List<SingleTypeRelationshipImporter.Builder.WithImporter> importerBuilders;
+        private final TerminationFlag terminationFlag;
+
+        Creator(
+                GraphDatabaseAPI api,
+                ImportProgress progress,
+                IdMapping idMap,
+                int nodeBatchSize,
+                int bulkSize,
+                List<SingleTypeRelationshipImporter.Builder.WithImporter> importerBuilders,
+                TerminationFlag terminationFlag) {
+            this.api = api;
+            this.progress = progress;
+            this.idMap = idMap;
+            this.nodeBatchSize = nodeBatchSize;
+            this.bulkSize = bulkSize;
+            this.nextNodeBatch = new AtomicLong();
+            this.importerBuilders = importerBuilders;
+            this.terminationFlag = terminationFlag;
+        }
+
+        @Override
+        public RecordScanner create(final int index) {
+            return new RelationshipChainsScanner(
+                    api,
+                    terminationFlag,
+                    progress,
+                    idMap,
+                    nodeBatchSize,
+                    bulkSize,
+                    nextNodeBatch,
+                    index,
+                    importerBuilders
+            );
+        }
+
+        @Override
+        public Collection<Runnable> flushTasks() {
+            return importerBuilders.stream()
+                    .flatMap(SingleTypeRelationshipImporter.Builder.WithImporter::flushTasks)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private final TerminationFlag terminationFlag;
+    private final ImportProgress progress;
+    private final IdMapping idMap;
+    private final int nodeBatchSize;
+    private final int bulkSize;
+    private final AtomicLong nextNodeBatch;
+    private final int scannerIndex;
+    private final List<SingleTypeRelationshipImporter.Builder.WithImporter> importerBuilders;
+
+    private SingleTypeRelationshipImporter[] importers;
+    private int[] types;
+
+    private long relationshipsImported;
+    private long weightsImported;
+
+    private RelationshipChainsScanner(
+            GraphDatabaseAPI api,
+            TerminationFlag terminationFlag,
+            ImportProgress progress,
+            IdMapping idMap,
+            int nodeBatchSize,
+            int bulkSize,
+            AtomicLong nextNodeBatch,
+            int threadIndex,
+            List<SingleTypeRelationshipImporter.Builder.WithImporter> importerBuilders) {
+        super(api);
+        this.terminationFlag = terminationFlag;
+        this.progress = progress;
+        this.idMap = idMap;
+        this.nodeBatchSize = nodeBatchSize;
+        this.bulkSize = bulkSize;
+        this.nextNodeBatch = nextNodeBatch;
+        this.scannerIndex = threadIndex;
+        this.importerBuilders = importerBuilders;
+    }
+
+    @Override
+    public String threadName() {
+        return "relationship-chain-scan-" + scannerIndex;
+    }
+
+    @Override
+    public void accept(final KernelTransaction transaction) {
+        scanChains(transaction.dataRead(), transaction.cursors());
+    }
+
+    private void scanChains(final Read read, final CursorFactory cursors) {
+        importers = importerBuilders.stream()
+                .map(imports -> imports.withBuffer(idMap, bulkSize, read, cursors))
+                .toArray(SingleTypeRelationshipImporter[]::new);
+        types = new int[importers.length];
+        for (int i = 0; i < importers.length; i++) {
+            types[i] = importers[i].buffer().type();
+        }
+
+        try (NodeCursor nodeCursor = cursors.allocateNodeCursor();
+             RelationshipGroupCursor groupCursor = cursors.allocateRelationshipGroupCursor();
+             RelationshipTraversalCursor traversalCursor = cursors.allocateRelationshipTraversalCursor()) {
+            long nodeCount = idMap.nodeCount();
+            long start;
+            while ((start = nextNodeBatch.getAndAdd(nodeBatchSize)) < nodeCount) {
+                terminationFlag.assertRunning();
+                long end = Math.min(start + nodeBatchSize, nodeCount);
+                for (long nodeId = start; nodeId < end; nodeId++) {
+                    long neoId = idMap.toOriginalNodeId(nodeId);
+                    read.singleNode(neoId, nodeCursor);
+                    if (!nodeCursor.next()) {
+                        continue;
+                    }
+                    if (nodeCursor.isDense()) {
+                        scanGroups(nodeId, nodeCursor, groupCursor, traversalCursor);
+                    } else {
+                        scanChain(nodeId, neoId, nodeCursor, traversalCursor);
+                    }
+                }
+            }
+            for (int i = 0; i < importers.length; i++) {
+                flush(i);
+            }
+        }
+    }
+
+    private void scanGroups(
+            long nodeId,
+            NodeCursor nodeCursor,
+            RelationshipGroupCursor groupCursor,
+            RelationshipTraversalCursor traversalCursor) {
+        nodeCursor.relationships(groupCursor);
+        while (groupCursor.next()) {
+            if (isProjected(groupCursor.type())) {
+                groupCursor.outgoing(traversalCursor);
+                while (traversalCursor.next()) {
+                    offer(nodeId, traversalCursor);
+                }
+                groupCursor.loops(traversalCursor);
+                while (traversalCursor.next()) {
+                    offer(nodeId, traversalCursor);
+                }
+            }
+        }
+    }
+
+    private void scanChain(
+            long nodeId,
+            long neoId,
+            NodeCursor nodeCursor,
+            RelationshipTraversalCursor traversalCursor) {
+        nodeCursor.allRelationships(traversalCursor);
+        while (traversalCursor.next()) {
+            // incoming relationships are imported from the chain of their start node
+            if (traversalCursor.sourceNodeReference() == neoId) {
+                offer(nodeId, traversalCursor);
+            }
+        }
+    }
+
+    private boolean isProjected(int type) {
+        for (int projectedType : types) {
+            if (projectedType == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void offer(long sourceId, RelationshipTraversalCursor traversalCursor) {
+        int type = traversalCursor.type();
+        long targetId = -1L;
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] != type) {
+                continue;
+            }
+            if (targetId == -1L) {
+                targetId = idMap.toMappedNodeId(traversalCursor.targetNodeReference());
+                if (targetId == -1L) {
+                    return;
+                }
+            }
+            RelationshipsBatchBuffer buffer = importers[i].buffer();
+            if (buffer.isFull()) {
+                flush(i);
+            }
+            buffer.add(
+                    sourceId,
+                    targetId,
+                    traversalCursor.relationshipReference(),
+                    traversalCursor.propertiesReference()
+            );
+        }
+    }
+
+    private void flush(int importerIndex) {
+        SingleTypeRelationshipImporter importer = importers[importerIndex];
+        if (importer.buffer().length() == 0) {
+            return;
+        }
+        long imported = importer.importRels();
+        int importedRels = RawValues.getHead(imported);
+        int importedWeights = RawValues.getTail(imported);
+        progress.relationshipsImported(importedRels);
+        relationshipsImported += importedRels;
+        weightsImported += importedWeights;
+        importer.buffer().reset();
+    }
+
+    @Override
+    public long propertiesImported() {
+        return weightsImported;
+    }
+
+    @Override
+    public long recordsImported() {
+        return relationshipsImported;
+    }
+}
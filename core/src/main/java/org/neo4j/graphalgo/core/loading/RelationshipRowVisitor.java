@@ -30,7 +30,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
-class RelationshipRowVisitor implements Result.ResultVisitor<RuntimeException> {
+class RelationshipRowVisitor implements CypherRecordLoader.BatchVisitor {
 
     private static final long NO_RELATIONSHIP_REFERENCE = -1L;
     private static final String SOURCE_COLUMN = "source";
@@ -218,6 +218,12 @@ class RelationshipRowVisitor implements Result.ResultVisitor<RuntimeException> {
         localRelationshipIds.put(relationshipType, 0);
     }
 
+    @Override
+    public BatchLoadResult complete(long offset) {
+        flushAll();
+        return new BatchLoadResult(offset, rows, -1L, relationshipCount);
+    }
+
     void flushAll() {
         relationshipCount += localImporters.values().stream()
             .mapToLong(SingleTypeRelationshipImporter::importRels)
@@ -82,6 +82,10 @@ public final class RelationshipsBatchBuffer extends RecordsBatchBuffer<Relations
         this.length = 4 + position;
     }
 
+    int type() {
+        return type;
+    }
+
     long[] sortBySource() {
         RadixSort.radixSort(buffer, sortCopy, histogram, length);
         return buffer;
@@ -19,7 +19,7 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
-
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.Aggregation;
 import org.neo4j.graphalgo.core.huge.AdjacencyList;
 import org.neo4j.graphalgo.core.huge.AdjacencyOffsets;
@@ -32,8 +32,11 @@ public class RelationshipsBuilder {
     private static final AdjacencyListBuilder[] EMPTY_WEIGHTS = new AdjacencyListBuilder[0];
 
     private final Aggregation[] aggregations;
+    private final AdjacencyEncoding encoding;
     final AdjacencyListBuilder adjacencyListBuilder;
     final AdjacencyListBuilder[] propertyBuilders;
+    private final AdjacencyList[] properties;
+    private final AllocationTracker tracker;
 
     AdjacencyOffsets globalAdjacencyOffsets;
     AdjacencyOffsets[] globalPropertyOffsets;
@@ -42,6 +45,15 @@ public class RelationshipsBuilder {
         Aggregation[] aggregations,
         AllocationTracker tracker,
         int numberOfRelationshipProperties
+    ) {
+        this(aggregations, tracker, numberOfRelationshipProperties, AdjacencyEncoding.VAR_LONG);
+    }
+
+    public RelationshipsBuilder(
+        Aggregation[] aggregations,
+        AllocationTracker tracker,
+        int numberOfRelationshipProperties,
+        AdjacencyEncoding encoding
     ) {
         if (Arrays.stream(aggregations).anyMatch(d -> d == Aggregation.DEFAULT)) {
             throw new IllegalArgumentException(String.format(
@@ -50,30 +62,45 @@ public class RelationshipsBuilder {
             ));
         }
         this.aggregations = aggregations;
+        this.encoding = encoding;
+        this.tracker = tracker;
         adjacencyListBuilder = AdjacencyListBuilder.newBuilder(tracker);
-        if (numberOfRelationshipProperties > 0) {
-            propertyBuilders = new AdjacencyListBuilder[numberOfRelationshipProperties];
-            // TODO: can we avoid to create an allocator/complete adjacency list
-            //  if we know that the property does not exist?
-            Arrays.setAll(propertyBuilders, i -> AdjacencyListBuilder.newBuilder(tracker));
-        } else {
-            propertyBuilders = EMPTY_WEIGHTS;
-        }
+        // property builders are created once the first importer writes the property,
+        // properties that do not exist are never written and do not allocate any pages
+        propertyBuilders = numberOfRelationshipProperties > 0
+            ? new AdjacencyListBuilder[numberOfRelationshipProperties]
+            : EMPTY_WEIGHTS;
+        properties = new AdjacencyList[propertyBuilders.length];
     }
 
     final ThreadLocalRelationshipsBuilder threadLocalRelationshipsBuilder(
             long[] adjacencyOffsets,
             long[][] weightOffsets) {
+        AdjacencyListBuilder.Allocator[] propertyAllocators = new AdjacencyListBuilder.Allocator[propertyBuilders.length];
+        for (int i = 0; i < propertyBuilders.length; i++) {
+            // offsets are only allocated for properties that exist
+            if (i < weightOffsets.length && weightOffsets[i] != null) {
+                propertyAllocators[i] = propertyBuilder(i).newAllocator();
+            }
+        }
         return new ThreadLocalRelationshipsBuilder(
             aggregations,
+                encoding,
                 adjacencyListBuilder.newAllocator(),
-                Arrays.stream(propertyBuilders)
-                        .map(AdjacencyListBuilder::newAllocator)
-                        .toArray(AdjacencyListBuilder.Allocator[]::new),
+                propertyAllocators,
                 adjacencyOffsets,
                 weightOffsets);
     }
 
+    private synchronized AdjacencyListBuilder propertyBuilder(int propertyIndex) {
+        AdjacencyListBuilder builder = propertyBuilders[propertyIndex];
+        if (builder == null) {
+            builder = AdjacencyListBuilder.newBuilder(tracker);
+            propertyBuilders[propertyIndex] = builder;
+        }
+        return builder;
+    }
+
     final void setGlobalAdjacencyOffsets(AdjacencyOffsets globalAdjacencyOffsets) {
         this.globalAdjacencyOffsets = globalAdjacencyOffsets;
     }
@@ -82,24 +109,51 @@ public class RelationshipsBuilder {
         this.globalPropertyOffsets = globalPropertyOffsets;
     }
 
+    final void moveOffsetsOffHeap(AllocationTracker tracker) {
+        globalAdjacencyOffsets = AdjacencyOffsets.offHeap(globalAdjacencyOffsets, tracker);
+        if (globalPropertyOffsets != null) {
+            Arrays.setAll(
+                globalPropertyOffsets,
+                i -> AdjacencyOffsets.offHeap(globalPropertyOffsets[i], tracker)
+            );
+        }
+    }
+
     public AdjacencyList adjacencyList() {
-        return adjacencyListBuilder.build();
+        return adjacencyListBuilder.build(encoding);
     }
 
     public AdjacencyOffsets globalAdjacencyOffsets() {
         return globalAdjacencyOffsets;
     }
 
-    // TODO: This returns only the first of possibly multiple properties
+    /**
+     * Shorthand for {@link #properties(int)} of the first property, for builders that store at most one property.
+     */
     public AdjacencyList properties() {
-        return propertyBuilders.length > 0 ? propertyBuilders[0].build() : null;
+        return propertyBuilders.length > 0 ? properties(0) : null;
     }
 
-    public AdjacencyList properties(int propertyIndex) {
-        return propertyBuilders.length > 0 ? propertyBuilders[propertyIndex].build() : null;
+    /**
+     * Returns the values of the given property, in the order of the targets in {@link #adjacencyList()}.
+     * The list is built once, so that all graphs that are created for the same property share it;
+     * the topology itself is shared between all properties.
+     *
+     * @return the property values or null if the property has never been written
+     */
+    public synchronized AdjacencyList properties(int propertyIndex) {
+        if (propertyIndex >= propertyBuilders.length || propertyBuilders[propertyIndex] == null) {
+            return null;
+        }
+        if (properties[propertyIndex] == null) {
+            properties[propertyIndex] = propertyBuilders[propertyIndex].build();
+        }
+        return properties[propertyIndex];
     }
 
-    // TODO: This returns only the first of possibly multiple properties
+    /**
+     * Shorthand for {@link #globalPropertyOffsets(int)} of the first property, for builders that store at most one property.
+     */
     public AdjacencyOffsets globalPropertyOffsets() {
         return globalPropertyOffsets[0];
     }
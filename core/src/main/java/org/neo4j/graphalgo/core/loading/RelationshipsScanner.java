@@ -47,7 +47,24 @@ final class RelationshipsScanner extends StatementAction implements RecordScanne
             AbstractStorePageCacheScanner<RelationshipRecord> scanner,
             boolean loadWeights,
             Collection<SingleTypeRelationshipImporter.Builder> importerBuilders) {
-        List<SingleTypeRelationshipImporter.Builder.WithImporter> builders = importerBuilders
+        List<SingleTypeRelationshipImporter.Builder.WithImporter> builders = loadImporters(importerBuilders, loadWeights);
+        if (builders.isEmpty()) {
+            return InternalImporter.createEmptyScanner();
+        }
+        return new RelationshipsScanner.Creator(
+                api,
+                progress,
+                idMap,
+                scanner,
+                builders,
+            setup.terminationFlag()
+        );
+    }
+
+    static List<SingleTypeRelationshipImporter.Builder.WithImporter> loadImporters(
+            Collection<SingleTypeRelationshipImporter.Builder> importerBuilders,
+            boolean loadWeights) {
+        return importerBuilders
                 .stream()
                 .map(relImporter -> {
                     RelationshipProjectionMapping relationshipProjectionMapping = relImporter.mapping();
@@ -60,17 +77,6 @@ final class RelationshipsScanner extends StatementAction implements RecordScanne
                 })
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        if (builders.isEmpty()) {
-            return InternalImporter.createEmptyScanner();
-        }
-        return new RelationshipsScanner.Creator(
-                api,
-                progress,
-                idMap,
-                scanner,
-                builders,
-            setup.terminationFlag()
-        );
     }
 
     static final class Creator implements InternalImporter.CreateScanner {
@@ -21,7 +21,7 @@ package org.neo4j.graphalgo.core.loading;
 
 import org.neo4j.graphdb.Result;
 
-class ResultCountingVisitor implements Result.ResultVisitor<RuntimeException> {
+class ResultCountingVisitor implements CypherRecordLoader.BatchVisitor {
     private long rows = 0;
 
 
@@ -35,5 +35,10 @@ class ResultCountingVisitor implements Result.ResultVisitor<RuntimeException> {
         return rows;
     }
 
+    @Override
+    public BatchLoadResult complete(long offset) {
+        return new BatchLoadResult(offset, rows, -1L, -1L);
+    }
+
 
 }
@@ -19,6 +19,7 @@
  */
 package org.neo4j.graphalgo.core.loading;
 
+import com.carrotsearch.hppc.LongSet;
 import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.PropertyMappings;
 import org.neo4j.graphalgo.ResolvedPropertyMapping;
@@ -27,6 +28,7 @@ import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArrayBuilder;
+import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
@@ -35,6 +37,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
+import static org.neo4j.graphalgo.core.loading.AbstractStorePageCacheScanner.DEFAULT_PREFETCH_SIZE;
+
 
 final class ScanningNodesImporter extends ScanningRecordsImporter<NodeRecord, IdsAndProperties> {
 
@@ -45,6 +49,7 @@ final class ScanningNodesImporter extends ScanningRecordsImporter<NodeRecord, Id
 
     private Map<String, NodePropertiesBuilder> builders;
     private HugeLongArrayBuilder idMapBuilder;
+    private LabelScanNodesScanner.Candidates labelScanCandidates;
 
     ScanningNodesImporter(
             GraphDatabaseAPI api,
@@ -67,6 +72,10 @@ final class ScanningNodesImporter extends ScanningRecordsImporter<NodeRecord, Id
             long nodeCount,
             ImportSizing sizing,
             AbstractStorePageCacheScanner<NodeRecord> scanner) {
+        LongSet labels = dimensions.nodeLabelIds();
+        if (LabelScanNodesScanner.canBeUsed(labels, nodeCount, dimensions.highestNeoId())) {
+            return labelScanCreator(nodeCount, labels, (NodeStore) scanner.store());
+        }
         idMapBuilder = HugeLongArrayBuilder.of(nodeCount, tracker);
         builders = propertyBuilders(nodeCount);
         return NodesScanner.of(
@@ -79,8 +88,37 @@ final class ScanningNodesImporter extends ScanningRecordsImporter<NodeRecord, Id
         );
     }
 
+    private InternalImporter.CreateScanner labelScanCreator(long nodeCount, LongSet labels, NodeStore nodeStore) {
+        labelScanCandidates = LabelScanNodesScanner.readCandidates(api, labels, nodeCount, tracker);
+        long candidateCount = labelScanCandidates.size;
+        idMapBuilder = HugeLongArrayBuilder.of(candidateCount, tracker);
+        builders = propertyBuilders(candidateCount);
+        return LabelScanNodesScanner.of(
+                api,
+                nodeStore,
+                labelScanCandidates,
+                DEFAULT_PREFETCH_SIZE * nodeStore.getRecordsPerPage(),
+                progress,
+                new NodeImporter(idMapBuilder, builders.values()),
+                terminationFlag
+        );
+    }
+
+    @Override
+    long requiredBytes(AbstractStorePageCacheScanner<NodeRecord> scanner) {
+        if (labelScanCandidates != null) {
+            return labelScanCandidates.size * scanner.store().getRecordSize();
+        }
+        return super.requiredBytes(scanner);
+    }
+
     @Override
     IdsAndProperties build() {
+        if (labelScanCandidates != null) {
+            // all candidates have been imported at this point
+            tracker.remove(labelScanCandidates.release());
+            labelScanCandidates = null;
+        }
         IdMap hugeIdMap = IdMapBuilder.build(
                 idMapBuilder,
                 dimensions.highestNeoId(),
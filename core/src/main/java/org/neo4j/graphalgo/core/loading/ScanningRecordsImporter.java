@@ -72,7 +72,7 @@ abstract class ScanningRecordsImporter<Record extends AbstractBaseRecord, T> {
         InternalImporter importer = new InternalImporter(numberOfThreads, creator);
         ImportResult importResult = importer.runImport(threadPool);
 
-        long requiredBytes = scanner.storeSize();
+        long requiredBytes = requiredBytes(scanner);
         long recordsImported = importResult.recordsImported;
         long propertiesImported = importResult.propertiesImported;
         BigInteger bigNanos = BigInteger.valueOf(importResult.tookNanos);
@@ -105,5 +105,9 @@ abstract class ScanningRecordsImporter<Record extends AbstractBaseRecord, T> {
             ImportSizing sizing,
             AbstractStorePageCacheScanner<Record> scanner);
 
+    long requiredBytes(AbstractStorePageCacheScanner<Record> scanner) {
+        return scanner.storeSize();
+    }
+
     abstract T build();
 }
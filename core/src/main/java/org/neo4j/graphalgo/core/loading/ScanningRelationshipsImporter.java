@@ -38,6 +38,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
+import static org.neo4j.graphalgo.core.loading.AbstractStorePageCacheScanner.DEFAULT_PREFETCH_SIZE;
+
 
 final class ScanningRelationshipsImporter extends ScanningRecordsImporter<RelationshipRecord, ObjectLongMap<RelationshipProjectionMapping>> {
 
@@ -94,6 +96,19 @@ final class ScanningRelationshipsImporter extends ScanningRecordsImporter<Relati
             allRelationshipCounters.put(importerBuilder.mapping(), importerBuilder.relationshipCounter());
         }
 
+        if (dimensions.scanRelationshipChains()) {
+            return RelationshipChainsScanner.of(
+                    api,
+                    setup,
+                    progress,
+                    idMap,
+                    pageSize,
+                    DEFAULT_PREFETCH_SIZE * scanner.store().getRecordsPerPage(),
+                    importWeights,
+                    importerBuilders
+            );
+        }
+
         return RelationshipsScanner.of(
                 api,
                 setup,
@@ -145,6 +160,15 @@ final class ScanningRelationshipsImporter extends ScanningRecordsImporter<Relati
         return new SingleTypeRelationshipImporter.Builder(mapping, importer, relationshipCounter);
     }
 
+    @Override
+    long requiredBytes(AbstractStorePageCacheScanner<RelationshipRecord> scanner) {
+        if (dimensions.scanRelationshipChains()) {
+            long relationshipsRead = allRelationshipCounters.values().stream().mapToLong(LongAdder::sum).sum();
+            return relationshipsRead * scanner.store().getRecordSize();
+        }
+        return super.requiredBytes(scanner);
+    }
+
     @Override
     ObjectLongMap<RelationshipProjectionMapping> build() {
         ObjectLongMap<RelationshipProjectionMapping> relationshipCounters = new ObjectLongHashMap<>(allRelationshipCounters.size());
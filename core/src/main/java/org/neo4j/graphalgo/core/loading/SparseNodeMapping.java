@@ -26,9 +26,8 @@ import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.ReentrantLock;
 
-public final class SparseNodeMapping {
+public final class SparseNodeMapping implements NodeMapping {
 
     private static final long NOT_FOUND = -1L;
 
@@ -70,6 +69,7 @@ public final class SparseNodeMapping {
         return capacity;
     }
 
+    @Override
     public long get(long index) {
         final int pageIndex = pageIndex(index);
         if (pageIndex < pages.length) {
@@ -81,6 +81,7 @@ public final class SparseNodeMapping {
         return NOT_FOUND;
     }
 
+    @Override
     public boolean contains(long index) {
         final int pageIndex = pageIndex(index);
         if (pageIndex < pages.length) {
@@ -101,10 +102,16 @@ public final class SparseNodeMapping {
     }
 
     public static final class Builder {
+
+        /**
+         * Below this many expected entries per page, {@link #create(long, long, AllocationTracker)}
+         * allocates pages on demand, as a good share of them is expected to stay empty.
+         */
+        static final int DENSE_MIN_ENTRIES_PER_PAGE = 4;
+
         private final long capacity;
         private final AtomicReferenceArray<long[]> pages;
         private final AllocationTracker tracker;
-        private final ReentrantLock newPageLock;
 
         public static Builder create(
                 long size,
@@ -116,11 +123,44 @@ public final class SparseNodeMapping {
             return new Builder(capacity, pages, tracker);
         }
 
+        /**
+         * Creates a builder that has all pages allocated up front, so that {@link #set(long, long)} never
+         * has to allocate. Useful if the mapped ids are expected to cover most pages anyway.
+         */
+        public static Builder createDense(
+                long size,
+                AllocationTracker tracker) {
+            Builder builder = create(size, tracker);
+            AtomicReferenceArray<long[]> pages = builder.pages;
+            for (int pageIndex = 0; pageIndex < pages.length(); pageIndex++) {
+                pages.set(pageIndex, newPage());
+            }
+            tracker.add(pages.length() * PAGE_SIZE_IN_BYTES);
+            return builder;
+        }
+
+        /**
+         * Creates a dense builder if {@code expectedEntries} are likely to touch nearly every page,
+         * otherwise a builder that allocates pages on demand.
+         *
+         * @param size            highest id that we need to represent, plus one
+         * @param expectedEntries number of ids that will be set
+         */
+        public static Builder create(
+                long size,
+                long expectedEntries,
+                AllocationTracker tracker) {
+            int numPages = PageUtil.numPagesFor(size, PAGE_SHIFT, PAGE_MASK);
+            if (expectedEntries >= (long) numPages * DENSE_MIN_ENTRIES_PER_PAGE) {
+                return createDense(size, tracker);
+            }
+            return create(size, tracker);
+        }
+
         private Builder(long capacity, AtomicReferenceArray<long[]> pages, AllocationTracker tracker) {
             this.capacity = capacity;
             this.pages = pages;
             this.tracker = tracker;
-            newPageLock = new ReentrantLock(true);
         }
 
         public void set(long index, long value) {
@@ -143,21 +183,20 @@ public final class SparseNodeMapping {
         }
 
         private long[] allocateNewPage(int pageIndex) {
-            // TODO: CAS instead of locks? might create `(num_threads - 1) * long[PAGE_SIZE]` that are thrown away immediately
-            newPageLock.lock();
-            try {
-                long[] page = pages.get(pageIndex);
-                if (page != null) {
-                    return page;
-                }
+            // Threads that lose the race throw their page away. Importer threads mostly write
+            // to distinct pages, so that is rare and cheaper than serializing all allocations.
+            long[] page = newPage();
+            if (pages.compareAndSet(pageIndex, null, page)) {
                 tracker.add(PAGE_SIZE_IN_BYTES);
-                page = new long[PAGE_SIZE];
-                Arrays.fill(page, -1L);
-                pages.set(pageIndex, page);
                 return page;
-            } finally {
-                newPageLock.unlock();
             }
+            return pages.get(pageIndex);
+        }
+
+        private static long[] newPage() {
+            long[] page = new long[PAGE_SIZE];
+            Arrays.fill(page, NOT_FOUND);
+            return page;
         }
     }
 }
@@ -20,19 +20,22 @@
 package org.neo4j.graphalgo.core.loading;
 
 import org.apache.lucene.util.LongsRef;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.Aggregation;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static org.neo4j.graphalgo.core.loading.AdjacencyCompression.skipIndexSize;
 import static org.neo4j.graphalgo.core.loading.AdjacencyCompression.writeDegree;
+import static org.neo4j.graphalgo.core.loading.AdjacencyCompression.writeLong;
+import static org.neo4j.graphalgo.core.loading.AdjacencyCompression.writeSkipIndex;
 
 class ThreadLocalRelationshipsBuilder {
 
     private final ReentrantLock lock;
     private final Aggregation[] aggregations;
+    private final AdjacencyEncoding encoding;
     private final AdjacencyListBuilder.Allocator adjacencyAllocator;
     private final AdjacencyListBuilder.Allocator[] propertiesAllocators;
     private final long[] adjacencyOffsets;
@@ -41,6 +44,7 @@ class ThreadLocalRelationshipsBuilder {
 
     ThreadLocalRelationshipsBuilder(
             Aggregation[] aggregations,
+            AdjacencyEncoding encoding,
             AdjacencyListBuilder.Allocator adjacencyAllocator,
             final AdjacencyListBuilder.Allocator[] propertiesAllocators,
             long[] adjacencyOffsets,
@@ -49,6 +53,7 @@ class ThreadLocalRelationshipsBuilder {
             throw new IllegalArgumentException("Needs at least one aggregation");
         }
         this.aggregations = aggregations;
+        this.encoding = encoding;
         this.noAggregation = Arrays.stream(aggregations).allMatch(d -> d == Aggregation.NONE);
         this.adjacencyAllocator = adjacencyAllocator;
         this.propertiesAllocators = propertiesAllocators;
@@ -77,25 +82,26 @@ class ThreadLocalRelationshipsBuilder {
 
     int applyVariableDeltaEncoding(
             CompressedLongArray array,
-            LongsRef buffer,
+            CompressionBuffers buffers,
             int localId) {
 
         if (array.hasWeights()) {
-            return applyVariableDeltaEncodingWithWeights(array, buffer, localId);
+            return applyVariableDeltaEncodingWithWeights(array, buffers, localId);
         } else {
-            return applyVariableDeltaEncodingWithoutWeights(array, buffer, localId);
+            return applyVariableDeltaEncodingWithoutWeights(array, buffers, localId);
         }
     }
 
     private int applyVariableDeltaEncodingWithoutWeights(
             CompressedLongArray array,
-            LongsRef buffer,
+            CompressionBuffers buffers,
             int localId) {
-        byte[] storage = array.storage();
+        LongsRef buffer = buffers.targets;
         AdjacencyCompression.copyFrom(buffer, array);
-        int degree = AdjacencyCompression.applyDeltaEncoding(buffer, aggregations[0]);
-        int requiredBytes = AdjacencyCompression.compress(buffer, storage);
-        long address = copyIds(storage, requiredBytes, degree);
+        int degree = AdjacencyCompression.applyDeltaEncoding(buffer, aggregations[0], buffers);
+        byte[] storage = compressionBuffer(array, buffer, buffers);
+        int requiredBytes = AdjacencyCompression.compress(buffer, storage, encoding);
+        long address = copyIds(storage, requiredBytes, buffer.longs, degree);
         adjacencyOffsets[localId] = address;
         array.release();
         return degree;
@@ -103,26 +109,66 @@ class ThreadLocalRelationshipsBuilder {
 
     private int applyVariableDeltaEncodingWithWeights(
             CompressedLongArray array,
-            LongsRef buffer,
+            CompressionBuffers buffers,
             int localId) {
-        byte[] storage = array.storage();
+        LongsRef buffer = buffers.targets;
         long[][] weights = array.weights();
         AdjacencyCompression.copyFrom(buffer, array);
-        int degree = AdjacencyCompression.applyDeltaEncoding(buffer, weights, aggregations, noAggregation);
-        int requiredBytes = AdjacencyCompression.compress(buffer, storage);
+        int degree = AdjacencyCompression.applyDeltaEncoding(buffer, weights, aggregations, noAggregation, buffers);
+        byte[] storage = compressionBuffer(array, buffer, buffers);
+        int requiredBytes = AdjacencyCompression.compress(buffer, storage, encoding);
 
-        adjacencyOffsets[localId] = copyIds(storage, requiredBytes, degree);
+        adjacencyOffsets[localId] = copyIds(storage, requiredBytes, buffer.longs, degree);
         copyProperties(weights, degree, localId, weightOffsets);
 
         array.release();
         return degree;
     }
 
-    private long copyIds(byte[] targets, int requiredBytes, int degree) {
-        // sizeOf(degree) + compression bytes
-        long address = adjacencyAllocator.allocate(Integer.BYTES + requiredBytes);
+    /**
+     * Sorts the given, uncompressed targets together with their properties, aggregates parallel relationships
+     * and encodes the list. Unlike {@link #applyVariableDeltaEncoding(CompressedLongArray, CompressionBuffers, int)},
+     * the targets do not need to be collected into a {@link CompressedLongArray} first.
+     * The targets and properties are overwritten.
+     */
+    int applyVariableDeltaEncoding(
+            LongsRef targets,
+            long[][] properties,
+            CompressionBuffers buffers,
+            int localId) {
+        int degree = AdjacencyCompression.applyDeltaEncoding(targets, properties, aggregations, noAggregation, buffers);
+        int maxBytes = encoding == AdjacencyEncoding.BLOCK_PACKED
+            ? BlockPackedEncoding.encodedSize(targets.longs, degree)
+            : VarLongEncoding.encodedVLongsSize(targets.longs, 0, degree);
+        byte[] storage = buffers.encoded(maxBytes);
+        int requiredBytes = AdjacencyCompression.compress(targets, storage, encoding);
+
+        adjacencyOffsets[localId] = copyIds(storage, requiredBytes, targets.longs, degree);
+        copyProperties(properties, degree, localId, weightOffsets);
+        return degree;
+    }
+
+    /**
+     * The storage of the compressed array is large enough for var-long encoded deltas,
+     * but a block packed list can be larger if a block contains a single large delta.
+     */
+    private byte[] compressionBuffer(CompressedLongArray array, LongsRef deltas, CompressionBuffers buffers) {
+        byte[] storage = array.storage();
+        if (encoding == AdjacencyEncoding.BLOCK_PACKED) {
+            int requiredBytes = BlockPackedEncoding.encodedSize(deltas.longs, deltas.length);
+            if (requiredBytes > storage.length) {
+                return buffers.encoded(requiredBytes);
+            }
+        }
+        return storage;
+    }
+
+    private long copyIds(byte[] targets, int requiredBytes, long[] deltas, int degree) {
+        // sizeOf(degree) + skip index + compression bytes
+        long address = adjacencyAllocator.allocate(Integer.BYTES + skipIndexSize(degree) + requiredBytes);
         int offset = adjacencyAllocator.offset;
         offset = writeDegree(adjacencyAllocator.page, offset, degree);
+        offset = writeSkipIndex(deltas, degree, encoding, adjacencyAllocator.page, offset);
         System.arraycopy(targets, 0, adjacencyAllocator.page, offset, requiredBytes);
         adjacencyAllocator.offset = (offset + requiredBytes);
         return address;
@@ -130,24 +176,25 @@ class ThreadLocalRelationshipsBuilder {
 
     private void copyProperties(long[][] properties, int degree, int localId, long[][] offsets) {
         for (int i = 0; i < properties.length; i++) {
-            long[] property = properties[i];
             AdjacencyListBuilder.Allocator propertiesAllocator = propertiesAllocators[i];
-            long address = copyProperties(property, degree, propertiesAllocator);
-            offsets[i][localId] = address;
+            // properties that do not exist have neither an allocator nor offsets
+            if (propertiesAllocator != null) {
+                long address = copyProperties(properties[i], degree, propertiesAllocator);
+                offsets[i][localId] = address;
+            }
         }
     }
 
     private long copyProperties(long[] properties, int degree, AdjacencyListBuilder.Allocator propertiesAllocator) {
         int requiredBytes = degree * Long.BYTES;
         long address = propertiesAllocator.allocate(Integer.BYTES /* degree */ + requiredBytes);
+        byte[] page = propertiesAllocator.page;
         int offset = propertiesAllocator.offset;
-        offset = writeDegree(propertiesAllocator.page, offset, degree);
-        ByteBuffer
-                .wrap(propertiesAllocator.page, offset, requiredBytes)
-                .order(ByteOrder.LITTLE_ENDIAN)
-                .asLongBuffer()
-                .put(properties, 0, degree);
-        propertiesAllocator.offset = (offset + requiredBytes);
+        offset = writeDegree(page, offset, degree);
+        for (int i = 0; i < degree; i++) {
+            offset = writeLong(page, offset, properties[i]);
+        }
+        propertiesAllocator.offset = offset;
         return address;
     }
 }
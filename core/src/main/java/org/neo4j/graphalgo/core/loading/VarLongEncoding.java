@@ -127,6 +127,14 @@ public final class VarLongEncoding {
         }
     }
 
+    static int encodedVLongsSize(long[] values, int start, int end) {
+        int size = 0;
+        for (int i = start; i < end; ++i) {
+            size += encodedVLongSize(values[i]);
+        }
+        return size;
+    }
+
     static long zigZag(final long value) {
         return (value >> 63) ^ (value << 1);
     }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfInstance;
+
+/**
+ * A thread-safe bit set that can contain more than 2 bn. bits.
+ * <p>
+ * The bits are stored in a {@link HugeAtomicLongArray}, where every long holds 64 bits.
+ * Setting and clearing single bits is lock-free, range queries read one word per 64 bits.
+ */
+public final class HugeAtomicBitSet {
+
+    private static final int NUM_BITS = Long.SIZE;
+
+    private final HugeAtomicLongArray bits;
+    private final long numBits;
+
+    public static HugeAtomicBitSet create(long size, AllocationTracker tracker) {
+        long wordsSize = (size + NUM_BITS - 1) / NUM_BITS;
+        return new HugeAtomicBitSet(HugeAtomicLongArray.newArray(wordsSize, tracker), size);
+    }
+
+    public static long memoryEstimation(long size) {
+        long wordsSize = (size + NUM_BITS - 1) / NUM_BITS;
+        return sizeOfInstance(HugeAtomicBitSet.class) + HugeAtomicLongArray.memoryEstimation(wordsSize);
+    }
+
+    private HugeAtomicBitSet(HugeAtomicLongArray bits, long numBits) {
+        this.bits = bits;
+        this.numBits = numBits;
+    }
+
+    /**
+     * Returns the state of the bit at the given index.
+     */
+    public boolean get(long index) {
+        assert index < numBits;
+        long word = bits.get(index >>> 6);
+        return (word & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit at the given index to true.
+     */
+    public void set(long index) {
+        assert index < numBits;
+        long wordIndex = index >>> 6;
+        long mask = 1L << index;
+        long oldWord;
+        do {
+            oldWord = bits.get(wordIndex);
+            if ((oldWord & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(wordIndex, oldWord, oldWord | mask));
+    }
+
+    /**
+     * Sets the bit at the given index to true.
+     *
+     * @return the state of the bit before it has been set.
+     */
+    public boolean getAndSet(long index) {
+        assert index < numBits;
+        long wordIndex = index >>> 6;
+        long mask = 1L << index;
+        long oldWord;
+        do {
+            oldWord = bits.get(wordIndex);
+            if ((oldWord & mask) != 0) {
+                return true;
+            }
+        } while (!bits.compareAndSet(wordIndex, oldWord, oldWord | mask));
+        return false;
+    }
+
+    /**
+     * Sets the bit at the given index to false.
+     */
+    public void clear(long index) {
+        assert index < numBits;
+        long wordIndex = index >>> 6;
+        long mask = ~(1L << index);
+        long oldWord;
+        do {
+            oldWord = bits.get(wordIndex);
+            if ((oldWord | mask) == mask) {
+                return;
+            }
+        } while (!bits.compareAndSet(wordIndex, oldWord, oldWord & mask));
+    }
+
+    /**
+     * Returns true, iff at least one bit in the range {@code [fromIndex, toIndex)} is set.
+     */
+    public boolean anySet(long fromIndex, long toIndex) {
+        return anyMatch(fromIndex, toIndex, 0L);
+    }
+
+    /**
+     * Returns true, iff all bits in the range {@code [fromIndex, toIndex)} are set.
+     */
+    public boolean allSet(long fromIndex, long toIndex) {
+        return !anyMatch(fromIndex, toIndex, -1L);
+    }
+
+    /**
+     * Returns true, iff no bit is set.
+     */
+    public boolean isEmpty() {
+        return !anySet(0, numBits);
+    }
+
+    /**
+     * Returns the number of bits in the bit set.
+     */
+    public long size() {
+        return numBits;
+    }
+
+    /**
+     * Destroys the bit set, see {@link HugeAtomicLongArray#release()}.
+     *
+     * @return the amount of memory freed, in bytes.
+     */
+    public long release() {
+        return bits.release();
+    }
+
+    // Checks if any bit in the given range is set after xor-ing the words with the given flip mask.
+    private boolean anyMatch(long fromIndex, long toIndex, long flip) {
+        assert toIndex <= numBits;
+        if (fromIndex >= toIndex) {
+            return false;
+        }
+
+        long startWordIndex = fromIndex >>> 6;
+        long endWordIndex = (toIndex - 1) >>> 6;
+
+        long startMask = -1L << fromIndex;
+        long endMask = -1L >>> -toIndex;
+
+        if (startWordIndex == endWordIndex) {
+            return ((bits.get(startWordIndex) ^ flip) & startMask & endMask) != 0;
+        }
+        if (((bits.get(startWordIndex) ^ flip) & startMask) != 0) {
+            return true;
+        }
+        for (long wordIndex = startWordIndex + 1; wordIndex < endWordIndex; wordIndex++) {
+            if ((bits.get(wordIndex) ^ flip) != 0) {
+                return true;
+            }
+        }
+        return ((bits.get(endWordIndex) ^ flip) & endMask) != 0;
+    }
+}
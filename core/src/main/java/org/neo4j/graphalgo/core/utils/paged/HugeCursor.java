@@ -186,4 +186,88 @@ public abstract class HugeCursor<Array> implements AutoCloseable {
             pageIndex = -1;
         }
     }
+
+    /**
+     * A cursor over memory that is not backed by Java arrays.
+     * <p>
+     * Every slice is copied into a window array when the cursor advances and copied back
+     * before the next slice is loaded or the cursor is closed, so that writes into
+     * {@link #array} are visible in the underlying memory.
+     * Values written to the same range through the array itself while the cursor is
+     * positioned on that range are overwritten by the write-back.
+     */
+    static final class OffHeapCursor<Array> extends HugeCursor<Array> {
+
+        @FunctionalInterface
+        interface WindowCopy<Array> {
+            void copy(long index, Array window, int length);
+        }
+
+        private final long capacity;
+        private final int windowSize;
+        private WindowCopy<Array> read;
+        private WindowCopy<Array> write;
+        private long position;
+        private long end;
+        private boolean loaded;
+
+        OffHeapCursor(long capacity, Array window, WindowCopy<Array> read, WindowCopy<Array> write) {
+            super();
+            this.capacity = capacity;
+            this.array = window;
+            this.windowSize = getLength(window);
+            this.read = read;
+            this.write = write;
+        }
+
+        @Override
+        void setRange() {
+            setRange(0L, capacity);
+        }
+
+        @Override
+        void setRange(long start, long end) {
+            writeBack();
+            this.position = start;
+            this.end = end;
+            base = start;
+            offset = 0;
+            limit = 0;
+        }
+
+        @Override
+        public final boolean next() {
+            writeBack();
+            if (position >= end) {
+                return false;
+            }
+            int length = (int) Math.min(windowSize, end - position);
+            read.copy(position, array, length);
+            base = position;
+            offset = 0;
+            limit = length;
+            position += length;
+            loaded = true;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            writeBack();
+            array = null;
+            read = null;
+            write = null;
+            base = 0L;
+            end = 0L;
+            limit = 0;
+            position = 0L;
+        }
+
+        private void writeBack() {
+            if (loaded) {
+                write.copy(base, array, limit);
+                loaded = false;
+            }
+        }
+    }
 }
@@ -21,12 +21,14 @@ package org.neo4j.graphalgo.core.utils.paged;
 
 import org.neo4j.graphalgo.core.utils.ArrayUtil;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import java.util.Arrays;
 import java.util.function.IntToDoubleFunction;
 import java.util.function.LongFunction;
 import java.util.function.LongToDoubleFunction;
 import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
 
 import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfDoubleArray;
 import static org.neo4j.graphalgo.core.utils.mem.MemoryUsage.sizeOfInstance;
@@ -192,6 +194,15 @@ public abstract class HugeDoubleArray extends HugeArray<double[], Double, HugeDo
         return PagedHugeDoubleArray.of(size, tracker);
     }
 
+    /**
+     * Creates a new array of the given size that is allocated outside of the Java heap.
+     * The memory is tracked in the given {@link AllocationTracker} and is freed by calling {@link #release()},
+     * or once the array has become unreachable; the array must not be used after it has been released.
+     */
+    public static HugeDoubleArray newOffHeapArray(long size, AllocationTracker tracker) {
+        return OffHeapHugeDoubleArray.of(size, tracker);
+    }
+
     public static long memoryEstimation(long size) {
         assert size >= 0;
 
@@ -224,6 +235,15 @@ public abstract class HugeDoubleArray extends HugeArray<double[], Double, HugeDo
         return SingleHugeDoubleArray.of(size, tracker);
     }
 
+    private static void copyValues(HugeDoubleArray source, HugeDoubleArray dest, long length) {
+        for (long i = 0; i < length; i++) {
+            dest.set(i, source.get(i));
+        }
+        for (long i = length; i < dest.size(); i++) {
+            dest.set(i, 0D);
+        }
+    }
+
     /**
      * A {@link PropertyTranslator} for instances of {@link HugeDoubleArray}s.
      */
@@ -313,6 +333,8 @@ public abstract class HugeDoubleArray extends HugeArray<double[], Double, HugeDo
                         remaining -= toCopy;
                     }
                 }
+            } else {
+                copyValues(this, dest, length);
             }
         }
 
@@ -465,6 +487,8 @@ public abstract class HugeDoubleArray extends HugeArray<double[], Double, HugeDo
                 for (int i = pageLen; i < dst.pages.length; i++) {
                     Arrays.fill(dst.pages[i], 0D);
                 }
+            } else {
+                copyValues(this, dest, length);
             }
         }
 
@@ -497,4 +521,130 @@ public abstract class HugeDoubleArray extends HugeArray<double[], Double, HugeDo
             return Arrays.stream(pages).flatMapToDouble(Arrays::stream);
         }
     }
+
+    private static final class OffHeapHugeDoubleArray extends HugeDoubleArray {
+
+        private static HugeDoubleArray of(long size, AllocationTracker tracker) {
+            long memoryUsed = size * Double.BYTES;
+            tracker.add(memoryUsed);
+            return new OffHeapHugeDoubleArray(size, memoryUsed);
+        }
+
+        private final long size;
+        private final long memoryUsed;
+        private final OffHeapMemory.Allocation allocation;
+        private final long address;
+        private boolean released;
+
+        private OffHeapHugeDoubleArray(long size, long memoryUsed) {
+            this.size = size;
+            this.memoryUsed = memoryUsed;
+            this.allocation = OffHeapMemory.allocate(this, memoryUsed);
+            this.address = allocation.address();
+        }
+
+        private void checkNotReleased() {
+            if (released) {
+                throw new IllegalStateException("The off-heap array has been released.");
+            }
+        }
+
+        private long addressOf(long index) {
+            checkNotReleased();
+            if (index < 0L || index >= size) {
+                throw new ArrayIndexOutOfBoundsException(String.format(
+                    "Index %d is out of bounds for an array of size %d.",
+                    index,
+                    size
+                ));
+            }
+            return address + (index << 3);
+        }
+
+        @Override
+        public double get(long index) {
+            return Double.longBitsToDouble(UnsafeUtil.getLong(addressOf(index)));
+        }
+
+        @Override
+        public void set(long index, double value) {
+            UnsafeUtil.putLong(addressOf(index), Double.doubleToRawLongBits(value));
+        }
+
+        @Override
+        public void addTo(long index, double value) {
+            set(index, get(index) + value);
+        }
+
+        @Override
+        public void setAll(LongToDoubleFunction gen) {
+            for (long i = 0; i < size; i++) {
+                set(i, gen.applyAsDouble(i));
+            }
+        }
+
+        @Override
+        public void fill(double value) {
+            for (long i = 0; i < size; i++) {
+                set(i, value);
+            }
+        }
+
+        @Override
+        public void copyTo(HugeDoubleArray dest, long length) {
+            if (length > size) {
+                length = size;
+            }
+            if (length > dest.size()) {
+                length = dest.size();
+            }
+            copyValues(this, dest, length);
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long sizeOf() {
+            return memoryUsed;
+        }
+
+        @Override
+        public long release() {
+            if (!released) {
+                released = true;
+                return allocation.free();
+            }
+            return 0L;
+        }
+
+        @Override
+        public HugeCursor<double[]> newCursor() {
+            return new HugeCursor.OffHeapCursor<>(
+                size,
+                new double[(int) Math.min(PAGE_SIZE, size)],
+                this::readWindow,
+                this::writeWindow
+            );
+        }
+
+        @Override
+        public DoubleStream stream() {
+            return LongStream.range(0, size).mapToDouble(this::get);
+        }
+
+        private void readWindow(long index, double[] window, int length) {
+            for (int i = 0; i < length; i++) {
+                window[i] = get(index + i);
+            }
+        }
+
+        private void writeWindow(long index, double[] window, int length) {
+            for (int i = 0; i < length; i++) {
+                set(index + i, window[i]);
+            }
+        }
+    }
 }
@@ -22,6 +22,7 @@ package org.neo4j.graphalgo.core.utils.paged;
 import org.neo4j.graphalgo.core.loading.SparseNodeMapping;
 import org.neo4j.graphalgo.core.utils.ArrayUtil;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import java.util.Arrays;
 import java.util.function.IntToLongFunction;
@@ -207,6 +208,15 @@ public abstract class HugeLongArray extends HugeArray<long[], Long, HugeLongArra
         return PagedHugeLongArray.of(size, tracker);
     }
 
+    /**
+     * Creates a new array of the given size that is allocated outside of the Java heap.
+     * The memory is tracked in the given {@link AllocationTracker} and is freed by calling {@link #release()},
+     * or once the array has become unreachable; the array must not be used after it has been released.
+     */
+    public static HugeLongArray newOffHeapArray(long size, AllocationTracker tracker) {
+        return OffHeapHugeLongArray.of(size, tracker);
+    }
+
     public static long memoryEstimation(long size) {
         assert size >= 0;
 
@@ -239,6 +249,15 @@ public abstract class HugeLongArray extends HugeArray<long[], Long, HugeLongArra
         return SingleHugeLongArray.of(size, tracker);
     }
 
+    private static void copyValues(HugeLongArray source, HugeLongArray dest, long length) {
+        for (long i = 0; i < length; i++) {
+            dest.set(i, source.get(i));
+        }
+        for (long i = length; i < dest.size(); i++) {
+            dest.set(i, 0L);
+        }
+    }
+
     /**
      * A {@link PropertyTranslator} for instances of {@link HugeLongArray}s.
      */
@@ -340,6 +359,8 @@ public abstract class HugeLongArray extends HugeArray<long[], Long, HugeLongArra
                         remaining -= toCopy;
                     }
                 }
+            } else {
+                copyValues(this, dest, length);
             }
         }
 
@@ -503,6 +524,8 @@ public abstract class HugeLongArray extends HugeArray<long[], Long, HugeLongArra
                 for (int i = pageLen; i < dst.pages.length; i++) {
                     Arrays.fill(dst.pages[i], 0L);
                 }
+            } else {
+                copyValues(this, dest, length);
             }
         }
 
@@ -530,4 +553,145 @@ public abstract class HugeLongArray extends HugeArray<long[], Long, HugeLongArra
             return new HugeCursor.PagedCursor<>(size, pages);
         }
     }
+
+    private static final class OffHeapHugeLongArray extends HugeLongArray {
+
+        private static HugeLongArray of(long size, AllocationTracker tracker) {
+            long memoryUsed = size * Long.BYTES;
+            tracker.add(memoryUsed);
+            return new OffHeapHugeLongArray(size, memoryUsed);
+        }
+
+        private final long size;
+        private final long memoryUsed;
+        private final OffHeapMemory.Allocation allocation;
+        private final long address;
+        private boolean released;
+
+        private OffHeapHugeLongArray(long size, long memoryUsed) {
+            this.size = size;
+            this.memoryUsed = memoryUsed;
+            this.allocation = OffHeapMemory.allocate(this, memoryUsed);
+            this.address = allocation.address();
+        }
+
+        private void checkNotReleased() {
+            if (released) {
+                throw new IllegalStateException("The off-heap array has been released.");
+            }
+        }
+
+        private long addressOf(long index) {
+            checkNotReleased();
+            if (index < 0L || index >= size) {
+                throw new ArrayIndexOutOfBoundsException(String.format(
+                    "Index %d is out of bounds for an array of size %d.",
+                    index,
+                    size
+                ));
+            }
+            return address + (index << 3);
+        }
+
+        @Override
+        public long get(long index) {
+            return UnsafeUtil.getLong(addressOf(index));
+        }
+
+        @Override
+        public void set(long index, long value) {
+            UnsafeUtil.putLong(addressOf(index), value);
+        }
+
+        @Override
+        public void or(long index, final long value) {
+            long position = addressOf(index);
+            UnsafeUtil.putLong(position, UnsafeUtil.getLong(position) | value);
+        }
+
+        @Override
+        public long and(long index, final long value) {
+            long position = addressOf(index);
+            long result = UnsafeUtil.getLong(position) & value;
+            UnsafeUtil.putLong(position, result);
+            return result;
+        }
+
+        @Override
+        public void addTo(long index, long value) {
+            long position = addressOf(index);
+            UnsafeUtil.putLong(position, UnsafeUtil.getLong(position) + value);
+        }
+
+        @Override
+        public void setAll(LongUnaryOperator gen) {
+            for (long i = 0; i < size; i++) {
+                set(i, gen.applyAsLong(i));
+            }
+        }
+
+        @Override
+        public void fill(long value) {
+            checkNotReleased();
+            if (value == 0L && memoryUsed > 0L) {
+                UnsafeUtil.setMemory(address, memoryUsed, (byte) 0);
+                return;
+            }
+            for (long i = 0; i < size; i++) {
+                set(i, value);
+            }
+        }
+
+        @Override
+        public void copyTo(HugeLongArray dest, long length) {
+            if (length > size) {
+                length = size;
+            }
+            if (length > dest.size()) {
+                length = dest.size();
+            }
+            copyValues(this, dest, length);
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long sizeOf() {
+            return memoryUsed;
+        }
+
+        @Override
+        public long release() {
+            if (!released) {
+                released = true;
+                return allocation.free();
+            }
+            return 0L;
+        }
+
+        @Override
+        public HugeCursor<long[]> newCursor() {
+            return new HugeCursor.OffHeapCursor<>(
+                size,
+                new long[(int) Math.min(PAGE_SIZE, size)],
+                this::readWindow,
+                this::writeWindow
+            );
+        }
+
+        private void readWindow(long index, long[] window, int length) {
+            for (int i = 0; i < length; i++) {
+                window[i] = get(index + i);
+            }
+        }
+
+        private void writeWindow(long index, long[] window, int length) {
+            for (int i = 0; i < length; i++) {
+                set(index + i, window[i]);
+            }
+        }
+    }
 }
@@ -83,6 +83,10 @@ public final class HugeLongLongMap implements Iterable<LongLongCursor> {
         addTo0(1L + key, value);
     }
 
+    public void put(long key, long value) {
+        put0(1L + key, value);
+    }
+
     public long getOrDefault(long key, long defaultValue) {
         return getOrDefault0(1L + key, defaultValue);
     }
@@ -108,6 +112,16 @@ public final class HugeLongLongMap implements Iterable<LongLongCursor> {
         assigned++;
     }
 
+    private void put0(long key, long value) {
+        final long hash = BitMixer.mixPhi(key);
+        long slot = findSlot(key, hash & mask);
+        if (slot >= 0L) {
+            values.set(slot, value);
+            return;
+        }
+        addTo0(key, value);
+    }
+
     private long getOrDefault0(long key, long defaultValue) {
         final long hash = BitMixer.mixPhi(key);
         long slot = findSlot(key, hash & mask);
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Allocates the native memory of the off-heap huge arrays.
+ * <p>
+ * The memory of an array is freed when the array is released, at most once.
+ * The memory of arrays that are never released is freed by a daemon thread
+ * once the owning array has become unreachable.
+ */
+final class OffHeapMemory {
+
+    private static final ReferenceQueue<Object> UNREACHABLE = new ReferenceQueue<>();
+
+    // keeps the allocations reachable until their memory has been freed
+    private static final Set<Allocation> ALLOCATIONS = ConcurrentHashMap.newKeySet();
+
+    private static final Allocation EMPTY = new Allocation(null, 0L, 0L);
+
+    static {
+        Thread reclaimer = new Thread(OffHeapMemory::freeUnreachable, "gds-off-heap-reclaimer");
+        reclaimer.setDaemon(true);
+        reclaimer.start();
+    }
+
+    /**
+     * Allocates zeroed memory that is freed by {@link Allocation#free()},
+     * or once the given owner has become unreachable.
+     */
+    static Allocation allocate(Object owner, long bytes) {
+        if (bytes <= 0L) {
+            return EMPTY;
+        }
+        long address = UnsafeUtil.allocateMemory(bytes);
+        UnsafeUtil.setMemory(address, bytes, (byte) 0);
+        Allocation allocation = new Allocation(owner, address, bytes);
+        ALLOCATIONS.add(allocation);
+        return allocation;
+    }
+
+    private static void freeUnreachable() {
+        // runs as long as the JVM, an interrupt must not leave unreachable memory behind
+        while (true) {
+            try {
+                ((Allocation) UNREACHABLE.remove()).free();
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    static final class Allocation extends PhantomReference<Object> {
+        private final long address;
+        private final long bytes;
+        private final AtomicBoolean freed;
+
+        private Allocation(Object owner, long address, long bytes) {
+            super(owner, UNREACHABLE);
+            this.address = address;
+            this.bytes = bytes;
+            this.freed = new AtomicBoolean(bytes <= 0L);
+        }
+
+        /**
+         * @return the address of the memory, or 0 if no bytes have been requested.
+         */
+        long address() {
+            return address;
+        }
+
+        /**
+         * Frees the memory, unless it has already been freed.
+         *
+         * @return the number of bytes that have been freed.
+         */
+        long free() {
+            if (!freed.compareAndSet(false, true)) {
+                return 0L;
+            }
+            clear();
+            ALLOCATIONS.remove(this);
+            UnsafeUtil.free(address, bytes);
+            return bytes;
+        }
+    }
+
+    private OffHeapMemory() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -20,6 +20,8 @@
 package org.neo4j.graphalgo.core.utils.paged;
 
 import com.carrotsearch.hppc.IntDoubleMap;
+import com.carrotsearch.hppc.procedures.IntDoubleProcedure;
+import com.carrotsearch.hppc.procedures.LongDoubleProcedure;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
 import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
@@ -91,6 +93,17 @@ public final class PagedLongDoubleMap {
         return defaultValue;
     }
 
+    public boolean containsKey(long index) {
+        int pageIndex = pageIndex(index);
+        if (pageIndex < pages.length) {
+            IntDoubleMap page = pages[pageIndex];
+            if (page != null) {
+                return page.containsKey(indexInPage(index));
+            }
+        }
+        return false;
+    }
+
     public void put(long index, double value) {
         int pageIndex = pageIndex(index);
         TrackingIntDoubleHashMap subMap = subMap(pageIndex);
@@ -127,6 +140,19 @@ public final class PagedLongDoubleMap {
         return subMap;
     }
 
+    /**
+     * Applies the procedure to every entry of the map, not in any particular order.
+     */
+    public void forEach(LongDoubleProcedure procedure) {
+        for (int pageIndex = 0; pageIndex < pages.length; pageIndex++) {
+            TrackingIntDoubleHashMap page = pages[pageIndex];
+            if (page != null) {
+                long base = (long) pageIndex << PAGE_SHIFT;
+                page.forEach((IntDoubleProcedure) (key, value) -> procedure.apply(base + key, value));
+            }
+        }
+    }
+
     public OptionalLong getMaxValue() {
         return parallelStream(Arrays.stream(pages), stream -> stream
                 .filter(Objects::nonNull)
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged.dss;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+
+/**
+ * A disjoint-set-struct on top of the set ids of a previous computation, which are provided as seeds.
+ * <p>
+ * All nodes with the same seed are in the same set from the start and only the sets that are joined by
+ * {@link #union(long, long)} are tracked. Updating the sets with a small number of added relationships
+ * requires neither memory nor time proportional to the number of nodes.
+ * Nodes without a seed start in their own set with a new set id.
+ * When two sets are joined, the smaller set id wins.
+ * <p>
+ * {@link #union(long, long)} is not thread-safe, {@link #setIdOf(long)} can be called concurrently once all
+ * unions have been applied.
+ */
+public final class DeltaDisjointSetStruct implements DisjointSetStruct {
+
+    private static final long NO_SEED = -1L;
+
+    private static final MemoryEstimation MEMORY_ESTIMATION = MemoryEstimations
+        .builder(DeltaDisjointSetStruct.class)
+        .build();
+
+    public static MemoryEstimation memoryEstimation() {
+        return MEMORY_ESTIMATION;
+    }
+
+    private final long size;
+    private final NodeProperties seeds;
+    // the first set id that is not used by any seed, nodes without a seed are assigned ids from here on
+    private final long firstUnseededSetId;
+    // parent set ids of the sets that have been joined into another set
+    private final LongLongHashMap parents;
+
+    public DeltaDisjointSetStruct(long size, NodeProperties seeds) {
+        this.size = size;
+        this.seeds = seeds;
+        this.firstUnseededSetId = 1L + seeds.getMaxPropertyValue().orElseGet(() -> maxSeed(size, seeds));
+        this.parents = new LongLongHashMap();
+    }
+
+    private static long maxSeed(long size, NodeProperties seeds) {
+        long max = NO_SEED;
+        for (long nodeId = 0; nodeId < size; nodeId++) {
+            max = Math.max(max, seeds.nodeLongProperty(nodeId, NO_SEED));
+        }
+        return max;
+    }
+
+    @Override
+    public void union(long p, long q) {
+        long setP = find(initialSetId(p));
+        long setQ = find(initialSetId(q));
+        if (setP < setQ) {
+            parents.put(setQ, setP);
+        } else if (setQ < setP) {
+            parents.put(setP, setQ);
+        }
+    }
+
+    @Override
+    public long setIdOf(long nodeId) {
+        return find(initialSetId(nodeId));
+    }
+
+    @Override
+    public boolean sameSet(long p, long q) {
+        return setIdOf(p) == setIdOf(q);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of sets that have been joined into another set
+     */
+    public long joinedSets() {
+        return parents.size();
+    }
+
+    private long initialSetId(long nodeId) {
+        long seed = seeds.nodeLongProperty(nodeId, NO_SEED);
+        return seed >= 0L ? seed : firstUnseededSetId + nodeId;
+    }
+
+    private long find(long setId) {
+        long parent;
+        while ((parent = parents.getOrDefault(setId, setId)) != setId) {
+            setId = parent;
+        }
+        return setId;
+    }
+}
@@ -87,10 +87,10 @@ public final class HugeAtomicDisjointSetStruct implements DisjointSetStruct {
 
     public HugeAtomicDisjointSetStruct(long capacity, NodeProperties communityMapping, AllocationTracker tracker) {
         this.parent = HugeAtomicLongArray.newArray(capacity, i -> i, tracker);
-        this.communities = HugeAtomicLongArray.newArray(capacity, nodeId -> {
-            double communityIdValue = communityMapping.nodeProperty(nodeId, Double.NaN);
-            return Double.isNaN(communityIdValue) ? -1L : (long) communityIdValue;
-        }, tracker);
+        this.communities = HugeAtomicLongArray.newArray(
+                capacity,
+                nodeId -> communityMapping.nodeLongProperty(nodeId, -1L),
+                tracker);
         maxCommunityId = new AtomicLong(communityMapping.getMaxPropertyValue().orElse(NO_SUCH_SEED_VALUE));
     }
 
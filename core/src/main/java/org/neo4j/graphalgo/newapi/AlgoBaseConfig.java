@@ -45,4 +45,14 @@ public interface AlgoBaseConfig extends BaseConfig {
     @Configuration.Parameter
     Optional<GraphCreateConfig> implicitCreateConfig();
 
+    /**
+     * Run on a single adjacency list with the merged relationships of all {@link #relationshipTypes()},
+     * which is created on first use and kept with the catalog graph.
+     * Only applies to projections without a relationship weight.
+     */
+    @Value.Default
+    default boolean materializeUnion() {
+        return false;
+    }
+
 }
@@ -24,6 +24,7 @@ import org.neo4j.graphalgo.NodeProjections;
 import org.neo4j.graphalgo.PropertyMappings;
 import org.neo4j.graphalgo.RelationshipProjections;
 import org.neo4j.graphalgo.annotation.Configuration;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
 import org.neo4j.graphalgo.core.CypherMapWrapper;
 import org.neo4j.graphalgo.core.ProcedureConstants;
 import org.neo4j.graphalgo.core.utils.Pools;
@@ -77,6 +78,21 @@ public interface GraphCreateConfig extends BaseConfig {
         return -1;
     }
 
+    @Value.Default
+    @Value.Parameter(false)
+    @Configuration.ConvertWith("org.neo4j.graphalgo.core.AdjacencyEncoding#parse")
+    default AdjacencyEncoding adjacencyEncoding() {
+        return AdjacencyEncoding.VAR_LONG;
+    }
+
+    /**
+     * Keeps the original node ids and the adjacency offsets of the graph outside of the Java heap.
+     */
+    @Value.Default
+    @Value.Parameter(false)
+    default boolean offHeap() {
+        return false;
+    }
 
     static GraphCreateConfig createImplicit(String username, CypherMapWrapper config) {
         if (config.containsKey(NODE_QUERY_KEY) || config.containsKey(RELATIONSHIP_QUERY_KEY)) {
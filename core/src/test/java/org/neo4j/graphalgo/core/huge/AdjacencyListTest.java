@@ -137,11 +137,23 @@ class AdjacencyListTest {
         // int degreeByteSize = Integer.BYTES;
         int degreeByteSize = 4;
         long compressedAdjacencyByteSize = relationshipByteSize * (avgDegree - 1);
-        long expected = (degreeByteSize + firstAdjacencyIdAvgByteSize + compressedAdjacencyByteSize) * nodeCount;
+        // one skip index entry of 12 bytes for every block of 64 targets but the first
+        long skipIndexByteSize = ((avgDegree - 1) / 64) * 12;
+        long expected = (degreeByteSize + firstAdjacencyIdAvgByteSize + compressedAdjacencyByteSize + skipIndexByteSize) * nodeCount;
 
         assertEquals(expected, computeAdjacencyByteSize(avgDegree, nodeCount, delta));
     }
 
+    @Test
+    void shouldNotCountSkipIndexBelowMinDegree() {
+        long nodeCount = 100;
+        long delta = 1;
+        long belowMinDegree = computeAdjacencyByteSize(AdjacencyList.SKIP_INDEX_MIN_DEGREE, nodeCount, delta);
+        long aboveMinDegree = computeAdjacencyByteSize(AdjacencyList.SKIP_INDEX_MIN_DEGREE + 1, nodeCount, delta);
+        // one more target of a single byte and a skip index with 4 entries
+        assertEquals((1 + 4 * AdjacencyList.SKIP_ENTRY_BYTES) * nodeCount, aboveMinDegree - belowMinDegree);
+    }
+
     @Test
     void shouldComputeAdjacencyByteSizeNoNodes() {
         long avgDegree = 0;
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.neo4j.graphalgo.core.AdjacencyEncoding;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockPackedDecodingTest {
+
+    private static final int DEGREE = 150;
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 16})
+    void shouldDecodeAllTargets(int padding) {
+        AdjacencyList.DecompressingCursor cursor = consecutiveTargets(padding).decompressingCursor(0L);
+
+        assertEquals(DEGREE, cursor.cost());
+        for (long expected = 0; expected < DEGREE; expected++) {
+            assertTrue(cursor.hasNextVLong());
+            assertEquals(expected, cursor.nextVLong());
+        }
+        assertFalse(cursor.hasNextVLong());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 16})
+    void shouldSkipAcrossBlocks(int padding) {
+        AdjacencyList.DecompressingCursor cursor = consecutiveTargets(padding).decompressingCursor(0L);
+
+        assertEquals(100L, cursor.skipUntil(99L));
+        assertEquals(DEGREE - 101, cursor.remaining());
+        assertEquals(140L, cursor.advance(140L));
+        assertEquals(141L, cursor.nextVLong());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 16})
+    void shouldDecodeLargeFirstTargetSeparately(int padding) {
+        // target 1000 is stored as a two byte var-long, targets 1003, 1004 as deltas 3, 1 with 2 bits each
+        byte[] page = new byte[Integer.BYTES + 4 + padding];
+        page[0] = 3;
+        page[4] = (byte) 0x68;
+        page[5] = (byte) 0x87;
+        page[6] = 2;
+        page[7] = 0b01_11;
+        AdjacencyList.DecompressingCursor cursor = new AdjacencyList(
+            new byte[][]{page},
+            AdjacencyEncoding.BLOCK_PACKED
+        ).decompressingCursor(0L);
+
+        assertEquals(1000L, cursor.nextVLong());
+        assertEquals(1003L, cursor.nextVLong());
+        assertEquals(1004L, cursor.nextVLong());
+        assertFalse(cursor.hasNextVLong());
+    }
+
+    /**
+     * Targets 0 until {@link #DEGREE} are stored as deltas 0, 1, 1, ..., 1.
+     * The first delta of every block is a single byte var-long, the others use a single bit each.
+     */
+    private static AdjacencyList consecutiveTargets(int padding) {
+        int blocks = (DEGREE + AdjacencyList.BLOCK_SIZE - 1) / AdjacencyList.BLOCK_SIZE;
+        int dataBytes = 0;
+        for (int start = 0; start < DEGREE; start += AdjacencyList.BLOCK_SIZE) {
+            dataBytes += (Math.min(AdjacencyList.BLOCK_SIZE, DEGREE - start) - 1 + 7) / 8;
+        }
+        byte[] page = new byte[Integer.BYTES + 2 * blocks + dataBytes + padding];
+        page[0] = (byte) DEGREE;
+
+        int offset = Integer.BYTES;
+        for (int start = 0; start < DEGREE; start += AdjacencyList.BLOCK_SIZE) {
+            int packed = Math.min(AdjacencyList.BLOCK_SIZE, DEGREE - start) - 1;
+            int bytes = (packed + 7) / 8;
+            // the very first target is stored as is
+            page[offset++] = (byte) (start == 0 ? 0x80 : 0x81);
+            page[offset++] = 1;
+            Arrays.fill(page, offset, offset + bytes, (byte) 0xFF);
+            if (packed % 8 != 0) {
+                page[offset + bytes - 1] = (byte) ((1 << (packed % 8)) - 1);
+            }
+            offset += bytes;
+        }
+
+        return new AdjacencyList(new byte[][]{page}, AdjacencyEncoding.BLOCK_PACKED);
+    }
+}
@@ -26,14 +26,18 @@ import org.junit.jupiter.api.Timeout;
 import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.StoreLoaderBuilder;
 import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.AdjacencyBuffer;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
 import org.neo4j.graphalgo.core.utils.mem.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -79,6 +83,105 @@ final class HugeGraphWeightTest {
         });
     }
 
+    @Test
+    void shouldLoadRelationshipsIntoBuffer() {
+        mkDb(WEIGHT_BATCH_SIZE * 2, 2);
+
+        Graph graph = loadGraph(db);
+        AdjacencyBuffer buffer = new AdjacencyBuffer();
+
+        graph.forEachNode((long node) -> {
+            List<Long> expectedTargets = new ArrayList<>();
+            List<Double> expectedProperties = new ArrayList<>();
+            graph.forEachRelationship(node, Double.NaN, (src, tgt, property) -> {
+                expectedTargets.add(tgt);
+                expectedProperties.add(property);
+                return true;
+            });
+
+            graph.relationships(node, Double.NaN, buffer);
+            assertEquals(node, buffer.sourceNodeId());
+            assertEquals(expectedTargets.size(), buffer.length());
+            for (int i = 0; i < buffer.length(); i++) {
+                assertEquals((long) expectedTargets.get(i), buffer.targets()[i]);
+                assertEquals((double) expectedProperties.get(i), buffer.properties()[i]);
+            }
+            return true;
+        });
+    }
+
+    @Test
+    void shouldLookupRelationshipsOfHighDegreeNodes() {
+        int degree = AdjacencyList.SKIP_INDEX_MIN_DEGREE * 4 + 1;
+        long[] neoIds = runInTransaction(db, () -> {
+            long[] ids = new long[degree + 1];
+            Node center = db.createNode();
+            ids[0] = center.getId();
+            for (int i = 1; i <= degree; i++) {
+                Node target = db.createNode();
+                ids[i] = target.getId();
+                // skip every other target to have non-existing relationships within the id range
+                if (i % 2 == 0) {
+                    center.createRelationshipTo(target, TYPE).setProperty("weight", i);
+                }
+            }
+            return ids;
+        });
+
+        Graph graph = loadGraph(db);
+        long center = graph.toMappedNodeId(neoIds[0]);
+
+        long[] targets = new long[graph.degree(center)];
+        int[] index = {0};
+        graph.forEachRelationship(center, (src, tgt) -> {
+            targets[index[0]++] = tgt;
+            return true;
+        });
+
+        for (int i = 0; i < targets.length; i++) {
+            assertEquals(targets[i], graph.getTarget(center, i));
+        }
+        assertEquals(-1L, graph.getTarget(center, targets.length));
+
+        for (int i = 1; i <= degree; i++) {
+            long target = graph.toMappedNodeId(neoIds[i]);
+            boolean exists = i % 2 == 0;
+            assertEquals(exists, graph.exists(center, target), "exists for target " + i);
+            assertEquals(exists ? i : 0.0, graph.relationshipProperty(center, target, 0.0), "property for target " + i);
+        }
+    }
+
+    @Test
+    void shouldLookupRelationshipsWhileIterating() {
+        int degree = AdjacencyList.SKIP_INDEX_MIN_DEGREE * 4;
+        long centerNeoId = runInTransaction(db, () -> {
+            Node center = db.createNode();
+            for (int i = 1; i <= degree; i++) {
+                center.createRelationshipTo(db.createNode(), TYPE).setProperty("weight", i);
+            }
+            return center.getId();
+        });
+
+        Graph graph = loadGraph(db);
+        long center = graph.toMappedNodeId(centerNeoId);
+        long lastTarget = graph.getTarget(center, degree - 1);
+
+        List<Long> targets = new ArrayList<>();
+        graph.forEachRelationship(center, (src, tgt) -> {
+            targets.add(tgt);
+            // point lookups on the same node must not disturb the running iteration
+            assertEquals(lastTarget, graph.getTarget(src, degree - 1));
+            assertEquals(true, graph.exists(src, lastTarget));
+            assertEquals(degree, graph.relationshipProperty(src, lastTarget, 0.0));
+            return true;
+        });
+
+        assertEquals(degree, targets.size());
+        for (int i = 0; i < degree; i++) {
+            assertEquals((long) targets.get(i), graph.getTarget(center, i));
+        }
+    }
+
     @Test
     @Timeout(value = 10_000, unit = TimeUnit.MILLISECONDS)
     void shouldLoadMoreWeights() {
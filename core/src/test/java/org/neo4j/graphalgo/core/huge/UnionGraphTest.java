@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.Projection;
+import org.neo4j.graphalgo.RelationshipProjection;
+import org.neo4j.graphalgo.StoreLoaderBuilder;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
+import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.graphalgo.QueryRunner.runQuery;
+
+final class UnionGraphTest {
+
+    private static final String DB_CYPHER =
+        "CREATE" +
+        "  (a:Node)" +
+        ", (b:Node)" +
+        ", (c:Node)" +
+        ", (d:Node)" +
+        ", (a)-[:T1]->(b)" +
+        ", (b)-[:T2]->(c)" +
+        ", (a)-[:T1]->(c)" +
+        ", (a)-[:T2]->(c)" +
+        ", (c)-[:T1]->(d)";
+
+    private GraphDatabaseAPI db;
+    private GraphsByRelationshipType graphs;
+
+    @BeforeEach
+    void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        runQuery(db, DB_CYPHER);
+        graphs = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .putRelationshipProjectionsWithIdentifier("T1", RelationshipProjection.of("T1", Projection.UNDIRECTED))
+            .putRelationshipProjectionsWithIdentifier("T2", RelationshipProjection.of("T2", Projection.UNDIRECTED))
+            .build()
+            .graphs(HugeGraphFactory.class);
+    }
+
+    @AfterEach
+    void teardown() {
+        db.shutdown();
+    }
+
+    @Test
+    void mergingCursorReturnsSortedDistinctTargets() {
+        UnionGraph union = (UnionGraph) graphs.getGraphProjection("*");
+        MergingAdjacencyCursor cursor = union.mergingCursor();
+
+        assertEquals(3, union.degree(node(union, 0)));
+        assertArrayEquals(sorted(union, 1, 2), targets(cursor.init(node(union, 0))));
+        assertArrayEquals(sorted(union, 0, 2), targets(cursor.init(node(union, 1))));
+        assertArrayEquals(sorted(union, 0, 1, 3), targets(cursor.init(node(union, 2))));
+        assertArrayEquals(sorted(union, 2), targets(cursor.init(node(union, 3))));
+    }
+
+    @Test
+    void mergingCursorAdvancesAcrossGraphs() {
+        UnionGraph union = (UnionGraph) graphs.getGraphProjection("*");
+        MergingAdjacencyCursor cursor = union.mergingCursor().init(node(union, 2));
+        long[] targets = sorted(union, 0, 1, 3);
+
+        assertEquals(targets[1], cursor.advance(targets[1]));
+        assertEquals(targets[2], cursor.skipUntil(targets[1]));
+        assertEquals(MergingAdjacencyCursor.NOT_FOUND, cursor.skipUntil(targets[2]));
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    void intersectionFindsTrianglesAcrossRelationshipTypes() {
+        Graph union = graphs.getGraphProjection("*");
+        List<long[]> triangles = new ArrayList<>();
+        union.forEachNode(nodeId -> {
+            union.intersection().intersectAll(nodeId, (a, b, c) -> triangles.add(new long[]{a, b, c}));
+            return true;
+        });
+
+        assertEquals(1, triangles.size());
+        assertArrayEquals(sorted(union, 0, 1, 2), triangles.get(0));
+    }
+
+    @Test
+    void materializeMergesAdjacencyLists() {
+        UnionGraph union = (UnionGraph) graphs.getGraphProjection("*");
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeGraph merged = union.materialize(1, tracker);
+
+        assertTrue(tracker.tracked() > 0L);
+
+        assertEquals(union.nodeCount(), merged.nodeCount());
+        assertTrue(merged.isUndirected());
+        for (int node = 0; node < 4; node++) {
+            long nodeId = node(union, node);
+            long[] expected = targets(union.mergingCursor().init(nodeId));
+            List<Long> actual = new ArrayList<>();
+            merged.forEachRelationship(nodeId, (s, t) -> actual.add(t));
+            assertArrayEquals(expected, actual.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    @Test
+    void mergedGraphProjectionIsCached() {
+        Graph merged = graphs.getMergedGraphProjection(Arrays.asList("T2", "T1"), 1);
+
+        assertSame(merged, graphs.getMergedGraphProjection(Arrays.asList("*"), 1));
+        assertEquals(2, merged.degree(node(merged, 0)));
+        assertTrue(graphs.mergedGraphsMemoryUsage() > 0L);
+    }
+
+    @Test
+    void mergedGraphProjectionIsNotReleasedWithCatalogGraph() {
+        graphs.canRelease(false);
+        Graph merged = graphs.getMergedGraphProjection(Arrays.asList("*"), 1);
+
+        merged.releaseTopology();
+        merged.release();
+
+        Graph cached = graphs.getMergedGraphProjection(Arrays.asList("*"), 1);
+        assertSame(merged, cached);
+        assertEquals(2, cached.degree(node(cached, 0)));
+    }
+
+    @Test
+    void materializeMergesPagesInParallel() {
+        runQuery(db, "UNWIND range(0, 4999) AS i CREATE (:Node {id: i})");
+        runQuery(db,
+            "MATCH (a:Node), (b:Node) WHERE a.id % 7 = 0 AND b.id = (a.id * 31 + 5) % 5000 " +
+            "CREATE (a)-[:T1]->(b), (a)-[:T2]->(b)");
+        runQuery(db,
+            "MATCH (a:Node), (b:Node) WHERE a.id % 3 = 0 AND b.id = (a.id + 1) % 5000 " +
+            "CREATE (a)-[:T2]->(b)");
+        GraphsByRelationshipType largeGraphs = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .putRelationshipProjectionsWithIdentifier("T1", RelationshipProjection.of("T1", Projection.UNDIRECTED))
+            .putRelationshipProjectionsWithIdentifier("T2", RelationshipProjection.of("T2", Projection.UNDIRECTED))
+            .build()
+            .graphs(HugeGraphFactory.class);
+        UnionGraph union = (UnionGraph) largeGraphs.getGraphProjection("*");
+
+        HugeGraph sequential = union.materialize(1, AllocationTracker.EMPTY);
+        HugeGraph parallel = union.materialize(4, AllocationTracker.EMPTY);
+
+        assertEquals(sequential.relationshipCount(), parallel.relationshipCount());
+        union.forEachNode(nodeId -> {
+            long[] expected = targets(union.mergingCursor().init(nodeId));
+            List<Long> actual = new ArrayList<>();
+            parallel.forEachRelationship(nodeId, (s, t) -> actual.add(t));
+            assertArrayEquals(expected, actual.stream().mapToLong(Long::longValue).toArray());
+            return true;
+        });
+    }
+
+    private static long node(Graph graph, long neoId) {
+        return graph.toMappedNodeId(neoId);
+    }
+
+    private static long[] sorted(Graph graph, long... neoIds) {
+        return Arrays.stream(neoIds).map(graph::toMappedNodeId).sorted().toArray();
+    }
+
+    private static long[] targets(MergingAdjacencyCursor cursor) {
+        List<Long> targets = new ArrayList<>();
+        while (cursor.hasNext()) {
+            targets.add(cursor.next());
+        }
+        return targets.stream().mapToLong(Long::longValue).toArray();
+    }
+}
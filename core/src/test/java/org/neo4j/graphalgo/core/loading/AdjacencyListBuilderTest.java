@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.neo4j.graphalgo.core.huge.AdjacencyList.PAGE_MASK;
+import static org.neo4j.graphalgo.core.huge.AdjacencyList.PAGE_SHIFT;
+import static org.neo4j.graphalgo.core.huge.AdjacencyList.PAGE_SIZE;
+import static org.neo4j.graphalgo.core.utils.paged.PageUtil.indexInPage;
+import static org.neo4j.graphalgo.core.utils.paged.PageUtil.pageIndex;
+
+final class AdjacencyListBuilderTest {
+
+    private AdjacencyListBuilder builder;
+    private AdjacencyListBuilder.Allocator allocator;
+    private List<long[]> lists;
+
+    @BeforeEach
+    void setup() {
+        builder = AdjacencyListBuilder.newBuilder(AllocationTracker.EMPTY);
+        allocator = builder.newAllocator();
+        allocator.prepare();
+        lists = new ArrayList<>();
+    }
+
+    @Test
+    void shouldNotHandOutAddressZero() {
+        assertEquals(1L, write(10));
+    }
+
+    @Test
+    void shouldFillPageToItsLastByte() {
+        write(PAGE_SIZE - 1 - 10);
+        assertEquals(PAGE_SIZE - 10, write(10));
+        assertEquals(PAGE_SIZE, write(1));
+        assertPagesContainAllLists();
+    }
+
+    @Test
+    void shouldStartNextPageAtPageBoundary() {
+        write(PAGE_SIZE - 1 - 100);
+        long address = write(200);
+
+        assertEquals(PAGE_SIZE, address);
+        assertEquals(1, pageIndex(address, PAGE_SHIFT));
+        assertEquals(0, indexInPage(address, PAGE_MASK));
+        assertPagesContainAllLists();
+    }
+
+    @Test
+    void shouldReuseTailOfPreviousPage() {
+        write(PAGE_SIZE - 1 - 100);
+        write(200);
+        write(PAGE_SIZE - 200 - 30);
+
+        // does not fit into the 30 bytes left on the second page, but into the 100 bytes left on the first one
+        assertEquals(PAGE_SIZE - 100, write(80));
+        assertSame(pages()[0], allocator.page);
+
+        // the tail of the current page is used again once the fragment is left
+        assertEquals(2L * PAGE_SIZE - 30, write(30));
+        assertSame(pages()[1], allocator.page);
+
+        // the rest of the fragment fits exactly
+        assertEquals(PAGE_SIZE - 20, write(20));
+        assertSame(pages()[0], allocator.page);
+
+        assertEquals(2L * PAGE_SIZE, write(1));
+        assertPagesContainAllLists();
+    }
+
+    @Test
+    void shouldNotUseFragmentThatIsTooSmall() {
+        write(PAGE_SIZE - 1 - 100);
+        write(200);
+        write(PAGE_SIZE - 200 - 30);
+
+        assertEquals(2L * PAGE_SIZE, write(101));
+        assertSame(pages()[2], allocator.page);
+        assertEquals(2L * PAGE_SIZE + 101, write(PAGE_SIZE - 101));
+
+        // the fragment of the first page is still there
+        assertEquals(PAGE_SIZE - 100, write(100));
+        assertPagesContainAllLists();
+    }
+
+    @Test
+    void shouldKeepLargerOfTwoFragments() {
+        write(PAGE_SIZE - 1 - 100);
+        write(200);
+        write(PAGE_SIZE - 200 - 150);
+        // moves to the third page, the 150 bytes left on the second page replace the 100 bytes on the first one
+        assertEquals(2L * PAGE_SIZE, write(PAGE_SIZE - 10));
+
+        assertEquals(2L * PAGE_SIZE - 150, write(120));
+        assertSame(pages()[1], allocator.page);
+        assertPagesContainAllLists();
+    }
+
+    @Test
+    void shouldNotWriteAcrossFragmentEnd() {
+        write(PAGE_SIZE - 1 - 100);
+        write(200);
+        write(PAGE_SIZE - 200 - 30);
+
+        assertEquals(PAGE_SIZE - 100, write(100));
+        // the fragment is used up, so this list goes to a new page
+        assertEquals(2L * PAGE_SIZE, write(40));
+        assertPagesContainAllLists();
+    }
+
+    @Test
+    void shouldPlaceOversizedListsOnTheirOwnPage() {
+        write(100);
+        long address = write(PAGE_SIZE + 1);
+
+        assertEquals(PAGE_SIZE, address);
+        assertEquals(PAGE_SIZE + 1, pages()[1].length);
+        // the remainder of the first page is still used
+        assertEquals(101L, write(10));
+        assertPagesContainAllLists();
+    }
+
+    /**
+     * Allocates {@code size} bytes, writes them the way the relationship builders do
+     * and fills them with the number of the list.
+     */
+    private long write(int size) {
+        long address = allocator.allocate(size);
+        assertEquals(indexInPage(address, PAGE_MASK), allocator.offset);
+
+        byte marker = (byte) (lists.size() + 1);
+        byte[] page = allocator.page;
+        int offset = allocator.offset;
+        for (int i = 0; i < size; i++) {
+            page[offset++] = marker;
+        }
+        allocator.offset = offset;
+
+        lists.add(new long[]{address, size, marker});
+        return address;
+    }
+
+    private byte[][] pages() {
+        return builder.build().pages();
+    }
+
+    private void assertPagesContainAllLists() {
+        byte[][] pages = pages();
+        for (long[] list : lists) {
+            long address = list[0];
+            byte[] page = pages[pageIndex(address, PAGE_SHIFT)];
+            int offset = indexInPage(address, PAGE_MASK);
+            for (int i = 0; i < list[1]; i++) {
+                assertEquals((byte) list[2], page[offset + i], "list starting at " + address);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.neo4j.graphalgo.Projection;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.Aggregation;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.graphalgo.TestGraph.Builder.fromGdl;
+import static org.neo4j.graphalgo.TestSupport.assertGraphEquals;
+
+class CommunityGraphBuilderTest {
+
+    private static final String EXPECTED_GRAPH =
+        "(a)-[{w: 6.0}]->(a)" +
+        "(a)-[{w: 12.0}]->(b)" +
+        "(b)-[{w: 18.0}]->(b)";
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void shouldSumRelationshipsBetweenCommunities(int concurrency) {
+        int nodeCount = 6;
+        GraphGenerator.NodeImporter nodeImporter = GraphGenerator.createNodeImporter(
+            nodeCount,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        );
+        for (int i = 0; i < nodeCount; i++) {
+            nodeImporter.addNode(i);
+        }
+
+        GraphGenerator.RelImporter relImporter = GraphGenerator.createRelImporter(
+            nodeImporter,
+            Projection.NATURAL,
+            true,
+            Aggregation.NONE
+        );
+        // community 10
+        relImporter.add(0, 1, 1.0);
+        relImporter.add(1, 0, 2.0);
+        relImporter.add(0, 2, 3.0);
+        // community 10 to 20
+        relImporter.add(2, 3, 4.0);
+        relImporter.add(1, 4, 8.0);
+        // community 20
+        relImporter.add(3, 4, 5.0);
+        relImporter.add(4, 5, 6.0);
+        relImporter.add(5, 3, 7.0);
+        Graph graph = relImporter.buildGraph();
+
+        Graph communityGraph = new CommunityGraphBuilder(
+            graph,
+            nodeId -> graph.toOriginalNodeId(nodeId) < 3 ? 10L : 20L,
+            20L,
+            concurrency,
+            Pools.DEFAULT,
+            AllocationTracker.EMPTY
+        ).build();
+
+        assertGraphEquals(fromGdl(EXPECTED_GRAPH), communityGraph);
+        assertEquals(3L, communityGraph.relationshipCount());
+        assertEquals(0L, communityGraph.toMappedNodeId(10L));
+        assertEquals(20L, communityGraph.toOriginalNodeId(1L));
+    }
+}
@@ -30,6 +30,7 @@ import org.neo4j.graphalgo.PropertyMappings;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.TestGraphLoader;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.NodeProperties;
 import org.neo4j.graphalgo.compat.MapUtil;
 import org.neo4j.graphalgo.core.Aggregation;
 import org.neo4j.graphalgo.core.utils.Pools;
@@ -37,6 +38,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -221,6 +223,47 @@ class CypherGraphFactoryTest {
         loadAndTestGraph(nodeStatement, relStatement, Aggregation.SINGLE, parallel);
     }
 
+    @Test
+    void testLoadStreamingCypherWithoutPaging() {
+        String nodeStatement = "MATCH (n) RETURN id(n) AS id, n.id AS idProp";
+        String relStatement =
+            "MATCH (n)-[r:REL]->(m) RETURN id(n) AS source, id(m) AS target, r.prop/2.0 AS weight " +
+            "UNION ALL " +
+            "MATCH (n)-[r:REL]->(m) RETURN id(n) AS source, id(m) AS target, r.prop/2.0 AS weight ";
+
+        // the rows are split into one chunk per thread, so every consumer imports a part of the result
+        int concurrency = 4;
+        CypherLoaderBuilder builder = new CypherLoaderBuilder()
+            .api(db)
+            .nodeQuery(nodeStatement)
+            .relationshipQuery(relStatement)
+            .concurrency(concurrency)
+            .globalAggregation(Aggregation.SUM)
+            .addNodeProperty(PropertyMapping.of("idProp", 0D))
+            .addRelationshipProperty(PropertyMapping.of("weight", 0D));
+
+        Graph graph = runInTransaction(db, () -> builder.build().load(CypherGraphFactory.class));
+
+        assertEquals(COUNT, graph.nodeCount());
+        assertEquals(COUNT, graph.relationshipCount());
+
+        NodeProperties idProperty = graph.nodeProperties("idProp");
+        AtomicLong idSum = new AtomicLong();
+        graph.forEachNode(nodeId -> {
+            long id = (long) idProperty.nodeProperty(nodeId);
+            idSum.addAndGet(id);
+            assertEquals(1, graph.degree(nodeId));
+            graph.forEachRelationship(nodeId, Double.NaN, (source, target, weight) -> {
+                assertEquals(nodeId, target);
+                // both rows of the self loop are summed up
+                assertEquals(id % 10, weight, 1e-9);
+                return true;
+            });
+            return true;
+        });
+        assertEquals((long) COUNT * (COUNT + 1) / 2, idSum.get());
+    }
+
     @Test
     void testInitNodePropertiesFromQuery() {
         GraphDatabaseAPI db = TestDatabaseCreator.createTestDatabase();
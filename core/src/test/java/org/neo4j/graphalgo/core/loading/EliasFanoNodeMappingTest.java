@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class EliasFanoNodeMappingTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1_000L, 1_000_000L, 1L << 40})
+    void shouldMapOriginalIds(long maxId) {
+        Random random = new Random(42L);
+        long[] originalIds = random.longs(10_000, 0L, maxId).distinct().toArray();
+        HugeLongArray graphIds = HugeLongArray.of(originalIds);
+
+        EliasFanoNodeMapping mapping = EliasFanoNodeMapping.build(graphIds, originalIds.length, 1, AllocationTracker.EMPTY);
+
+        for (int nodeId = 0; nodeId < originalIds.length; nodeId++) {
+            assertEquals(nodeId, mapping.get(originalIds[nodeId]));
+            assertTrue(mapping.contains(originalIds[nodeId]));
+        }
+
+        long[] sorted = originalIds.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < 10_000; i++) {
+            long originalId = Math.floorMod(random.nextLong(), maxId);
+            if (Arrays.binarySearch(sorted, originalId) < 0) {
+                assertEquals(-1L, mapping.get(originalId));
+                assertFalse(mapping.contains(originalId));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldBuildInParallel(boolean ascending) {
+        Random random = new Random(42L);
+        long[] originalIds = random.longs(100_000, 0L, 1L << 40).distinct().toArray();
+        if (ascending) {
+            Arrays.sort(originalIds);
+        }
+        HugeLongArray graphIds = HugeLongArray.of(originalIds);
+
+        AllocationTracker sequentialTracker = AllocationTracker.create();
+        EliasFanoNodeMapping sequential = EliasFanoNodeMapping.build(graphIds, originalIds.length, 1, sequentialTracker);
+        AllocationTracker parallelTracker = AllocationTracker.create();
+        EliasFanoNodeMapping parallel = EliasFanoNodeMapping.build(graphIds, originalIds.length, 4, parallelTracker);
+
+        assertEquals(sequentialTracker.tracked(), parallelTracker.tracked());
+        for (int nodeId = 0; nodeId < originalIds.length; nodeId++) {
+            assertEquals(nodeId, parallel.get(originalIds[nodeId]));
+            assertEquals(sequential.get(originalIds[nodeId] + 1L), parallel.get(originalIds[nodeId] + 1L));
+        }
+    }
+
+    @Test
+    void shouldDropRanksForAscendingIds() {
+        long[] originalIds = {3L, 17L, 18L, 1_000L, 4_242L, 100_000L};
+        AllocationTracker ascendingTracker = AllocationTracker.create();
+        EliasFanoNodeMapping ascending = EliasFanoNodeMapping.build(HugeLongArray.of(originalIds), originalIds.length, 1, ascendingTracker);
+
+        long[] shuffled = {17L, 3L, 4_242L, 18L, 100_000L, 1_000L};
+        AllocationTracker shuffledTracker = AllocationTracker.create();
+        EliasFanoNodeMapping unordered = EliasFanoNodeMapping.build(HugeLongArray.of(shuffled), shuffled.length, 1, shuffledTracker);
+
+        // the unordered mapping needs to keep the mapped id for every rank
+        assertTrue(shuffledTracker.tracked() > ascendingTracker.tracked());
+        for (int nodeId = 0; nodeId < originalIds.length; nodeId++) {
+            assertEquals(nodeId, ascending.get(originalIds[nodeId]));
+            assertEquals(nodeId, unordered.get(shuffled[nodeId]));
+        }
+    }
+
+    @Test
+    void shouldNotFindIdsOutOfRange() {
+        EliasFanoNodeMapping mapping = EliasFanoNodeMapping.build(HugeLongArray.of(0L, 1337L), 2, 1, AllocationTracker.EMPTY);
+        assertEquals(-1L, mapping.get(-1L));
+        assertEquals(-1L, mapping.get(1338L));
+        assertEquals(-1L, mapping.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldMapEmptyIdSpace() {
+        EliasFanoNodeMapping mapping = EliasFanoNodeMapping.build(HugeLongArray.of(), 0, 1, AllocationTracker.EMPTY);
+        assertEquals(-1L, mapping.get(0L));
+        assertFalse(mapping.contains(42L));
+    }
+
+    @Test
+    void shouldBePreferredForSparseIdSpaces() {
+        assertFalse(EliasFanoNodeMapping.isPreferable(0L, 0L));
+        assertFalse(EliasFanoNodeMapping.isPreferable(100L, 100L));
+        assertTrue(EliasFanoNodeMapping.isPreferable(1_000L, 100L));
+    }
+}
@@ -29,6 +29,7 @@ import org.neo4j.graphalgo.StoreLoaderBuilder;
 import org.neo4j.graphalgo.TestDatabaseCreator;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.huge.HugeGraph;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.RelationshipType;
@@ -38,6 +39,9 @@ import java.util.Arrays;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.neo4j.graphalgo.QueryRunner.runInTransaction;
 import static org.neo4j.graphalgo.QueryRunner.runQuery;
 import static org.neo4j.graphalgo.TestGraph.Builder.fromGdl;
@@ -110,6 +114,44 @@ final class HugeGraphLoadingTest {
         }
     }
 
+    @Test
+    void testSelectiveLabelLoading() {
+        // only 2% of the nodes match, so they are read via the label scan store
+        Label foo = Label.label("Foo");
+        Label bar = Label.label("Bar");
+        int nodeCount = 100_000;
+        runInTransaction(db, () -> {
+            for (int j = 0; j < nodeCount; j++) {
+                Node node;
+                if (j % 100 == 0) {
+                    node = db.createNode(foo, bar);
+                } else if (j % 50 == 0) {
+                    node = db.createNode(foo);
+                } else {
+                    node = db.createNode(bar);
+                }
+                node.setProperty("id", node.getId());
+            }
+        });
+
+        Graph graph = new StoreLoaderBuilder()
+            .api(db)
+            .addNodeLabel(foo.name())
+            .addNodeProperty(PropertyMapping.of("id", -1.0))
+            .loadAnyRelationshipType()
+            .build()
+            .graph(HugeGraphFactory.class);
+
+        assertEquals(nodeCount / 50, graph.nodeCount());
+        NodeProperties nodeProperties = graph.nodeProperties("id");
+        graph.forEachNode(nodeId -> {
+            long neoId = graph.toOriginalNodeId(nodeId);
+            assertEquals(0L, neoId % 50);
+            assertEquals(neoId, (long) nodeProperties.nodeProperty(nodeId));
+            return true;
+        });
+    }
+
     @Test
     void testFullPageLoading() {
         final int recordsPerPage = 546;
@@ -168,6 +210,93 @@ final class HugeGraphLoadingTest {
         assertEquals(11, graph.relationshipCount());
     }
 
+    @Test
+    void testSelectiveRelationshipTypeLoading() {
+        // RARE is less than 10% of all relationships, so they are read from the relationship chains;
+        // the hub is a dense node, a and c are sparse nodes that also have COMMON relationships
+        runQuery(db, "CREATE" +
+                     "  (hub:Node {id: 0})" +
+                     ", (a:Node {id: 1})" +
+                     ", (b:Node {id: 2})" +
+                     ", (c:Node {id: 3})" +
+                     ", (hub)-[:RARE]->(a)" +
+                     ", (hub)-[:RARE]->(b)" +
+                     ", (hub)-[:RARE]->(c)" +
+                     ", (hub)-[:RARE]->(hub)" +
+                     ", (a)-[:RARE]->(hub)" +
+                     ", (a)-[:COMMON]->(c)" +
+                     ", (c)-[:COMMON]->(a)" +
+                     " WITH hub" +
+                     " UNWIND range(1, 200) AS i" +
+                     " CREATE (hub)-[:COMMON]->(:Other)");
+
+        GraphsByRelationshipType graphsByRelationshipType = new StoreLoaderBuilder()
+            .api(db)
+            .addNodeLabel("Node")
+            .putRelationshipProjectionsWithIdentifier(
+                "RARE_NATURAL",
+                RelationshipProjection.of("RARE", Projection.NATURAL)
+            )
+            .putRelationshipProjectionsWithIdentifier(
+                "RARE_REVERSE",
+                RelationshipProjection.of("RARE", Projection.REVERSE)
+            )
+            .addNodeProperty(PropertyMapping.of("id", 42.0))
+            .build()
+            .graphs(HugeGraphFactory.class);
+
+        Graph natural = graphsByRelationshipType.getGraphProjection("RARE_NATURAL");
+        assertGraphEquals(fromGdl(
+            "(hub {id: 0}), (a {id: 1}), (b {id: 2}), (c {id: 3})" +
+            ", (hub)-->(a), (hub)-->(b), (hub)-->(c), (hub)-->(hub), (a)-->(hub)"
+        ), natural);
+
+        Graph reverse = graphsByRelationshipType.getGraphProjection("RARE_REVERSE");
+        assertGraphEquals(fromGdl(
+            "(hub {id: 0}), (a {id: 1}), (b {id: 2}), (c {id: 3})" +
+            ", (a)-->(hub), (b)-->(hub), (c)-->(hub), (hub)-->(hub), (hub)-->(a)"
+        ), reverse);
+    }
+
+    @Test
+    void testMultipleRelationshipPropertiesShareTopology() {
+        runQuery(db, "CREATE" +
+                     "  (a:Node)" +
+                     ", (b:Node)" +
+                     ", (c:Node)" +
+                     ", (a)-[:TYPE {p1: 1.0, p2: 2.0, p3: 3.0}]->(b)" +
+                     ", (a)-[:TYPE {p1: 4.0, p2: 5.0, p3: 6.0}]->(c)");
+
+        GraphsByRelationshipType graphsByRelationshipType = new StoreLoaderBuilder()
+            .api(db)
+            .loadAnyLabel()
+            .loadAnyRelationshipType()
+            .addRelationshipProperty(PropertyMapping.of("p1", 0.0))
+            .addRelationshipProperty(PropertyMapping.of("p2", 0.0))
+            .addRelationshipProperty(PropertyMapping.of("p3", 0.0))
+            .addRelationshipProperty(PropertyMapping.of("missing", 42.0))
+            .build()
+            .graphs(HugeGraphFactory.class);
+
+        HugeGraph p1 = (HugeGraph) graphsByRelationshipType.getGraphProjection("*", "p1");
+        HugeGraph p2 = (HugeGraph) graphsByRelationshipType.getGraphProjection("*", "p2");
+        HugeGraph p3 = (HugeGraph) graphsByRelationshipType.getGraphProjection("*", "p3");
+        HugeGraph missing = (HugeGraph) graphsByRelationshipType.getGraphProjection("*", "missing");
+
+        assertSame(p1.adjacencyList(), p2.adjacencyList());
+        assertSame(p1.adjacencyList(), p3.adjacencyList());
+        assertSame(p1.adjacencyOffsets(), p3.adjacencyOffsets());
+        assertNotSame(p1.properties(), p2.properties());
+        assertNull(missing.properties());
+
+        long a = p1.toMappedNodeId(0L);
+        long c = p1.toMappedNodeId(2L);
+        assertEquals(4.0, p1.relationshipProperty(a, c, Double.NaN));
+        assertEquals(5.0, p2.relationshipProperty(a, c, Double.NaN));
+        assertEquals(6.0, p3.relationshipProperty(a, c, Double.NaN));
+        assertEquals(42.0, missing.relationshipProperty(a, c));
+    }
+
     @Test
     void testMultipleRelationshipProjectionsOnTheSameType() {
         runQuery(db, "CREATE" +
@@ -41,14 +41,15 @@ class IdMapTest {
 
         dimensions = ImmutableGraphDimensions.builder().nodeCount(1L).highestNeoId(100_000_000_000L).build();
         memRec = IdMap.memoryEstimation().estimate(dimensions, 1);
-        assertEquals(MemoryRange.of(32L + 48L + 97_689_080L), memRec.memoryUsage());
+        // sparse id spaces are mapped with Elias-Fano encoding
+        assertEquals(MemoryRange.of(32L + 48L + 208L, 32L + 48L + 256L), memRec.memoryUsage());
 
         dimensions = ImmutableGraphDimensions.builder().nodeCount(10_000_000L).highestNeoId(100_000_000_000L).build();
         memRec = IdMap.memoryEstimation().estimate(dimensions, 1);
-        assertEquals(MemoryRange.of(32L + 80_000_040L + 177_714_824L, 32L + 80_000_040L + 327_937_656_296L), memRec.memoryUsage());
+        assertEquals(MemoryRange.of(32L + 80_000_040L + 19_407_536L, 32L + 80_000_040L + 99_407_576L), memRec.memoryUsage());
 
         dimensions = ImmutableGraphDimensions.builder().nodeCount(100_000_000L).highestNeoId(100_000_000_000L).build();
         memRec = IdMap.memoryEstimation().estimate(dimensions, 1);
-        assertEquals(MemoryRange.of(32L + 800_000_040L + 898_077_656L, 32L + 800_000_040L + 800_488_297_688L), memRec.memoryUsage());
+        assertEquals(MemoryRange.of(32L + 800_000_040L + 155_517_768L, 32L + 800_000_040L + 955_517_808L), memRec.memoryUsage());
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.loading;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class NodePropertiesBuilderTest {
+
+    private static final int NODE_COUNT = 1000;
+
+    @Test
+    void shouldPackFewDistinctValuesIntoDictionary() {
+        NodePropertiesBuilder builder = builder();
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId += 2) {
+            builder.set(nodeId, (long) (nodeId % 3) * 1_000_000_000_000L);
+        }
+        NodeProperties properties = builder.build();
+
+        assertTrue(properties instanceof PackedNodeProperties);
+        assertEquals(NODE_COUNT / 2, properties.size());
+        assertEquals(OptionalLong.of(2_000_000_000_000L), properties.getMaxPropertyValue());
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            if (nodeId % 2 == 0) {
+                assertEquals((nodeId % 3) * 1_000_000_000_000L, properties.nodeLongProperty(nodeId, -1L));
+            } else {
+                assertEquals(42.0, properties.nodeProperty(nodeId));
+                assertEquals(-1L, properties.nodeLongProperty(nodeId, -1L));
+            }
+        }
+    }
+
+    @Test
+    void shouldPackSmallRangeIntoInts() {
+        NodePropertiesBuilder builder = builder();
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            builder.set(nodeId, -500.0 + nodeId);
+        }
+        NodeProperties properties = builder.build();
+
+        assertTrue(properties instanceof PackedNodeProperties);
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            assertEquals(-500L + nodeId, properties.nodeLongProperty(nodeId, -1L));
+            assertEquals(-500.0 + nodeId, properties.nodeProperty(nodeId));
+        }
+    }
+
+    @Test
+    void shouldKeepLargeIntegralValuesExact() {
+        long base = (1L << 60) + 1L;
+        NodePropertiesBuilder builder = builder();
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            builder.set(nodeId, base * (nodeId % 7 == 0 ? -1 : 1) + nodeId);
+        }
+        NodeProperties properties = builder.build();
+
+        assertTrue(properties instanceof PackedNodeProperties);
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            assertEquals(base * (nodeId % 7 == 0 ? -1 : 1) + nodeId, properties.nodeLongProperty(nodeId, -1L));
+        }
+    }
+
+    @Test
+    void shouldKeepSparseLargeIntegralValuesExact() {
+        long large = (1L << 60) + 1L;
+        NodePropertiesBuilder builder = builder();
+        builder.set(13, 1337L);
+        builder.set(42, large);
+        builder.set(42, large + 2L);
+        builder.set(43, -large);
+        NodeProperties properties = builder.build();
+
+        assertTrue(properties instanceof NodePropertyMap);
+        assertEquals(3, properties.size());
+        assertEquals(1337L, properties.nodeLongProperty(13, -1L));
+        assertEquals(large + 2L, properties.nodeLongProperty(42, -1L));
+        assertEquals(-large, properties.nodeLongProperty(43, -1L));
+        assertEquals((double) -large, properties.nodeProperty(43));
+        assertEquals(-1L, properties.nodeLongProperty(44, -1L));
+        assertEquals(42.0, properties.nodeProperty(44));
+        assertEquals(OptionalLong.of(large + 2L), properties.getMaxPropertyValue());
+    }
+
+    @Test
+    void shouldPackFloats() {
+        NodePropertiesBuilder builder = builder();
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            builder.set(nodeId, nodeId == 3 ? Double.NaN : nodeId + 0.5);
+        }
+        NodeProperties properties = builder.build();
+
+        assertTrue(properties instanceof PackedNodeProperties);
+        assertTrue(Double.isNaN(properties.nodeProperty(3)));
+        assertEquals(42.5, properties.nodeProperty(42));
+        assertEquals(1337.0, properties.nodeProperty(NODE_COUNT + 1, 1337.0));
+    }
+
+    @Test
+    void shouldKeepDoublesAndSparseValuesInMap() {
+        NodePropertiesBuilder doubles = builder();
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            doubles.set(nodeId, nodeId + 0.1);
+        }
+        NodeProperties doubleProperties = doubles.build();
+        assertTrue(doubleProperties instanceof NodePropertyMap);
+        assertEquals(13.1, doubleProperties.nodeProperty(13));
+
+        NodePropertiesBuilder sparse = builder();
+        sparse.set(13, 1337L);
+        NodeProperties sparseProperties = sparse.build();
+        assertTrue(sparseProperties instanceof NodePropertyMap);
+        assertEquals(1337L, sparseProperties.nodeLongProperty(13, -1L));
+        assertEquals(-1L, sparseProperties.nodeLongProperty(14, -1L));
+        assertEquals(42.0, sparseProperties.nodeProperty(14));
+    }
+
+    @Test
+    void shouldTellNodesWithValuesApart() {
+        NodePropertiesBuilder dictionary = builder();
+        NodePropertiesBuilder ints = builder();
+        NodePropertiesBuilder longs = builder();
+        NodePropertiesBuilder floats = builder();
+        NodePropertiesBuilder doubles = builder();
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId += 2) {
+            dictionary.set(nodeId, (long) (nodeId % 3));
+            ints.set(nodeId, (long) nodeId);
+            longs.set(nodeId, nodeId * (1L << 40));
+            floats.set(nodeId, nodeId + 0.5);
+            doubles.set(nodeId, nodeId + 0.1);
+        }
+
+        assertPresence(dictionary.build());
+        assertPresence(ints.build());
+        assertPresence(longs.build());
+        assertPresence(floats.build());
+        assertPresence(doubles.build());
+        assertFalse(new NullPropertyMap(42.0).hasNodeProperty(0));
+    }
+
+    private static void assertPresence(NodeProperties properties) {
+        for (int nodeId = 0; nodeId < NODE_COUNT; nodeId++) {
+            assertEquals(nodeId % 2 == 0, properties.hasNodeProperty(nodeId));
+        }
+        assertFalse(properties.hasNodeProperty(NODE_COUNT + 1));
+    }
+
+    private static NodePropertiesBuilder builder() {
+        return NodePropertiesBuilder.of(NODE_COUNT, AllocationTracker.EMPTY, 42.0, 0, "prop");
+    }
+}
@@ -20,8 +20,15 @@
 package org.neo4j.graphalgo.core.loading;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class RadixSortTest {
 
@@ -97,6 +104,42 @@ final class RadixSortTest {
         assertArrayEquals(expected, testcase);
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 17, 32, 33, 1000, 10_000})
+    void sortPairs(int length) {
+        Random random = new Random(42L);
+        long[] keys = new long[length];
+        long[][] values = new long[2][length];
+        for (int i = 0; i < length; i++) {
+            // few distinct keys to cover stability and keys that only differ in higher bytes
+            keys[i] = (random.nextInt(length / 4 + 1) * 0x10001L) << (i % 3 == 0 ? 24 : 0);
+            values[0][i] = i;
+            values[1][i] = keys[i] ^ i;
+        }
+        long[] originalKeys = keys.clone();
+
+        RadixSort.radixSortPairs(
+            keys,
+            values,
+            new long[length],
+            new long[][]{new long[length], new long[length]},
+            RadixSort.newPairsHistogram(),
+            length
+        );
+
+        long[] expectedKeys = originalKeys.clone();
+        Arrays.sort(expectedKeys);
+        assertArrayEquals(expectedKeys, keys);
+        for (int i = 0; i < length; i++) {
+            int originalIndex = (int) values[0][i];
+            assertEquals(originalKeys[originalIndex], keys[i]);
+            assertEquals(keys[i] ^ originalIndex, values[1][i]);
+            if (i > 0 && keys[i - 1] == keys[i]) {
+                assertTrue(values[0][i - 1] < values[0][i], "sort must be stable");
+            }
+        }
+    }
+
     private static long[] testData() {
         //@formatter:off
         return new long[]{
@@ -27,6 +27,11 @@ import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 
 import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static io.qala.datagen.RandomShortApi.integer;
@@ -167,6 +172,65 @@ final class SparseNodeMappingTest {
         assertEquals(sizeOfObjectArray(2) + sizeOfLongArray(PS), tracked);
     }
 
+    @Test
+    void shouldCreateAndTrackAllPagesInDenseMode() throws Throwable {
+        AllocationTracker tracker = AllocationTracker.create();
+        SparseNodeMapping.Builder array = SparseNodeMapping.Builder.createDense(2 * PS, tracker);
+
+        final AtomicReferenceArray<long[]> pages = getPages(array);
+        for (int i = 0; i < pages.length(); i++) {
+            assertNotNull(pages.get(i));
+        }
+
+        long tracked = tracker.tracked();
+        assertEquals(sizeOfObjectArray(2) + 2 * sizeOfLongArray(PS), tracked);
+
+        SparseNodeMapping mapping = array.build();
+        assertEquals(-1L, mapping.get(integer(0, 2 * PS - 1)));
+    }
+
+    @Test
+    void shouldChooseDenseModeIfEntriesCoverAllPages() throws Throwable {
+        SparseNodeMapping.Builder sparse = SparseNodeMapping.Builder.create(4 * PS, 1, AllocationTracker.EMPTY);
+        assertNull(getPages(sparse).get(0));
+
+        SparseNodeMapping.Builder dense = SparseNodeMapping.Builder.create(4 * PS, 4 * PS, AllocationTracker.EMPTY);
+        assertNotNull(getPages(dense).get(0));
+    }
+
+    @Test
+    void shouldAllocatePagesConcurrently() throws Throwable {
+        int threads = 8;
+        int size = 16 * PS;
+        AllocationTracker tracker = AllocationTracker.create();
+        SparseNodeMapping.Builder array = SparseNodeMapping.Builder.create(size, tracker);
+
+        // all threads write interleaved into the same pages, racing for their allocation
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < size; i += threads) {
+                        array.set(i, i + 42);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        SparseNodeMapping mapping = array.build();
+        for (int i = 0; i < size; i++) {
+            assertEquals(i + 42, mapping.get(i));
+        }
+        assertEquals(sizeOfObjectArray(16) + 16 * sizeOfLongArray(PS), tracker.tracked());
+    }
+
     @Test
     void shouldComputeMemoryEstimationForBestCase() {
         long size = integer(Integer.MAX_VALUE);
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.core.utils.mem.MemoryUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class HugeAtomicBitSetTest {
+
+    @Test
+    void testSetGetClear() {
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.create(200, AllocationTracker.EMPTY);
+        assertEquals(200, bitSet.size());
+        assertTrue(bitSet.isEmpty());
+
+        bitSet.set(0);
+        bitSet.set(63);
+        bitSet.set(64);
+        bitSet.set(199);
+
+        for (long i = 0; i < 200; i++) {
+            assertEquals(i == 0 || i == 63 || i == 64 || i == 199, bitSet.get(i), "bit " + i);
+        }
+
+        bitSet.clear(63);
+        bitSet.clear(62);
+        assertFalse(bitSet.get(63));
+        assertFalse(bitSet.get(62));
+        assertTrue(bitSet.get(64));
+
+        bitSet.clear(0);
+        bitSet.clear(64);
+        bitSet.clear(199);
+        assertTrue(bitSet.isEmpty());
+    }
+
+    @Test
+    void testGetAndSet() {
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.create(100, AllocationTracker.EMPTY);
+        assertFalse(bitSet.getAndSet(65));
+        assertTrue(bitSet.get(65));
+        assertTrue(bitSet.getAndSet(65));
+        assertFalse(bitSet.get(64));
+    }
+
+    @Test
+    void testAnySet() {
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.create(300, AllocationTracker.EMPTY);
+        bitSet.set(70);
+        bitSet.set(200);
+
+        assertFalse(bitSet.anySet(0, 70));
+        assertTrue(bitSet.anySet(0, 71));
+        assertTrue(bitSet.anySet(70, 71));
+        assertFalse(bitSet.anySet(71, 200));
+        assertTrue(bitSet.anySet(71, 201));
+        assertTrue(bitSet.anySet(0, 300));
+        assertFalse(bitSet.anySet(201, 300));
+        assertFalse(bitSet.anySet(70, 70));
+    }
+
+    @Test
+    void testAllSet() {
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.create(300, AllocationTracker.EMPTY);
+        for (long i = 10; i < 250; i++) {
+            bitSet.set(i);
+        }
+
+        assertTrue(bitSet.allSet(10, 250));
+        assertTrue(bitSet.allSet(64, 128));
+        assertTrue(bitSet.allSet(100, 101));
+        assertFalse(bitSet.allSet(9, 250));
+        assertFalse(bitSet.allSet(10, 251));
+        assertFalse(bitSet.allSet(0, 300));
+
+        bitSet.clear(128);
+        assertFalse(bitSet.allSet(10, 250));
+        assertTrue(bitSet.allSet(10, 128));
+        assertTrue(bitSet.allSet(129, 250));
+    }
+
+    @Test
+    void testSetInMultipleThreads() throws Exception {
+        int size = 10_000;
+        int threads = 4;
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.create(size, AllocationTracker.EMPTY);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(pool.submit(() -> {
+                    for (long i = offset; i < size; i += threads) {
+                        bitSet.set(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(bitSet.allSet(0, size));
+    }
+
+    @Test
+    void shouldComputeMemoryEstimation() {
+        assertEquals(
+            MemoryUsage.sizeOfInstance(HugeAtomicBitSet.class) + HugeAtomicLongArray.memoryEstimation(2),
+            HugeAtomicBitSet.memoryEstimation(65)
+        );
+    }
+}
@@ -190,6 +190,22 @@ final class HugeAtomicLongArrayTest {
         });
     }
 
+    /**
+     * getAndAdd returns previous value and adds given delta
+     */
+    @Test
+    void testGetAndAdd() {
+        testArray(SIZE, aa -> {
+            for (int i = 0; i < SIZE; i++) {
+                aa.set(i, 1);
+                assertEquals(1L, aa.getAndAdd(i, 2L));
+                assertEquals(3L, aa.get(i));
+                assertEquals(3L, aa.getAndAdd(i, -4L));
+                assertEquals(-1L, aa.get(i));
+            }
+        });
+    }
+
     static class Counter extends CheckedRunnable {
         final HugeAtomicLongArray aa;
         int decs;
@@ -24,6 +24,7 @@ import org.neo4j.graphalgo.core.utils.mem.MemoryUsage;
 
 import static io.qala.datagen.RandomShortApi.integer;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 final class HugeDoubleArrayTest extends HugeArrayTestBase<double[], Double, HugeDoubleArray> {
 
@@ -39,6 +40,18 @@ final class HugeDoubleArrayTest extends HugeArrayTestBase<double[], Double, Huge
         });
     }
 
+    @Test
+    void shouldFreeOffHeapArrayOnRelease() {
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeDoubleArray array = HugeDoubleArray.newOffHeapArray(10, tracker);
+        array.set(7, 4.2);
+        assertEquals(4.2, array.get(7));
+        tracker.remove(array.release());
+        assertEquals(0L, tracker.tracked());
+        assertEquals(0L, array.release());
+        assertThrows(IllegalStateException.class, () -> array.get(7));
+    }
+
     @Override
     HugeDoubleArray singleArray(final int size) {
         return HugeDoubleArray.newSingleArray(size, AllocationTracker.EMPTY);
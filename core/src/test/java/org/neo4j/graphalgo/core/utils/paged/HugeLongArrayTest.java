@@ -76,6 +76,79 @@ final class HugeLongArrayTest extends HugeArrayTestBase<long[], Long, HugeLongAr
         assertThrows(AssertionError.class, () -> HugeLongArray.memoryEstimation(-1L));
     }
 
+    @Test
+    void shouldSetAndGetOffHeap() {
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeLongArray array = HugeLongArray.newOffHeapArray(100, tracker);
+        assertEquals(800L, tracker.tracked());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0L, array.get(i));
+            array.set(i, i * 42L);
+        }
+        array.addTo(13, 1L);
+        array.or(14, 1L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * 42L + (i == 13 || i == 14 ? 1L : 0L), array.get(i));
+        }
+        tracker.remove(array.release());
+        assertEquals(0L, tracker.tracked());
+        assertEquals(0L, array.release());
+    }
+
+    @Test
+    void shouldFreeOffHeapArrayOnRelease() {
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeLongArray array = HugeLongArray.newOffHeapArray(10, tracker);
+        array.set(7, 42L);
+        assertEquals(10L * Long.BYTES, array.release());
+        assertEquals(0L, array.release());
+        assertThrows(IllegalStateException.class, () -> array.get(7));
+        assertThrows(IllegalStateException.class, () -> array.fill(0L));
+    }
+
+    @Test
+    void shouldReleaseEmptyOffHeapArray() {
+        HugeLongArray array = HugeLongArray.newOffHeapArray(0, AllocationTracker.EMPTY);
+        assertEquals(0L, array.release());
+        assertEquals(0L, array.release());
+    }
+
+    @Test
+    void shouldCheckBoundsOfOffHeapArray() {
+        HugeLongArray array = HugeLongArray.newOffHeapArray(10, AllocationTracker.EMPTY);
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> array.get(10));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> array.get(-1));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> array.set(10, 42L));
+        HugeLongArray empty = HugeLongArray.newOffHeapArray(0, AllocationTracker.EMPTY);
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> empty.get(0));
+    }
+
+    @Test
+    void shouldWriteBackCursorOfOffHeapArray() {
+        int size = HugeArrays.PAGE_SIZE + 42;
+        HugeLongArray array = HugeLongArray.newOffHeapArray(size, AllocationTracker.EMPTY);
+        try (HugeCursor<long[]> cursor = array.initCursor(array.newCursor(), 21, size)) {
+            while (cursor.next()) {
+                for (int i = cursor.offset; i < cursor.limit; i++) {
+                    cursor.array[i] = cursor.base + i;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(i < 21 ? 0L : i, array.get(i));
+        }
+
+        HugeLongArray onHeap = HugeLongArray.newArray(size, AllocationTracker.EMPTY);
+        array.copyTo(onHeap, size);
+        HugeLongArray offHeap = HugeLongArray.newOffHeapArray(size, AllocationTracker.EMPTY);
+        onHeap.copyTo(offHeap, size);
+        for (int i = 0; i < size; i++) {
+            assertEquals(array.get(i), offHeap.get(i));
+        }
+        array.release();
+        offHeap.release();
+    }
+
     @Override
     HugeLongArray singleArray(final int size) {
         return HugeLongArray.newSingleArray(size, AllocationTracker.EMPTY);
@@ -71,6 +71,18 @@ final class HugeLongLongMapTest {
         assertEquals(10L, actual);
     }
 
+    @Test
+    void putReplacesValues() {
+        HugeLongLongMap map = new HugeLongLongMap(AllocationTracker.EMPTY);
+        map.put(1L, 1L);
+        map.put(1L, 2L);
+        map.put(0L, 3L);
+
+        assertEquals(2L, map.getOrDefault(1L, 0L));
+        assertEquals(3L, map.getOrDefault(0L, 0L));
+        assertEquals(2L, map.size());
+    }
+
     @Test
     void acceptsInitialSize() {
         HugeLongLongMap map = new HugeLongLongMap(0L, AllocationTracker.EMPTY);
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged.dss;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.api.NodeProperties;
+
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaDisjointSetStructTest {
+
+    private static NodeProperties seeds(double... seeds) {
+        return nodeId -> seeds[(int) nodeId];
+    }
+
+    @Test
+    void shouldStartWithSeededSets() {
+        DeltaDisjointSetStruct dss = new DeltaDisjointSetStruct(4, seeds(3, 3, 1, 7));
+
+        assertEquals(3, dss.setIdOf(0));
+        assertEquals(3, dss.setIdOf(1));
+        assertEquals(1, dss.setIdOf(2));
+        assertEquals(7, dss.setIdOf(3));
+        assertEquals(0, dss.joinedSets());
+    }
+
+    @Test
+    void shouldJoinWholeSeededSetsWithTheSmallerSetId() {
+        DeltaDisjointSetStruct dss = new DeltaDisjointSetStruct(5, seeds(3, 3, 1, 7, 7));
+
+        dss.union(0, 3);
+        assertEquals(3, dss.setIdOf(4));
+
+        dss.union(4, 2);
+        for (int nodeId = 0; nodeId < 5; nodeId++) {
+            assertEquals(1, dss.setIdOf(nodeId));
+        }
+        assertEquals(2, dss.joinedSets());
+    }
+
+    @Test
+    void shouldIgnoreUnionWithinTheSameSet() {
+        DeltaDisjointSetStruct dss = new DeltaDisjointSetStruct(3, seeds(2, 2, 5));
+
+        dss.union(0, 1);
+
+        assertEquals(0, dss.joinedSets());
+        assertNotEquals(dss.setIdOf(0), dss.setIdOf(2));
+    }
+
+    @Test
+    void shouldAssignNewSetIdsToNodesWithoutSeed() {
+        DeltaDisjointSetStruct dss = new DeltaDisjointSetStruct(4, seeds(2, Double.NaN, -1, 5));
+
+        assertTrue(dss.setIdOf(1) > 5);
+        assertTrue(dss.setIdOf(2) > 5);
+        assertNotEquals(dss.setIdOf(1), dss.setIdOf(2));
+
+        dss.union(1, 2);
+        assertEquals(dss.setIdOf(1), dss.setIdOf(2));
+
+        dss.union(2, 3);
+        assertEquals(5, dss.setIdOf(1));
+    }
+
+    @Test
+    void shouldUseTheProvidedMaximumSeed() {
+        NodeProperties seeds = new NodeProperties() {
+            @Override
+            public double nodeProperty(long nodeId) {
+                return nodeId == 0 ? 4 : Double.NaN;
+            }
+
+            @Override
+            public OptionalLong getMaxPropertyValue() {
+                return OptionalLong.of(10);
+            }
+        };
+        DeltaDisjointSetStruct dss = new DeltaDisjointSetStruct(2, seeds);
+
+        assertEquals(4, dss.setIdOf(0));
+        assertEquals(12, dss.setIdOf(1));
+    }
+}
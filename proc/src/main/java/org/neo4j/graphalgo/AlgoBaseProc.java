@@ -202,6 +202,9 @@ public abstract class AlgoBaseProc<A extends Algorithm<A, RESULT>, RESULT, CONFI
         }
 
         validateConfig(graphCandidate.config(), config);
+        if (config.materializeUnion() && !weightProperty.isPresent()) {
+            return graphCandidate.graph().getMergedGraphProjection(relationshipTypes, config.concurrency());
+        }
         return graphCandidate.graph().getGraphProjection(relationshipTypes, weightProperty);
     }
 
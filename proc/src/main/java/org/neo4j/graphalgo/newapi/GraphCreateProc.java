@@ -30,6 +30,7 @@ import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ImmutableGraphDimensions;
 import org.neo4j.graphalgo.core.loading.CypherGraphFactory;
 import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.GraphDeltaListener;
 import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
 import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
@@ -150,6 +151,12 @@ public class GraphCreateProc extends CatalogProc {
 
     private GraphCreateResult createGraph(GraphCreateConfig config, Class<? extends GraphFactory> factoryClazz) {
         GraphCreateResult.Builder builder = new GraphCreateResult.Builder(config);
+        boolean recordChanges = config instanceof GraphCreateFromStoreConfig;
+        if (recordChanges) {
+            // record the changes committed while the store is scanned, a refresh skips those the scan has seen
+            GraphDeltaListener.registerWith(api);
+            GraphCatalog.startRecording(config);
+        }
         try (ProgressTimer ignored = ProgressTimer.start(builder::withCreateMillis)) {
             GraphLoader loader = newLoader(config, AllocationTracker.EMPTY);
             GraphFactory graphFactory = loader.build(factoryClazz);
@@ -167,6 +174,11 @@ public class GraphCreateProc extends CatalogProc {
                 .withRelationshipProjections(catalogConfig.relationshipProjection());
 
             GraphCatalog.set(catalogConfig, graphs);
+        } catch (RuntimeException e) {
+            if (recordChanges) {
+                GraphCatalog.stopRecording(config.username(), config.graphName());
+            }
+            throw e;
         }
 
         return builder.build();
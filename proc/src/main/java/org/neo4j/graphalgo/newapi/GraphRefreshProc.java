@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.newapi;
+
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
+import org.neo4j.graphalgo.core.loading.GraphDeltaMerger;
+import org.neo4j.graphalgo.core.loading.GraphWithConfig;
+import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
+import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.stream.Stream;
+
+public class GraphRefreshProc extends CatalogProc {
+
+    @Procedure(name = "gds.graph.refresh", mode = Mode.READ)
+    @Description("Applies the node and relationship changes committed since the named graph has been created or last refreshed.")
+    public Stream<GraphRefreshResult> refresh(@Name(value = "graphName") String graphName) {
+        validateGraphName(graphName);
+
+        // fails if the graph does not exist
+        GraphCatalog.get(getUsername(), graphName);
+        GraphDelta delta = GraphCatalog.getDelta(getUsername(), graphName).orElseThrow(() -> new IllegalArgumentException(
+            String.format("Graph `%s` has not been created from a native projection and cannot be refreshed.", graphName)
+        ));
+
+        GraphRefreshResult result = runWithExceptionLogging("Graph refresh failed", () -> {
+            ProgressTimer timer = ProgressTimer.start();
+            delta.refreshLock().lock();
+            try {
+                // read the graph under the lock, a concurrent refresh may have replaced it
+                GraphWithConfig graphWithConfig = GraphCatalog.get(getUsername(), graphName);
+                GraphDelta changes = delta.drain();
+                GraphsByRelationshipType refreshed;
+                try {
+                    refreshed = GraphDeltaMerger.canMerge(changes)
+                        ? GraphDeltaMerger.merge(graphWithConfig.graph(), graphWithConfig.config(), changes, AllocationTracker.EMPTY)
+                        : reload(graphWithConfig.config(), delta);
+                } catch (RuntimeException e) {
+                    delta.restore(changes);
+                    throw e;
+                }
+                if (refreshed != graphWithConfig.graph()) {
+                    // the replaced graph may share pages with the refreshed one and may still be read by running
+                    // algorithms, it is not released explicitly but reclaimed once it is no longer referenced
+                    GraphCatalog.replace(getUsername(), graphName, refreshed);
+                }
+                timer.stop();
+                return new GraphRefreshResult(graphName, refreshed, changes, timer.getDuration());
+            } finally {
+                delta.refreshLock().unlock();
+            }
+        });
+        return Stream.of(result);
+    }
+
+    /**
+     * Removed nodes and label changes would change the ids of the remaining nodes,
+     * so the graph is loaded from the store again instead of merging the changes.
+     */
+    private GraphsByRelationshipType reload(GraphCreateConfig config, GraphDelta delta) {
+        delta.startLoading();
+        try {
+            return newLoader(config, AllocationTracker.EMPTY)
+                .build(HugeGraphFactory.class)
+                .build()
+                .graphs();
+        } finally {
+            delta.finishLoading();
+        }
+    }
+
+    public static class GraphRefreshResult {
+        public final String graphName;
+        public final long nodeCount;
+        public final long relationshipCount;
+        public final long nodesAdded;
+        public final long nodesRemoved;
+        public final long nodesRelabeled;
+        public final long relationshipsAdded;
+        public final long relationshipsRemoved;
+        public final long refreshMillis;
+
+        GraphRefreshResult(String graphName, GraphsByRelationshipType graph, GraphDelta changes, long refreshMillis) {
+            this.graphName = graphName;
+            this.nodeCount = graph.nodeCount();
+            this.relationshipCount = graph.relationshipCount();
+            this.nodesAdded = changes.nodesAdded();
+            this.nodesRemoved = changes.nodesRemoved();
+            this.nodesRelabeled = changes.nodesRelabeled();
+            this.relationshipsAdded = changes.relationshipsAdded();
+            this.relationshipsRemoved = changes.relationshipsRemoved();
+            this.refreshMillis = refreshMillis;
+        }
+    }
+}
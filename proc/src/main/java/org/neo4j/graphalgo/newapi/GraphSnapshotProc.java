@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.newapi;
+
+import org.neo4j.graphalgo.core.CypherMapWrapper;
+import org.neo4j.graphalgo.core.huge.HugeGraphSnapshot;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.GraphWithConfig;
+import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.security.AuthorizationViolationException;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+public class GraphSnapshotProc extends CatalogProc {
+
+    /**
+     * Snapshot files are read from and written to this directory only.
+     */
+    static final String EXPORT_LOCATION_SETTING = "gds.export.location";
+
+    @Procedure(name = "gds.graph.export", mode = Mode.DBMS)
+    @Description("Writes a named graph from the catalog into a snapshot file in the configured export directory.")
+    public Stream<GraphSnapshotResult> export(
+        @Name(value = "graphName") String graphName,
+        @Name(value = "path") String path
+    ) {
+        validateGraphName(graphName);
+        CypherMapWrapper.failOnBlank("path", path);
+        if (!transaction.securityContext().isAdmin()) {
+            throw new AuthorizationViolationException("Exporting a graph requires admin privileges.");
+        }
+
+        GraphWithConfig graphWithConfig = GraphCatalog.get(getUsername(), graphName);
+        Path file = resolveSnapshotFile(path);
+        GraphSnapshotResult result = runWithExceptionLogging("Graph export failed", () -> {
+            ProgressTimer timer = ProgressTimer.start();
+            try {
+                HugeGraphSnapshot.export(graphWithConfig.graph(), graphWithConfig.config(), file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            timer.stop();
+            return new GraphSnapshotResult(graphName, file, graphWithConfig.graph(), timer.getDuration());
+        });
+        return Stream.of(result);
+    }
+
+    @Procedure(name = "gds.graph.load", mode = Mode.READ)
+    @Description("Loads a graph from a snapshot file in the configured export directory into the catalog under the given name.")
+    public Stream<GraphSnapshotResult> load(
+        @Name(value = "graphName") String graphName,
+        @Name(value = "path") String path
+    ) {
+        validateGraphName(getUsername(), graphName);
+        CypherMapWrapper.failOnBlank("path", path);
+
+        Path file = resolveSnapshotFile(path);
+        GraphSnapshotResult result = runWithExceptionLogging("Graph load failed", () -> {
+            ProgressTimer timer = ProgressTimer.start();
+            GraphWithConfig loaded;
+            try {
+                loaded = HugeGraphSnapshot.load(
+                    file,
+                    getUsername(),
+                    graphName,
+                    Pools.DEFAULT_CONCURRENCY,
+                    AllocationTracker.EMPTY
+                );
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            timer.stop();
+            // a snapshot is detached from the database, changes to the store do not apply to it
+            GraphCatalog.set(loaded.config(), loaded.graph(), false);
+            return new GraphSnapshotResult(graphName, file, loaded.graph(), timer.getDuration());
+        });
+        return Stream.of(result);
+    }
+
+    private Path resolveSnapshotFile(String path) {
+        Path exportDirectory = api
+            .getDependencyResolver()
+            .resolveDependency(Config.class)
+            .getRaw(EXPORT_LOCATION_SETTING)
+            .map(location -> Paths.get(location).toAbsolutePath().normalize())
+            .orElseThrow(() -> new IllegalStateException(String.format(
+                "The configuration option `%s` must be set to use graph snapshots.",
+                EXPORT_LOCATION_SETTING
+            )));
+
+        Path relativePath = Paths.get(path);
+        if (relativePath.isAbsolute()) {
+            throw new IllegalArgumentException(String.format(
+                "The snapshot path `%s` must be relative to the export directory.",
+                path
+            ));
+        }
+        for (Path element : relativePath) {
+            if (element.toString().equals("..")) {
+                throw new IllegalArgumentException(String.format(
+                    "The snapshot path `%s` must not leave the export directory.",
+                    path
+                ));
+            }
+        }
+        return exportDirectory.resolve(relativePath);
+    }
+
+    public static class GraphSnapshotResult {
+        public final String graphName;
+        public final String path;
+        public final long nodeCount;
+        public final long relationshipCount;
+        public final long snapshotMillis;
+
+        GraphSnapshotResult(String graphName, Path path, GraphsByRelationshipType graph, long snapshotMillis) {
+            this.graphName = graphName;
+            this.path = path.toString();
+            this.nodeCount = graph.nodeCount();
+            this.relationshipCount = graph.relationshipCount();
+            this.snapshotMillis = snapshotMillis;
+        }
+    }
+}
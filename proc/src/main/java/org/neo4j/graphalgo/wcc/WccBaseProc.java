@@ -20,7 +20,12 @@
 package org.neo4j.graphalgo.wcc;
 
 import org.neo4j.graphalgo.AlgoBaseProc;
+import org.neo4j.graphalgo.ElementIdentifier;
+import org.neo4j.graphalgo.RelationshipProjection;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.GraphDelta;
 import org.neo4j.graphalgo.core.utils.BitUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
@@ -28,20 +33,130 @@ import org.neo4j.graphalgo.core.utils.paged.HugeLongLongMap;
 import org.neo4j.graphalgo.core.utils.paged.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.result.AbstractCommunityResultBuilder;
+import org.neo4j.graphdb.Result;
 import org.neo4j.internal.kernel.api.procs.ProcedureCallContext;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.neo4j.graphalgo.AbstractProjections.PROJECT_ALL;
+
 public abstract class WccBaseProc<CONFIG extends WccBaseConfig> extends AlgoBaseProc<Wcc, DisjointSetStruct, CONFIG> {
 
+    private static final String SOURCE_COLUMN = "source";
+    private static final String TARGET_COLUMN = "target";
+
     static final String WCC_DESCRIPTION =
         "The WCC algorithm finds sets of connected nodes in an undirected graph, where all nodes in the same set form a connected component.";
 
     @Override
     protected final WccFactory<CONFIG> algorithmFactory(WccBaseConfig config) {
-        return new WccFactory<>();
+        return new WccFactory<>(graph -> addedRelationships(graph, config));
+    }
+
+    /**
+     * Loads the relationships that have been added since the seed property has been written,
+     * either from the `deltaQuery`, which returns the Neo4j ids as `source` and `target` columns,
+     * or from the changes the catalog has recorded for the graph, restricted to the `relationshipTypes`.
+     * Added nodes have no seed to start from and fail the computation, as does a catalog graph that has
+     * been refreshed since its seed property was loaded, since the refresh drained the recorded changes.
+     */
+    private AddedRelationships addedRelationships(Graph graph, WccBaseConfig config) {
+        AddedRelationships addedRelationships = new AddedRelationships();
+        RelationshipConsumer consumer = (neoSourceId, neoTargetId) -> {
+            addedRelationships.add(
+                mappedNodeId(graph, neoSourceId),
+                mappedNodeId(graph, neoTargetId)
+            );
+            return true;
+        };
+
+        if (config.deltaQuery() != null) {
+            Result result = api.execute(config.deltaQuery());
+            for (String column : Arrays.asList(SOURCE_COLUMN, TARGET_COLUMN)) {
+                if (!result.columns().contains(column)) {
+                    result.close();
+                    throw new IllegalArgumentException(String.format(
+                        "The `deltaQuery` must return the `%s` column, got %s.",
+                        column,
+                        result.columns()
+                    ));
+                }
+            }
+            result.accept(row -> consumer.accept(
+                neoNodeId(row, SOURCE_COLUMN),
+                neoNodeId(row, TARGET_COLUMN)
+            ));
+        } else {
+            String graphName = config.graphName().orElseThrow(() -> new IllegalArgumentException(
+                "The `deltaFromCatalog` option requires a named graph."));
+            GraphDelta delta = GraphCatalog.getDelta(getUsername(), graphName).orElseThrow(() -> new IllegalArgumentException(
+                String.format("Graph `%s` does not record changes, only graphs created from a native projection do.", graphName)));
+            if (delta.nodesAdded() > 0 || delta.nodesRemoved() > 0 || delta.nodesRelabeled() > 0 || delta.relationshipsRemoved() > 0) {
+                throw new IllegalArgumentException(String.format(
+                    "Graph `%s` has added, removed or relabeled nodes or removed relationships, which requires refreshing the graph and computing the components from scratch.",
+                    graphName
+                ));
+            }
+            long version = delta.version();
+            failOnRefreshedGraph(graphName, version);
+            delta.forEachAddedRelationship(relationshipProjections(graphName, config), consumer);
+            failOnRefreshedGraph(graphName, delta.version());
+        }
+        return addedRelationships;
+    }
+
+    private static long neoNodeId(Result.ResultRow row, String column) {
+        Object value = row.get(column);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(String.format(
+                "The `%s` column of the `deltaQuery` must contain node ids, got `%s`.",
+                column,
+                value
+            ));
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static long mappedNodeId(Graph graph, long neoNodeId) {
+        long nodeId = graph.toMappedNodeId(neoNodeId);
+        if (nodeId == -1L) {
+            throw new IllegalArgumentException(String.format(
+                "Node %d of an added relationship is not part of the graph and has no seed, which requires computing the components from scratch.",
+                neoNodeId
+            ));
+        }
+        return nodeId;
+    }
+
+    private static void failOnRefreshedGraph(String graphName, long version) {
+        if (version != 0L) {
+            throw new IllegalArgumentException(String.format(
+                "Graph `%s` has been refreshed since its seed property was loaded and no longer records all added relationships, re-create the graph to link only the added relationships.",
+                graphName
+            ));
+        }
+    }
+
+    private Collection<RelationshipProjection> relationshipProjections(String graphName, WccBaseConfig config) {
+        List<String> relationshipTypes = config.relationshipTypes();
+        Map<ElementIdentifier, RelationshipProjection> projections = GraphCatalog
+            .get(getUsername(), graphName)
+            .config()
+            .relationshipProjection()
+            .projections();
+        if (relationshipTypes.contains(PROJECT_ALL.name)) {
+            return projections.values();
+        }
+        return projections.entrySet().stream()
+            .filter(entry -> relationshipTypes.contains(entry.getKey().name))
+            .map(Map.Entry::getValue)
+            .collect(Collectors.toList());
     }
 
     protected Stream<WriteResult> write(
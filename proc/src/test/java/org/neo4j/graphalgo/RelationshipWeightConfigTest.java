@@ -26,6 +26,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.compat.MapUtil;
 import org.neo4j.graphalgo.core.CypherMapWrapper;
+import org.neo4j.graphalgo.core.huge.HugeGraph;
 import org.neo4j.graphalgo.core.loading.GraphCatalog;
 import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
 import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
@@ -41,17 +42,22 @@ import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.graphalgo.QueryRunner.runQuery;
 import static org.neo4j.graphalgo.TestGraph.Builder.fromGdl;
 import static org.neo4j.graphalgo.TestSupport.assertGraphEquals;
@@ -264,6 +270,56 @@ public interface RelationshipWeightConfigTest<CONFIG extends RelationshipWeightC
         });
     }
 
+    @Test
+    default void testMaterializeUnionOnLoadedGraph() {
+        String graphName = "foo";
+        applyOnProcedure((proc) -> {
+            loadExplicitGraphWithRelationshipWeights(graphName, MULTI_RELATIONSHIPS_PROJECTION);
+
+            CypherMapWrapper algoConfig = createMinimalConfig(CypherMapWrapper.create(map(
+                "relationshipTypes", Collections.singletonList("*"),
+                "materializeUnion", true
+            )));
+            CONFIG config = proc.newConfig(Optional.of(graphName), algoConfig);
+            Pair<CONFIG, Optional<String>> configAndName = Pair.of(config, Optional.of(graphName));
+
+            Graph graph = proc.createGraph(configAndName);
+            assertTrue(graph instanceof HugeGraph);
+            assertGraphEquals(fromGdl("(a)-->(b)-->(c)-->(a)-->(c)"), graph);
+            assertSame(graph, proc.createGraph(configAndName));
+        });
+    }
+
+    @Test
+    default void testMaterializeUnionSurvivesRepeatedStreaming() {
+        String graphName = "foo";
+        applyOnProcedure((proc) -> {
+            loadExplicitGraphWithRelationshipWeights(graphName, MULTI_RELATIONSHIPS_PROJECTION);
+
+            CypherMapWrapper algoConfig = createMinimalConfig(CypherMapWrapper.create(map(
+                "relationshipTypes", Collections.singletonList("*"),
+                "materializeUnion", true
+            )));
+            Map<String, Object> configMap = algoConfig.toMap();
+
+            getProcedureMethods(proc)
+                .filter(method -> getProcedureMethodName(method).endsWith("stream"))
+                .forEach(method -> {
+                    try {
+                        long firstCount = ((Stream<?>) method.invoke(proc, graphName, configMap)).count();
+                        long secondCount = ((Stream<?>) method.invoke(proc, graphName, configMap)).count();
+                        assertEquals(firstCount, secondCount);
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        fail(e);
+                    }
+                });
+
+            CONFIG config = proc.newConfig(Optional.of(graphName), algoConfig);
+            Graph graph = proc.createGraph(Pair.of(config, Optional.of(graphName)));
+            assertGraphEquals(fromGdl("(a)-->(b)-->(c)-->(a)-->(c)"), graph);
+        });
+    }
+
     @Test
     default void testFilteringOnRelTypesOnLoadedGraph() {
         String graphName = "foo";
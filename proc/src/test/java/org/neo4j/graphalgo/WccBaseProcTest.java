@@ -139,6 +139,19 @@ abstract class WccBaseProcTest<CONFIG extends WccBaseConfig> extends BaseProcTes
         });
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testSampling(boolean sampling) {
+        CypherMapWrapper config = createMinimalConfig(CypherMapWrapper.create(MapUtil.map(
+            "sampling", sampling
+        )));
+
+        applyOnProcedure(proc -> {
+            CONFIG wccConfig = proc.newConfig(Optional.of("myGraph"), config);
+            assertEquals(sampling, wccConfig.sampling());
+        });
+    }
+
     @Test
     void testFailSeedingAndConsecutiveIds() {
         CypherMapWrapper config = createMinimalConfig(CypherMapWrapper.create(MapUtil.map(
@@ -158,6 +171,45 @@ abstract class WccBaseProcTest<CONFIG extends WccBaseConfig> extends BaseProcTes
         });
     }
 
+    @Test
+    void testFailDeltaQueryWithoutSeeding() {
+        CypherMapWrapper config = createMinimalConfig(CypherMapWrapper.create(MapUtil.map(
+            "deltaQuery", "MATCH (a)-->(b) RETURN id(a) AS source, id(b) AS target"
+        )));
+
+        applyOnProcedure(proc -> {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> proc.newConfig(Optional.empty(), config)
+            );
+
+            assertTrue(exception
+                .getMessage()
+                .contains("Linking added relationships requires `seedProperty` to be set.")
+            );
+        });
+    }
+
+    @Test
+    void testFailThresholdWithDeltaQuery() {
+        CypherMapWrapper config = createMinimalConfig(CypherMapWrapper.create(MapUtil.map(
+            "seedProperty", "seed",
+            "deltaQuery", "MATCH (a)-->(b) RETURN id(a) AS source, id(b) AS target",
+            "relationshipWeightProperty", "weight",
+            "threshold", 3.14
+        )));
+
+        applyOnProcedure(proc -> {
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> proc.newConfig(Optional.empty(), config)
+            );
+
+            assertTrue(exception
+                .getMessage()
+                .contains("The `threshold` option cannot be used together with `deltaQuery` or `deltaFromCatalog`")
+            );
+        });
+    }
+
     @Test
     void testFailThresholdWithoutRelationshipWeight() {
         CypherMapWrapper config = createMinimalConfig(CypherMapWrapper.create(MapUtil.map(
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.newapi.GraphCreateProc;
+import org.neo4j.graphalgo.newapi.GraphRefreshProc;
+import org.neo4j.graphalgo.wcc.WccStreamProc;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+class WccDeltaProcTest extends BaseProcTest {
+
+    private static final String DB_CYPHER =
+        "CREATE" +
+        "  (a:Node {name: 'a', seed: 0})" +
+        ", (b:Node {name: 'b', seed: 0})" +
+        ", (c:Node {name: 'c', seed: 2})" +
+        ", (d:Node {name: 'd', seed: 3})" +
+        ", (a)-[:R1]->(b)";
+
+    private static final String GRAPH_NAME = "seededGraph";
+    private static final String CREATE_QUERY =
+        "CALL gds.graph.create($name, {Node: {properties: 'seed'}}, {R1: {type: 'R1'}, R2: {type: 'R2'}})";
+    private static final String STREAM_QUERY =
+        "CALL gds.wcc.stream($name, {seedProperty: 'seed', deltaFromCatalog: true, relationshipTypes: $types})" +
+        " YIELD nodeId, componentId";
+
+    @BeforeEach
+    void setup() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        registerProcedures(
+            GraphCreateProc.class,
+            GraphRefreshProc.class,
+            WccStreamProc.class
+        );
+        runQuery(DB_CYPHER);
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+        GraphCatalog.removeAllLoadedGraphs();
+    }
+
+    @Test
+    void shouldLinkAddedRelationshipsOfSelectedTypes() {
+        runQuery("MATCH (b {name: 'b'}), (c {name: 'c'}) CREATE (b)-[:R1]->(c)");
+        runQuery("MATCH (c {name: 'c'}), (d {name: 'd'}) CREATE (c)-[:R2]->(d)");
+
+        Map<Long, Long> components = new HashMap<>();
+        runQueryWithRowConsumer(
+            STREAM_QUERY,
+            map("name", GRAPH_NAME, "types", singletonList("R1")),
+            row -> components.put(row.getNumber("nodeId").longValue(), row.getNumber("componentId").longValue())
+        );
+
+        assertEquals(4, components.size());
+        assertEquals(components.get(0L), components.get(1L));
+        assertEquals(components.get(0L), components.get(2L));
+        assertNotEquals(components.get(0L), components.get(3L));
+    }
+
+    @Test
+    void shouldFailOnAddedNodes() {
+        runQuery("MATCH (d {name: 'd'}) CREATE (d)-[:R1]->(:Node {name: 'e', seed: 4})");
+
+        assertError(
+            STREAM_QUERY,
+            map("name", GRAPH_NAME, "types", singletonList("*")),
+            "has added, removed or relabeled nodes"
+        );
+    }
+
+    @Test
+    void shouldFailAfterRefresh() {
+        runQuery("MATCH (b {name: 'b'}), (c {name: 'c'}) CREATE (b)-[:R1]->(c)");
+        runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+        runQuery("MATCH (c {name: 'c'}), (d {name: 'd'}) CREATE (c)-[:R1]->(d)");
+
+        assertError(
+            STREAM_QUERY,
+            map("name", GRAPH_NAME, "types", singletonList("*")),
+            "has been refreshed since its seed property was loaded"
+        );
+    }
+
+    @Test
+    void shouldFailOnUnmappedNodesOfDeltaQuery() {
+        runQuery("MATCH (a {name: 'a'}) CREATE (a)-[:R1]->(:Other)");
+
+        assertError(
+            "CALL gds.wcc.stream($name, {seedProperty: 'seed', deltaQuery: $deltaQuery}) YIELD nodeId",
+            map(
+                "name", GRAPH_NAME,
+                "deltaQuery", "MATCH (a)-[:R1]->(b:Other) RETURN id(a) AS source, id(b) AS target"
+            ),
+            "is not part of the graph"
+        );
+    }
+
+    @Test
+    void shouldFailOnMissingColumnsOfDeltaQuery() {
+        assertError(
+            "CALL gds.wcc.stream($name, {seedProperty: 'seed', deltaQuery: $deltaQuery}) YIELD nodeId",
+            map(
+                "name", GRAPH_NAME,
+                "deltaQuery", "MATCH (a)-[:R1]->(b) RETURN id(a) AS source, id(b) AS tgt"
+            ),
+            "The `deltaQuery` must return the `target` column"
+        );
+    }
+
+    @Test
+    void shouldFailOnNullNodeIdsOfDeltaQuery() {
+        assertError(
+            "CALL gds.wcc.stream($name, {seedProperty: 'seed', deltaQuery: $deltaQuery}) YIELD nodeId",
+            map(
+                "name", GRAPH_NAME,
+                "deltaQuery", "MATCH (a)-[:R1]->(b) RETURN id(a) AS source, null AS target"
+            ),
+            "The `target` column of the `deltaQuery` must contain node ids, got `null`."
+        );
+    }
+}
@@ -53,12 +53,14 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.isA;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.graphalgo.AbstractNodeProjection.LABEL_KEY;
 import static org.neo4j.graphalgo.AbstractRelationshipProjection.AGGREGATION_KEY;
 import static org.neo4j.graphalgo.AbstractRelationshipProjection.PROJECTION_KEY;
 import static org.neo4j.graphalgo.AbstractRelationshipProjection.TYPE_KEY;
 import static org.neo4j.graphalgo.ElementProjection.PROPERTIES_KEY;
+import static org.neo4j.graphalgo.TestSupport.assertGraphEquals;
 import static org.neo4j.graphalgo.compat.MapUtil.map;
 import static org.neo4j.graphalgo.newapi.GraphCreateFromCypherConfig.ALL_NODES_QUERY;
 import static org.neo4j.graphalgo.newapi.GraphCreateFromCypherConfig.ALL_RELATIONSHIPS_QUERY;
@@ -722,6 +724,31 @@ class GraphCreateProcTest extends BaseProcTest {
         );
     }
 
+    @Test
+    void loadsBlockPackedAdjacency() {
+        // the hub exceeds the skip index minimum degree and spans multiple blocks
+        runQuery("MATCH (a:A {age: 2}) UNWIND range(1, 600) AS i CREATE (a)-[:REL]->(:B {id: i})");
+        runQuery("CALL gds.graph.create('varLong', '*', '*')");
+        runQuery("CALL gds.graph.create('blockPacked', '*', '*', {adjacencyEncoding: 'BLOCK_PACKED'})");
+
+        Graph expected = GraphCatalog.getUnion("", "varLong").get();
+        Graph actual = GraphCatalog.getUnion("", "blockPacked").get();
+        assertGraphEquals(expected, actual);
+
+        long hub = actual.toMappedNodeId(0L);
+        List<Long> targets = new ArrayList<>();
+        actual.forEachRelationship(hub, (source, target) -> {
+            targets.add(target);
+            return true;
+        });
+        assertEquals(601, actual.degree(hub));
+        assertEquals(601, targets.size());
+        for (long target : targets) {
+            assertTrue(actual.exists(hub, target));
+        }
+        assertFalse(actual.exists(hub, hub));
+    }
+
     @Test
     void failsOnInvalidNeoType() {
         String name = "g";
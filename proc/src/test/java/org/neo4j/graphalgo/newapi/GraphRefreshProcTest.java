@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.newapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphalgo.BaseProcTest;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.TestLog;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.CypherMapWrapper;
+import org.neo4j.graphalgo.core.ImmutableGraphLoader;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.graphalgo.core.loading.GraphDeltaListener;
+import org.neo4j.graphalgo.core.loading.GraphsByRelationshipType;
+import org.neo4j.graphalgo.core.loading.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.graphalgo.TestSupport.assertGraphEquals;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+class GraphRefreshProcTest extends BaseProcTest {
+
+    private static final String DB_CYPHER =
+        "CREATE" +
+        "  (a:A {age: 42})" +
+        ", (b:A {age: 21})" +
+        ", (c:A)" +
+        ", (a)-[:REL {weight: 1.5}]->(b)" +
+        ", (a)-[:REL {weight: 2.5}]->(c)" +
+        ", (b)-[:REL]->(c)";
+
+    private static final String GRAPH_NAME = "refreshedGraph";
+    private static final String EXPECTED_GRAPH_NAME = "expectedGraph";
+    private static final String CREATE_QUERY =
+        "CALL gds.graph.create($name, {A: {properties: 'age'}}, {REL: {properties: 'weight'}})";
+
+    @BeforeEach
+    void setup() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        registerProcedures(
+            GraphCreateProc.class,
+            GraphRefreshProc.class
+        );
+        runQuery(DB_CYPHER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+        GraphCatalog.removeAllLoadedGraphs();
+    }
+
+    @Test
+    void shouldApplyChangesSinceCreation() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        runQuery("MATCH (c:A) WHERE NOT exists(c.age) CREATE (c)-[:REL {weight: 3.0}]->(:A {age: 7})");
+        runQuery("MATCH (:A {age: 21})-[r:REL]->() DELETE r");
+        runQuery("CREATE (:B)-[:OTHER]->(:B)");
+
+        runQueryWithRowConsumer(
+            "CALL gds.graph.refresh($name)" +
+            " YIELD graphName, nodeCount, relationshipCount, nodesAdded, relationshipsAdded, relationshipsRemoved",
+            map("name", GRAPH_NAME),
+            row -> {
+                assertEquals(GRAPH_NAME, row.getString("graphName"));
+                assertEquals(4L, row.getNumber("nodeCount"));
+                assertEquals(3L, row.getNumber("relationshipCount"));
+                assertEquals(1L, row.getNumber("nodesAdded"));
+                assertEquals(1L, row.getNumber("relationshipsAdded"));
+                assertEquals(1L, row.getNumber("relationshipsRemoved"));
+            }
+        );
+
+        runQuery(CREATE_QUERY, map("name", EXPECTED_GRAPH_NAME));
+
+        Graph expected = GraphCatalog.get(getUsername(), EXPECTED_GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertGraphEquals(expected, actual);
+        for (long nodeId = 0; nodeId < expected.nodeCount(); nodeId++) {
+            assertEquals(
+                expected.nodeProperties("age").nodeProperty(nodeId),
+                actual.nodeProperties("age").nodeProperty(nodeId)
+            );
+        }
+    }
+
+    @Test
+    void shouldApplyChangesCommittedWhileLoading() {
+        GraphCreateConfig config = GraphCreateFromStoreConfig.of(
+            getUsername(),
+            GRAPH_NAME,
+            map("A", map("properties", "age")),
+            map("REL", map("properties", "weight")),
+            CypherMapWrapper.empty()
+        );
+        GraphDeltaListener.registerWith(db);
+        GraphCatalog.startRecording(config);
+
+        // recorded during the load, but committed before the store is scanned
+        runQuery("MATCH (a:A {age: 42}), (b:A {age: 21}) CREATE (b)-[:REL {weight: 5.0}]->(a)");
+        GraphsByRelationshipType graphs = ImmutableGraphLoader
+            .builder()
+            .api(db)
+            .username(getUsername())
+            .log(new TestLog())
+            .createConfig(config)
+            .build()
+            .build(HugeGraphFactory.class)
+            .build()
+            .graphs();
+        GraphCatalog.set(config, graphs);
+        runQuery("MATCH (c:A) WHERE NOT exists(c.age) CREATE (c)-[:REL {weight: 6.0}]->(:A {age: 7})");
+
+        runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+        runQuery(CREATE_QUERY, map("name", EXPECTED_GRAPH_NAME));
+
+        Graph expected = GraphCatalog.get(getUsername(), EXPECTED_GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertEquals(5L, actual.relationshipCount());
+        assertGraphEquals(expected, actual);
+    }
+
+    @Test
+    void shouldDropDeletedNodes() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        runQuery("MATCH (c:A) WHERE NOT exists(c.age) DETACH DELETE c");
+
+        runQueryWithRowConsumer(
+            "CALL gds.graph.refresh($name) YIELD nodeCount, relationshipCount, nodesRemoved",
+            map("name", GRAPH_NAME),
+            row -> {
+                assertEquals(2L, row.getNumber("nodeCount"));
+                assertEquals(1L, row.getNumber("relationshipCount"));
+                assertEquals(1L, row.getNumber("nodesRemoved"));
+            }
+        );
+
+        runQuery(CREATE_QUERY, map("name", EXPECTED_GRAPH_NAME));
+        Graph expected = GraphCatalog.get(getUsername(), EXPECTED_GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertGraphEquals(expected, actual);
+    }
+
+    @Test
+    void shouldApplyLabelChanges() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        runQuery("MATCH (c:A) WHERE NOT exists(c.age) REMOVE c:A");
+        runQuery("MATCH (a:A {age: 42}) CREATE (a)-[:REL {weight: 4.0}]->(:B)");
+        runQuery("MATCH (b:B) SET b:A");
+
+        runQueryWithRowConsumer(
+            "CALL gds.graph.refresh($name) YIELD nodeCount, relationshipCount, nodesRelabeled",
+            map("name", GRAPH_NAME),
+            row -> {
+                assertEquals(3L, row.getNumber("nodeCount"));
+                assertEquals(2L, row.getNumber("relationshipCount"));
+                assertEquals(2L, row.getNumber("nodesRelabeled"));
+            }
+        );
+
+        runQuery(CREATE_QUERY, map("name", EXPECTED_GRAPH_NAME));
+        Graph expected = GraphCatalog.get(getUsername(), EXPECTED_GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertGraphEquals(expected, actual);
+    }
+
+    @Test
+    void shouldKeepIntegralNodePropertiesExact() {
+        long large = (1L << 53) + 1L;
+        runQuery("MATCH (a:A {age: 42}) SET a.age = $age", map("age", large));
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        runQuery("MATCH (a:A {age: $age}) CREATE (a)-[:REL {weight: 1.0}]->(:A {age: $newAge})", map("age", large, "newAge", large + 2L));
+        runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertEquals(large, actual.nodeProperties("age").nodeLongProperty(actual.toMappedNodeId(0L), 0L));
+        assertEquals(21L, actual.nodeProperties("age").nodeLongProperty(actual.toMappedNodeId(1L), 0L));
+        assertEquals(large + 2L, actual.nodeProperties("age").nodeLongProperty(actual.toMappedNodeId(3L), 0L));
+    }
+
+    @Test
+    void shouldKeepGraphWithoutChanges() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        runQueryWithRowConsumer(
+            "CALL gds.graph.refresh($name) YIELD nodeCount, relationshipCount, nodesAdded",
+            map("name", GRAPH_NAME),
+            row -> {
+                assertEquals(3L, row.getNumber("nodeCount"));
+                assertEquals(3L, row.getNumber("relationshipCount"));
+                assertEquals(0L, row.getNumber("nodesAdded"));
+            }
+        );
+    }
+
+    @Test
+    void shouldApplyCancellingChangesToParallelRelationships() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        runQuery(
+            "MATCH (a:A {age: 42}), (b:A {age: 21}) " +
+            "CREATE (a)-[:REL {weight: 7.0}]->(b), (a)-[:REL {weight: 8.0}]->(b), (a)-[:REL {weight: 9.0}]->(b)"
+        );
+        runQuery("MATCH (:A {age: 42})-[r:REL]->(:A {age: 21}) WHERE r.weight IN [1.5, 7.0, 8.0] DELETE r");
+
+        runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+        runQuery(CREATE_QUERY, map("name", EXPECTED_GRAPH_NAME));
+
+        Graph expected = GraphCatalog.get(getUsername(), EXPECTED_GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertGraphEquals(expected, actual);
+    }
+
+    @Test
+    void shouldKeepReplacedGraphReadable() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+        Graph replaced = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+
+        runQuery("MATCH (a:A {age: 42}) CREATE (a)-[:REL {weight: 4.5}]->(:A {age: 1})");
+        runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+
+        Graph refreshed = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        long a = replaced.toMappedNodeId(0L);
+        long b = replaced.toMappedNodeId(1L);
+        assertEquals(2, replaced.degree(a));
+        assertEquals(1.5, replaced.relationshipProperty(a, b), 1e-9);
+        assertEquals(3, refreshed.degree(refreshed.toMappedNodeId(0L)));
+    }
+
+    @Test
+    void shouldApplyAllChangesWhenRefreshedConcurrently() {
+        runQuery(CREATE_QUERY, map("name", GRAPH_NAME));
+
+        // not the default pool, which the refresh itself uses
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 10; j++) {
+                    runQuery("MATCH (a:A {age: 42}) CREATE (a)-[:REL {weight: 1.0}]->(:A {age: 1})");
+                    runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+                }
+            }));
+        }
+        ParallelUtil.awaitTermination(futures);
+        executor.shutdown();
+
+        runQuery("CALL gds.graph.refresh($name)", map("name", GRAPH_NAME));
+        runQuery(CREATE_QUERY, map("name", EXPECTED_GRAPH_NAME));
+
+        Graph expected = GraphCatalog.get(getUsername(), EXPECTED_GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        assertEquals(43L, actual.nodeCount());
+        assertGraphEquals(expected, actual);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2017-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.newapi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.neo4j.graphalgo.BaseProcTest;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.loading.GraphCatalog;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.graphalgo.TestSupport.assertGraphEquals;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+class GraphSnapshotProcTest extends BaseProcTest {
+
+    private static final String DB_CYPHER =
+        "CREATE" +
+        "  (a:A {age: 42})" +
+        ", (b:A {age: 21})" +
+        ", (c:A)" +
+        ", (a)-[:REL {weight: 1.5}]->(b)" +
+        ", (a)-[:REL {weight: 2.5}]->(c)" +
+        ", (b)-[:REL]->(c)";
+
+    private static final String GRAPH_NAME = "snapshotGraph";
+    private static final String LOADED_GRAPH_NAME = "loadedGraph";
+
+    private static final String SNAPSHOT = "graph.snapshot";
+
+    @TempDir
+    Path exportDirectory;
+
+    @BeforeEach
+    void setup() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase(builder -> builder.setConfig(
+            GraphSnapshotProc.EXPORT_LOCATION_SETTING,
+            exportDirectory.toString()
+        ));
+        registerProcedures(
+            GraphCreateProc.class,
+            GraphExistsProc.class,
+            GraphSnapshotProc.class
+        );
+        runQuery(DB_CYPHER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+        GraphCatalog.removeAllLoadedGraphs();
+    }
+
+    @Test
+    void shouldExportAndLoadGraph() {
+        runQuery(
+            "CALL gds.graph.create($name, {A: {properties: 'age'}}, {REL: {properties: 'weight'}})",
+            map("name", GRAPH_NAME)
+        );
+
+        runQueryWithRowConsumer(
+            "CALL gds.graph.export($name, $path) YIELD graphName, nodeCount, relationshipCount",
+            map("name", GRAPH_NAME, "path", SNAPSHOT),
+            row -> {
+                assertEquals(GRAPH_NAME, row.getString("graphName"));
+                assertEquals(3L, row.getNumber("nodeCount"));
+                assertEquals(3L, row.getNumber("relationshipCount"));
+            }
+        );
+
+        runQueryWithRowConsumer(
+            "CALL gds.graph.load($name, $path) YIELD graphName, nodeCount, relationshipCount",
+            map("name", LOADED_GRAPH_NAME, "path", SNAPSHOT),
+            row -> {
+                assertEquals(LOADED_GRAPH_NAME, row.getString("graphName"));
+                assertEquals(3L, row.getNumber("nodeCount"));
+                assertEquals(3L, row.getNumber("relationshipCount"));
+            }
+        );
+
+        assertCypherResult(
+            "CALL gds.graph.exists($graphName)",
+            map("graphName", LOADED_GRAPH_NAME),
+            singletonList(map("graphName", LOADED_GRAPH_NAME, "exists", true))
+        );
+
+        Graph expected = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.of("weight"));
+        Graph actual = GraphCatalog.get(getUsername(), LOADED_GRAPH_NAME, "REL", Optional.of("weight"));
+        assertGraphEquals(expected, actual);
+        for (long nodeId = 0; nodeId < expected.nodeCount(); nodeId++) {
+            assertEquals(
+                expected.nodeProperties("age").nodeProperty(nodeId),
+                actual.nodeProperties("age").nodeProperty(nodeId)
+            );
+        }
+    }
+
+    @Test
+    void failsOnLoadingIntoExistingGraph() {
+        runQuery("CALL gds.graph.create($name, 'A', 'REL')", map("name", GRAPH_NAME));
+        runQuery("CALL gds.graph.export($name, $path)", map("name", GRAPH_NAME, "path", SNAPSHOT));
+
+        assertError(
+            "CALL gds.graph.load($name, $path)",
+            map("name", GRAPH_NAME, "path", SNAPSHOT),
+            String.format("A graph with name '%s' already exists.", GRAPH_NAME)
+        );
+    }
+
+    @Test
+    void shouldKeepNaNValuesApartFromMissingValues() {
+        runQuery("CREATE (:A {age: 0.0 / 0.0})");
+        runQuery(
+            "CALL gds.graph.create($name, {A: {properties: {age: {property: 'age', defaultValue: 5.0}}}}, 'REL')",
+            map("name", GRAPH_NAME)
+        );
+        runQuery("CALL gds.graph.export($name, $path)", map("name", GRAPH_NAME, "path", SNAPSHOT));
+        runQuery("CALL gds.graph.load($name, $path)", map("name", LOADED_GRAPH_NAME, "path", SNAPSHOT));
+
+        Graph expected = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.empty());
+        Graph actual = GraphCatalog.get(getUsername(), LOADED_GRAPH_NAME, "REL", Optional.empty());
+        for (long nodeId = 0; nodeId < expected.nodeCount(); nodeId++) {
+            assertEquals(
+                expected.nodeProperties("age").nodeProperty(nodeId),
+                actual.nodeProperties("age").nodeProperty(nodeId)
+            );
+        }
+        assertEquals(5.0, actual.nodeProperties("age").nodeProperty(actual.toMappedNodeId(2L)));
+        assertTrue(Double.isNaN(actual.nodeProperties("age").nodeProperty(actual.toMappedNodeId(3L))));
+    }
+
+    @Test
+    void shouldKeepIntegralNodePropertiesExact() {
+        long largeValue = (1L << 53) + 1L;
+        runQuery("CREATE (:A {age: $age})", map("age", largeValue));
+        runQuery(
+            "CALL gds.graph.create($name, {A: {properties: 'age'}}, 'REL')",
+            map("name", GRAPH_NAME)
+        );
+        runQuery("CALL gds.graph.export($name, $path)", map("name", GRAPH_NAME, "path", SNAPSHOT));
+        runQuery("CALL gds.graph.load($name, $path)", map("name", LOADED_GRAPH_NAME, "path", SNAPSHOT));
+
+        Graph expected = GraphCatalog.get(getUsername(), GRAPH_NAME, "REL", Optional.empty());
+        Graph actual = GraphCatalog.get(getUsername(), LOADED_GRAPH_NAME, "REL", Optional.empty());
+        for (long nodeId = 0; nodeId < expected.nodeCount(); nodeId++) {
+            assertEquals(
+                expected.nodeProperties("age").hasNodeProperty(nodeId),
+                actual.nodeProperties("age").hasNodeProperty(nodeId)
+            );
+            assertEquals(
+                expected.nodeProperties("age").nodeLongProperty(nodeId, -1L),
+                actual.nodeProperties("age").nodeLongProperty(nodeId, -1L)
+            );
+        }
+        assertEquals(largeValue, actual.nodeProperties("age").nodeLongProperty(actual.toMappedNodeId(3L), -1L));
+        assertFalse(actual.nodeProperties("age").hasNodeProperty(actual.toMappedNodeId(2L)));
+    }
+
+    @Test
+    void shouldRestoreCypherConfig() {
+        String nodeQuery = "MATCH (n) RETURN id(n) AS id, coalesce(n.age, 0) AS age";
+        String relationshipQuery = "MATCH (a)-[r:REL]->(b) RETURN id(a) AS source, id(b) AS target";
+        runQuery(
+            "CALL gds.graph.create.cypher($name, $nodeQuery, $relationshipQuery)",
+            map("name", GRAPH_NAME, "nodeQuery", nodeQuery, "relationshipQuery", relationshipQuery)
+        );
+        runQuery("CALL gds.graph.export($name, $path)", map("name", GRAPH_NAME, "path", SNAPSHOT));
+        runQuery("CALL gds.graph.load($name, $path)", map("name", LOADED_GRAPH_NAME, "path", SNAPSHOT));
+
+        GraphCreateConfig expected = GraphCatalog.get(getUsername(), GRAPH_NAME).config();
+        GraphCreateConfig actual = GraphCatalog.get(getUsername(), LOADED_GRAPH_NAME).config();
+        assertTrue(actual instanceof GraphCreateFromCypherConfig);
+        assertEquals(nodeQuery, ((GraphCreateFromCypherConfig) actual).nodeQuery());
+        assertEquals(relationshipQuery, ((GraphCreateFromCypherConfig) actual).relationshipQuery());
+        assertEquals(expected.nodeProjection(), actual.nodeProjection());
+        assertEquals(expected.relationshipProjection(), actual.relationshipProjection());
+        assertGraphEquals(
+            GraphCatalog.getUnion(getUsername(), GRAPH_NAME).get(),
+            GraphCatalog.getUnion(getUsername(), LOADED_GRAPH_NAME).get()
+        );
+    }
+
+    @Test
+    void shouldNotRecordChangesForLoadedGraphs() {
+        runQuery("CALL gds.graph.create($name, 'A', 'REL')", map("name", GRAPH_NAME));
+        runQuery("CALL gds.graph.export($name, $path)", map("name", GRAPH_NAME, "path", SNAPSHOT));
+        runQuery("CALL gds.graph.load($name, $path)", map("name", LOADED_GRAPH_NAME, "path", SNAPSHOT));
+
+        assertTrue(GraphCatalog.getDelta(getUsername(), GRAPH_NAME).isPresent());
+        assertFalse(GraphCatalog.getDelta(getUsername(), LOADED_GRAPH_NAME).isPresent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"../graph.snapshot", "nested/../../graph.snapshot"})
+    void failsOnPathsLeavingTheExportDirectory(String path) {
+        runQuery("CALL gds.graph.create($name, 'A', 'REL')", map("name", GRAPH_NAME));
+
+        assertError(
+            "CALL gds.graph.export($name, $path)",
+            map("name", GRAPH_NAME, "path", path),
+            String.format("The snapshot path `%s` must not leave the export directory.", path)
+        );
+    }
+
+    @Test
+    void failsOnAbsolutePaths() {
+        runQuery("CALL gds.graph.create($name, 'A', 'REL')", map("name", GRAPH_NAME));
+        String path = exportDirectory.resolve(SNAPSHOT).toAbsolutePath().toString();
+
+        assertError(
+            "CALL gds.graph.load($name, $path)",
+            map("name", LOADED_GRAPH_NAME, "path", path),
+            String.format("The snapshot path `%s` must be relative to the export directory.", path)
+        );
+    }
+}